@@ -9,6 +9,7 @@ import io.micronaut.test.support.TestPropertyProvider;
 import io.seak.avro.MarketData;
 import io.seak.avro.Order;
 import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
 import io.seak.avro.Type;
 import io.seak.common.SymbolReader;
 import io.seak.common.utils.KafkaTestContainer;
@@ -91,7 +92,10 @@ class MarketMatcherTest implements TestPropertyProvider {
       Side.BUY,
       Type.MARKET,
       null,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     // When
@@ -122,7 +126,10 @@ class MarketMatcherTest implements TestPropertyProvider {
       Side.BUY,
       Type.MARKET,
       null,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     // When
@@ -0,0 +1,129 @@
+package io.seak.order_book.order_book;
+
+import io.seak.avro.MarketData;
+import io.seak.avro.Order;
+import io.seak.avro.Side;
+import io.seak.avro.Trade;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Copy of the matching path before the sweep matcher: levels are collected
+ * from the tailMap/headMap views, copied, removed one id at a time and turned
+ * into a map of trades. Only used as a baseline by {@link MatchOrdersBenchmark}.
+ */
+class LegacyLimitOrderBook {
+
+  private final String symbol;
+  private final LegacyOrderTree buyOrderTree;
+  private final LegacyOrderTree sellOrderTree;
+
+  LegacyLimitOrderBook(String symbol) {
+    this.symbol = symbol;
+    this.buyOrderTree = new LegacyOrderTree(Side.BUY);
+    this.sellOrderTree = new LegacyOrderTree(Side.SELL);
+  }
+
+  void addOrder(String id, Order order) {
+    if (order.getSide() == Side.BUY) {
+      buyOrderTree.addOrder(id, order);
+    } else {
+      sellOrderTree.addOrder(id, order);
+    }
+  }
+
+  Map<String, Trade> matchOrdersToTrade(MarketData marketData) {
+    Map<String, Order> matchedOrders = new HashMap<>();
+    matchedOrders.putAll(buyOrderTree.matchOrders(marketData.getLow()));
+    matchedOrders.putAll(sellOrderTree.matchOrders(marketData.getHigh()));
+
+    Map<String, Trade> trades = new HashMap<>();
+    matchedOrders.forEach((id, order) -> {
+      Trade trade = new Trade(
+        order,
+        symbol,
+        order.getPrice(),
+        order.getQuantity()
+      );
+      trades.put(id, trade);
+    });
+    return trades;
+  }
+
+  private static class LegacyOrderTree {
+
+    private final Map<String, Double> orders;
+    private final SortedMap<Double, LegacyOrderList> priceMap;
+    private final Side side;
+
+    LegacyOrderTree(Side side) {
+      this.orders = Collections.synchronizedMap(new HashMap<>());
+      this.priceMap = Collections.synchronizedSortedMap(new TreeMap<>());
+      this.side = side;
+    }
+
+    void addOrder(String id, Order order) {
+      Double price = order.getPrice();
+      priceMap
+        .computeIfAbsent(price, LegacyOrderList::new)
+        .addOrder(id, order);
+      orders.put(id, price);
+    }
+
+    void removeOrder(String id) {
+      Double price = orders.get(id);
+      if (price == null) {
+        return;
+      }
+      LegacyOrderList orderList = priceMap.get(price);
+      orderList.removeOrder(id);
+      if (orderList.volume <= 0) {
+        priceMap.remove(price);
+      }
+      orders.remove(id);
+    }
+
+    Map<String, Order> matchOrders(Double price) {
+      SortedMap<Double, LegacyOrderList> levels = side == Side.BUY
+        ? priceMap.tailMap(price)
+        : priceMap.headMap(price);
+      Map<String, Order> matchedOrders = levels
+        .values()
+        .stream()
+        .map(LegacyOrderList::getOrders)
+        .flatMap(map -> map.entrySet().stream())
+        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+      matchedOrders.forEach((id, order) -> removeOrder(id));
+      return matchedOrders;
+    }
+  }
+
+  private static class LegacyOrderList {
+
+    private Double volume;
+    private final Map<String, Order> orders;
+
+    LegacyOrderList(Double price) {
+      this.volume = 0.0;
+      this.orders = Collections.synchronizedMap(new HashMap<>());
+    }
+
+    void addOrder(String id, Order order) {
+      orders.put(id, order);
+      volume += order.getQuantity();
+    }
+
+    void removeOrder(String id) {
+      volume -= orders.get(id).getQuantity();
+      orders.remove(id);
+    }
+
+    Map<String, Order> getOrders() {
+      return Map.copyOf(orders);
+    }
+  }
+}
@@ -0,0 +1,187 @@
+package io.seak.order_book.order_book;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.seak.avro.MarketData;
+import io.seak.avro.Order;
+import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
+import io.seak.avro.Type;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Time to match a market data tick crossing part of a book, with the legacy
+ * collect-then-remove path and with the sweep matcher of
+ * {@link LimitOrderBook}.
+ *
+ * Matching removes the crossed orders, so each invocation matches its own
+ * book: a pool of books is built before each iteration, out of the
+ * measurement, and the score is the time to match the whole pool.
+ *
+ * Run with {@code ./gradlew components:order-book:jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, batchSize = MatchOrdersBenchmark.POOL_SIZE)
+@Measurement(iterations = 10, batchSize = MatchOrdersBenchmark.POOL_SIZE)
+@Fork(1)
+public class MatchOrdersBenchmark {
+
+  // Books matched in each iteration, one per invocation
+  static final int POOL_SIZE = 100;
+
+  private static final String SYMBOL = "AAPL";
+  private static final double MID_PRICE = 100.0;
+  private static final double TICK = 0.01;
+
+  @Param({ "100", "1000" })
+  public int levels;
+
+  @Param({ "10" })
+  public int ordersPerLevel;
+
+  // Share of the levels of each side crossed by the market data
+  @Param({ "0.1", "0.5" })
+  public double crossedRatio;
+
+  @Param({ "TREE_MAP", "PRICE_LADDER", "COMPACT" })
+  public OrderTreeType orderTreeType;
+
+  private Order[] buyOrders;
+  private Order[] sellOrders;
+  private MarketData marketData;
+
+  @Setup(Level.Trial)
+  public void setupOrders() {
+    buyOrders = new Order[levels * ordersPerLevel];
+    sellOrders = new Order[levels * ordersPerLevel];
+    for (int level = 0; level < levels; level++) {
+      for (int i = 0; i < ordersPerLevel; i++) {
+        int index = level * ordersPerLevel + i;
+        buyOrders[index] =
+          newOrder(Side.BUY, MID_PRICE - (level + 1) * TICK, index);
+        sellOrders[index] =
+          newOrder(Side.SELL, MID_PRICE + (level + 1) * TICK, index);
+      }
+    }
+    int crossedLevels = (int) (levels * crossedRatio);
+    double low = MID_PRICE - crossedLevels * TICK;
+    double high = MID_PRICE + crossedLevels * TICK;
+    marketData =
+      MarketData
+        .newBuilder()
+        .setOpen(MID_PRICE)
+        .setClose(MID_PRICE)
+        .setLow(low)
+        .setHigh(high)
+        .setVolume(0)
+        .build();
+  }
+
+  @Benchmark
+  public Object legacyMatchOrdersToTrade(LegacyBooks books) {
+    return books.next().matchOrdersToTrade(marketData);
+  }
+
+  @Benchmark
+  public int sweepMatchOrders(SweepBooks books, Blackhole blackhole) {
+    return books
+      .next()
+      .matchOrders(marketData, (id, trade) -> blackhole.consume(trade));
+  }
+
+  private LegacyLimitOrderBook newLegacyOrderBook() {
+    LegacyLimitOrderBook legacyOrderBook = new LegacyLimitOrderBook(SYMBOL);
+    for (int i = 0; i < buyOrders.length; i++) {
+      legacyOrderBook.addOrder("b" + i, buyOrders[i]);
+      legacyOrderBook.addOrder("s" + i, sellOrders[i]);
+    }
+    return legacyOrderBook;
+  }
+
+  private LimitOrderBook newOrderBook() {
+    OrderTreeFactory orderTreeFactory = new OrderTreeFactory(
+      orderTreeType,
+      TICK,
+      4096
+    );
+    LimitOrderBook orderBook = new LimitOrderBook(
+      SYMBOL,
+      orderTreeFactory.create(Side.BUY),
+      orderTreeFactory.create(Side.SELL),
+      new SimpleMeterRegistry()
+    );
+    for (int i = 0; i < buyOrders.length; i++) {
+      orderBook.addOrder("b" + i, buyOrders[i]);
+      orderBook.addOrder("s" + i, sellOrders[i]);
+    }
+    return orderBook;
+  }
+
+  @State(Scope.Thread)
+  public static class LegacyBooks {
+
+    private final LegacyLimitOrderBook[] books =
+      new LegacyLimitOrderBook[POOL_SIZE];
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setupBooks(MatchOrdersBenchmark benchmark) {
+      for (int i = 0; i < POOL_SIZE; i++) {
+        books[i] = benchmark.newLegacyOrderBook();
+      }
+      next = 0;
+    }
+
+    LegacyLimitOrderBook next() {
+      return books[next++];
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class SweepBooks {
+
+    private final LimitOrderBook[] books = new LimitOrderBook[POOL_SIZE];
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setupBooks(MatchOrdersBenchmark benchmark) {
+      for (int i = 0; i < POOL_SIZE; i++) {
+        books[i] = benchmark.newOrderBook();
+      }
+      next = 0;
+    }
+
+    LimitOrderBook next() {
+      return books[next++];
+    }
+  }
+
+  private static Order newOrder(Side side, double price, int index) {
+    return new Order(
+      "user",
+      SYMBOL,
+      10,
+      side,
+      Type.LIMIT,
+      price,
+      String.valueOf(index),
+      null,
+      TimeInForce.GTC,
+      null
+    );
+  }
+}
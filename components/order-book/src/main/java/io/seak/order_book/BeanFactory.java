@@ -4,15 +4,19 @@ import io.micronaut.context.annotation.Bean;
 import io.micronaut.context.annotation.Factory;
 import io.micronaut.context.annotation.Property;
 import io.micronaut.context.annotation.Requires;
+import io.seak.avro.MarketDataBroadcast;
 import io.seak.avro.MarketDataRejected;
 import io.seak.avro.MarketDataRequest;
 import io.seak.avro.MarketDataResponse;
+import io.seak.avro.Order;
 import io.seak.avro.OrderBookRequest;
 import io.seak.avro.utils.SchemaRecord;
+import java.util.Map;
 import org.apache.avro.Schema;
 import org.apache.kafka.clients.admin.AdminClient;
 import org.apache.kafka.clients.admin.CreateTopicsOptions;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
 
 @Requires(bean = AdminClient.class)
 @Factory
@@ -43,6 +47,36 @@ public class BeanFactory {
       );
     }
 
+    @Bean
+    NewTopic orderBookLeaseTopic(
+      @Property(name = "kafka.topics.order-book-lease") String topicName
+    ) {
+      // A single partition, held by the leader
+      return new NewTopic(topicName, 1, DEFAULT_REPLICATION_FACTOR);
+    }
+
+    @Bean
+    NewTopic orderBookChangelogTopic(
+      @Property(name = "kafka.topics.order-book-changelog") String topicName
+    ) {
+      // Same partitions as the order book requests, only the last order kept
+      return createTopic(topicName)
+        .configs(
+          Map.of(
+            TopicConfig.CLEANUP_POLICY_CONFIG,
+            TopicConfig.CLEANUP_POLICY_COMPACT
+          )
+        );
+    }
+
+    @Bean
+    NewTopic orderBookCancelTopic(
+      @Property(name = "kafka.topics.order-book-cancel") String topicName
+    ) {
+      // Same partitions as the order book requests, consumed together
+      return createTopic(topicName);
+    }
+
     @Bean
     NewTopic orderBookResponseTopic(
       @Property(name = "kafka.topics.order-book-response") String topicName
@@ -57,6 +91,13 @@ public class BeanFactory {
       return createTopic(topicName);
     }
 
+    @Bean
+    NewTopic orderBookActivationTopic(
+      @Property(name = "kafka.topics.order-book-activation") String topicName
+    ) {
+      return createTopic(topicName);
+    }
+
     @Bean
     NewTopic marketDataRequestTopic(
       @Property(name = "kafka.topics.market-data-request") String topicName
@@ -77,6 +118,13 @@ public class BeanFactory {
     ) {
       return createTopic(topicName);
     }
+
+    @Bean
+    NewTopic marketDataBroadcastTopic(
+      @Property(name = "kafka.topics.market-data-broadcast") String topicName
+    ) {
+      return createTopic(topicName);
+    }
   }
 
   @Factory
@@ -86,6 +134,20 @@ public class BeanFactory {
       return new SchemaRecord(schema, topicName);
     }
 
+    @Bean
+    SchemaRecord orderBookChangelogSchema(
+      @Property(name = "kafka.topics.order-book-changelog") String topicName
+    ) {
+      return createSchemaRecord(Order.getClassSchema(), topicName);
+    }
+
+    @Bean
+    SchemaRecord orderBookCancelSchema(
+      @Property(name = "kafka.topics.order-book-cancel") String topicName
+    ) {
+      return createSchemaRecord(OrderBookRequest.getClassSchema(), topicName);
+    }
+
     @Bean
     SchemaRecord orderBookResponseSchema(
       @Property(name = "kafka.topics.order-book-response") String topicName
@@ -100,6 +162,13 @@ public class BeanFactory {
       return createSchemaRecord(OrderBookRequest.getClassSchema(), topicName);
     }
 
+    @Bean
+    SchemaRecord orderBookActivationSchema(
+      @Property(name = "kafka.topics.order-book-activation") String topicName
+    ) {
+      return createSchemaRecord(Order.getClassSchema(), topicName);
+    }
+
     @Bean
     SchemaRecord marketDataRequestSchema(
       @Property(name = "kafka.topics.market-data-request") String topicName
@@ -120,5 +189,12 @@ public class BeanFactory {
     ) {
       return createSchemaRecord(MarketDataRejected.getClassSchema(), topicName);
     }
+
+    @Bean
+    SchemaRecord marketDataBroadcastSchema(
+      @Property(name = "kafka.topics.market-data-broadcast") String topicName
+    ) {
+      return createSchemaRecord(MarketDataBroadcast.getClassSchema(), topicName);
+    }
   }
 }
@@ -1,48 +1,86 @@
 package io.seak.order_book;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.configuration.kafka.ConsumerAware;
+import io.micronaut.configuration.kafka.ConsumerSeekAware;
 import io.micronaut.configuration.kafka.annotation.KafkaListener;
 import io.micronaut.configuration.kafka.annotation.Topic;
+import io.micronaut.configuration.kafka.seek.KafkaSeeker;
 import io.micronaut.context.annotation.Property;
 import io.seak.avro.MarketData;
 import io.seak.avro.MarketDataRequest;
 import io.seak.avro.MarketDataResponse;
-import io.seak.avro.Trade;
+import io.seak.order_book.engine.OrderBookEngine;
+import io.seak.order_book.market_data.MarketDataBroadcaster;
 import io.seak.order_book.market_data.MarketDataSubscriptionCatalog;
-import io.seak.order_book.order_book.LimitOrderBook;
+import io.seak.order_book.market_data.MarketDepthPublisher;
 import io.seak.order_book.order_book.OrderBookCatalog;
+import io.seak.order_book.partitioning.OrderBookChangelog;
+import io.seak.order_book.partitioning.SymbolOwnership;
+import io.seak.order_book.replication.ReplicationState;
+import io.seak.order_book.snapshot.OrderBookSnapshotService;
 import jakarta.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.apache.kafka.common.TopicPartition;
 
 @Singleton
-public class MarketDataListener {
-
-  private static final Logger LOG = LoggerFactory.getLogger(
-    MarketDataListener.class
-  );
+public class MarketDataListener
+  implements ConsumerSeekAware, ConsumerAware<String, MarketData> {
 
   @Property(name = "kafka.common.symbol-topic-prefix")
   private String symbolTopicPrefix;
 
-  private final OrderBookCatalog orderBooks;
+  private final OrderBookEngine orderBookEngine;
   private final MarketDataSubscriptionCatalog marketDataSubscriptionCatalog;
   private final MessageProducer tradeProducer;
+  private final OrderBookSnapshotService snapshotService;
+  private final ReplicationState replicationState;
+  private final SymbolOwnership symbolOwnership;
+  private final OrderBookChangelog orderBookChangelog;
+  private final MarketDepthPublisher marketDepthPublisher;
+  private final MarketDataBroadcaster marketDataBroadcaster;
+  private final OrderBookCatalog orderBookCatalog;
+  private final Counter collapsedCounter;
+
+  private Consumer<String, MarketData> consumer;
 
   public MarketDataListener(
-    OrderBookCatalog orderBooks,
+    OrderBookEngine orderBookEngine,
     MarketDataSubscriptionCatalog marketDataSubscriptionCatalog,
-    MessageProducer tradeProducer
+    MessageProducer tradeProducer,
+    OrderBookSnapshotService snapshotService,
+    ReplicationState replicationState,
+    SymbolOwnership symbolOwnership,
+    OrderBookChangelog orderBookChangelog,
+    MarketDepthPublisher marketDepthPublisher,
+    MarketDataBroadcaster marketDataBroadcaster,
+    OrderBookCatalog orderBookCatalog,
+    MeterRegistry meterRegistry
   ) {
-    this.orderBooks = orderBooks;
+    this.orderBookEngine = orderBookEngine;
     this.marketDataSubscriptionCatalog = marketDataSubscriptionCatalog;
     this.tradeProducer = tradeProducer;
+    this.snapshotService = snapshotService;
+    this.replicationState = replicationState;
+    this.symbolOwnership = symbolOwnership;
+    this.orderBookChangelog = orderBookChangelog;
+    this.marketDepthPublisher = marketDepthPublisher;
+    this.marketDataBroadcaster = marketDataBroadcaster;
+    this.orderBookCatalog = orderBookCatalog;
+    this.collapsedCounter =
+      meterRegistry.counter("order_book_market_data_collapsed");
   }
 
   @KafkaListener(
-    groupId = "order-book-market-data",
+    groupId = "order-book-market-data${order-book.replication.group-suffix}${order-book.partitioning.instance-id}",
     batch = true,
     threadsValue = "${kafka.common.market-data-thread-pool-size}"
   )
@@ -50,28 +88,62 @@ public class MarketDataListener {
   public void receiveMarketData(
     List<ConsumerRecord<String, MarketData>> records
   ) {
+    snapshotService.process(records, this::handleMarketData);
+  }
+
+  private void handleMarketData(
+    List<ConsumerRecord<String, MarketData>> records
+  ) {
+    // Market data of the batch to match per symbol, collapsed unless the book
+    // has pending stop orders
+    Map<String, List<MarketData>> matchedMarketData = new LinkedHashMap<>();
+    Map<String, Boolean> collapsible = new HashMap<>();
     records.forEach(item -> {
       MarketData marketData = item.value();
       String symbol = item.topic().substring(symbolTopicPrefix.length());
 
-      LimitOrderBook orderBook = orderBooks.getOrderBook(symbol);
-      if (orderBook != null) {
-        Map<String, Trade> trades = orderBook.matchOrdersToTrade(marketData);
-        if (!trades.isEmpty()) {
-          LOG.debug("Sending {} trades to Kafka", trades.size());
-          trades.forEach(tradeProducer::sendTrade);
+      // A follower removes the filled orders from the trades of the leader,
+      // the books of the symbols owned by other instances are not held here
+      if (replicationState.isLeader() && symbolOwnership.owns(symbol)) {
+        List<MarketData> symbolMarketData = matchedMarketData.computeIfAbsent(
+          symbol,
+          k -> new ArrayList<>()
+        );
+        if (
+          !symbolMarketData.isEmpty() &&
+          collapsible.computeIfAbsent(symbol, this::isCollapsible)
+        ) {
+          int last = symbolMarketData.size() - 1;
+          symbolMarketData.set(
+            last,
+            collapse(symbolMarketData.get(last), marketData)
+          );
+          collapsedCounter.increment();
+        } else {
+          symbolMarketData.add(marketData);
         }
       }
 
+      // Sent to the subscribers at the end of the conflation window
+      if (marketDataBroadcaster.isConflated()) {
+        marketDataBroadcaster.offer(symbol, marketData);
+        return;
+      }
+
       List<MarketDataRequest> marketDataRequests =
         marketDataSubscriptionCatalog.getMarketDataRequests(symbol);
       for (MarketDataRequest marketDataRequest : marketDataRequests) {
+        // The depth is sent by the MarketDepthPublisher
+        if (MarketDepthPublisher.isDepthOnly(marketDataRequest)) {
+          continue;
+        }
         MarketDataResponse marketDataResponse = new MarketDataResponse(
           marketDataRequest.getUsername(),
           symbol,
           List.of(marketData),
           marketDataRequest.getRequestId(),
-          marketDataRequest.getMarketDataEntries()
+          marketDataRequest.getMarketDataEntries(),
+          List.of()
         );
         String key = String.format(
           "%s:%s:update",
@@ -81,5 +153,61 @@ public class MarketDataListener {
         tradeProducer.sendMarketDataResponse(key, marketDataResponse);
       }
     });
+    matchedMarketData.forEach((symbol, symbolMarketData) ->
+      symbolMarketData.forEach(marketData ->
+        orderBookEngine.submitMarketData(symbol, marketData)
+      )
+    );
+    marketDepthPublisher.publishChanges(matchedMarketData.keySet());
+    orderBookEngine.awaitProcessed();
+    orderBookChangelog.flush();
+  }
+
+  /**
+   * A triggered STOP order is filled at the close of the market data
+   * triggering it, and an activated STOP_LIMIT order must only match the
+   * following market data, so the market data of a book with pending stop
+   * orders is matched one by one
+   * @param symbol
+   * @return true if the market data of the symbol can be collapsed
+   */
+  private boolean isCollapsible(String symbol) {
+    return !orderBookCatalog.hasStopOrders(symbol);
+  }
+
+  /**
+   * Merge two consecutive market data of a symbol. The fills of the limit
+   * orders are priced at their limit, so matching the merged market data once
+   * fills the same limit orders as matching both
+   * @param previous
+   * @param next
+   * @return the market data covering the range of both
+   */
+  static MarketData collapse(MarketData previous, MarketData next) {
+    return new MarketData(
+      previous.getOpen(),
+      Math.max(previous.getHigh(), next.getHigh()),
+      Math.min(previous.getLow(), next.getLow()),
+      next.getClose(),
+      previous.getVolume() + next.getVolume()
+    );
+  }
+
+  @Override
+  public void setKafkaConsumer(Consumer<String, MarketData> consumer) {
+    this.consumer = consumer;
+  }
+
+  @Override
+  public void onPartitionsAssigned(
+    Collection<TopicPartition> partitions,
+    KafkaSeeker seeker
+  ) {
+    snapshotService.seekToSnapshot(partitions, seeker, consumer::committed);
+  }
+
+  @Override
+  public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+    // Nothing to do, the books are kept
   }
 }
@@ -3,15 +3,28 @@ package io.seak.order_book;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micronaut.configuration.kafka.annotation.KafkaClient;
 import io.micronaut.context.annotation.Property;
+import io.seak.avro.MarketDataBroadcast;
 import io.seak.avro.MarketDataRejected;
 import io.seak.avro.MarketDataResponse;
+import io.seak.avro.Order;
 import io.seak.avro.OrderBookRequest;
 import io.seak.avro.Trade;
+import io.seak.order_book.replication.LeaderProducer;
+import io.seak.order_book.replication.ReplicationState;
+import io.seak.order_book.snapshot.SnapshotReplay;
 import jakarta.inject.Singleton;
+import java.util.Optional;
 import org.apache.avro.specific.SpecificRecord;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 
+/**
+ * Send the responses and trades of the order book. Nothing is sent while this
+ * instance follows another leader, see {@link ReplicationState}, or while the
+ * records processed before a restart are replayed, see {@link SnapshotReplay}.
+ * With replication, the records are sent in the transactions of the
+ * {@link LeaderProducer}, fenced by the epoch of the leader.
+ */
 @Singleton
 public class MessageProducer {
 
@@ -23,6 +36,13 @@ public class MessageProducer {
 
   private final MeterRegistry meterRegistry;
 
+  private final ReplicationState replicationState;
+
+  private final SnapshotReplay snapshotReplay;
+
+  // Empty without replication
+  private final Optional<LeaderProducer> leaderProducer;
+
   @Property(name = "kafka.topics.trades")
   private String tradesTopic;
 
@@ -32,31 +52,61 @@ public class MessageProducer {
   @Property(name = "kafka.topics.order-book-rejected")
   private String orderBookRejectedTopic;
 
+  @Property(name = "kafka.topics.order-book-activation")
+  private String orderBookActivationTopic;
+
   @Property(name = "kafka.topics.market-data-response")
   private String marketDataResponseTopic;
 
   @Property(name = "kafka.topics.market-data-rejected")
   private String marketDataRejectedTopic;
 
+  @Property(name = "kafka.topics.market-data-broadcast")
+  private String marketDataBroadcastTopic;
+
   public MessageProducer(
     @KafkaClient Producer<String, SpecificRecord> genericProducer,
-    MeterRegistry meterRegistry
+    MeterRegistry meterRegistry,
+    ReplicationState replicationState,
+    SnapshotReplay snapshotReplay,
+    Optional<LeaderProducer> leaderProducer
   ) {
     this.genericProducer = genericProducer;
     this.meterRegistry = meterRegistry;
+    this.replicationState = replicationState;
+    this.snapshotReplay = snapshotReplay;
+    this.leaderProducer = leaderProducer;
+  }
+
+  private boolean isSending() {
+    return replicationState.isLeader() && !snapshotReplay.isReplaying();
+  }
+
+  private void send(ProducerRecord<String, SpecificRecord> record) {
+    if (leaderProducer.isPresent()) {
+      leaderProducer.get().send(record);
+    } else {
+      genericProducer.send(record);
+    }
   }
 
   public void sendTrade(String key, Trade trade) {
+    if (!isSending()) {
+      return;
+    }
     meterRegistry
       .counter("order_book_trades", SYMBOL_TAG, trade.getSymbol().toString())
       .increment();
-    genericProducer.send(new ProducerRecord<>(tradesTopic, key, trade));
+    send(new ProducerRecord<>(tradesTopic, key, trade));
   }
 
   public void sendOrderBookResponse(
     String key,
     OrderBookRequest orderBookRequest
   ) {
+    if (!isSending()) {
+      return;
+    }
     meterRegistry
       .counter(
         "order_book_responses",
@@ -66,15 +116,16 @@ public class MessageProducer {
         orderBookRequest.getType().toString()
       )
       .increment();
-    genericProducer.send(
-      new ProducerRecord<>(orderBookResponseTopic, key, orderBookRequest)
-    );
+    send(new ProducerRecord<>(orderBookResponseTopic, key, orderBookRequest));
   }
 
   public void sendOrderBookRejected(
     String key,
     OrderBookRequest orderBookRequest
   ) {
+    if (!isSending()) {
+      return;
+    }
     meterRegistry
       .counter(
         "order_book_rejected",
@@ -84,15 +135,36 @@ public class MessageProducer {
         orderBookRequest.getType().toString()
       )
       .increment();
-    genericProducer.send(
-      new ProducerRecord<>(orderBookRejectedTopic, key, orderBookRequest)
-    );
+    send(new ProducerRecord<>(orderBookRejectedTopic, key, orderBookRequest));
+  }
+
+  /**
+   * Send the LIMIT order replacing a triggered STOP_LIMIT order. Only the
+   * followers read it, nothing is sent without replication
+   * @param key
+   * @param order
+   */
+  public void sendStopActivation(String key, Order order) {
+    if (leaderProducer.isEmpty() || !isSending()) {
+      return;
+    }
+    meterRegistry
+      .counter(
+        "order_book_stop_activations",
+        SYMBOL_TAG,
+        order.getSymbol().toString()
+      )
+      .increment();
+    send(new ProducerRecord<>(orderBookActivationTopic, key, order));
   }
 
   public void sendMarketDataResponse(
     String key,
     MarketDataResponse marketDataResponse
   ) {
+    if (!isSending()) {
+      return;
+    }
     meterRegistry
       .counter(
         "order_book_market_data_responses",
@@ -100,15 +172,37 @@ public class MessageProducer {
         marketDataResponse.getSymbol().toString()
       )
       .increment();
-    genericProducer.send(
+    send(
       new ProducerRecord<>(marketDataResponseTopic, key, marketDataResponse)
     );
   }
 
+  public void sendMarketDataBroadcast(
+    String key,
+    MarketDataBroadcast marketDataBroadcast
+  ) {
+    if (!isSending()) {
+      return;
+    }
+    meterRegistry
+      .counter(
+        "order_book_market_data_broadcasts",
+        SYMBOL_TAG,
+        marketDataBroadcast.getSymbol().toString()
+      )
+      .increment();
+    send(
+      new ProducerRecord<>(marketDataBroadcastTopic, key, marketDataBroadcast)
+    );
+  }
+
   public void sendMarketDataRejected(
     String key,
     MarketDataRejected marketDataRejected
   ) {
+    if (!isSending()) {
+      return;
+    }
     meterRegistry
       .counter(
         "order_book_market_data_rejected",
@@ -118,7 +212,7 @@ public class MessageProducer {
         marketDataRejected.getReason().toString()
       )
       .increment();
-    genericProducer.send(
+    send(
       new ProducerRecord<>(marketDataRejectedTopic, key, marketDataRejected)
     );
   }
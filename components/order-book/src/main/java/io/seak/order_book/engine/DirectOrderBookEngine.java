@@ -0,0 +1,127 @@
+package io.seak.order_book.engine;
+
+import io.micronaut.context.annotation.Requires;
+import io.seak.avro.MarketData;
+import io.seak.avro.OrderBookRequest;
+import io.seak.order_book.order_book.LimitOrderBook;
+import io.seak.order_book.order_book.OrderBookCatalog;
+import io.seak.order_book.order_book.OrderBookCommandHandler;
+import jakarta.inject.Singleton;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Apply the commands on the calling thread, holding the monitor of the book
+ * for the whole command.
+ */
+@Singleton
+@Requires(
+  property = "order-book.engine.mode",
+  value = "DIRECT",
+  defaultValue = "DIRECT"
+)
+public class DirectOrderBookEngine implements OrderBookEngine {
+
+  private final OrderBookCatalog orderBookCatalog;
+  private final OrderBookCommandHandler commandHandler;
+
+  public DirectOrderBookEngine(
+    OrderBookCatalog orderBookCatalog,
+    OrderBookCommandHandler commandHandler
+  ) {
+    this.orderBookCatalog = orderBookCatalog;
+    this.commandHandler = commandHandler;
+  }
+
+  @Override
+  public void submitOrderBookRequest(
+    String key,
+    OrderBookRequest orderBookRequest
+  ) {
+    submitCommand(
+      orderBookRequest.getOrder().getSymbol().toString(),
+      orderBook ->
+        commandHandler.handleOrderBookRequest(orderBook, key, orderBookRequest)
+    );
+  }
+
+  @Override
+  public void submitOrderBookRequests(
+    String key,
+    List<OrderBookRequest> orderBookRequests
+  ) {
+    submitCommand(
+      orderBookRequests.get(0).getOrder().getSymbol().toString(),
+      orderBook ->
+        commandHandler.handleOrderBookRequests(
+          orderBook,
+          key,
+          orderBookRequests
+        )
+    );
+  }
+
+  @Override
+  public void submitCancelRequest(
+    String key,
+    OrderBookRequest orderBookRequest,
+    long timestamp
+  ) {
+    submitCommand(
+      orderBookRequest.getOrder().getSymbol().toString(),
+      orderBook ->
+        commandHandler.handleCancelRequest(
+          orderBook,
+          key,
+          orderBookRequest,
+          timestamp
+        )
+    );
+  }
+
+  @Override
+  public void submitMarketData(String symbol, MarketData marketData) {
+    while (true) {
+      LimitOrderBook orderBook = orderBookCatalog.getMatchingOrderBook(
+        symbol,
+        marketData
+      );
+      if (orderBook == null) {
+        return;
+      }
+      synchronized (orderBook) {
+        if (!orderBook.isEvicted()) {
+          commandHandler.handleMarketData(orderBook, marketData);
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * The book may be evicted while waiting for its monitor, it is then taken
+   * again from the catalog
+   */
+  @Override
+  public void submitCommand(String symbol, Consumer<LimitOrderBook> command) {
+    while (true) {
+      LimitOrderBook orderBook = orderBookCatalog.getOrCreateOrderBook(symbol);
+      synchronized (orderBook) {
+        if (!orderBook.isEvicted()) {
+          command.accept(orderBook);
+          return;
+        }
+      }
+    }
+  }
+
+  @Override
+  public void awaitProcessed() {
+    // Commands are applied synchronously
+  }
+
+  @Override
+  public void awaitProcessed(String symbol) {
+    // Commands are applied synchronously
+  }
+}
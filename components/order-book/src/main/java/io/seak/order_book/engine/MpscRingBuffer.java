@@ -0,0 +1,97 @@
+package io.seak.order_book.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ *
+ * Each slot carries a sequence number telling whether it is free for the
+ * producer claiming the position ({@code sequence == position}) or holds an
+ * element for the consumer ({@code sequence == position + 1}). Producers claim
+ * positions with a CAS on the tail, the consumer owns the head.
+ */
+class MpscRingBuffer<E> {
+
+  private final int mask;
+  private final Object[] elements;
+  private final AtomicLongArray sequences;
+  private final AtomicLong tail;
+  private final AtomicLong head;
+
+  MpscRingBuffer(int requestedCapacity) {
+    if (requestedCapacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    int capacity = Integer.highestOneBit(requestedCapacity);
+    if (capacity < requestedCapacity) {
+      capacity <<= 1;
+    }
+    this.mask = capacity - 1;
+    this.elements = new Object[capacity];
+    this.sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+    this.tail = new AtomicLong();
+    this.head = new AtomicLong();
+  }
+
+  /**
+   * @param element
+   * @return false if the buffer is full
+   */
+  boolean offer(E element) {
+    while (true) {
+      long position = tail.get();
+      int index = (int) position & mask;
+      long sequence = sequences.get(index);
+      if (sequence == position) {
+        if (tail.compareAndSet(position, position + 1)) {
+          elements[index] = element;
+          sequences.set(index, position + 1);
+          return true;
+        }
+      } else if (sequence < position) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Only called by the consumer thread
+   * @return the oldest element, null if the buffer is empty
+   */
+  @SuppressWarnings("unchecked")
+  E poll() {
+    long position = head.get();
+    int index = (int) position & mask;
+    if (sequences.get(index) != position + 1) {
+      return null;
+    }
+    E element = (E) elements[index];
+    elements[index] = null;
+    sequences.lazySet(index, position + mask + 1);
+    head.lazySet(position + 1);
+    return element;
+  }
+
+  /**
+   * @return the number of positions claimed by the producers so far
+   */
+  long producerPosition() {
+    return tail.get();
+  }
+
+  boolean isEmpty() {
+    return size() == 0;
+  }
+
+  int size() {
+    return (int) Math.max(0, tail.get() - head.get());
+  }
+
+  int capacity() {
+    return mask + 1;
+  }
+}
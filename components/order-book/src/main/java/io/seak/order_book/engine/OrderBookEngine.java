@@ -0,0 +1,82 @@
+package io.seak.order_book.engine;
+
+import io.seak.avro.MarketData;
+import io.seak.avro.OrderBookRequest;
+import io.seak.order_book.order_book.LimitOrderBook;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Entry point of the commands mutating the order books.
+ *
+ * The implementation is selected with the {@code order-book.engine.mode}
+ * property:
+ * <ul>
+ *   <li>{@code DIRECT}: the commands are applied on the calling Kafka thread,
+ *   under the monitor of the book</li>
+ *   <li>{@code SHARDED}: each symbol is owned by one shard thread, the commands
+ *   are queued to it and applied without any lock</li>
+ * </ul>
+ */
+public interface OrderBookEngine {
+  /**
+   * Submit a NEW, REPLACE or CANCEL request, the book of its symbol is created
+   * if needed
+   * @param key
+   * @param orderBookRequest
+   */
+  void submitOrderBookRequest(String key, OrderBookRequest orderBookRequest);
+
+  /**
+   * Submit successive REPLACE and CANCEL requests of one order, coalesced into
+   * a single mutation of the book
+   * @param key
+   * @param orderBookRequests
+   */
+  void submitOrderBookRequests(
+    String key,
+    List<OrderBookRequest> orderBookRequests
+  );
+
+  /**
+   * Submit a CANCEL request of the cancel lane, applied before the NEW and
+   * REPLACE requests already queued
+   * @param key
+   * @param orderBookRequest
+   * @param timestamp time the cancel was sent, in ms
+   */
+  void submitCancelRequest(
+    String key,
+    OrderBookRequest orderBookRequest,
+    long timestamp
+  );
+
+  /**
+   * Submit a market data tick, matched against the book of the symbol if it
+   * exists
+   * @param symbol
+   * @param marketData
+   */
+  void submitMarketData(String symbol, MarketData marketData);
+
+  /**
+   * Submit a command applied to the book of the symbol, with the same
+   * exclusive access as the requests, the book is created if needed
+   * @param symbol
+   * @param command
+   */
+  void submitCommand(String symbol, Consumer<LimitOrderBook> command);
+
+  /**
+   * Wait until all the commands submitted before the call have been applied,
+   * so that the Kafka offsets are only committed once they are processed
+   */
+  void awaitProcessed();
+
+  /**
+   * Wait until the commands of a symbol submitted before the call have been
+   * applied, without waiting for the other symbols
+   * @param symbol
+   */
+  void awaitProcessed(String symbol);
+}
@@ -0,0 +1,169 @@
+package io.seak.order_book.engine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Thread applying the commands of the symbols it owns, in submission order.
+ * The priority commands have their own ring buffer, always drained first.
+ *
+ * A command that throws is consumed, its failure is kept for the thread that
+ * submitted it and thrown by its next {@link #awaitProcessed()}, as the
+ * {@code DIRECT} engine would throw it to the listener.
+ */
+class OrderBookShard implements Runnable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    OrderBookShard.class
+  );
+
+  private final int id;
+  private final MpscRingBuffer<Command> ringBuffer;
+  private final MpscRingBuffer<Command> priorityRingBuffer;
+  private final WaitStrategy waitStrategy;
+  private final Thread thread;
+
+  // Number of commands applied, i.e. position of the consumer
+  private final AtomicLong processed;
+  private final AtomicLong priorityProcessed;
+
+  // First failure of the commands of each submitting thread, not thrown yet
+  private final Map<Thread, RuntimeException> failures;
+
+  private volatile boolean running;
+  private volatile boolean sleeping;
+
+  OrderBookShard(int id, int ringBufferSize, WaitStrategy waitStrategy) {
+    this.id = id;
+    this.ringBuffer = new MpscRingBuffer<>(ringBufferSize);
+    this.priorityRingBuffer = new MpscRingBuffer<>(ringBufferSize);
+    this.waitStrategy = waitStrategy;
+    this.processed = new AtomicLong();
+    this.priorityProcessed = new AtomicLong();
+    this.failures = new ConcurrentHashMap<>();
+    this.thread = new Thread(this, "order-book-shard-" + id);
+    this.thread.setDaemon(true);
+  }
+
+  void start() {
+    running = true;
+    thread.start();
+  }
+
+  void stop() {
+    running = false;
+    LockSupport.unpark(thread);
+    try {
+      thread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Queue a command, waiting for a free slot when the ring buffer is full
+   * @param command
+   */
+  void submit(Runnable command) {
+    offer(ringBuffer, new Command(Thread.currentThread(), command));
+  }
+
+  /**
+   * Queue a command applied before the commands of {@link #submit}, even the
+   * ones queued before it
+   * @param command
+   */
+  void submitPriority(Runnable command) {
+    offer(priorityRingBuffer, new Command(Thread.currentThread(), command));
+  }
+
+  private void offer(MpscRingBuffer<Command> buffer, Command command) {
+    int idleCount = 0;
+    while (!buffer.offer(command)) {
+      waitStrategy.idle(idleCount++);
+    }
+    if (sleeping) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  /**
+   * Wait until the commands queued before the call have been applied
+   * @throws IllegalStateException if the shard is stopped before, or if a
+   * command submitted by the calling thread has failed since its last call
+   */
+  void awaitProcessed() {
+    long priorityTarget = priorityRingBuffer.producerPosition();
+    long target = ringBuffer.producerPosition();
+    int idleCount = 0;
+    while (
+      priorityProcessed.get() < priorityTarget || processed.get() < target
+    ) {
+      if (!running) {
+        throw new IllegalStateException("Shard " + id + " is stopped");
+      }
+      waitStrategy.idle(idleCount++);
+    }
+    RuntimeException failure = failures.remove(Thread.currentThread());
+    if (failure != null) {
+      throw new IllegalStateException(
+        "Shard " + id + " failed to apply a command",
+        failure
+      );
+    }
+  }
+
+  @Override
+  public void run() {
+    int idleCount = 0;
+    while (running) {
+      AtomicLong position = priorityProcessed;
+      Command command = priorityRingBuffer.poll();
+      if (command == null) {
+        position = processed;
+        command = ringBuffer.poll();
+      }
+      if (command == null) {
+        if (waitStrategy == WaitStrategy.BLOCKING) {
+          sleeping = true;
+          if (
+            priorityRingBuffer.isEmpty() && ringBuffer.isEmpty() && running
+          ) {
+            waitStrategy.idle(idleCount++);
+          }
+          sleeping = false;
+        } else {
+          waitStrategy.idle(idleCount++);
+        }
+        continue;
+      }
+      idleCount = 0;
+      try {
+        command.action().run();
+      } catch (RuntimeException e) {
+        LOG.error("Shard {} failed to apply a command", id, e);
+        failures.putIfAbsent(command.submitter(), e);
+      }
+      position.lazySet(position.get() + 1);
+    }
+  }
+
+  int getQueueDepth() {
+    return priorityRingBuffer.size() + ringBuffer.size();
+  }
+
+  int getId() {
+    return id;
+  }
+
+  /**
+   * Command queued to the shard
+   * @param submitter thread that submitted the command, told of its failure
+   * @param action
+   */
+  private record Command(Thread submitter, Runnable action) {}
+}
@@ -0,0 +1,186 @@
+package io.seak.order_book.engine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Requires;
+import io.seak.avro.MarketData;
+import io.seak.avro.OrderBookRequest;
+import io.seak.order_book.order_book.LimitOrderBook;
+import io.seak.order_book.order_book.OrderBookCatalog;
+import io.seak.order_book.order_book.OrderBookCommandHandler;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import java.util.List;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Route the commands of each symbol to the shard owning it. The Kafka threads
+ * only queue the commands, the books are only touched by their shard thread.
+ */
+@Singleton
+@Requires(property = "order-book.engine.mode", value = "SHARDED")
+public class ShardedOrderBookEngine implements OrderBookEngine {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    ShardedOrderBookEngine.class
+  );
+
+  private final OrderBookCatalog orderBookCatalog;
+  private final OrderBookCommandHandler commandHandler;
+  private final OrderBookShard[] shards;
+
+  public ShardedOrderBookEngine(
+    OrderBookCatalog orderBookCatalog,
+    OrderBookCommandHandler commandHandler,
+    MeterRegistry meterRegistry,
+    @Property(name = "order-book.engine.shards") int shardCount,
+    @Property(name = "order-book.engine.ring-buffer-size") int ringBufferSize,
+    @Property(
+      name = "order-book.engine.wait-strategy"
+    ) WaitStrategy waitStrategy
+  ) {
+    if (shardCount <= 0) {
+      throw new IllegalArgumentException("Shard count must be positive");
+    }
+    this.orderBookCatalog = orderBookCatalog;
+    this.commandHandler = commandHandler;
+    this.shards = new OrderBookShard[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      OrderBookShard shard = new OrderBookShard(
+        i,
+        ringBufferSize,
+        waitStrategy
+      );
+      meterRegistry.gauge(
+        "order_book_engine_queue_depth",
+        List.of(Tag.of("shard", String.valueOf(i))),
+        shard,
+        OrderBookShard::getQueueDepth
+      );
+      shards[i] = shard;
+      shard.start();
+    }
+    LOG.info(
+      "Started {} order book shards with {} wait strategy",
+      shardCount,
+      waitStrategy
+    );
+  }
+
+  @Override
+  public void submitOrderBookRequest(
+    String key,
+    OrderBookRequest orderBookRequest
+  ) {
+    String symbol = orderBookRequest.getOrder().getSymbol().toString();
+    shardOf(symbol)
+      .submit(() -> {
+        LimitOrderBook orderBook = orderBookCatalog.getOrCreateOrderBook(
+          symbol
+        );
+        commandHandler.handleOrderBookRequest(orderBook, key, orderBookRequest);
+      });
+  }
+
+  @Override
+  public void submitOrderBookRequests(
+    String key,
+    List<OrderBookRequest> orderBookRequests
+  ) {
+    String symbol = orderBookRequests.get(0).getOrder().getSymbol().toString();
+    shardOf(symbol)
+      .submit(() -> {
+        LimitOrderBook orderBook = orderBookCatalog.getOrCreateOrderBook(
+          symbol
+        );
+        commandHandler.handleOrderBookRequests(
+          orderBook,
+          key,
+          orderBookRequests
+        );
+      });
+  }
+
+  @Override
+  public void submitCancelRequest(
+    String key,
+    OrderBookRequest orderBookRequest,
+    long timestamp
+  ) {
+    String symbol = orderBookRequest.getOrder().getSymbol().toString();
+    shardOf(symbol)
+      .submitPriority(() -> {
+        LimitOrderBook orderBook = orderBookCatalog.getOrCreateOrderBook(
+          symbol
+        );
+        commandHandler.handleCancelRequest(
+          orderBook,
+          key,
+          orderBookRequest,
+          timestamp
+        );
+      });
+  }
+
+  @Override
+  public void submitMarketData(String symbol, MarketData marketData) {
+    shardOf(symbol)
+      .submit(() -> {
+        LimitOrderBook orderBook = orderBookCatalog.getMatchingOrderBook(
+          symbol,
+          marketData
+        );
+        if (orderBook != null) {
+          commandHandler.handleMarketData(orderBook, marketData);
+        }
+      });
+  }
+
+  @Override
+  public void submitCommand(String symbol, Consumer<LimitOrderBook> command) {
+    shardOf(symbol)
+      .submit(() ->
+        command.accept(orderBookCatalog.getOrCreateOrderBook(symbol))
+      );
+  }
+
+  /**
+   * Every shard is awaited before the first failure of the commands of the
+   * calling thread is thrown
+   */
+  @Override
+  public void awaitProcessed() {
+    RuntimeException failure = null;
+    for (OrderBookShard shard : shards) {
+      try {
+        shard.awaitProcessed();
+      } catch (RuntimeException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  @Override
+  public void awaitProcessed(String symbol) {
+    shardOf(symbol).awaitProcessed();
+  }
+
+  @PreDestroy
+  void close() {
+    for (OrderBookShard shard : shards) {
+      shard.stop();
+    }
+  }
+
+  private OrderBookShard shardOf(String symbol) {
+    return shards[Math.floorMod(symbol.hashCode(), shards.length)];
+  }
+}
@@ -0,0 +1,55 @@
+package io.seak.order_book.engine;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How a shard thread waits for commands, and how producers wait when its ring
+ * buffer is full.
+ */
+public enum WaitStrategy {
+  /**
+   * Spin and yield for a short while, then park the thread until it is
+   * signaled, lowest CPU usage
+   */
+  BLOCKING,
+  /**
+   * Spin for a while then yield the CPU to other threads
+   */
+  YIELDING,
+  /**
+   * Spin on the CPU, lowest latency but needs a dedicated core per shard
+   */
+  BUSY_SPIN;
+
+  private static final int SPIN_TRIES = 100;
+  private static final long PARK_NANOS = 1_000_000L;
+
+  /**
+   * Wait once, after {@code idleCount} unsuccessful tries
+   * @param idleCount
+   */
+  void idle(int idleCount) {
+    switch (this) {
+      case BUSY_SPIN:
+        Thread.onSpinWait();
+        break;
+      case YIELDING:
+        if (idleCount < SPIN_TRIES) {
+          Thread.onSpinWait();
+        } else {
+          Thread.yield();
+        }
+        break;
+      case BLOCKING:
+      default:
+        if (idleCount < SPIN_TRIES) {
+          Thread.onSpinWait();
+        } else if (idleCount < 2 * SPIN_TRIES) {
+          Thread.yield();
+        } else {
+          LockSupport.parkNanos(this, PARK_NANOS);
+        }
+        break;
+    }
+  }
+}
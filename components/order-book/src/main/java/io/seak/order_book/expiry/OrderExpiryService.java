@@ -0,0 +1,147 @@
+package io.seak.order_book.expiry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.seak.avro.Order;
+import io.seak.avro.OrderBookRequest;
+import io.seak.avro.OrderBookRequestType;
+import io.seak.order_book.MessageProducer;
+import io.seak.order_book.engine.OrderBookEngine;
+import io.seak.order_book.order_book.IntegrityCheckService;
+import io.seak.order_book.partitioning.OrderBookChangelog;
+import io.seak.order_book.partitioning.SymbolOwnership;
+import io.seak.order_book.replication.ReplicationState;
+import io.seak.order_book.snapshot.OrderBookSnapshotService;
+import jakarta.inject.Singleton;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cancel the orders whose deadline is reached, on each tick of the
+ * {@link OrderExpiryWheel}.
+ *
+ * The expired orders of a tick are removed from their books through the
+ * engine, then their reservations are released in one Redis batch and their
+ * CANCEL responses are sent to Kafka together. Only the leader expires the
+ * orders, the followers remove them when they receive the responses.
+ */
+@Singleton
+public class OrderExpiryService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    OrderExpiryService.class
+  );
+
+  private final OrderExpiryWheel orderExpiryWheel;
+  private final OrderBookEngine orderBookEngine;
+  private final OrderBookSnapshotService snapshotService;
+  private final IntegrityCheckService integrityCheckService;
+  private final MessageProducer messageProducer;
+  private final OrderBookChangelog orderBookChangelog;
+  private final ReplicationState replicationState;
+  private final SymbolOwnership symbolOwnership;
+
+  private final Counter expiredCounter;
+  private final Timer expireTimer;
+
+  public OrderExpiryService(
+    OrderExpiryWheel orderExpiryWheel,
+    OrderBookEngine orderBookEngine,
+    OrderBookSnapshotService snapshotService,
+    IntegrityCheckService integrityCheckService,
+    MessageProducer messageProducer,
+    OrderBookChangelog orderBookChangelog,
+    ReplicationState replicationState,
+    SymbolOwnership symbolOwnership,
+    MeterRegistry meterRegistry
+  ) {
+    this.orderExpiryWheel = orderExpiryWheel;
+    this.orderBookEngine = orderBookEngine;
+    this.snapshotService = snapshotService;
+    this.integrityCheckService = integrityCheckService;
+    this.messageProducer = messageProducer;
+    this.orderBookChangelog = orderBookChangelog;
+    this.replicationState = replicationState;
+    this.symbolOwnership = symbolOwnership;
+    this.expiredCounter = meterRegistry.counter("order_book_expired_orders");
+    this.expireTimer = meterRegistry.timer("order_book_expire_orders");
+  }
+
+  @Scheduled(fixedDelay = "${order-book.expiry.tick}")
+  void expireOrders() {
+    // The wheel of a follower keeps its deadlines until it is promoted
+    if (!replicationState.isLeader()) {
+      return;
+    }
+    Map<String, Map<String, CharSequence>> expiredBySymbol = new HashMap<>();
+    orderExpiryWheel.advance(
+      System.currentTimeMillis(),
+      (key, entry) -> {
+        // The book was dropped with its partition
+        if (!symbolOwnership.owns(entry.symbol())) {
+          return;
+        }
+        expiredBySymbol
+          .computeIfAbsent(entry.symbol(), symbol -> new HashMap<>())
+          .put(key, entry.clOrderID());
+      }
+    );
+    if (expiredBySymbol.isEmpty()) {
+      return;
+    }
+
+    Timer.Sample sample = Timer.start();
+    snapshotService.run(() -> expire(expiredBySymbol));
+    sample.stop(expireTimer);
+  }
+
+  private void expire(Map<String, Map<String, CharSequence>> expiredBySymbol) {
+    // Orders removed from the books, map (key, order)
+    Map<String, Order> expiredOrders = new ConcurrentHashMap<>();
+    expiredBySymbol.forEach((symbol, expired) ->
+      orderBookEngine.submitCommand(
+        symbol,
+        orderBook ->
+          expired.forEach((key, clOrderID) -> {
+            Order order = orderBook.getOrder(key);
+            // Filled, cancelled or replaced since it was armed
+            if (
+              order == null ||
+              !order.getClOrderID().toString().equals(clOrderID.toString())
+            ) {
+              return;
+            }
+            orderBook.removeOrder(key);
+            orderBookChangelog.recordRemoval(symbol, key);
+            expiredOrders.put(key, order);
+          })
+      )
+    );
+    orderBookEngine.awaitProcessed();
+    if (expiredOrders.isEmpty()) {
+      return;
+    }
+
+    integrityCheckService.cancelOrders(new ArrayList<>(expiredOrders.values()));
+    expiredOrders.forEach((key, order) ->
+      messageProducer.sendOrderBookResponse(
+        key,
+        new OrderBookRequest(
+          OrderBookRequestType.CANCEL,
+          order,
+          order.getClOrderID()
+        )
+      )
+    );
+    orderBookChangelog.flush();
+
+    expiredCounter.increment(expiredOrders.size());
+    LOG.debug("Expired {} orders", expiredOrders.size());
+  }
+}
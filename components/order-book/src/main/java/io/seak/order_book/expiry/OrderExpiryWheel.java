@@ -0,0 +1,141 @@
+package io.seak.order_book.expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Property;
+import io.seak.avro.Order;
+import io.seak.avro.TimeInForce;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.function.BiConsumer;
+
+/**
+ * Deadlines of the resting DAY and GTD orders.
+ *
+ * DAY orders expire at the session close following their entry, stored as
+ * their expire time when their request is received, see
+ * {@link #stampDeadline}. GTD orders expire at their expire time. The orders
+ * leaving the book otherwise are not cancelled from the wheel, their entry is
+ * dropped when it fires, see {@link OrderExpiryService}.
+ */
+@Singleton
+public class OrderExpiryWheel {
+
+  private final TimingWheel<String, Entry> timingWheel;
+  private final LocalTime sessionClose;
+
+  public OrderExpiryWheel(
+    MeterRegistry meterRegistry,
+    @Property(name = "order-book.expiry.tick") Duration tick,
+    @Property(name = "order-book.expiry.session-close") String sessionClose
+  ) {
+    this.timingWheel =
+      new TimingWheel<>(
+        Math.max(1, tick.toMillis()),
+        System.currentTimeMillis()
+      );
+    this.sessionClose = LocalTime.parse(sessionClose);
+
+    meterRegistry.gauge(
+      "order_book_expiry_pending",
+      this,
+      OrderExpiryWheel::getPendingCount
+    );
+  }
+
+  /**
+   * Store the session close following the entry of a DAY order as its expire
+   * time, so that the order keeps its deadline when it is replayed, restored
+   * or replaced. Derived from the time of the request, a leader and its
+   * followers stamp the same deadline
+   * @param order
+   * @param entryTime time the request was sent, in ms
+   */
+  public void stampDeadline(Order order, long entryTime) {
+    if (
+      order.getTimeInForce() == TimeInForce.DAY && order.getExpireTime() == null
+    ) {
+      order.setExpireTime(sessionCloseAfter(entryTime));
+    }
+  }
+
+  /**
+   * Arm the deadline of a resting order, or disarm it when the order no
+   * longer expires
+   * @param key
+   * @param order
+   */
+  public void arm(String key, Order order) {
+    Long deadline = deadlineOf(order);
+    synchronized (this) {
+      if (deadline == null) {
+        timingWheel.cancel(key);
+      } else {
+        timingWheel.schedule(
+          key,
+          deadline,
+          new Entry(order.getSymbol().toString(), order.getClOrderID())
+        );
+      }
+    }
+  }
+
+  public synchronized void disarm(String key) {
+    timingWheel.cancel(key);
+  }
+
+  /**
+   * Fire the deadlines reached
+   * @param nowMs
+   * @param consumer receives the key and the entry of each expired order
+   * @return the number of expired orders
+   */
+  public synchronized int advance(
+    long nowMs,
+    BiConsumer<String, Entry> consumer
+  ) {
+    return timingWheel.advance(nowMs, consumer);
+  }
+
+  public synchronized int getPendingCount() {
+    return timingWheel.size();
+  }
+
+  private Long deadlineOf(Order order) {
+    switch (order.getTimeInForce()) {
+      case DAY:
+        // Stamped when its request was received, unless sent before
+        if (order.getExpireTime() == null) {
+          return sessionCloseAfter(System.currentTimeMillis());
+        }
+        return order.getExpireTime();
+      case GTD:
+        return order.getExpireTime();
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * @param timeMs
+   * @return the first session close after a time, in ms
+   */
+  long sessionCloseAfter(long timeMs) {
+    ZonedDateTime time = Instant.ofEpochMilli(timeMs).atZone(ZoneOffset.UTC);
+    ZonedDateTime close = time.with(sessionClose);
+    if (!close.isAfter(time)) {
+      close = close.plusDays(1);
+    }
+    return close.toInstant().toEpochMilli();
+  }
+
+  /**
+   * Order expiring, the clOrderID tells whether the order was replaced since
+   * @param symbol
+   * @param clOrderID
+   */
+  public record Entry(String symbol, CharSequence clOrderID) {}
+}
@@ -0,0 +1,185 @@
+package io.seak.order_book.expiry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Hierarchical timing wheel of {@value #LEVELS} levels of {@value #SLOTS}
+ * slots, scheduling and cancelling an entry in constant time.
+ *
+ * The first level holds the entries due within {@value #SLOTS} ticks, each
+ * next level covers {@value #SLOTS} times the span of the previous one. When
+ * the lower levels wrap, the current slot of the upper level is cascaded into
+ * them. The entries due further than the last level are parked in its last
+ * slot and scheduled again when it is cascaded.
+ *
+ * This class is not thread-safe.
+ * @param <K> key of the entries, at most one entry is scheduled per key
+ * @param <V> value handed back when the entry fires
+ */
+public class TimingWheel<K, V> {
+
+  static final int LEVELS = 4;
+  static final int SLOTS = 64;
+
+  private static final int SLOT_BITS = 6;
+  private static final int SLOT_MASK = SLOTS - 1;
+
+  // Ticks covered by the whole wheel
+  private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+  private final long tickMs;
+
+  // Sentinel node of each slot, by level
+  private final Node<K, V>[][] slots;
+
+  // Scheduled nodes, map (key, node)
+  private final Map<K, Node<K, V>> nodes;
+
+  // Last tick processed
+  private long currentTick;
+
+  @SuppressWarnings("unchecked")
+  public TimingWheel(long tickMs, long startMs) {
+    if (tickMs <= 0) {
+      throw new IllegalArgumentException("The tick must be positive");
+    }
+    this.tickMs = tickMs;
+    this.slots = new Node[LEVELS][SLOTS];
+    for (Node<K, V>[] level : slots) {
+      for (int i = 0; i < SLOTS; i++) {
+        level[i] = new Node<>(null, null, 0);
+        level[i].prev = level[i];
+        level[i].next = level[i];
+      }
+    }
+    this.nodes = new HashMap<>();
+    this.currentTick = startMs / tickMs;
+  }
+
+  /**
+   * Schedule an entry, replacing the entry of the same key. An entry already
+   * due fires on the next tick
+   * @param key
+   * @param deadlineMs
+   * @param value
+   */
+  public void schedule(K key, long deadlineMs, V value) {
+    cancel(key);
+    // Rounded up so that an entry never fires before its deadline
+    long deadlineTick = Math.floorDiv(deadlineMs + tickMs - 1, tickMs);
+    Node<K, V> node = new Node<>(key, value, deadlineTick);
+    nodes.put(key, node);
+    // The slot of the current tick has already fired
+    insert(node, currentTick + 1);
+  }
+
+  /**
+   * @param key
+   * @return the value of the cancelled entry, null if none is scheduled
+   */
+  public V cancel(K key) {
+    Node<K, V> node = nodes.remove(key);
+    if (node == null) {
+      return null;
+    }
+    node.unlink();
+    return node.value;
+  }
+
+  /**
+   * Fire the entries due up to a time, by deadline tick
+   * @param nowMs
+   * @param consumer receives the key and the value of each fired entry, it
+   * must not call back into the wheel
+   * @return the number of fired entries
+   */
+  public int advance(long nowMs, BiConsumer<K, V> consumer) {
+    long targetTick = nowMs / tickMs;
+    int fired = 0;
+    while (currentTick < targetTick) {
+      if (nodes.isEmpty()) {
+        currentTick = targetTick;
+        break;
+      }
+      currentTick++;
+      cascade();
+      Node<K, V> head = slots[0][(int) (currentTick & SLOT_MASK)];
+      while (head.next != head) {
+        Node<K, V> node = head.next;
+        node.unlink();
+        nodes.remove(node.key);
+        consumer.accept(node.key, node.value);
+        fired++;
+      }
+    }
+    return fired;
+  }
+
+  public int size() {
+    return nodes.size();
+  }
+
+  /**
+   * Move the entries of the upper levels whose slot is reached down to the
+   * lower levels, from the lowest level that wrapped
+   */
+  private void cascade() {
+    for (int level = 1; level < LEVELS; level++) {
+      if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+        return;
+      }
+      Node<K, V> head =
+        slots[level][(int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+      Node<K, V> node = head.next;
+      head.next = head;
+      head.prev = head;
+      while (node != head) {
+        Node<K, V> next = node.next;
+        insert(node, currentTick);
+        node = next;
+      }
+    }
+  }
+
+  private void insert(Node<K, V> node, long minTick) {
+    long tick = Math.max(node.deadlineTick, minTick);
+    // Parked in the last slot of the wheel until it is cascaded
+    tick = Math.min(tick, currentTick + SPAN - 1);
+    long delta = tick - currentTick;
+
+    int level = 0;
+    while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+      level++;
+    }
+    Node<K, V> head =
+      slots[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+    node.prev = head.prev;
+    node.next = head;
+    head.prev.next = node;
+    head.prev = node;
+  }
+
+  private static final class Node<K, V> {
+
+    private final K key;
+    private final V value;
+    private final long deadlineTick;
+    private Node<K, V> prev;
+    private Node<K, V> next;
+
+    private Node(K key, V value, long deadlineTick) {
+      this.key = key;
+      this.value = value;
+      this.deadlineTick = deadlineTick;
+    }
+
+    private void unlink() {
+      prev.next = next;
+      next.prev = prev;
+      prev = null;
+      next = null;
+    }
+  }
+}
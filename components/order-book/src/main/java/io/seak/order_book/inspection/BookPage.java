@@ -0,0 +1,60 @@
+package io.seak.order_book.inspection;
+
+import io.micronaut.serde.annotation.Serdeable;
+import java.util.List;
+
+/**
+ * Page of the levels or orders of both sides of a {@link BookView}, the same
+ * range of each side from its best price
+ * @param symbol
+ * @param version version of the book of the view
+ * @param capturedAt capture time of the view, in ms
+ * @param view L2 or L3
+ * @param offset
+ * @param limit
+ * @param bidCount number of levels or orders of the BUY side
+ * @param askCount number of levels or orders of the SELL side
+ * @param bids
+ * @param asks
+ */
+@Serdeable
+public record BookPage<T>(
+  String symbol,
+  long version,
+  long capturedAt,
+  String view,
+  int offset,
+  int limit,
+  int bidCount,
+  int askCount,
+  List<T> bids,
+  List<T> asks
+) {
+  static <T> BookPage<T> of(
+    BookView bookView,
+    String view,
+    int offset,
+    int limit,
+    List<T> bids,
+    List<T> asks
+  ) {
+    return new BookPage<>(
+      bookView.symbol(),
+      bookView.version(),
+      bookView.capturedAt(),
+      view,
+      offset,
+      limit,
+      bids.size(),
+      asks.size(),
+      page(bids, offset, limit),
+      page(asks, offset, limit)
+    );
+  }
+
+  private static <T> List<T> page(List<T> items, int offset, int limit) {
+    int from = Math.min(offset, items.size());
+    int to = Math.min(from + limit, items.size());
+    return items.subList(from, to);
+  }
+}
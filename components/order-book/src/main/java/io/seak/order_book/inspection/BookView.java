@@ -0,0 +1,141 @@
+package io.seak.order_book.inspection;
+
+import io.micronaut.serde.annotation.Serdeable;
+import io.seak.avro.Order;
+import io.seak.avro.Side;
+import io.seak.order_book.order_book.LimitOrderBook;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable view of the resting limit orders of a book, each side from the
+ * best price then by arrival time.
+ * @param symbol
+ * @param version version of the book when the view was captured
+ * @param capturedAt capture time, in ms
+ * @param bids aggregated BUY levels (L2)
+ * @param asks aggregated SELL levels (L2)
+ * @param bidOrders BUY orders (L3)
+ * @param askOrders SELL orders (L3)
+ */
+@Serdeable
+public record BookView(
+  String symbol,
+  long version,
+  long capturedAt,
+  List<Level> bids,
+  List<Level> asks,
+  List<RestingOrder> bidOrders,
+  List<RestingOrder> askOrders
+) {
+  /**
+   * Capture the view of a book, with the exclusive access to it
+   * @param orderBook
+   * @return the view of the current version of the book
+   */
+  public static BookView capture(LimitOrderBook orderBook) {
+    List<RestingOrder> bidOrders = captureOrders(orderBook, Side.BUY);
+    List<RestingOrder> askOrders = captureOrders(orderBook, Side.SELL);
+    return new BookView(
+      orderBook.getSymbol(),
+      orderBook.getVersion(),
+      System.currentTimeMillis(),
+      aggregate(bidOrders),
+      aggregate(askOrders),
+      bidOrders,
+      askOrders
+    );
+  }
+
+  private static List<RestingOrder> captureOrders(
+    LimitOrderBook orderBook,
+    Side side
+  ) {
+    List<RestingOrder> orders = new ArrayList<>();
+    orderBook.forEachOrder(
+      side,
+      (id, order) -> orders.add(RestingOrder.of(id, order))
+    );
+    // Visited by ascending price then arrival time, the best BUY level is the
+    // last one
+    if (side == Side.BUY) {
+      return reverseLevels(orders);
+    }
+    return List.copyOf(orders);
+  }
+
+  /**
+   * Reverse the order of the levels, keeping the arrival order of the orders
+   * of each level
+   */
+  private static List<RestingOrder> reverseLevels(List<RestingOrder> orders) {
+    List<RestingOrder> reversed = new ArrayList<>(orders.size());
+    int end = orders.size();
+    while (end > 0) {
+      double price = orders.get(end - 1).price();
+      int start = end - 1;
+      while (start > 0 && orders.get(start - 1).price() == price) {
+        start--;
+      }
+      reversed.addAll(orders.subList(start, end));
+      end = start;
+    }
+    return List.copyOf(reversed);
+  }
+
+  private static List<Level> aggregate(List<RestingOrder> orders) {
+    List<Level> levels = new ArrayList<>();
+    int start = 0;
+    while (start < orders.size()) {
+      double price = orders.get(start).price();
+      long volume = 0;
+      int end = start;
+      while (end < orders.size() && orders.get(end).price() == price) {
+        volume += orders.get(end).quantity();
+        end++;
+      }
+      levels.add(new Level(price, volume, end - start));
+      start = end;
+    }
+    return List.copyOf(levels);
+  }
+
+  /**
+   * Price level of a side
+   * @param price
+   * @param volume total quantity of its orders
+   * @param orderCount
+   */
+  @Serdeable
+  public record Level(double price, long volume, int orderCount) {}
+
+  /**
+   * Resting order of a side
+   * @param id
+   * @param username
+   * @param clOrderID
+   * @param price
+   * @param quantity
+   * @param timeInForce
+   */
+  @Serdeable
+  public record RestingOrder(
+    String id,
+    String username,
+    String clOrderID,
+    double price,
+    int quantity,
+    String timeInForce
+  ) {
+    static RestingOrder of(String id, Order order) {
+      return new RestingOrder(
+        id,
+        order.getUsername().toString(),
+        order.getClOrderID().toString(),
+        order.getPrice(),
+        order.getQuantity(),
+        order.getTimeInForce().toString()
+      );
+    }
+  }
+}
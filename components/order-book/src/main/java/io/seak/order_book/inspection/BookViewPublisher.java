@@ -0,0 +1,93 @@
+package io.seak.order_book.inspection;
+
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.seak.order_book.engine.OrderBookEngine;
+import io.seak.order_book.order_book.LimitOrderBook;
+import io.seak.order_book.order_book.OrderBookCatalog;
+import io.seak.order_book.partitioning.SymbolOwnership;
+import jakarta.inject.Singleton;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest {@link BookView} of each book, read without any access to the books.
+ *
+ * On each interval, a capture command is submitted to the engine for each
+ * book, and the book is only walked when its version changed since its last
+ * view. The readers never submit anything, so they cannot delay the matching.
+ */
+@Singleton
+public class BookViewPublisher {
+
+  private final OrderBookCatalog orderBookCatalog;
+  private final OrderBookEngine orderBookEngine;
+  private final SymbolOwnership symbolOwnership;
+
+  // Latest view of each symbol, with the book it was captured from, not
+  // retained once it is evicted
+  private final Map<String, PublishedView> publishedViews =
+    new ConcurrentHashMap<>();
+
+  public BookViewPublisher(
+    OrderBookCatalog orderBookCatalog,
+    OrderBookEngine orderBookEngine,
+    SymbolOwnership symbolOwnership
+  ) {
+    this.orderBookCatalog = orderBookCatalog;
+    this.orderBookEngine = orderBookEngine;
+    this.symbolOwnership = symbolOwnership;
+  }
+
+  @Scheduled(fixedDelay = "${order-book.inspection.publish-interval}")
+  void publishViews() {
+    // The views of the compacted books are kept, they do not change
+    publishedViews.keySet().retainAll(orderBookCatalog.getSymbols());
+    Map<String, LimitOrderBook> orderBooks = orderBookCatalog.getOrderBooks();
+
+    orderBooks.forEach((symbol, orderBook) -> {
+      // Dropped with its partition, the book must not be created again
+      if (!symbolOwnership.owns(symbol)) {
+        return;
+      }
+      PublishedView published = publishedViews.get(symbol);
+      orderBookEngine.submitCommand(
+        symbol,
+        current -> {
+          if (
+            published == null ||
+            published.orderBook().get() != current ||
+            published.view().version() != current.getVersion()
+          ) {
+            publishedViews.put(
+              symbol,
+              new PublishedView(
+                new WeakReference<>(current),
+                BookView.capture(current)
+              )
+            );
+          }
+        }
+      );
+    });
+  }
+
+  /**
+   * @param symbol
+   * @return the latest view of the book, null if it was not captured yet
+   */
+  public BookView getView(String symbol) {
+    PublishedView published = publishedViews.get(symbol);
+    return published == null ? null : published.view();
+  }
+
+  public Set<String> getSymbols() {
+    return Set.copyOf(publishedViews.keySet());
+  }
+
+  private record PublishedView(
+    WeakReference<LimitOrderBook> orderBook,
+    BookView view
+  ) {}
+}
@@ -0,0 +1,93 @@
+package io.seak.order_book.inspection;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.exceptions.HttpStatusException;
+import io.micronaut.management.endpoint.annotation.Endpoint;
+import io.micronaut.management.endpoint.annotation.Read;
+import io.micronaut.management.endpoint.annotation.Selector;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Management endpoint serving the L2 and L3 views of the books, read from the
+ * views of the {@link BookViewPublisher}:
+ * <ul>
+ *   <li>{@code GET /orderbooks}: the version of the view of each book</li>
+ *   <li>{@code GET /orderbooks/{symbol}?view=L2&offset=0&limit=100}: a page of
+ *   the levels (L2, default) or orders (L3) of both sides</li>
+ * </ul>
+ */
+@Endpoint(id = "orderbooks")
+public class OrderBookEndpoint {
+
+  private static final int DEFAULT_LIMIT = 100;
+  private static final int MAX_LIMIT = 1000;
+
+  private final BookViewPublisher bookViewPublisher;
+
+  public OrderBookEndpoint(BookViewPublisher bookViewPublisher) {
+    this.bookViewPublisher = bookViewPublisher;
+  }
+
+  @Read
+  public Map<String, Long> getVersions() {
+    Map<String, Long> versions = new TreeMap<>();
+    for (String symbol : bookViewPublisher.getSymbols()) {
+      BookView bookView = bookViewPublisher.getView(symbol);
+      if (bookView != null) {
+        versions.put(symbol, bookView.version());
+      }
+    }
+    return versions;
+  }
+
+  @Read
+  public BookPage<?> getBook(
+    @Selector String symbol,
+    @Nullable String view,
+    @Nullable Integer offset,
+    @Nullable Integer limit
+  ) {
+    BookView bookView = bookViewPublisher.getView(symbol);
+    if (bookView == null) {
+      throw new HttpStatusException(
+        HttpStatus.NOT_FOUND,
+        "No view of the book " + symbol
+      );
+    }
+    int pageOffset = offset == null ? 0 : offset;
+    int pageLimit = limit == null ? DEFAULT_LIMIT : limit;
+    if (pageOffset < 0 || pageLimit <= 0 || pageLimit > MAX_LIMIT) {
+      throw new HttpStatusException(
+        HttpStatus.BAD_REQUEST,
+        "The offset must be positive and the limit between 1 and " + MAX_LIMIT
+      );
+    }
+
+    if (view == null || view.equalsIgnoreCase("L2")) {
+      return BookPage.of(
+        bookView,
+        "L2",
+        pageOffset,
+        pageLimit,
+        bookView.bids(),
+        bookView.asks()
+      );
+    }
+    if (view.equalsIgnoreCase("L3")) {
+      return BookPage.of(
+        bookView,
+        "L3",
+        pageOffset,
+        pageLimit,
+        bookView.bidOrders(),
+        bookView.askOrders()
+      );
+    }
+    throw new HttpStatusException(
+      HttpStatus.BAD_REQUEST,
+      "The view must be L2 or L3"
+    );
+  }
+}
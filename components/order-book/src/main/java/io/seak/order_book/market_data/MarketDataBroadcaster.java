@@ -0,0 +1,159 @@
+package io.seak.order_book.market_data;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.seak.avro.MarketData;
+import io.seak.avro.MarketDataBroadcast;
+import io.seak.avro.MarketDataRequest;
+import io.seak.avro.MarketDataSubscriber;
+import io.seak.order_book.MessageProducer;
+import io.seak.order_book.snapshot.SnapshotReplay;
+import jakarta.inject.Singleton;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conflated fan-out of the market data to the subscriptions.
+ *
+ * Only the latest market data of each symbol received during the window is
+ * kept. At the end of the window, it is sent once with the list of its
+ * subscribers, and the QuickFix server sends it to each of them.
+ */
+@Singleton
+public class MarketDataBroadcaster {
+
+  private final MarketDataFanOut fanOut;
+  private final MarketDataSubscriptionCatalog marketDataSubscriptionCatalog;
+  private final MessageProducer messageProducer;
+  private final SnapshotReplay snapshotReplay;
+
+  private final Counter receivedCounter;
+  private final Timer fanOutTimer;
+
+  // Latest market data of each symbol since the last flush
+  private Map<String, PendingBroadcast> pendingBroadcasts = new HashMap<>();
+
+  // Market data received per broadcast sent during the last window
+  private volatile double conflationRatio;
+
+  public MarketDataBroadcaster(
+    @Property(name = "order-book.market-data.fan-out") MarketDataFanOut fanOut,
+    MarketDataSubscriptionCatalog marketDataSubscriptionCatalog,
+    MessageProducer messageProducer,
+    SnapshotReplay snapshotReplay,
+    MeterRegistry meterRegistry
+  ) {
+    this.fanOut = fanOut;
+    this.marketDataSubscriptionCatalog = marketDataSubscriptionCatalog;
+    this.messageProducer = messageProducer;
+    this.snapshotReplay = snapshotReplay;
+    this.receivedCounter =
+      meterRegistry.counter("order_book_market_data_conflated");
+    this.fanOutTimer = meterRegistry.timer("order_book_market_data_fan_out");
+    meterRegistry.gauge(
+      "order_book_market_data_conflation_ratio",
+      this,
+      broadcaster -> broadcaster.conflationRatio
+    );
+  }
+
+  public boolean isConflated() {
+    return fanOut == MarketDataFanOut.CONFLATED;
+  }
+
+  /**
+   * Keep the market data until the end of the window, replacing the one
+   * previously received for the symbol
+   * @param symbol
+   * @param marketData
+   */
+  public synchronized void offer(String symbol, MarketData marketData) {
+    receivedCounter.increment();
+    PendingBroadcast pending = pendingBroadcasts.get(symbol);
+    long timestamp = pending == null
+      ? System.currentTimeMillis()
+      : pending.timestamp();
+    int count = pending == null ? 1 : pending.count() + 1;
+    pendingBroadcasts.put(
+      symbol,
+      new PendingBroadcast(marketData, timestamp, count)
+    );
+  }
+
+  @Scheduled(
+    fixedDelay = "${order-book.market-data.conflation-window}",
+    initialDelay = "${order-book.market-data.conflation-window}"
+  )
+  void flush() {
+    // Kept for the next window, nothing is sent during a replay
+    if (!isConflated() || snapshotReplay.isReplaying()) {
+      return;
+    }
+    Map<String, PendingBroadcast> broadcasts;
+    synchronized (this) {
+      if (pendingBroadcasts.isEmpty()) {
+        return;
+      }
+      broadcasts = pendingBroadcasts;
+      pendingBroadcasts = new HashMap<>();
+    }
+
+    long received = 0;
+    long sent = 0;
+    for (Map.Entry<String, PendingBroadcast> entry : broadcasts.entrySet()) {
+      String symbol = entry.getKey();
+      PendingBroadcast pending = entry.getValue();
+      received += pending.count();
+
+      // The depth is sent by the MarketDepthPublisher
+      List<MarketDataSubscriber> subscribers = marketDataSubscriptionCatalog
+        .getMarketDataRequests(symbol)
+        .stream()
+        .filter(request -> !MarketDepthPublisher.isDepthOnly(request))
+        .map(MarketDataBroadcaster::toSubscriber)
+        .toList();
+      if (subscribers.isEmpty()) {
+        continue;
+      }
+
+      messageProducer.sendMarketDataBroadcast(
+        symbol,
+        new MarketDataBroadcast(
+          symbol,
+          pending.marketData(),
+          subscribers,
+          pending.timestamp()
+        )
+      );
+      fanOutTimer.record(
+        System.currentTimeMillis() - pending.timestamp(),
+        TimeUnit.MILLISECONDS
+      );
+      sent++;
+    }
+    if (sent > 0) {
+      conflationRatio = (double) received / sent;
+    }
+  }
+
+  private static MarketDataSubscriber toSubscriber(
+    MarketDataRequest marketDataRequest
+  ) {
+    return new MarketDataSubscriber(
+      marketDataRequest.getUsername(),
+      marketDataRequest.getRequestId(),
+      marketDataRequest.getMarketDataEntries()
+    );
+  }
+
+  private record PendingBroadcast(
+    MarketData marketData,
+    long timestamp,
+    int count
+  ) {}
+}
@@ -0,0 +1,15 @@
+package io.seak.order_book.market_data;
+
+public enum MarketDataFanOut {
+  /**
+   * One response per subscriber for each market data, on the
+   * {@code market-data-response} topic
+   */
+  PER_SUBSCRIBER,
+  /**
+   * {@link MarketDataBroadcaster}: the latest market data of each symbol in
+   * the window, sent once with its subscribers on the
+   * {@code market-data-broadcast} topic
+   */
+  CONFLATED,
+}
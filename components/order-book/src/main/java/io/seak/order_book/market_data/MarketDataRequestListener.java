@@ -2,25 +2,34 @@ package io.seak.order_book.market_data;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.micronaut.configuration.kafka.ConsumerAware;
+import io.micronaut.configuration.kafka.ConsumerSeekAware;
 import io.micronaut.configuration.kafka.annotation.KafkaListener;
 import io.micronaut.configuration.kafka.annotation.OffsetReset;
 import io.micronaut.configuration.kafka.annotation.Topic;
+import io.micronaut.configuration.kafka.seek.KafkaSeeker;
 import io.seak.avro.MarketData;
 import io.seak.avro.MarketDataRejected;
 import io.seak.avro.MarketDataRejectedReason;
 import io.seak.avro.MarketDataRequest;
 import io.seak.avro.MarketDataResponse;
+import io.seak.avro.MarketDepthLevel;
 import io.seak.common.MarketDataSeeker;
 import io.seak.common.SymbolReader;
 import io.seak.order_book.MessageProducer;
+import io.seak.order_book.snapshot.OrderBookSnapshotService;
 import jakarta.inject.Singleton;
+import java.util.Collection;
 import java.util.List;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @Singleton
-public class MarketDataRequestListener {
+public class MarketDataRequestListener
+  implements ConsumerSeekAware, ConsumerAware<String, MarketDataRequest> {
 
   private static final Logger LOG = LoggerFactory.getLogger(
     MarketDataRequestListener.class
@@ -31,23 +40,31 @@ public class MarketDataRequestListener {
   private final MarketDataSeeker marketDataSeeker;
   private final MarketDataSubscriptionCatalog marketDataSubscriptionCatalog;
   private final MeterRegistry meterRegistry;
+  private final OrderBookSnapshotService snapshotService;
+  private final MarketDepthPublisher marketDepthPublisher;
+
+  private Consumer<String, MarketDataRequest> consumer;
 
   public MarketDataRequestListener(
     MessageProducer messageProducer,
     MarketDataSeeker marketDataSeeker,
     MarketDataSubscriptionCatalog marketDataSubscriptionCatalog,
     SymbolReader symbolReader,
-    MeterRegistry meterRegistry
+    MeterRegistry meterRegistry,
+    OrderBookSnapshotService snapshotService,
+    MarketDepthPublisher marketDepthPublisher
   ) {
     this.messageProducer = messageProducer;
     this.marketDataSeeker = marketDataSeeker;
     this.marketDataSubscriptionCatalog = marketDataSubscriptionCatalog;
     this.symbolReader = symbolReader;
     this.meterRegistry = meterRegistry;
+    this.snapshotService = snapshotService;
+    this.marketDepthPublisher = marketDepthPublisher;
   }
 
   @KafkaListener(
-    groupId = "order-book-market-data-request",
+    groupId = "order-book-market-data-request${order-book.replication.group-suffix}",
     batch = true,
     offsetReset = OffsetReset.EARLIEST
   )
@@ -55,16 +72,38 @@ public class MarketDataRequestListener {
   public void receiveMarketDataRequest(
     List<ConsumerRecord<String, MarketDataRequest>> records
   ) {
-    records.forEach(item -> {
-      Timer marketDataRequestTimer = meterRegistry.timer(
-        "order_book_market_data_request",
-        "subscriptionRequest",
-        item.value().getMarketDataSubscriptionRequest().toString()
-      );
-      Timer.Sample sample = Timer.start();
-      handleMarketDataRequest(item.key(), item.value());
-      sample.stop(marketDataRequestTimer);
-    });
+    snapshotService.process(
+      records,
+      batch ->
+        batch.forEach(item -> {
+          Timer marketDataRequestTimer = meterRegistry.timer(
+            "order_book_market_data_request",
+            "subscriptionRequest",
+            item.value().getMarketDataSubscriptionRequest().toString()
+          );
+          Timer.Sample sample = Timer.start();
+          handleMarketDataRequest(item.key(), item.value());
+          sample.stop(marketDataRequestTimer);
+        })
+    );
+  }
+
+  @Override
+  public void setKafkaConsumer(Consumer<String, MarketDataRequest> consumer) {
+    this.consumer = consumer;
+  }
+
+  @Override
+  public void onPartitionsAssigned(
+    Collection<TopicPartition> partitions,
+    KafkaSeeker seeker
+  ) {
+    snapshotService.seekToSnapshot(partitions, seeker, consumer::committed);
+  }
+
+  @Override
+  public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+    // Nothing to do, the subscriptions are kept
   }
 
   private void handleMarketDataRequest(
@@ -128,6 +167,12 @@ public class MarketDataRequestListener {
     try {
       marketDataSubscriptionCatalog.subscribe(marketDataRequest);
       LOG.debug("Subscribing to symbols {}", marketDataRequest.getSymbols());
+      // The depth is then only sent when it changes
+      if (MarketDepthPublisher.hasDepthEntries(marketDataRequest)) {
+        for (CharSequence symbol : marketDataRequest.getSymbols()) {
+          sendDepth(key, String.valueOf(symbol), marketDataRequest);
+        }
+      }
     } catch (DuplicateEntryException e) {
       rejectRequest(
         key,
@@ -164,11 +209,27 @@ public class MarketDataRequestListener {
       marketDataRequest.getSymbols()
     );
 
+    // The candles are read from Kafka, the depth from the books
+    boolean candleEntries = !MarketDepthPublisher.isDepthOnly(
+      marketDataRequest
+    );
+    boolean depthEntries = MarketDepthPublisher.hasDepthEntries(
+      marketDataRequest
+    );
+
     for (CharSequence symbol : marketDataRequest.getSymbols()) {
-      List<MarketData> marketData = marketDataSeeker.readLastStockData(
-        String.valueOf(symbol),
-        marketDataRequest.getDepth()
-      );
+      List<MarketData> marketData = candleEntries
+        ? marketDataSeeker.readLastStockData(
+          String.valueOf(symbol),
+          marketDataRequest.getDepth()
+        )
+        : List.of();
+      List<MarketDepthLevel> depth = depthEntries
+        ? marketDepthPublisher.readDepth(
+          String.valueOf(symbol),
+          marketDataRequest
+        )
+        : List.of();
 
       messageProducer.sendMarketDataResponse(
         key,
@@ -177,12 +238,31 @@ public class MarketDataRequestListener {
           symbol,
           marketData,
           marketDataRequest.getRequestId(),
-          marketDataRequest.getMarketDataEntries()
+          marketDataRequest.getMarketDataEntries(),
+          depth
         )
       );
     }
   }
 
+  private void sendDepth(
+    String key,
+    String symbol,
+    MarketDataRequest marketDataRequest
+  ) {
+    messageProducer.sendMarketDataResponse(
+      key,
+      new MarketDataResponse(
+        marketDataRequest.getUsername(),
+        symbol,
+        List.of(),
+        marketDataRequest.getRequestId(),
+        marketDataRequest.getMarketDataEntries(),
+        marketDepthPublisher.readDepth(symbol, marketDataRequest)
+      )
+    );
+  }
+
   private void rejectRequest(
     String key,
     MarketDataRequest marketDataRequest,
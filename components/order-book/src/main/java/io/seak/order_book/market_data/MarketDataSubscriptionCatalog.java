@@ -1,101 +1,216 @@
 package io.seak.order_book.market_data;
 
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.seak.avro.MarketDataRequest;
 import jakarta.inject.Singleton;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 
+/**
+ * Market data requests subscribed to each symbol, at most one per user.
+ *
+ * The subscriptions of a symbol are held in an immutable list, replaced on
+ * each change under the lock of the catalog, so that the market data
+ * listeners read them without locking nor allocating. The symbols of each
+ * user are indexed to unsubscribe a user without visiting every symbol. The
+ * gauge of a symbol is removed with its last subscription.
+ */
 @Singleton
 public class MarketDataSubscriptionCatalog {
 
   /*
-   * Map of symbol to map of username to market data request
+   * Map of symbol to the immutable list of its market data requests
    */
-  private final Map<
-    String,
-    Map<String, MarketDataRequest>
-  > marketDataSubscription;
+  private final Map<String, List<MarketDataRequest>> marketDataSubscription =
+    new ConcurrentHashMap<>();
+
+  /*
+   * Map of username to the symbols it is subscribed to, guarded by this
+   */
+  private final Map<String, Set<String>> userSymbols = new HashMap<>();
+
+  /*
+   * Map of symbol to the gauge of its subscriptions, guarded by this
+   */
+  private final Map<String, Gauge> symbolGauges = new HashMap<>();
+
+  private final AtomicLong subscriptionCount = new AtomicLong();
+
+  private final MeterRegistry meterRegistry;
 
   public MarketDataSubscriptionCatalog(MeterRegistry meterRegistry) {
-    this.marketDataSubscription = Collections.synchronizedMap(new HashMap<>());
+    this.meterRegistry = meterRegistry;
 
     meterRegistry.gauge(
       "order_book_market_data_subscription",
-      marketDataSubscription,
-      k -> countMarketDataRequests()
+      subscriptionCount
     );
   }
 
-  private long countMarketDataRequests() {
-    long total = 0;
-    for (Map<
-      String,
-      MarketDataRequest
-    > requests : marketDataSubscription.values()) {
-      total += requests.size();
-    }
-    return total;
-  }
-
-  public void subscribe(MarketDataRequest marketDataRequest)
+  public synchronized void subscribe(MarketDataRequest marketDataRequest)
     throws DuplicateEntryException {
+    String username = marketDataRequest.getUsername().toString();
     for (CharSequence symbol : marketDataRequest.getSymbols()) {
-      Map<String, MarketDataRequest> requests =
-        marketDataSubscription.computeIfAbsent(
-          String.valueOf(symbol),
-          key -> new HashMap<>()
-        );
-      String username = marketDataRequest.getUsername().toString();
+      MarketDataRequest previous = findRequest(
+        String.valueOf(symbol),
+        username
+      );
       if (
-        requests.containsKey(username) &&
-        requests
-          .get(username)
-          .getRequestId()
-          .equals(marketDataRequest.getRequestId())
+        previous != null &&
+        previous.getRequestId().equals(marketDataRequest.getRequestId())
       ) {
         throw new DuplicateEntryException("Market data request already exists");
       }
-      requests.put(
-        marketDataRequest.getUsername().toString(),
-        marketDataRequest
-      );
+      put(String.valueOf(symbol), username, marketDataRequest);
     }
   }
 
-  public void unsubscribe(MarketDataRequest marketDataRequest) {
+  public synchronized void unsubscribe(MarketDataRequest marketDataRequest) {
+    String username = marketDataRequest.getUsername().toString();
     for (CharSequence symbol : marketDataRequest.getSymbols()) {
-      Map<String, MarketDataRequest> requests = marketDataSubscription.get(
-        String.valueOf(symbol)
-      );
-      if (requests == null) {
-        continue;
-      }
-      requests.remove(marketDataRequest.getUsername().toString());
+      remove(String.valueOf(symbol), username);
     }
   }
 
-  public void unsubscribeAll(MarketDataRequest marketDataRequest) {
+  public synchronized void unsubscribeAll(MarketDataRequest marketDataRequest) {
     String username = marketDataRequest.getUsername().toString();
-    for (Map<
-      String,
-      MarketDataRequest
-    > requests : marketDataSubscription.values()) {
-      requests.remove(username);
+    Set<String> symbols = userSymbols.get(username);
+    if (symbols == null) {
+      return;
+    }
+    for (String symbol : new ArrayList<>(symbols)) {
+      remove(symbol, username);
     }
   }
 
+  /**
+   * @param symbol
+   * @return the immutable list of the requests subscribed to the symbol, read
+   * without locking
+   */
   public List<MarketDataRequest> getMarketDataRequests(String symbol) {
-    return marketDataSubscription
-      .getOrDefault(symbol, new HashMap<>())
-      .values()
-      .stream()
-      .toList();
+    return marketDataSubscription.getOrDefault(symbol, List.of());
+  }
+
+  /**
+   * Visit every subscription, a request subscribed to several symbols is
+   * visited once per symbol it is still subscribed to
+   * @param consumer receives the symbol and the request
+   */
+  public synchronized void forEachSubscription(
+    BiConsumer<String, MarketDataRequest> consumer
+  ) {
+    marketDataSubscription.forEach((symbol, requests) ->
+      requests.forEach(request -> consumer.accept(symbol, request))
+    );
+  }
+
+  /**
+   * Subscribe a request to a single symbol, used to restore a snapshot
+   * @param symbol
+   * @param marketDataRequest
+   */
+  public synchronized void restoreSubscription(
+    String symbol,
+    MarketDataRequest marketDataRequest
+  ) {
+    put(
+      symbol,
+      marketDataRequest.getUsername().toString(),
+      marketDataRequest
+    );
   }
 
-  public void clear() {
+  public synchronized void clear() {
     marketDataSubscription.clear();
+    symbolGauges.values().forEach(meterRegistry::remove);
+    symbolGauges.clear();
+    userSymbols.clear();
+    subscriptionCount.set(0);
+  }
+
+  private MarketDataRequest findRequest(String symbol, String username) {
+    for (MarketDataRequest request : getMarketDataRequests(symbol)) {
+      if (request.getUsername().toString().equals(username)) {
+        return request;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Replace the request of the user for the symbol, or add it
+   */
+  private void put(
+    String symbol,
+    String username,
+    MarketDataRequest marketDataRequest
+  ) {
+    List<MarketDataRequest> requests = new ArrayList<>(
+      getMarketDataRequests(symbol)
+    );
+    boolean replaced = requests.removeIf(request ->
+      request.getUsername().toString().equals(username)
+    );
+    requests.add(marketDataRequest);
+    publish(symbol, requests);
+    userSymbols.computeIfAbsent(username, key -> new HashSet<>()).add(symbol);
+    if (!replaced) {
+      subscriptionCount.incrementAndGet();
+    }
+  }
+
+  private void remove(String symbol, String username) {
+    List<MarketDataRequest> requests = new ArrayList<>(
+      getMarketDataRequests(symbol)
+    );
+    if (
+      !requests.removeIf(request ->
+        request.getUsername().toString().equals(username)
+      )
+    ) {
+      return;
+    }
+    publish(symbol, requests);
+    Set<String> symbols = userSymbols.get(username);
+    if (symbols != null) {
+      symbols.remove(symbol);
+      if (symbols.isEmpty()) {
+        userSymbols.remove(username);
+      }
+    }
+    subscriptionCount.decrementAndGet();
+  }
+
+  private void publish(String symbol, List<MarketDataRequest> requests) {
+    if (requests.isEmpty()) {
+      marketDataSubscription.remove(symbol);
+      Gauge gauge = symbolGauges.remove(symbol);
+      if (gauge != null) {
+        meterRegistry.remove(gauge);
+      }
+      return;
+    }
+    marketDataSubscription.put(symbol, List.copyOf(requests));
+    symbolGauges.computeIfAbsent(
+      symbol,
+      key ->
+        Gauge
+          .builder(
+            "order_book_market_data_symbol_subscriptions",
+            this,
+            catalog -> catalog.getMarketDataRequests(symbol).size()
+          )
+          .tag("symbol", symbol)
+          .register(meterRegistry)
+    );
   }
 }
@@ -0,0 +1,188 @@
+package io.seak.order_book.market_data;
+
+import io.seak.avro.MarketDataEntry;
+import io.seak.avro.MarketDataRequest;
+import io.seak.avro.MarketDataResponse;
+import io.seak.avro.MarketDepthLevel;
+import io.seak.avro.Side;
+import io.seak.order_book.MessageProducer;
+import io.seak.order_book.engine.OrderBookEngine;
+import io.seak.order_book.order_book.LimitOrderBook;
+import jakarta.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Level 2 view of the books, the aggregated quantity of their best price
+ * levels, requested with the BID and OFFER market data entries.
+ *
+ * The levels are read from the live books through the engine. The subscribers
+ * only receive an update when the levels of their depth have changed since
+ * the last update.
+ */
+@Singleton
+public class MarketDepthPublisher {
+
+  /**
+   * Deepest view served, also used for the requests with a depth of 0
+   */
+  public static final int MAX_DEPTH = 10;
+
+  private final OrderBookEngine orderBookEngine;
+  private final MarketDataSubscriptionCatalog marketDataSubscriptionCatalog;
+  private final MessageProducer messageProducer;
+
+  // Levels of the last update of each symbol with depth subscriptions
+  private final Map<String, List<MarketDepthLevel>> publishedDepth =
+    new ConcurrentHashMap<>();
+
+  public MarketDepthPublisher(
+    OrderBookEngine orderBookEngine,
+    MarketDataSubscriptionCatalog marketDataSubscriptionCatalog,
+    MessageProducer messageProducer
+  ) {
+    this.orderBookEngine = orderBookEngine;
+    this.marketDataSubscriptionCatalog = marketDataSubscriptionCatalog;
+    this.messageProducer = messageProducer;
+  }
+
+  public static boolean isDepthEntry(MarketDataEntry marketDataEntry) {
+    return (
+      marketDataEntry == MarketDataEntry.BID ||
+      marketDataEntry == MarketDataEntry.OFFER
+    );
+  }
+
+  public static boolean hasDepthEntries(MarketDataRequest marketDataRequest) {
+    return marketDataRequest
+      .getMarketDataEntries()
+      .stream()
+      .anyMatch(MarketDepthPublisher::isDepthEntry);
+  }
+
+  /**
+   * @param marketDataRequest
+   * @return true when only BID and OFFER entries are requested, so that no
+   * candle is sent
+   */
+  public static boolean isDepthOnly(MarketDataRequest marketDataRequest) {
+    return (
+      hasDepthEntries(marketDataRequest) &&
+      marketDataRequest
+        .getMarketDataEntries()
+        .stream()
+        .allMatch(MarketDepthPublisher::isDepthEntry)
+    );
+  }
+
+  /**
+   * Read the levels of a book for a SNAPSHOT request
+   * @param symbol
+   * @param marketDataRequest
+   * @return the levels of the sides and depth of the request
+   */
+  public List<MarketDepthLevel> readDepth(
+    String symbol,
+    MarketDataRequest marketDataRequest
+  ) {
+    AtomicReference<List<MarketDepthLevel>> depth = new AtomicReference<>();
+    orderBookEngine.submitCommand(
+      symbol,
+      orderBook -> depth.set(orderBook.getDepth(MAX_DEPTH))
+    );
+    orderBookEngine.awaitProcessed(symbol);
+    return view(depth.get(), marketDataRequest);
+  }
+
+  /**
+   * Send the levels of the books changed by a batch to their subscribers,
+   * must be called after the commands of the batch are submitted
+   * @param symbols
+   */
+  public void publishChanges(Collection<String> symbols) {
+    for (String symbol : symbols) {
+      List<MarketDataRequest> subscriptions = marketDataSubscriptionCatalog
+        .getMarketDataRequests(symbol)
+        .stream()
+        .filter(MarketDepthPublisher::hasDepthEntries)
+        .toList();
+      if (subscriptions.isEmpty()) {
+        publishedDepth.remove(symbol);
+        continue;
+      }
+      orderBookEngine.submitCommand(
+        symbol,
+        orderBook -> publish(orderBook, subscriptions)
+      );
+    }
+  }
+
+  /**
+   * Runs with the exclusive access to the book
+   */
+  private void publish(
+    LimitOrderBook orderBook,
+    List<MarketDataRequest> subscriptions
+  ) {
+    String symbol = orderBook.getSymbol();
+    List<MarketDepthLevel> depth = orderBook.getDepth(MAX_DEPTH);
+    List<MarketDepthLevel> previous = publishedDepth.put(symbol, depth);
+    if (depth.equals(previous)) {
+      return;
+    }
+
+    for (MarketDataRequest marketDataRequest : subscriptions) {
+      List<MarketDepthLevel> view = view(depth, marketDataRequest);
+      if (previous != null && view.equals(view(previous, marketDataRequest))) {
+        continue;
+      }
+      MarketDataResponse marketDataResponse = new MarketDataResponse(
+        marketDataRequest.getUsername(),
+        symbol,
+        List.of(),
+        marketDataRequest.getRequestId(),
+        marketDataRequest.getMarketDataEntries(),
+        view
+      );
+      String key = String.format(
+        "%s:%s:update",
+        marketDataRequest.getUsername(),
+        marketDataRequest.getRequestId()
+      );
+      messageProducer.sendMarketDataResponse(key, marketDataResponse);
+    }
+  }
+
+  /**
+   * Keep the sides requested, up to the depth of the request
+   */
+  private static List<MarketDepthLevel> view(
+    List<MarketDepthLevel> depth,
+    MarketDataRequest marketDataRequest
+  ) {
+    List<MarketDataEntry> entries = marketDataRequest.getMarketDataEntries();
+    boolean bids = entries.contains(MarketDataEntry.BID);
+    boolean offers = entries.contains(MarketDataEntry.OFFER);
+    int maxLevels = marketDataRequest.getDepth() == 0
+      ? MAX_DEPTH
+      : Math.min(marketDataRequest.getDepth(), MAX_DEPTH);
+
+    List<MarketDepthLevel> view = new ArrayList<>();
+    int buyLevels = 0;
+    int sellLevels = 0;
+    for (MarketDepthLevel level : depth) {
+      if (level.getSide() == Side.BUY) {
+        if (bids && buyLevels++ < maxLevels) {
+          view.add(level);
+        }
+      } else if (offers && sellLevels++ < maxLevels) {
+        view.add(level);
+      }
+    }
+    return view;
+  }
+}
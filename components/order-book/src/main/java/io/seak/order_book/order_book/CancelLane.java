@@ -0,0 +1,333 @@
+package io.seak.order_book.order_book;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.seak.avro.OrderBookRequest;
+import io.seak.order_book.MessageProducer;
+import io.seak.order_book.partitioning.RequestOffsets;
+import io.seak.order_book.snapshot.SnapshotReplay;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * CANCEL requests of the {@code order-book-cancel} topic, applied before the
+ * NEW and REPLACE requests.
+ *
+ * A cancel can overtake the request of the order it cancels, which is still on
+ * the {@code order-book-request} topic: it is parked until that request is
+ * applied, then applied right after it. A cancel still parked after the park
+ * timeout is only rejected once the requests written before it are applied:
+ * the end offset of its request partition is read then, and the cancel is
+ * rejected when the applied offset reaches it. The parked cancels are not part
+ * of the snapshots, and none is rejected while the records processed before a
+ * restart are replayed.
+ *
+ * Both topics must have the same partitions, assigned together, which is
+ * checked on each assignment.
+ */
+@Singleton
+public class CancelLane {
+
+  private static final Logger LOG = LoggerFactory.getLogger(CancelLane.class);
+
+  // End offset of a cancel not read yet
+  private static final long UNKNOWN_OFFSET = -1;
+
+  private final MessageProducer messageProducer;
+  private final RequestOffsets requestOffsets;
+  private final SnapshotReplay snapshotReplay;
+  private final String orderBookRequestTopic;
+  private final String orderBookCancelTopic;
+  private final long parkTimeoutMs;
+
+  // Parked cancels, by key of the order they cancel
+  private final Map<String, List<ParkedCancel>> parkedCancels =
+    new ConcurrentHashMap<>();
+
+  private final Timer cancelLatencyTimer;
+
+  public CancelLane(
+    MessageProducer messageProducer,
+    MeterRegistry meterRegistry,
+    RequestOffsets requestOffsets,
+    SnapshotReplay snapshotReplay,
+    @Property(
+      name = "kafka.topics.order-book-request"
+    ) String orderBookRequestTopic,
+    @Property(
+      name = "kafka.topics.order-book-cancel"
+    ) String orderBookCancelTopic,
+    @Property(
+      name = "order-book.cancel-lane.park-timeout"
+    ) Duration parkTimeout
+  ) {
+    this.messageProducer = messageProducer;
+    this.requestOffsets = requestOffsets;
+    this.snapshotReplay = snapshotReplay;
+    this.orderBookRequestTopic = orderBookRequestTopic;
+    this.orderBookCancelTopic = orderBookCancelTopic;
+    this.parkTimeoutMs = parkTimeout.toMillis();
+    this.cancelLatencyTimer =
+      Timer
+        .builder("order_book_cancel_latency")
+        .publishPercentiles(0.5, 0.99, 0.999)
+        .register(meterRegistry);
+    meterRegistry.gauge(
+      "order_book_cancel_parked",
+      parkedCancels,
+      Map::size
+    );
+  }
+
+  /**
+   * Park a cancel until the request of its order is applied
+   * @param key
+   * @param orderBookRequest
+   * @param timestamp time the cancel was sent, in ms
+   */
+  void park(String key, OrderBookRequest orderBookRequest, long timestamp) {
+    LOG.debug("Cancel {} parked", orderBookRequest);
+    ParkedCancel parkedCancel = new ParkedCancel(
+      orderBookRequest,
+      timestamp,
+      System.currentTimeMillis() + parkTimeoutMs,
+      requestOffsets.partitionOf(
+        orderBookRequest.getOrder().getSymbol().toString()
+      ),
+      UNKNOWN_OFFSET
+    );
+    parkedCancels.compute(
+      key,
+      (k, parked) -> {
+        List<ParkedCancel> cancels = parked == null
+          ? new ArrayList<>()
+          : parked;
+        cancels.add(parkedCancel);
+        return cancels;
+      }
+    );
+  }
+
+  boolean hasParked(String key) {
+    return !parkedCancels.isEmpty() && parkedCancels.containsKey(key);
+  }
+
+  /**
+   * Take the parked cancels of the current version of an order
+   * @param key
+   * @param clOrderID
+   * @return the cancels, in arrival order
+   */
+  List<ParkedCancel> unpark(String key, CharSequence clOrderID) {
+    List<ParkedCancel> unparked = new ArrayList<>();
+    parkedCancels.computeIfPresent(
+      key,
+      (k, parked) -> {
+        parked.removeIf(parkedCancel -> {
+          boolean matches = String
+            .valueOf(parkedCancel.orderBookRequest().getOrigClOrderID())
+            .equals(clOrderID.toString());
+          if (matches) {
+            unparked.add(parkedCancel);
+          }
+          return matches;
+        });
+        return parked.isEmpty() ? null : parked;
+      }
+    );
+    return unparked;
+  }
+
+  /**
+   * Record the latency of a cancel, from the time it was sent to its response
+   * or rejection
+   * @param timestamp time the cancel was sent, in ms
+   */
+  void recordAck(long timestamp) {
+    cancelLatencyTimer.record(
+      Math.max(0, System.currentTimeMillis() - timestamp),
+      TimeUnit.MILLISECONDS
+    );
+  }
+
+  /**
+   * Check that the requests and the cancels of the same partitions are
+   * assigned together, a cancel would be parked on another instance than its
+   * order otherwise
+   * @param partitions assigned partitions of both topics
+   */
+  public void checkAssignment(Collection<TopicPartition> partitions) {
+    Set<Integer> requestPartitions = new HashSet<>();
+    Set<Integer> cancelPartitions = new HashSet<>();
+    partitions.forEach(partition -> {
+      if (partition.topic().equals(orderBookRequestTopic)) {
+        requestPartitions.add(partition.partition());
+      } else if (partition.topic().equals(orderBookCancelTopic)) {
+        cancelPartitions.add(partition.partition());
+      }
+    });
+    if (!requestPartitions.equals(cancelPartitions)) {
+      throw new IllegalStateException(
+        String.format(
+          "Partitions %s of %s and %s of %s are not assigned together, " +
+          "both topics must have the same number of partitions",
+          requestPartitions,
+          orderBookRequestTopic,
+          cancelPartitions,
+          orderBookCancelTopic
+        )
+      );
+    }
+  }
+
+  @Scheduled(fixedDelay = "${order-book.cancel-lane.park-timeout}")
+  void rejectExpiredCancels() {
+    // Rejected at the next check, the replayed rejections are not sent
+    if (snapshotReplay.isReplaying()) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    readEndOffsets(now);
+    rejectCancels(now);
+  }
+
+  /**
+   * Read the end offsets of the request partitions of the expired cancels,
+   * the requests written before the cancels are below them
+   * @param now
+   */
+  void readEndOffsets(long now) {
+    Set<Integer> partitions = new HashSet<>();
+    parkedCancels
+      .keySet()
+      .forEach(key ->
+        parkedCancels.computeIfPresent(
+          key,
+          (k, parked) -> {
+            parked.forEach(parkedCancel -> {
+              if (isUnread(parkedCancel, now)) {
+                partitions.add(parkedCancel.partition());
+              }
+            });
+            return parked;
+          }
+        )
+      );
+    if (partitions.isEmpty()) {
+      return;
+    }
+    Map<Integer, Long> endOffsets;
+    try {
+      endOffsets = requestOffsets.fetchEndOffsets(partitions);
+    } catch (ExecutionException | TimeoutException e) {
+      LOG.warn("Could not read the request end offsets: {}", e.getMessage());
+      return;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    parkedCancels
+      .keySet()
+      .forEach(key ->
+        parkedCancels.computeIfPresent(
+          key,
+          (k, parked) -> {
+            parked.replaceAll(parkedCancel -> {
+              Long endOffset = endOffsets.get(parkedCancel.partition());
+              if (!isUnread(parkedCancel, now) || endOffset == null) {
+                return parkedCancel;
+              }
+              return parkedCancel.withEndOffset(endOffset);
+            });
+            return parked;
+          }
+        )
+      );
+  }
+
+  /**
+   * Reject the cancels whose request partition is applied up to their end
+   * offset, the order they cancel does not exist
+   * @param now
+   */
+  void rejectCancels(long now) {
+    parkedCancels
+      .keySet()
+      .forEach(key ->
+        parkedCancels.computeIfPresent(
+          key,
+          (k, parked) -> {
+            parked.removeIf(parkedCancel -> {
+              if (
+                parkedCancel.deadline() > now ||
+                parkedCancel.endOffset() == UNKNOWN_OFFSET ||
+                requestOffsets.getAppliedOffset(parkedCancel.partition()) <
+                parkedCancel.endOffset()
+              ) {
+                return false;
+              }
+              LOG.error(
+                "Order could not be cancelled by {} because it does not exist",
+                parkedCancel.orderBookRequest().getOrder()
+              );
+              messageProducer.sendOrderBookRejected(
+                key,
+                parkedCancel.orderBookRequest()
+              );
+              recordAck(parkedCancel.timestamp());
+              return true;
+            });
+            return parked.isEmpty() ? null : parked;
+          }
+        )
+      );
+  }
+
+  private static boolean isUnread(ParkedCancel parkedCancel, long now) {
+    return (
+      parkedCancel.deadline() <= now &&
+      parkedCancel.endOffset() == UNKNOWN_OFFSET
+    );
+  }
+
+  /**
+   * @param orderBookRequest
+   * @param timestamp time the cancel was sent, in ms
+   * @param deadline time the end offset of the request partition is read, in
+   * ms
+   * @param partition request partition of the symbol
+   * @param endOffset end offset of the request partition once read
+   */
+  record ParkedCancel(
+    OrderBookRequest orderBookRequest,
+    long timestamp,
+    long deadline,
+    int partition,
+    long endOffset
+  ) {
+    ParkedCancel withEndOffset(long endOffset) {
+      return new ParkedCancel(
+        orderBookRequest,
+        timestamp,
+        deadline,
+        partition,
+        endOffset
+      );
+    }
+  }
+}
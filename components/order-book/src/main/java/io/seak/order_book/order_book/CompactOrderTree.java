@@ -0,0 +1,341 @@
+package io.seak.order_book.order_book;
+
+import static io.seak.order_book.order_book.RestingOrderStore.NONE;
+
+import io.seak.avro.Order;
+import io.seak.avro.Side;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Order tree holding its orders in a {@link RestingOrderStore}, with the
+ * price levels in a sorted map like {@link TreeMapOrderTree}.
+ *
+ * A level only keeps the handles of its first and last orders, the queue is
+ * linked through the handles of the store. The orders are rebuilt as Avro
+ * {@link Order} when they are read, matched or removed, and
+ * {@link #getBestOrder()} returns a node detached from any level.
+ *
+ * This class is not thread-safe, it is only accessed through its
+ * {@link LimitOrderBook}, with the exclusive access to the book.
+ */
+public class CompactOrderTree implements OrderTree {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    CompactOrderTree.class
+  );
+
+  // All orders of the side, by handle
+  private final RestingOrderStore store;
+
+  // Map of price and level
+  private final NavigableMap<Double, Level> priceMap;
+
+  // Side of the tree
+  private final Side side;
+
+  // Best level of the side, null if the tree is empty
+  private Level bestLevel;
+
+  private double totalVolume;
+
+  public CompactOrderTree(final Side side, final StringPool stringPool) {
+    this.store = new RestingOrderStore(side, stringPool);
+    this.priceMap = new TreeMap<>();
+    this.side = side;
+    this.totalVolume = 0.0;
+  }
+
+  @Override
+  public Order addOrder(String id, Order order) {
+    LOG.trace("Add order [{}]{} to order tree {}", id, order, this.side);
+    int handle = store.add(id, order);
+    append(getOrCreateLevel(order.getPrice()), handle);
+    totalVolume += order.getQuantity();
+    return order;
+  }
+
+  @Override
+  public Order removeOrder(String id) {
+    LOG.trace("Remove order [{}] from order tree {}", id, this.side);
+    int handle = store.find(id);
+    if (handle == NONE) {
+      return null;
+    }
+    Order order = store.toOrder(handle);
+    Level level = priceMap.get(store.price(handle));
+    unlink(level, handle);
+    releaseLevelIfEmpty(level);
+    totalVolume -= store.quantity(handle);
+    store.remove(handle);
+    return order;
+  }
+
+  @Override
+  public Order replaceOrder(String id, Order order) {
+    LOG.trace("Replace order [{}]{} in order tree {}", id, order, this.side);
+    int handle = store.find(id);
+    if (handle == NONE) {
+      return null;
+    }
+    Level oldLevel = priceMap.get(store.price(handle));
+    int oldQuantity = store.quantity(handle);
+
+    if (order.getPrice().equals(oldLevel.price)) {
+      store.update(handle, order);
+      oldLevel.volume += order.getQuantity() - oldQuantity;
+    } else {
+      unlink(oldLevel, handle);
+      releaseLevelIfEmpty(oldLevel);
+      store.update(handle, order);
+      append(getOrCreateLevel(order.getPrice()), handle);
+    }
+    totalVolume += order.getQuantity() - oldQuantity;
+    return order;
+  }
+
+  @Override
+  public int sweepOrders(Double price, BiConsumer<String, Order> consumer) {
+    LOG.trace("Match orders in order tree {} with price {}", this.side, price);
+    int matched = 0;
+    while (canMatch(price)) {
+      Level level = bestLevel;
+      int handle = level.head;
+      while (handle != NONE) {
+        int next = store.next(handle);
+        String id = store.id(handle);
+        Order order = store.toOrder(handle);
+        store.remove(handle);
+        consumer.accept(id, order);
+        matched++;
+        handle = next;
+      }
+      totalVolume -= level.volume;
+      priceMap.remove(level.price);
+      bestLevel = findBestLevel();
+    }
+    return matched;
+  }
+
+  @Override
+  public boolean canMatch(Double price) {
+    return bestLevel != null && crosses(bestLevel.price, price);
+  }
+
+  /**
+   * BUY orders match when their price is above or equal to the market price,
+   * SELL orders when their price is strictly bellow it.
+   */
+  private boolean crosses(double orderPrice, double marketPrice) {
+    if (side == Side.BUY) {
+      return orderPrice >= marketPrice;
+    }
+    return orderPrice < marketPrice;
+  }
+
+  private boolean isBetter(double price, double otherPrice) {
+    return side == Side.BUY ? price > otherPrice : price < otherPrice;
+  }
+
+  private Level getOrCreateLevel(Double price) {
+    Level level = priceMap.get(price);
+    if (level == null) {
+      level = new Level(price);
+      priceMap.put(price, level);
+      if (bestLevel == null || isBetter(price, bestLevel.price)) {
+        bestLevel = level;
+      }
+    }
+    return level;
+  }
+
+  private void releaseLevelIfEmpty(Level level) {
+    if (level.head != NONE) {
+      return;
+    }
+    priceMap.remove(level.price);
+    if (level == bestLevel) {
+      bestLevel = findBestLevel();
+    }
+  }
+
+  private Level findBestLevel() {
+    Map.Entry<Double, Level> entry = side == Side.BUY
+      ? priceMap.lastEntry()
+      : priceMap.firstEntry();
+    return entry == null ? null : entry.getValue();
+  }
+
+  /**
+   * Append a handle at the end of the queue of a level
+   */
+  private void append(Level level, int handle) {
+    store.setPrev(handle, level.tail);
+    store.setNext(handle, NONE);
+    if (level.tail == NONE) {
+      level.head = handle;
+    } else {
+      store.setNext(level.tail, handle);
+    }
+    level.tail = handle;
+    level.volume += store.quantity(handle);
+  }
+
+  private void unlink(Level level, int handle) {
+    int prev = store.prev(handle);
+    int next = store.next(handle);
+    if (prev == NONE) {
+      level.head = next;
+    } else {
+      store.setNext(prev, next);
+    }
+    if (next == NONE) {
+      level.tail = prev;
+    } else {
+      store.setPrev(next, prev);
+    }
+    level.volume -= store.quantity(handle);
+  }
+
+  @Override
+  public Map<String, Order> getOrders() {
+    Map<String, Order> ordersMap = new HashMap<>();
+    forEachOrder(ordersMap::put);
+    return ordersMap;
+  }
+
+  @Override
+  public void forEachOrder(BiConsumer<String, Order> consumer) {
+    for (Level level : priceMap.values()) {
+      for (
+        int handle = level.head;
+        handle != NONE;
+        handle = store.next(handle)
+      ) {
+        consumer.accept(store.id(handle), store.toOrder(handle));
+      }
+    }
+  }
+
+  @Override
+  public void forEachBestLevel(
+    int depth,
+    BiConsumer<Double, Double> consumer
+  ) {
+    Collection<Level> levels = side == Side.BUY
+      ? priceMap.descendingMap().values()
+      : priceMap.values();
+    int visited = 0;
+    for (Level level : levels) {
+      if (visited == depth) {
+        break;
+      }
+      consumer.accept(level.price, level.volume);
+      visited++;
+    }
+  }
+
+  @Override
+  public Order getOrder(String id) {
+    int handle = store.find(id);
+    if (handle == NONE) {
+      return null;
+    }
+    return store.toOrder(handle);
+  }
+
+  @Override
+  public boolean contains(String id) {
+    return store.find(id) != NONE;
+  }
+
+  @Override
+  public Double getTotalVolume() {
+    return totalVolume;
+  }
+
+  @Override
+  public int getOrderCount() {
+    return store.size();
+  }
+
+  @Override
+  public int getLevelCount() {
+    return priceMap.size();
+  }
+
+  @Override
+  public Double getBestPrice() {
+    Level level = bestLevel;
+    return level == null ? null : level.price;
+  }
+
+  @Override
+  public Double getBestLevelVolume() {
+    Level level = bestLevel;
+    return level == null ? 0.0 : level.volume;
+  }
+
+  @Override
+  public OrderNode getBestOrder() {
+    Level level = bestLevel;
+    if (level == null) {
+      return null;
+    }
+    return new OrderNode(
+      store.id(level.head),
+      store.toOrder(level.head),
+      null
+    );
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    for (Level level : priceMap.values()) {
+      if (sb.length() > 1) {
+        sb.append(", ");
+      }
+      sb
+        .append(level.price)
+        .append("=Price: ")
+        .append(level.price)
+        .append(" |Volume: ")
+        .append(level.volume)
+        .append(" |Orders: {");
+      for (
+        int handle = level.head;
+        handle != NONE;
+        handle = store.next(handle)
+      ) {
+        if (handle != level.head) {
+          sb.append(", ");
+        }
+        sb.append(store.id(handle)).append('=').append(store.toOrder(handle));
+      }
+      sb.append('}');
+    }
+    return sb.append('}').toString();
+  }
+
+  /**
+   * Price level, the queue of its orders is linked in the store
+   */
+  private static final class Level {
+
+    private final double price;
+    private double volume;
+    private int head = NONE;
+    private int tail = NONE;
+
+    private Level(double price) {
+      this.price = price;
+    }
+  }
+}
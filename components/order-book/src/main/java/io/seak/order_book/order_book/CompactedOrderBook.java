@@ -0,0 +1,164 @@
+package io.seak.order_book.order_book;
+
+import io.seak.avro.MarketData;
+import io.seak.avro.Order;
+import io.seak.avro.Side;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+
+/**
+ * Orders of an idle book, serialized in one byte array while the book is
+ * evicted from the {@link OrderBookCatalog}:
+ *
+ * <pre>
+ * (int length, UTF-8 id, int length, Avro single object order) * count
+ * </pre>
+ *
+ * The orders are kept in the order of {@link LimitOrderBook#forEachOrder}, so
+ * that adding them back restores the time priority of each level. The prices
+ * reachable by a market data are kept aside, to rehydrate the book only when a
+ * market data can match or trigger one of its orders.
+ */
+public class CompactedOrderBook {
+
+  private final byte[] orders;
+  private final int orderCount;
+
+  // NaN when the book has no such order
+  private final double bestBid;
+  private final double bestAsk;
+  private final double lowestBuyStop;
+  private final double highestSellStop;
+
+  private CompactedOrderBook(
+    byte[] orders,
+    int orderCount,
+    double bestBid,
+    double bestAsk,
+    double lowestBuyStop,
+    double highestSellStop
+  ) {
+    this.orders = orders;
+    this.orderCount = orderCount;
+    this.bestBid = bestBid;
+    this.bestAsk = bestAsk;
+    this.lowestBuyStop = lowestBuyStop;
+    this.highestSellStop = highestSellStop;
+  }
+
+  /**
+   * Serialize the orders of a book, with the exclusive access to it
+   * @param orderBook
+   * @return the compacted book
+   */
+  static CompactedOrderBook of(LimitOrderBook orderBook) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    int[] count = { 0 };
+    double[] stops = { Double.NaN, Double.NaN };
+    orderBook.forEachOrder((id, order) -> {
+      write(out, id, order);
+      count[0]++;
+      if (!LimitOrderBook.isStopOrder(order)) {
+        return;
+      }
+      double stopPrice = order.getStopPrice();
+      if (order.getSide() == Side.BUY) {
+        stops[0] = Double.isNaN(stops[0])
+          ? stopPrice
+          : Math.min(stops[0], stopPrice);
+      } else {
+        stops[1] = Double.isNaN(stops[1])
+          ? stopPrice
+          : Math.max(stops[1], stopPrice);
+      }
+    });
+    return new CompactedOrderBook(
+      bytes.toByteArray(),
+      count[0],
+      orNaN(orderBook.getBestBid()),
+      orNaN(orderBook.getBestAsk()),
+      stops[0],
+      stops[1]
+    );
+  }
+
+  /**
+   * @param marketData
+   * @return true if the market data can match or trigger an order of the
+   * book, with the same prices as {@link LimitOrderBook#matchOrders} and
+   * {@link LimitOrderBook#triggerStopOrders}
+   */
+  boolean canMatch(MarketData marketData) {
+    return (
+      bestBid >= marketData.getLow() ||
+      bestAsk < marketData.getHigh() ||
+      lowestBuyStop <= marketData.getHigh() ||
+      highestSellStop >= marketData.getLow()
+    );
+  }
+
+  /**
+   * @return true if a STOP or STOP_LIMIT order is waiting for its trigger
+   */
+  boolean hasStopOrders() {
+    return !Double.isNaN(lowestBuyStop) || !Double.isNaN(highestSellStop);
+  }
+
+  /**
+   * Visit the orders, in the order they were serialized
+   * @param consumer
+   */
+  public void forEachOrder(BiConsumer<String, Order> consumer) {
+    ByteBuffer buffer = ByteBuffer.wrap(orders);
+    try {
+      while (buffer.hasRemaining()) {
+        byte[] id = new byte[buffer.getInt()];
+        buffer.get(id);
+        int length = buffer.getInt();
+        ByteBuffer order = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        consumer.accept(
+          new String(id, StandardCharsets.UTF_8),
+          Order.fromByteBuffer(order)
+        );
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public int getOrderCount() {
+    return orderCount;
+  }
+
+  public int getSize() {
+    return orders.length;
+  }
+
+  private static void write(DataOutputStream out, String id, Order order) {
+    try {
+      byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(idBytes.length);
+      out.write(idBytes);
+      ByteBuffer orderBytes = order.toByteBuffer();
+      out.writeInt(orderBytes.remaining());
+      out.write(
+        orderBytes.array(),
+        orderBytes.arrayOffset() + orderBytes.position(),
+        orderBytes.remaining()
+      );
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static double orNaN(Double price) {
+    return price == null ? Double.NaN : price;
+  }
+}
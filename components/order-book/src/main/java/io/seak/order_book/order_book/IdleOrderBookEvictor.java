@@ -0,0 +1,103 @@
+package io.seak.order_book.order_book;
+
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.seak.order_book.engine.OrderBookEngine;
+import io.seak.order_book.partitioning.SymbolOwnership;
+import io.seak.order_book.snapshot.OrderBookSnapshotService;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Evict the books whose version did not change for the idle timeout, see
+ * {@link OrderBookCatalog}.
+ *
+ * The published versions of the books are read on each check, a command is
+ * only routed to the engine for a book idle for the timeout, to check its
+ * version again and evict it with the exclusive access to it. The evictions
+ * are run between two snapshots, so that a snapshot never sees a book both
+ * live and compacted.
+ */
+@Singleton
+@Requires(property = "order-book.eviction.enabled", value = "true")
+public class IdleOrderBookEvictor {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    IdleOrderBookEvictor.class
+  );
+
+  private final OrderBookCatalog orderBookCatalog;
+  private final OrderBookEngine orderBookEngine;
+  private final OrderBookSnapshotService snapshotService;
+  private final SymbolOwnership symbolOwnership;
+  private final long idleTimeoutMs;
+
+  // Version of each live book when it was last seen changing
+  private final Map<String, Activity> activities = new ConcurrentHashMap<>();
+
+  public IdleOrderBookEvictor(
+    OrderBookCatalog orderBookCatalog,
+    OrderBookEngine orderBookEngine,
+    OrderBookSnapshotService snapshotService,
+    SymbolOwnership symbolOwnership,
+    @Property(name = "order-book.eviction.idle-timeout") Duration idleTimeout
+  ) {
+    this.orderBookCatalog = orderBookCatalog;
+    this.orderBookEngine = orderBookEngine;
+    this.snapshotService = snapshotService;
+    this.symbolOwnership = symbolOwnership;
+    this.idleTimeoutMs = idleTimeout.toMillis();
+  }
+
+  @Scheduled(fixedDelay = "${order-book.eviction.check-interval}")
+  void evictIdleOrderBooks() {
+    snapshotService.run(this::evict);
+  }
+
+  private void evict() {
+    long now = System.currentTimeMillis();
+    Map<String, LimitOrderBook> orderBooks = orderBookCatalog.getOrderBooks();
+    activities.keySet().retainAll(orderBooks.keySet());
+
+    orderBooks.forEach((symbol, orderBook) -> {
+      // Dropped with its partition, the book must not be created again
+      if (!symbolOwnership.owns(symbol)) {
+        return;
+      }
+      long version = orderBook.getVersion();
+      Activity activity = activities.get(symbol);
+      if (
+        activity == null ||
+        activity.orderBook() != orderBook ||
+        activity.version() != version
+      ) {
+        activities.put(symbol, new Activity(orderBook, version, now));
+        return;
+      }
+      if (now - activity.since() < idleTimeoutMs) {
+        return;
+      }
+      activities.remove(symbol);
+      orderBookEngine.submitCommand(
+        symbol,
+        current -> {
+          // Changed since its version was read
+          if (current != orderBook || current.getVersion() != version) {
+            return;
+          }
+          if (orderBookCatalog.evictOrderBook(current)) {
+            LOG.debug("Evicted idle order book {}", symbol);
+          }
+        }
+      );
+    });
+    orderBookEngine.awaitProcessed();
+  }
+
+  private record Activity(LimitOrderBook orderBook, long version, long since) {}
+}
@@ -1,149 +1,189 @@
 package io.seak.order_book.order_book;
 
-import io.lettuce.core.RedisClient;
-import io.lettuce.core.api.StatefulRedisConnection;
-import io.lettuce.core.api.sync.RedisCommands;
-import io.micronaut.context.annotation.Property;
 import io.seak.avro.Order;
 import io.seak.avro.Side;
-import io.seak.common.UtilsRunning;
-import jakarta.annotation.PreDestroy;
+import io.seak.avro.Type;
+import io.seak.ledger.AccountLedger;
+import io.seak.ledger.FencedException;
+import io.seak.ledger.Reservation;
+import io.seak.order_book.replication.ReplicationState;
+import io.seak.order_book.snapshot.SnapshotReplay;
 import jakarta.inject.Singleton;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Adjust the ledger reservations of the orders. With replication, the ledger
+ * writes are fenced with the epoch of the leader: a write fenced by a newer
+ * leader deposes this instance, see {@link ReplicationState#depose(int)}, and
+ * its failure is thrown.
+ *
+ * The requests replayed after a restore were applied to the ledger before the
+ * restart, see {@link SnapshotReplay}: while they are replayed, the ledger is
+ * left untouched and the reservations are assumed available, only the books
+ * are rebuilt.
+ */
 @Singleton
 public class IntegrityCheckService {
 
-  private static final Logger LOG = LoggerFactory.getLogger(
-    IntegrityCheckService.class
-  );
-
-  private static final String BALANCE_KEY_PATTERN = "%s:balance";
-  private static final String STOCK_KEY_PATTERN = "%s:%s";
-
-  private final StatefulRedisConnection<String, String> redisConnection;
+  private final AccountLedger accountLedger;
+  private final ReplicationState replicationState;
+  private final SnapshotReplay snapshotReplay;
 
   public IntegrityCheckService(
-    RedisClient redisClient,
-    @Property(name = "redis.uri") String redisUri
+    AccountLedger accountLedger,
+    ReplicationState replicationState,
+    SnapshotReplay snapshotReplay
   ) {
-    if (UtilsRunning.isRedisRunning(redisUri)) {
-      this.redisConnection = redisClient.connect();
-    } else {
-      this.redisConnection = null;
-      LOG.error("Redis is not running");
-    }
+    this.accountLedger = accountLedger;
+    this.replicationState = replicationState;
+    this.snapshotReplay = snapshotReplay;
   }
 
-  @PreDestroy
-  void close() {
-    if (redisConnection != null) {
-      redisConnection.close();
+  public boolean replaceOrder(Order oldOrder, Order newOrder) {
+    if (newOrder.getPrice() < 0 || newOrder.getQuantity() < 0) {
+      return false;
     }
-  }
 
-  private String buildBalanceKey(String username) {
-    return String.format(BALANCE_KEY_PATTERN, username);
+    Side side = oldOrder.getSide();
+    return adjustReservation(
+      oldOrder,
+      reservedBy(side, oldOrder) - reservedBy(side, newOrder)
+    );
   }
 
-  private String buildStockKey(String username, String symbol) {
-    return String.format(STOCK_KEY_PATTERN, username, symbol);
+  public void cancelOrder(Order order) {
+    if (!hasReservation(order) || snapshotReplay.isReplaying()) {
+      return;
+    }
+    adjustReservation(order, reservedBy(order.getSide(), order));
   }
 
-  public boolean replaceOrder(Order oldOrder, Order newOrder) {
-    RedisCommands<String, String> syncCommands = redisConnection.sync();
-
-    if (newOrder.getPrice() < 0 || newOrder.getQuantity() < 0) {
-      return false;
+  /**
+   * Release the reservations of several orders at once, see
+   * {@link AccountLedger#release(Collection)}
+   * @param orders
+   */
+  public void cancelOrders(Collection<Order> orders) {
+    if (snapshotReplay.isReplaying()) {
+      return;
     }
-
-    if (oldOrder.getSide() == Side.BUY) {
-      return replaceBuyLimitOrder(syncCommands, oldOrder, newOrder);
-    } else {
-      return replaceSellLimitOrder(syncCommands, oldOrder, newOrder);
+    List<Reservation> reservations = new ArrayList<>();
+    for (Order order : orders) {
+      if (hasReservation(order)) {
+        reservations.add(reservationOf(order));
+      }
+    }
+    if (reservations.isEmpty()) {
+      return;
+    }
+    try {
+      accountLedger.release(reservations);
+    } catch (FencedException e) {
+      throw deposed(e);
     }
   }
 
-  public void cancelOrder(Order order) {
-    RedisCommands<String, String> syncCommands = redisConnection.sync();
+  /**
+   * Nothing is reserved for a BUY STOP order, it is filled as a market order
+   */
+  static boolean hasReservation(Order order) {
+    return !(order.getSide() == Side.BUY && order.getType() == Type.STOP);
+  }
 
-    if (order.getSide() == Side.BUY) {
-      syncCommands.incrbyfloat(
-        buildBalanceKey(order.getUsername().toString()),
-        order.getPrice() * order.getQuantity()
-      );
-    } else {
-      syncCommands.incrby(
-        buildStockKey(
-          order.getUsername().toString(),
-          order.getSymbol().toString()
-        ),
-        order.getQuantity()
-      );
+  /**
+   * Read the reservation of an order before adjusting it with a chain of
+   * requests, the adjustment is applied with
+   * {@link #commitReservation(ReservationAdjustment)}
+   * @param order
+   * @return the adjustment, checked against the amount currently available
+   */
+  ReservationAdjustment readReservation(Order order) {
+    if (snapshotReplay.isReplaying()) {
+      return new ReservationAdjustment(order, Double.POSITIVE_INFINITY);
     }
+    String username = order.getUsername().toString();
+    Number available = order.getSide() == Side.BUY
+      ? accountLedger.getBalance(username)
+      : accountLedger.getStock(username, order.getSymbol().toString());
+    return new ReservationAdjustment(
+      order,
+      available == null ? 0.0 : available.doubleValue()
+    );
   }
 
   /**
-   * Replace a buy limit order
+   * Apply the net modification of an adjustment at once
+   * @param adjustment
+   * @return false if the reservation is not available anymore
    */
-  private boolean replaceBuyLimitOrder(
-    RedisCommands<String, String> syncCommands,
-    Order oldOrder,
-    Order newOrder
-  ) {
-    String balanceKey = buildBalanceKey(oldOrder.getUsername().toString());
-    Double modification =
-      oldOrder.getPrice() * oldOrder.getQuantity() -
-      newOrder.getPrice() * newOrder.getQuantity();
-
-    int countdown = 10;
-    while (countdown-- > 0) {
-      syncCommands.watch(balanceKey);
-      Double balance = Double.parseDouble(syncCommands.get(balanceKey));
-      if (balance + modification < 0) {
-        return false;
-      }
-      syncCommands.multi();
-      syncCommands.incrbyfloat(balanceKey, modification);
-      if (syncCommands.exec().size() == 1) {
-        return true;
+  boolean commitReservation(ReservationAdjustment adjustment) {
+    return adjustReservation(
+      adjustment.getOrder(),
+      adjustment.getModification()
+    );
+  }
+
+  /**
+   * Release a positive modification of the reservation of an order, reserve a
+   * negative one
+   */
+  private boolean adjustReservation(Order order, double modification) {
+    if (snapshotReplay.isReplaying()) {
+      return true;
+    }
+    try {
+      return adjustLedger(order, modification);
+    } catch (FencedException e) {
+      throw deposed(e);
+    }
+  }
+
+  private boolean adjustLedger(Order order, double modification) {
+    String username = order.getUsername().toString();
+    String symbol = order.getSymbol().toString();
+    if (modification > 0) {
+      if (order.getSide() == Side.BUY) {
+        accountLedger.releaseBalance(username, modification);
+      } else {
+        accountLedger.releaseStock(username, symbol, (long) modification);
       }
-      LOG.debug("Retrying...");
+      return true;
+    }
+    if (modification < 0) {
+      AccountLedger.Result result = order.getSide() == Side.BUY
+        ? accountLedger.reserveBalance(username, -modification)
+        : accountLedger.reserveStock(username, symbol, (long) -modification);
+      return result == AccountLedger.Result.APPLIED;
     }
-    LOG.error("Failed to modify the balance");
-    return false;
+    return true;
+  }
+
+  private FencedException deposed(FencedException e) {
+    replicationState.depose((int) e.getEpoch());
+    return e;
   }
 
   /**
-   * Replace a sell limit order
+   * The balance reserved by a BUY order, the stock by a SELL order
    */
-  private boolean replaceSellLimitOrder(
-    RedisCommands<String, String> syncCommands,
-    Order oldOrder,
-    Order newOrder
-  ) {
-    String stockKey = buildStockKey(
-      oldOrder.getUsername().toString(),
-      oldOrder.getSymbol().toString()
-    );
-    Integer modification = oldOrder.getQuantity() - newOrder.getQuantity();
-
-    int countdown = 10;
-    while (countdown-- > 0) {
-      syncCommands.watch(stockKey);
-      Integer stockQuantity = Integer.parseInt(syncCommands.get(stockKey));
-      if (stockQuantity + modification < 0) {
-        return false;
-      }
-      syncCommands.multi();
-      syncCommands.incrby(stockKey, modification);
-      if (syncCommands.exec().size() == 1) {
-        return true;
-      }
-      LOG.debug("Retrying...");
+  static double reservedBy(Side side, Order order) {
+    if (side == Side.BUY) {
+      return order.getPrice() * order.getQuantity();
+    }
+    return order.getQuantity();
+  }
+
+  private static Reservation reservationOf(Order order) {
+    String username = order.getUsername().toString();
+    if (order.getSide() == Side.BUY) {
+      return Reservation.ofBalance(username, reservedBy(Side.BUY, order));
     }
-    LOG.error("Failed to modify the stock");
-    return false;
+    return Reservation.ofStock(
+      username,
+      order.getSymbol().toString(),
+      order.getQuantity()
+    );
   }
 }
@@ -4,81 +4,234 @@ import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Timer;
 import io.seak.avro.MarketData;
+import io.seak.avro.MarketDepthLevel;
 import io.seak.avro.Order;
 import io.seak.avro.Side;
 import io.seak.avro.Trade;
-import java.util.HashMap;
+import io.seak.avro.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Buy and sell order trees of a symbol.
+ *
+ * The book is not thread-safe and none of its methods is synchronized: it
+ * relies on the engine applying the commands, which holds the monitor of the
+ * book ({@link io.seak.order_book.engine.DirectOrderBookEngine}) or runs them
+ * on the single shard thread owning the symbol
+ * ({@link io.seak.order_book.engine.ShardedOrderBookEngine}). The statistics
+ * of each side and the number of stop orders are published to volatile fields
+ * after each mutation, they are the only state of the book that can be read
+ * from any thread with the version, e.g. by the gauges. The other getters are
+ * called with the exclusive access to the book.
+ *
+ * The version of the book is increased by each mutation, so that a reader can
+ * tell whether a view of the book is stale or whether the book is idle.
+ *
+ * The orders of a snapshot are copied lazily, see {@link #captureOrders}: the
+ * book only keeps the consumer of the capture, and the orders are copied from
+ * any thread by {@link #completeCapture}, or by the next mutation of the book
+ * if it comes first.
+ */
 public class LimitOrderBook {
 
   private static final Logger LOG = LoggerFactory.getLogger(
     LimitOrderBook.class
   );
 
+  // Meters registered by each book, with its symbol tag
+  private static final List<String> METER_NAMES = List.of(
+    "order_book_volume_order_book",
+    "order_book_orders",
+    "order_book_levels",
+    "order_book_best_price",
+    "order_book_best_level_volume",
+    "order_book_stop_orders",
+    "order_book_match_orders",
+    "order_book_cross_orders"
+  );
+
   private final String symbol;
 
   private final OrderTree buyOrderTree;
 
   private final OrderTree sellOrderTree;
 
+  private final StopOrderIndex buyStopOrders;
+
+  private final StopOrderIndex sellStopOrders;
+
   private final Timer matchOrdersTimer;
 
-  public LimitOrderBook(String symbol, MeterRegistry meterRegistry) {
-    this.symbol = symbol;
-    this.buyOrderTree = new OrderTree(Side.BUY);
-    this.sellOrderTree = new OrderTree(Side.SELL);
+  private final Timer crossOrdersTimer;
 
-    Tag symbolTag = Tag.of("symbol", symbol);
+  private final MeterRegistry meterRegistry;
 
-    meterRegistry.gauge(
-      "order_book_volume_order_book",
-      List.of(symbolTag, Tag.of("side", Side.BUY.toString())),
-      buyOrderTree,
-      OrderTree::getTotalVolume
-    );
+  // Only written with the exclusive access to the book
+  private volatile long version;
 
-    meterRegistry.gauge(
-      "order_book_volume_order_book",
-      List.of(symbolTag, Tag.of("side", Side.SELL.toString())),
-      sellOrderTree,
-      OrderTree::getTotalVolume
+  // Published after each mutation, read without the exclusive access
+  private volatile OrderTreeStatistics buyStatistics;
+  private volatile OrderTreeStatistics sellStatistics;
+  private volatile int buyStopOrderCount;
+  private volatile int sellStopOrderCount;
+
+  private boolean evicted;
+
+  // Consumer of the orders captured for a snapshot and not copied yet
+  private volatile BiConsumer<String, Order> pendingCapture;
+  private final Object captureLock = new Object();
+
+  public LimitOrderBook(String symbol, MeterRegistry meterRegistry) {
+    this(
+      symbol,
+      new TreeMapOrderTree(Side.BUY),
+      new TreeMapOrderTree(Side.SELL),
+      meterRegistry
     );
+  }
+
+  public LimitOrderBook(
+    String symbol,
+    OrderTree buyOrderTree,
+    OrderTree sellOrderTree,
+    MeterRegistry meterRegistry
+  ) {
+    this(symbol, buyOrderTree, sellOrderTree, meterRegistry, true);
+  }
 
+  /**
+   * @param symbol
+   * @param buyOrderTree
+   * @param sellOrderTree
+   * @param meterRegistry
+   * @param gauges false to register the gauges of the book later, see
+   * {@link #registerGauges}
+   */
+  LimitOrderBook(
+    String symbol,
+    OrderTree buyOrderTree,
+    OrderTree sellOrderTree,
+    MeterRegistry meterRegistry,
+    boolean gauges
+  ) {
+    this.symbol = symbol;
+    this.buyOrderTree = buyOrderTree;
+    this.sellOrderTree = sellOrderTree;
+    this.buyStopOrders = new StopOrderIndex(Side.BUY);
+    this.sellStopOrders = new StopOrderIndex(Side.SELL);
+    this.meterRegistry = meterRegistry;
+    publishStatistics();
+
+    Tag symbolTag = Tag.of("symbol", symbol);
     this.matchOrdersTimer =
       meterRegistry.timer("order_book_match_orders", List.of(symbolTag));
+    this.crossOrdersTimer =
+      meterRegistry.timer("order_book_cross_orders", List.of(symbolTag));
+    if (gauges) {
+      registerGauges();
+    }
+  }
+
+  /**
+   * Register the gauges of the book, bound to it. Only done once the book is
+   * the one of its symbol, the gauges of a symbol are registered once
+   */
+  void registerGauges() {
+    Tag symbolTag = Tag.of("symbol", symbol);
+    for (Side side : List.of(Side.BUY, Side.SELL)) {
+      List<Tag> tags = List.of(symbolTag, Tag.of("side", side.toString()));
+      meterRegistry.gauge(
+        "order_book_volume_order_book",
+        tags,
+        this,
+        book -> book.getStatistics(side).totalVolume()
+      );
+      meterRegistry.gauge(
+        "order_book_orders",
+        tags,
+        this,
+        book -> book.getStatistics(side).orderCount()
+      );
+      meterRegistry.gauge(
+        "order_book_levels",
+        tags,
+        this,
+        book -> book.getStatistics(side).levelCount()
+      );
+      meterRegistry.gauge(
+        "order_book_best_price",
+        tags,
+        this,
+        book -> book.getStatistics(side).bestPriceOrNaN()
+      );
+      meterRegistry.gauge(
+        "order_book_best_level_volume",
+        tags,
+        this,
+        book -> book.getStatistics(side).bestLevelVolume()
+      );
+      meterRegistry.gauge(
+        "order_book_stop_orders",
+        tags,
+        this,
+        book -> book.getStopOrderCount(side)
+      );
+    }
   }
 
   public void addOrder(String id, Order order) {
     LOG.debug("Add order [{}]{} to order book {}", id, order, symbol);
-    if (order.getSide() == Side.BUY) {
+    beforeMutation();
+    if (isStopOrder(order)) {
+      getStopOrders(order.getSide()).addOrder(id, order);
+    } else if (order.getSide() == Side.BUY) {
       buyOrderTree.addOrder(id, order);
     } else {
       sellOrderTree.addOrder(id, order);
     }
+    changed();
   }
 
   public Order removeOrder(String id) {
     LOG.debug("Remove order [{}] from order book {}", id, symbol);
+    beforeMutation();
     Order order = null;
     if (buyOrderTree.contains(id)) {
       order = buyOrderTree.removeOrder(id);
     } else if (sellOrderTree.contains(id)) {
       order = sellOrderTree.removeOrder(id);
+    } else if (buyStopOrders.contains(id)) {
+      order = buyStopOrders.removeOrder(id);
+    } else if (sellStopOrders.contains(id)) {
+      order = sellStopOrders.removeOrder(id);
+    }
+    if (order != null) {
+      changed();
     }
     return order;
   }
 
   public Order replaceOrder(String id, Order order) {
     LOG.debug("Replace order [{}]{} in order book {}", id, order, symbol);
+    beforeMutation();
     Order oldOrder = null;
     if (buyOrderTree.contains(id)) {
       oldOrder = buyOrderTree.replaceOrder(id, order);
     } else if (sellOrderTree.contains(id)) {
       oldOrder = sellOrderTree.replaceOrder(id, order);
+    } else if (buyStopOrders.contains(id)) {
+      oldOrder = buyStopOrders.replaceOrder(id, order);
+    } else if (sellStopOrders.contains(id)) {
+      oldOrder = sellStopOrders.replaceOrder(id, order);
+    }
+    if (oldOrder != null) {
+      changed();
     }
     return oldOrder;
   }
@@ -89,51 +242,461 @@ public class LimitOrderBook {
       order = buyOrderTree.getOrder(id);
     } else if (sellOrderTree.contains(id)) {
       order = sellOrderTree.getOrder(id);
+    } else if (buyStopOrders.contains(id)) {
+      order = buyStopOrders.getOrder(id);
+    } else if (sellStopOrders.contains(id)) {
+      order = sellStopOrders.getOrder(id);
     }
     return order;
   }
 
-  public Map<String, Trade> matchOrdersToTrade(MarketData marketData) {
+  /**
+   * @param order
+   * @return true for the STOP and STOP_LIMIT orders, kept in the stop indexes
+   * until they are triggered
+   */
+  public static boolean isStopOrder(Order order) {
+    return order.getType() == Type.STOP || order.getType() == Type.STOP_LIMIT;
+  }
+
+  /**
+   * Trigger the stop orders reached by the market data, BUY orders by its
+   * high and SELL orders by its low, from the closest stop price. A STOP order
+   * is filled at the close of the market data, as a market order. A STOP_LIMIT
+   * order becomes a LIMIT order at its limit price, added to the book behind
+   * the orders of its level, and can be matched by the same market data.
+   *
+   * The sink and the consumer are called during the sweep, they must not call
+   * back into the book.
+   * @param marketData
+   * @param tradeSink receives the trades of the STOP orders
+   * @param activated receives the LIMIT orders replacing the STOP_LIMIT orders
+   * @return the number of triggered orders
+   */
+  public int triggerStopOrders(
+    MarketData marketData,
+    TradeSink tradeSink,
+    BiConsumer<String, Order> activated
+  ) {
+    beforeMutation();
+    BiConsumer<String, Order> trigger = (id, order) -> {
+      if (order.getType() == Type.STOP) {
+        tradeSink.onTrade(
+          id,
+          new Trade(order, symbol, marketData.getClose(), order.getQuantity())
+        );
+        return;
+      }
+      Order limitOrder = Order.newBuilder(order).setType(Type.LIMIT).build();
+      if (order.getSide() == Side.BUY) {
+        buyOrderTree.addOrder(id, limitOrder);
+      } else {
+        sellOrderTree.addOrder(id, limitOrder);
+      }
+      activated.accept(id, limitOrder);
+    };
+
+    int triggered = buyStopOrders.triggerOrders(marketData.getHigh(), trigger);
+    triggered += sellStopOrders.triggerOrders(marketData.getLow(), trigger);
+    if (triggered > 0) {
+      changed();
+      LOG.debug("Triggered {} stop orders in order book {}", triggered, symbol);
+    }
+    return triggered;
+  }
+
+  /**
+   * Move a STOP_LIMIT order triggered by the leader to the limit orders, as
+   * {@link #triggerStopOrders} does. The quantity it lost to the trades
+   * already applied is kept.
+   * @param id
+   * @return the LIMIT order, null when the order is not a stop order of the
+   * book
+   */
+  public Order activateStopOrder(String id) {
+    beforeMutation();
+    Order order = null;
+    if (buyStopOrders.contains(id)) {
+      order = buyStopOrders.removeOrder(id);
+    } else if (sellStopOrders.contains(id)) {
+      order = sellStopOrders.removeOrder(id);
+    }
+    if (order == null) {
+      return null;
+    }
+    Order limitOrder = Order.newBuilder(order).setType(Type.LIMIT).build();
+    if (order.getSide() == Side.BUY) {
+      buyOrderTree.addOrder(id, limitOrder);
+    } else {
+      sellOrderTree.addOrder(id, limitOrder);
+    }
+    changed();
+    return limitOrder;
+  }
+
+  /**
+   * Match the orders crossing the market data, BUY orders against its low and
+   * SELL orders against its high. Each matched order is removed from the book
+   * and filled at its own price.
+   *
+   * The sink is called during the sweep, it must not call back into the book.
+   * @param marketData
+   * @param tradeSink receives the trades as the levels are swept
+   * @return the number of trades
+   */
+  public int matchOrders(
+    MarketData marketData,
+    TradeSink tradeSink
+  ) {
+    Double low = marketData.getLow();
+    Double high = marketData.getHigh();
+    if (!buyOrderTree.canMatch(low) && !sellOrderTree.canMatch(high)) {
+      return 0;
+    }
+    beforeMutation();
+
     Timer.Sample sample = Timer.start();
     LOG.trace(
       "Match orders to trade in order book {} with market data {}",
       symbol,
       marketData
     );
-    Double low = marketData.getLow();
-    Double high = marketData.getHigh();
-
-    Map<String, Order> matchedOrders = new HashMap<>();
-    matchedOrders.putAll(buyOrderTree.matchOrders(low));
-    matchedOrders.putAll(sellOrderTree.matchOrders(high));
-
-    Map<String, Trade> trades = new HashMap<>();
-    matchedOrders.forEach((id, order) -> {
-      Trade trade = new Trade(
-        order,
-        symbol,
-        order.getPrice(),
-        order.getQuantity()
+    BiConsumer<String, Order> toTrade = (id, order) ->
+      tradeSink.onTrade(
+        id,
+        new Trade(order, symbol, order.getPrice(), order.getQuantity())
       );
-      trades.put(id, trade);
-    });
+
+    int matched = buyOrderTree.sweepOrders(low, toTrade);
+    matched += sellOrderTree.sweepOrders(high, toTrade);
+    if (matched > 0) {
+      changed();
+    }
 
     sample.stop(matchOrdersTimer);
+    return matched;
+  }
+
+  /**
+   * Cross an order against the resting orders of the other side while it is
+   * the best of its side and crosses the best order of the other side, by
+   * price then arrival time. Both orders of a cross are filled at the price of
+   * the resting order for the smallest of their quantities, the remainder of
+   * the resting order keeps its place in its level.
+   *
+   * An order never trades with an order of the same user: when the best
+   * resting order is one, the crossing order is removed from the book and
+   * given to the consumer, to be cancelled.
+   *
+   * The sink is called before the order is removed or reduced, with the order
+   * as it was before the fill. The sink and the consumer must not call back
+   * into the book.
+   * @param id id of the crossing order, just added or replaced
+   * @param tradeSink receives the trades of both sides
+   * @param selfTradePrevented receives the crossing order removed to prevent a
+   * self trade
+   * @return the number of trades
+   */
+  public int crossOrders(
+    String id,
+    TradeSink tradeSink,
+    BiConsumer<String, Order> selfTradePrevented
+  ) {
+    OrderNode bid = buyOrderTree.getBestOrder();
+    OrderNode ask = sellOrderTree.getBestOrder();
+    if (!crosses(id, bid, ask)) {
+      return 0;
+    }
+    beforeMutation();
+
+    Timer.Sample sample = Timer.start();
+    int trades = 0;
+    while (crosses(id, bid, ask)) {
+      boolean buying = bid.getId().equals(id);
+      Order order = buying ? bid.getOrder() : ask.getOrder();
+      Order restingOrder = buying ? ask.getOrder() : bid.getOrder();
+      if (isSameUser(order, restingOrder)) {
+        (buying ? buyOrderTree : sellOrderTree).removeOrder(id);
+        selfTradePrevented.accept(id, order);
+        LOG.debug("Removed order [{}] to prevent a self trade", id);
+        break;
+      }
+      double price = restingOrder.getPrice();
+      int quantity = Math.min(order.getQuantity(), restingOrder.getQuantity());
+      fill(buyOrderTree, bid, price, quantity, tradeSink);
+      fill(sellOrderTree, ask, price, quantity, tradeSink);
+      trades += 2;
+      bid = buyOrderTree.getBestOrder();
+      ask = sellOrderTree.getBestOrder();
+    }
+    changed();
+    LOG.debug("Crossed {} trades in order book {}", trades, symbol);
+
+    sample.stop(crossOrdersTimer);
     return trades;
   }
 
+  /**
+   * Capture the orders of the book as they are now, for a snapshot, without
+   * copying them: they are given to the consumer by {@link #completeCapture}
+   * or before the next mutation of the book, whichever comes first. Called
+   * with the exclusive access to the book
+   * @param consumer receives each order once, in the order of
+   * {@link #forEachOrder(BiConsumer)}
+   */
+  public void captureOrders(BiConsumer<String, Order> consumer) {
+    pendingCapture = consumer;
+  }
+
+  /**
+   * Give the captured orders to their consumer unless a mutation already did,
+   * can be called from any thread. The consumer has received every order when
+   * this returns
+   */
+  public void completeCapture() {
+    synchronized (captureLock) {
+      BiConsumer<String, Order> consumer = pendingCapture;
+      if (consumer != null) {
+        forEachOrder(consumer);
+        pendingCapture = null;
+      }
+    }
+  }
+
+  /**
+   * Copy the captured orders before they change, the mutation waits if
+   * {@link #completeCapture} is copying them
+   */
+  private void beforeMutation() {
+    if (pendingCapture != null) {
+      completeCapture();
+    }
+  }
+
+  /**
+   * Increase the version of the book and publish its statistics
+   */
+  private void changed() {
+    version++;
+    publishStatistics();
+  }
+
+  private void publishStatistics() {
+    buyStatistics = OrderTreeStatistics.of(Side.BUY, buyOrderTree);
+    sellStatistics = OrderTreeStatistics.of(Side.SELL, sellOrderTree);
+    buyStopOrderCount = buyStopOrders.size();
+    sellStopOrderCount = sellStopOrders.size();
+  }
+
+  /**
+   * @return true if the best bid crosses the best ask and one of them is the
+   * order of the id
+   */
+  private static boolean crosses(String id, OrderNode bid, OrderNode ask) {
+    return (
+      bid != null &&
+      ask != null &&
+      (bid.getId().equals(id) || ask.getId().equals(id)) &&
+      bid.getOrder().getPrice() >= ask.getOrder().getPrice()
+    );
+  }
+
+  private static boolean isSameUser(Order order, Order otherOrder) {
+    return order
+      .getUsername()
+      .toString()
+      .equals(otherOrder.getUsername().toString());
+  }
+
+  private void fill(
+    OrderTree orderTree,
+    OrderNode node,
+    double price,
+    int quantity,
+    TradeSink tradeSink
+  ) {
+    String id = node.getId();
+    Order order = node.getOrder();
+    tradeSink.onTrade(id, new Trade(order, symbol, price, quantity));
+    if (quantity >= order.getQuantity()) {
+      orderTree.removeOrder(id);
+    } else {
+      orderTree.replaceOrder(
+        id,
+        Order
+          .newBuilder(order)
+          .setQuantity(order.getQuantity() - quantity)
+          .build()
+      );
+    }
+  }
+
+  public Map<String, Trade> matchOrdersToTrade(MarketData marketData) {
+    Map<String, Trade> trades = new LinkedHashMap<>();
+    matchOrders(marketData, trades::put);
+    return trades;
+  }
+
+  /**
+   * @param side
+   * @return the aggregates of one side of the book as of its last mutation,
+   * can be called from any thread
+   */
+  public OrderTreeStatistics getStatistics(Side side) {
+    if (side == Side.BUY) {
+      return buyStatistics;
+    }
+    return sellStatistics;
+  }
+
+  /**
+   * @param side
+   * @return the number of stop orders of one side as of the last mutation of
+   * the book, can be called from any thread
+   */
+  public int getStopOrderCount(Side side) {
+    if (side == Side.BUY) {
+      return buyStopOrderCount;
+    }
+    return sellStopOrderCount;
+  }
+
+  /**
+   * Aggregate the best levels of both sides, read from the trees without
+   * walking their orders. The volume of a level is a sum of quantities, kept
+   * exact as a long
+   * @param depth maximum number of levels of each side
+   * @return the BUY levels then the SELL levels, each from the best price
+   */
+  public List<MarketDepthLevel> getDepth(int depth) {
+    List<MarketDepthLevel> levels = new ArrayList<>(2 * depth);
+    buyOrderTree.forEachBestLevel(
+      depth,
+      (price, volume) ->
+        levels.add(new MarketDepthLevel(Side.BUY, price, volume.longValue()))
+    );
+    sellOrderTree.forEachBestLevel(
+      depth,
+      (price, volume) ->
+        levels.add(new MarketDepthLevel(Side.SELL, price, volume.longValue()))
+    );
+    return levels;
+  }
+
+  /**
+   * @param side
+   * @return the stop orders of one side of the book, not triggered yet
+   */
+  public StopOrderIndex getStopOrders(Side side) {
+    if (side == Side.BUY) {
+      return buyStopOrders;
+    }
+    return sellStopOrders;
+  }
+
+  /**
+   * @return the best bid price, null if there is no buy order
+   */
+  public Double getBestBid() {
+    return buyOrderTree.getBestPrice();
+  }
+
+  /**
+   * @return the best ask price, null if there is no sell order
+   */
+  public Double getBestAsk() {
+    return sellOrderTree.getBestPrice();
+  }
+
+  /**
+   * @return a copy of the resting BUY orders, read with the exclusive access
+   * to the book
+   */
   public Map<String, Order> getBuyOrders() {
     return buyOrderTree.getOrders();
   }
 
+  /**
+   * @return a copy of the resting SELL orders, read with the exclusive access
+   * to the book
+   */
   public Map<String, Order> getSellOrders() {
     return sellOrderTree.getOrders();
   }
 
+  /**
+   * Visit the resting limit orders of one side, without the stop orders
+   * @param side
+   * @param consumer
+   */
+  public void forEachOrder(Side side, BiConsumer<String, Order> consumer) {
+    if (side == Side.BUY) {
+      buyOrderTree.forEachOrder(consumer);
+    } else {
+      sellOrderTree.forEachOrder(consumer);
+    }
+  }
+
+  /**
+   * Visit every order of the book, BUY orders first, each side by ascending
+   * price then arrival time, then the stop orders by ascending stop price
+   * @param consumer
+   */
+  public void forEachOrder(BiConsumer<String, Order> consumer) {
+    buyOrderTree.forEachOrder(consumer);
+    sellOrderTree.forEachOrder(consumer);
+    buyStopOrders.forEachOrder(consumer);
+    sellStopOrders.forEachOrder(consumer);
+  }
+
   public String getSymbol() {
     return symbol;
   }
 
+  /**
+   * Mark the book evicted from the {@link OrderBookCatalog} and unregister its
+   * meters, with the exclusive access to the book. A holder of the book must
+   * get it again from the catalog
+   */
+  void evict() {
+    evicted = true;
+    for (String name : METER_NAMES) {
+      meterRegistry
+        .find(name)
+        .tag("symbol", symbol)
+        .meters()
+        .forEach(meterRegistry::remove);
+    }
+  }
+
+  /**
+   * @return true once the book is evicted, read with the exclusive access to
+   * the book
+   */
+  public boolean isEvicted() {
+    return evicted;
+  }
+
+  /**
+   * @return the number of orders of the book, including the stop orders
+   */
+  public int getOrderCount() {
+    return (
+      buyOrderTree.getOrderCount() +
+      sellOrderTree.getOrderCount() +
+      buyStopOrders.size() +
+      sellStopOrders.size()
+    );
+  }
+
+  /**
+   * @return the number of mutations of the book, published after each of
+   * them
+   */
+  public long getVersion() {
+    return version;
+  }
+
   public String toString() {
     StringBuilder sb = new StringBuilder();
     sb.append("LimitOrderBook: ").append(symbol).append("\n");
@@ -1,34 +1,245 @@
 package io.seak.order_book.order_book;
 
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.seak.avro.MarketData;
+import io.seak.avro.Side;
 import jakarta.inject.Singleton;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Books of the symbols, either live or compacted.
+ *
+ * A book idle for a while is evicted, see {@link IdleOrderBookEvictor}: its
+ * orders are kept as a {@link CompactedOrderBook} and its meters are
+ * unregistered, an empty book is dropped. The compacted book is rehydrated on
+ * the next access, or by the first market data that can match it.
+ *
+ * The books are encoded and decoded without any lock, then installed only if
+ * the entry of their symbol did not change meanwhile: a symbol is either live
+ * or compacted, and a racing rehydration is decoded again or lost.
+ */
 @Singleton
 public class OrderBookCatalog {
 
-  private final Map<String, LimitOrderBook> orderBooks;
+  // Live or compacted book of each symbol
+  private final ConcurrentHashMap<String, Entry> entries;
   private final MeterRegistry meterRegistry;
+  private final OrderTreeFactory orderTreeFactory;
 
-  public OrderBookCatalog(MeterRegistry meterRegistry) {
-    this.orderBooks = Collections.synchronizedMap(new HashMap<>());
+  private final Counter evictedCounter;
+  private final Counter rehydratedCounter;
+
+  // Updated with the entries, so that the gauges do not scan them
+  private final AtomicInteger liveCount = new AtomicInteger();
+  private final AtomicInteger compactedCount = new AtomicInteger();
+
+  public OrderBookCatalog(
+    MeterRegistry meterRegistry,
+    OrderTreeFactory orderTreeFactory
+  ) {
+    this.entries = new ConcurrentHashMap<>();
     this.meterRegistry = meterRegistry;
+    this.orderTreeFactory = orderTreeFactory;
+    this.evictedCounter = meterRegistry.counter("order_book_books_evicted");
+    this.rehydratedCounter =
+      meterRegistry.counter("order_book_books_rehydrated");
+
+    meterRegistry.gauge("order_book_books_live", liveCount);
+    meterRegistry.gauge("order_book_books_compacted", compactedCount);
   }
 
   public void addOrderBook(String symbol) {
-    if (orderBooks.containsKey(symbol)) {
-      return;
+    getOrCreateOrderBook(symbol);
+  }
+
+  public LimitOrderBook getOrCreateOrderBook(String symbol) {
+    while (true) {
+      Entry entry = entries.get(symbol);
+      if (entry != null && entry.live() != null) {
+        return entry.live();
+      }
+      LimitOrderBook orderBook = new LimitOrderBook(
+        symbol,
+        orderTreeFactory.create(Side.BUY),
+        orderTreeFactory.create(Side.SELL),
+        meterRegistry,
+        false
+      );
+      if (entry == null) {
+        if (entries.putIfAbsent(symbol, new Entry(orderBook, null)) == null) {
+          liveCount.incrementAndGet();
+          orderBook.registerGauges();
+          return orderBook;
+        }
+        continue;
+      }
+      entry.compacted().forEachOrder(orderBook::addOrder);
+      if (entries.replace(symbol, entry, new Entry(orderBook, null))) {
+        compactedCount.decrementAndGet();
+        liveCount.incrementAndGet();
+        orderBook.registerGauges();
+        rehydratedCounter.increment();
+        return orderBook;
+      }
     }
-    orderBooks.put(symbol, new LimitOrderBook(symbol, meterRegistry));
   }
 
+  /**
+   * @param symbol
+   * @return the book of the symbol, rehydrated if needed, null if there is
+   * none
+   */
   public LimitOrderBook getOrderBook(String symbol) {
-    return orderBooks.get(symbol);
+    Entry entry = entries.get(symbol);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.live() != null) {
+      return entry.live();
+    }
+    return getOrCreateOrderBook(symbol);
+  }
+
+  /**
+   * @param symbol
+   * @param marketData
+   * @return the book of the symbol if the market data can match it, a
+   * compacted book is only rehydrated in that case
+   */
+  public LimitOrderBook getMatchingOrderBook(
+    String symbol,
+    MarketData marketData
+  ) {
+    Entry entry = entries.get(symbol);
+    if (entry == null) {
+      return null;
+    }
+    if (entry.live() != null) {
+      return entry.live();
+    }
+    if (!entry.compacted().canMatch(marketData)) {
+      return null;
+    }
+    return getOrCreateOrderBook(symbol);
+  }
+
+  /**
+   * Safe from any thread, the stop order counts of a live book are read from
+   * its published statistics
+   * @param symbol
+   * @return true if the book of the symbol has STOP or STOP_LIMIT orders
+   * waiting for their trigger
+   */
+  public boolean hasStopOrders(String symbol) {
+    Entry entry = entries.get(symbol);
+    if (entry == null) {
+      return false;
+    }
+    if (entry.live() != null) {
+      return (
+        entry.live().getStopOrderCount(Side.BUY) > 0 ||
+        entry.live().getStopOrderCount(Side.SELL) > 0
+      );
+    }
+    return entry.compacted().hasStopOrders();
+  }
+
+  public LimitOrderBook removeOrderBook(String symbol) {
+    Entry entry = entries.remove(symbol);
+    if (entry == null) {
+      return null;
+    }
+    (entry.live() != null ? liveCount : compactedCount).decrementAndGet();
+    return entry.live();
+  }
+
+  /**
+   * Compact a book, with the exclusive access to it
+   * @param orderBook
+   * @return false if the book was not live anymore
+   */
+  public boolean evictOrderBook(LimitOrderBook orderBook) {
+    String symbol = orderBook.getSymbol();
+    Entry entry = entries.get(symbol);
+    if (entry == null || entry.live() != orderBook) {
+      return false;
+    }
+    boolean compacted = orderBook.getOrderCount() > 0;
+    boolean evicted = compacted
+      ? entries.replace(
+        symbol,
+        entry,
+        new Entry(null, CompactedOrderBook.of(orderBook))
+      )
+      : entries.remove(symbol, entry);
+    if (!evicted) {
+      return false;
+    }
+    liveCount.decrementAndGet();
+    if (compacted) {
+      compactedCount.incrementAndGet();
+    }
+    orderBook.evict();
+    evictedCounter.increment();
+    return true;
+  }
+
+  /**
+   * @return the live books
+   */
+  public Map<String, LimitOrderBook> getOrderBooks() {
+    Map<String, LimitOrderBook> orderBooks = new HashMap<>();
+    entries.forEach((symbol, entry) -> {
+      if (entry.live() != null) {
+        orderBooks.put(symbol, entry.live());
+      }
+    });
+    return orderBooks;
+  }
+
+  /**
+   * @return the compacted books
+   */
+  public Map<String, CompactedOrderBook> getCompactedOrderBooks() {
+    Map<String, CompactedOrderBook> compactedOrderBooks = new HashMap<>();
+    entries.forEach((symbol, entry) -> {
+      if (entry.compacted() != null) {
+        compactedOrderBooks.put(symbol, entry.compacted());
+      }
+    });
+    return compactedOrderBooks;
+  }
+
+  /**
+   * @return the symbols of the live and compacted books
+   */
+  public Set<String> getSymbols() {
+    return new HashSet<>(entries.keySet());
   }
 
   public void clear() {
-    orderBooks.clear();
+    entries.clear();
+    liveCount.set(0);
+    compactedCount.set(0);
+  }
+
+  public int getLiveCount() {
+    return liveCount.get();
+  }
+
+  public int getCompactedCount() {
+    return compactedCount.get();
   }
+
+  /**
+   * Book of a symbol, either live or compacted. Compared by identity of the
+   * books, so that an entry is only replaced by the thread that read it
+   */
+  private record Entry(LimitOrderBook live, CompactedOrderBook compacted) {}
 }
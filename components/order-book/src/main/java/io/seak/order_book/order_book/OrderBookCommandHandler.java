@@ -0,0 +1,461 @@
+package io.seak.order_book.order_book;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.context.annotation.Property;
+import io.seak.avro.MarketData;
+import io.seak.avro.Order;
+import io.seak.avro.OrderBookRequest;
+import io.seak.avro.OrderBookRequestType;
+import io.seak.avro.TimeInForce;
+import io.seak.order_book.MessageProducer;
+import io.seak.order_book.expiry.OrderExpiryWheel;
+import io.seak.order_book.partitioning.OrderBookChangelog;
+import jakarta.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Apply the commands received from Kafka to a {@link LimitOrderBook}.
+ *
+ * The caller is responsible for the exclusive access to the book, see
+ * {@link io.seak.order_book.engine.OrderBookEngine}.
+ */
+@Singleton
+public class OrderBookCommandHandler {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    OrderBookCommandHandler.class
+  );
+
+  private final IntegrityCheckService integrityCheckService;
+  private final MessageProducer messageProducer;
+  private final MeterRegistry meterRegistry;
+  private final OrderBookChangelog orderBookChangelog;
+  private final OrderExpiryWheel orderExpiryWheel;
+  private final CancelLane cancelLane;
+  private final boolean crossingEnabled;
+
+  private final Counter coalescedCounter;
+
+  public OrderBookCommandHandler(
+    IntegrityCheckService integrityCheckService,
+    MessageProducer messageProducer,
+    MeterRegistry meterRegistry,
+    OrderBookChangelog orderBookChangelog,
+    OrderExpiryWheel orderExpiryWheel,
+    CancelLane cancelLane,
+    @Property(name = "order-book.crossing.enabled") boolean crossingEnabled
+  ) {
+    this.integrityCheckService = integrityCheckService;
+    this.messageProducer = messageProducer;
+    this.meterRegistry = meterRegistry;
+    this.orderBookChangelog = orderBookChangelog;
+    this.orderExpiryWheel = orderExpiryWheel;
+    this.cancelLane = cancelLane;
+    this.crossingEnabled = crossingEnabled;
+    this.coalescedCounter =
+      meterRegistry.counter("order_book_coalesced_requests");
+  }
+
+  public void handleOrderBookRequest(
+    LimitOrderBook orderBook,
+    String key,
+    OrderBookRequest orderBookRequest
+  ) {
+    Timer orderBookHandleOrderTimer = meterRegistry.timer(
+      "order_book_handle_order",
+      "symbol",
+      orderBook.getSymbol(),
+      "requestType",
+      orderBookRequest.getType().toString()
+    );
+    Timer.Sample sample = Timer.start();
+    applyOrderBookRequest(orderBook, key, orderBookRequest);
+    sample.stop(orderBookHandleOrderTimer);
+    applyParkedCancels(orderBook, key);
+  }
+
+  /**
+   * Apply a CANCEL request of the cancel lane. When the order or its current
+   * version is not in the book yet, the cancel is parked until the request
+   * creating it is applied, see {@link CancelLane}
+   * @param orderBook
+   * @param key
+   * @param orderBookRequest
+   * @param timestamp time the cancel was sent, in ms
+   */
+  public void handleCancelRequest(
+    LimitOrderBook orderBook,
+    String key,
+    OrderBookRequest orderBookRequest,
+    long timestamp
+  ) {
+    Order order = orderBook.getOrder(key);
+    if (order == null || !matchesClOrderID(order, orderBookRequest)) {
+      cancelLane.park(key, orderBookRequest, timestamp);
+      return;
+    }
+    handleOrderBookRequest(orderBook, key, orderBookRequest);
+    cancelLane.recordAck(timestamp);
+  }
+
+  /**
+   * Apply successive REPLACE and CANCEL requests of one order with a single
+   * mutation of the book and a single Redis transaction. Each request still
+   * gets its own response or rejection, in order.
+   *
+   * The intermediate versions of the order are never in the book, so they are
+   * not crossed. A replacement by an IOC order ends the chain, as it is
+   * cancelled once crossed: the next requests are applied one by one.
+   * @param orderBook
+   * @param key
+   * @param orderBookRequests REPLACE and CANCEL requests, in arrival order
+   */
+  public void handleOrderBookRequests(
+    LimitOrderBook orderBook,
+    String key,
+    List<OrderBookRequest> orderBookRequests
+  ) {
+    Order oldOrder = orderBook.getOrder(key);
+    // Every request is rejected, there is nothing to coalesce
+    if (oldOrder == null) {
+      orderBookRequests.forEach(orderBookRequest ->
+        handleOrderBookRequest(orderBook, key, orderBookRequest)
+      );
+      return;
+    }
+
+    int countdown = 10;
+    while (countdown-- > 0) {
+      ReservationAdjustment adjustment = integrityCheckService.readReservation(
+        oldOrder
+      );
+      boolean[] accepted = new boolean[orderBookRequests.size()];
+      // Net version of the order, null once cancelled
+      Order order = oldOrder;
+      int decided = 0;
+      while (decided < orderBookRequests.size()) {
+        OrderBookRequest orderBookRequest = orderBookRequests.get(decided);
+        accepted[decided] = decide(adjustment, order, orderBookRequest);
+        decided++;
+        if (!accepted[decided - 1]) {
+          continue;
+        }
+        if (orderBookRequest.getType() == OrderBookRequestType.CANCEL) {
+          order = null;
+        } else {
+          order = orderBookRequest.getOrder();
+          if (isImmediate(order)) {
+            break;
+          }
+        }
+      }
+      if (!integrityCheckService.commitReservation(adjustment)) {
+        LOG.debug("Retrying...");
+        continue;
+      }
+
+      if (order == null) {
+        LOG.debug("Order {} cancelled", oldOrder);
+        orderBook.removeOrder(key);
+        orderBookChangelog.recordRemoval(orderBook.getSymbol(), key);
+        orderExpiryWheel.disarm(key);
+      } else if (order != oldOrder) {
+        LOG.debug("Order {} replaced by {}", oldOrder, order);
+        orderBook.replaceOrder(key, order);
+        orderBookChangelog.recordOrder(orderBook.getSymbol(), key, order);
+        orderExpiryWheel.arm(key, order);
+      }
+      for (int i = 0; i < decided; i++) {
+        if (accepted[i]) {
+          messageProducer.sendOrderBookResponse(key, orderBookRequests.get(i));
+        } else {
+          messageProducer.sendOrderBookRejected(key, orderBookRequests.get(i));
+        }
+      }
+      if (order != null && order != oldOrder) {
+        crossOrders(orderBook, key);
+        cancelImmediateOrder(orderBook, key);
+      }
+      coalescedCounter.increment(decided - 1.0);
+
+      for (int i = decided; i < orderBookRequests.size(); i++) {
+        handleOrderBookRequest(orderBook, key, orderBookRequests.get(i));
+      }
+      applyParkedCancels(orderBook, key);
+      return;
+    }
+
+    LOG.error("Failed to coalesce the requests of order {}", key);
+    orderBookRequests.forEach(orderBookRequest ->
+      handleOrderBookRequest(orderBook, key, orderBookRequest)
+    );
+  }
+
+  public void handleMarketData(
+    LimitOrderBook orderBook,
+    MarketData marketData
+  ) {
+    TradeSink tradeSink = (id, trade) -> {
+      messageProducer.sendTrade(id, trade);
+      orderBookChangelog.recordRemoval(orderBook.getSymbol(), id);
+    };
+    List<String> immediateIds = new ArrayList<>();
+    orderBook.triggerStopOrders(
+      marketData,
+      tradeSink,
+      (id, order) -> {
+        orderBookChangelog.recordOrder(orderBook.getSymbol(), id, order);
+        messageProducer.sendStopActivation(id, order);
+        if (order.getTimeInForce() == TimeInForce.IOC) {
+          immediateIds.add(id);
+        }
+      }
+    );
+    int trades = orderBook.matchOrders(marketData, tradeSink);
+    if (trades > 0) {
+      LOG.debug("Sent {} trades to Kafka", trades);
+    }
+    // The triggered IOC orders only match the market data that triggered them
+    for (String id : immediateIds) {
+      cancelImmediateOrder(orderBook, id);
+    }
+  }
+
+  private void applyOrderBookRequest(
+    LimitOrderBook orderBook,
+    String key,
+    OrderBookRequest orderBookRequest
+  ) {
+    Order order = orderBookRequest.getOrder();
+    LOG.debug(
+      "Received order book request: {} for symbol: {}",
+      orderBookRequest,
+      orderBook.getSymbol()
+    );
+
+    if (orderBookRequest.getType() == OrderBookRequestType.NEW) {
+      // Already restored from the changelog when the request is consumed again
+      if (orderBook.getOrder(key) == null) {
+        orderBook.addOrder(key, order);
+        orderBookChangelog.recordOrder(orderBook.getSymbol(), key, order);
+        orderExpiryWheel.arm(key, order);
+      }
+      messageProducer.sendOrderBookResponse(key, orderBookRequest);
+      crossOrders(orderBook, key);
+      cancelImmediateOrder(orderBook, key);
+      return;
+    }
+
+    Order oldOrder = orderBook.getOrder(key);
+
+    if (oldOrder == null) {
+      LOG.error(
+        "Order could not be replaced/cancelled by {} because it does not exist",
+        order
+      );
+      messageProducer.sendOrderBookRejected(key, orderBookRequest);
+      return;
+    }
+    if (!matchesClOrderID(oldOrder, orderBookRequest)) {
+      LOG.error("Matching of the clOrderID is wrong");
+      messageProducer.sendOrderBookRejected(key, orderBookRequest);
+      return;
+    }
+
+    if (orderBookRequest.getType() == OrderBookRequestType.CANCEL) {
+      integrityCheckService.cancelOrder(oldOrder);
+
+      LOG.debug("Order {} cancelled by {}", oldOrder, order);
+      orderBook.removeOrder(key);
+      orderBookChangelog.recordRemoval(orderBook.getSymbol(), key);
+      orderExpiryWheel.disarm(key);
+      messageProducer.sendOrderBookResponse(key, orderBookRequest);
+      return;
+    }
+
+    if (orderBookRequest.getType() == OrderBookRequestType.REPLACE) {
+      if (oldOrder.getSide() != order.getSide()) {
+        LOG.error("Modifification of the side is not allowed");
+        messageProducer.sendOrderBookRejected(key, orderBookRequest);
+        return;
+      }
+      if (oldOrder.getType() != order.getType()) {
+        LOG.error("Modifification of the type is not allowed");
+        messageProducer.sendOrderBookRejected(key, orderBookRequest);
+        return;
+      }
+
+      boolean integrityCheck = integrityCheckService.replaceOrder(
+        oldOrder,
+        order
+      );
+
+      if (!integrityCheck) {
+        LOG.error("Order {} could not be replaced by {}", oldOrder, order);
+        messageProducer.sendOrderBookRejected(key, orderBookRequest);
+        return;
+      }
+
+      LOG.debug("Order {} replaced by {}", oldOrder, order);
+      orderBook.replaceOrder(key, order);
+      orderBookChangelog.recordOrder(orderBook.getSymbol(), key, order);
+      orderExpiryWheel.arm(key, order);
+      messageProducer.sendOrderBookResponse(key, orderBookRequest);
+      crossOrders(orderBook, key);
+      cancelImmediateOrder(orderBook, key);
+    }
+  }
+
+  /**
+   * Check a REPLACE or CANCEL request of a chain against the net version of
+   * its order, the reservation is adjusted if it is accepted
+   * @return true if the request is accepted
+   */
+  private boolean decide(
+    ReservationAdjustment adjustment,
+    Order order,
+    OrderBookRequest orderBookRequest
+  ) {
+    if (order == null) {
+      LOG.error(
+        "Order could not be replaced/cancelled by {} because it does not exist",
+        orderBookRequest.getOrder()
+      );
+      return false;
+    }
+    if (!matchesClOrderID(order, orderBookRequest)) {
+      LOG.error("Matching of the clOrderID is wrong");
+      return false;
+    }
+    if (orderBookRequest.getType() == OrderBookRequestType.CANCEL) {
+      adjustment.cancel(order);
+      return true;
+    }
+
+    Order newOrder = orderBookRequest.getOrder();
+    if (order.getSide() != newOrder.getSide()) {
+      LOG.error("Modifification of the side is not allowed");
+      return false;
+    }
+    if (order.getType() != newOrder.getType()) {
+      LOG.error("Modifification of the type is not allowed");
+      return false;
+    }
+    if (!adjustment.replace(order, newOrder)) {
+      LOG.error("Order {} could not be replaced by {}", order, newOrder);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Cancel the remainder of an IOC order once it had its chance to match, a
+   * STOP or STOP_LIMIT order is only cancelled once triggered
+   */
+  private void cancelImmediateOrder(LimitOrderBook orderBook, String key) {
+    Order order = orderBook.getOrder(key);
+    if (order == null || !isImmediate(order)) {
+      return;
+    }
+    LOG.debug("Order {} cancelled as immediate or cancel", order);
+    orderBook.removeOrder(key);
+    cancelOrder(orderBook, key, order);
+  }
+
+  /**
+   * Release the reservation of an order removed from the book by the order
+   * book itself, and tell its user
+   */
+  private void cancelOrder(LimitOrderBook orderBook, String key, Order order) {
+    integrityCheckService.cancelOrder(order);
+    orderBookChangelog.recordRemoval(orderBook.getSymbol(), key);
+    messageProducer.sendOrderBookResponse(
+      key,
+      new OrderBookRequest(
+        OrderBookRequestType.CANCEL,
+        order,
+        order.getClOrderID()
+      )
+    );
+  }
+
+  /**
+   * Apply the parked cancels of the current version of an order
+   */
+  private void applyParkedCancels(LimitOrderBook orderBook, String key) {
+    if (!cancelLane.hasParked(key)) {
+      return;
+    }
+    Order order = orderBook.getOrder(key);
+    if (order == null) {
+      return;
+    }
+    for (CancelLane.ParkedCancel parkedCancel : cancelLane.unpark(
+      key,
+      order.getClOrderID()
+    )) {
+      applyOrderBookRequest(orderBook, key, parkedCancel.orderBookRequest());
+      cancelLane.recordAck(parkedCancel.timestamp());
+    }
+  }
+
+  /**
+   * The clOrderIDs are compared as strings, the orders of a COMPACT tree are
+   * rebuilt with String clOrderIDs
+   */
+  private static boolean matchesClOrderID(
+    Order order,
+    OrderBookRequest orderBookRequest
+  ) {
+    return order
+      .getClOrderID()
+      .toString()
+      .equals(String.valueOf(orderBookRequest.getOrigClOrderID()));
+  }
+
+  private static boolean isImmediate(Order order) {
+    return (
+      order.getTimeInForce() == TimeInForce.IOC &&
+      !LimitOrderBook.isStopOrder(order)
+    );
+  }
+
+  /**
+   * Fill the order of a NEW or REPLACE request against the resting orders it
+   * crosses, without waiting for the next market data. It is cancelled instead
+   * of trading with an order of its own user
+   */
+  private void crossOrders(LimitOrderBook orderBook, String key) {
+    if (!crossingEnabled) {
+      return;
+    }
+    List<String> filledIds = new ArrayList<>();
+    int trades = orderBook.crossOrders(
+      key,
+      (id, trade) -> {
+        messageProducer.sendTrade(id, trade);
+        filledIds.add(id);
+      },
+      (id, order) -> cancelOrder(orderBook, id, order)
+    );
+    if (trades == 0) {
+      return;
+    }
+    LOG.debug("Sent {} crossing trades to Kafka", trades);
+
+    // The remainder of a partially filled order stays in the book
+    for (String id : filledIds) {
+      Order order = orderBook.getOrder(id);
+      if (order == null) {
+        orderBookChangelog.recordRemoval(orderBook.getSymbol(), id);
+      } else {
+        orderBookChangelog.recordOrder(orderBook.getSymbol(), id, order);
+      }
+    }
+  }
+}
@@ -1,42 +1,86 @@
 package io.seak.order_book.order_book;
 
 import io.seak.avro.Order;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+/**
+ * Orders of a price level, kept in a doubly linked FIFO queue by arrival
+ * time.
+ */
 public class OrderList {
 
-  private Double price;
+  private final Double price;
   private Double volume;
-  private Map<String, Order> orders;
+  private int size;
+  private OrderNode head;
+  private OrderNode tail;
 
   public OrderList(Double price) {
     this.price = price;
     this.volume = 0.0;
-    orders = Collections.synchronizedMap(new HashMap<>());
+    this.size = 0;
   }
 
-  public void addOrder(String id, Order order) {
-    orders.put(id, order);
+  /**
+   * Append an order at the end of the queue
+   * @param id
+   * @param order
+   * @return the node of the order, to be kept by the caller
+   */
+  public OrderNode addOrder(String id, Order order) {
+    OrderNode node = new OrderNode(id, order, this);
+    if (tail == null) {
+      head = node;
+    } else {
+      tail.next = node;
+      node.prev = tail;
+    }
+    tail = node;
+    size++;
     volume += order.getQuantity();
+    return node;
   }
 
-  public Order removeOrder(String id) {
-    Order order = orders.get(id);
-    volume -= order.getQuantity();
-    return orders.remove(id);
+  /**
+   * Unlink a node of this level
+   * @param node
+   * @return the order of the node
+   */
+  public Order removeOrder(OrderNode node) {
+    if (node.prev == null) {
+      head = node.next;
+    } else {
+      node.prev.next = node.next;
+    }
+    if (node.next == null) {
+      tail = node.prev;
+    } else {
+      node.next.prev = node.prev;
+    }
+    size--;
+    volume -= node.getOrder().getQuantity();
+    Order order = node.getOrder();
+    node.unlink();
+    return order;
   }
 
-  public void replaceOrder(String id, Order order) {
-    Order oldOrder = orders.get(id);
-    volume -= oldOrder.getQuantity();
+  /**
+   * Replace the order of a node, keeping its place in the queue
+   * @param node
+   * @param order
+   */
+  public void replaceOrder(OrderNode node, Order order) {
+    volume -= node.getOrder().getQuantity();
     volume += order.getQuantity();
-    orders.put(id, order);
+    node.setOrder(order);
   }
 
-  public Order getOrder(String id) {
-    return orders.get(id);
+  /**
+   * @return the oldest order of the level, null if the level is empty
+   */
+  public OrderNode getHead() {
+    return head;
   }
 
   public double getPrice() {
@@ -47,11 +91,28 @@ public class OrderList {
     return volume;
   }
 
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return head == null;
+  }
+
+  /**
+   * Copy of the orders of the level, in arrival order
+   */
   public Map<String, Order> getOrders() {
-    return Map.copyOf(orders);
+    Map<String, Order> orders = new LinkedHashMap<>();
+    for (OrderNode node = head; node != null; node = node.next) {
+      orders.put(node.getId(), node.getOrder());
+    }
+    return orders;
   }
 
   public String toString() {
-    return "Price: " + price + " |Volume: " + volume + " |Orders: " + orders;
+    return (
+      "Price: " + price + " |Volume: " + volume + " |Orders: " + getOrders()
+    );
   }
 }
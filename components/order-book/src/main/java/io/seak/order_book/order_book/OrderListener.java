@@ -1,142 +1,162 @@
 package io.seak.order_book.order_book;
 
-import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Timer;
+import io.micronaut.configuration.kafka.ConsumerAware;
+import io.micronaut.configuration.kafka.ConsumerSeekAware;
 import io.micronaut.configuration.kafka.annotation.KafkaListener;
 import io.micronaut.configuration.kafka.annotation.OffsetReset;
 import io.micronaut.configuration.kafka.annotation.Topic;
-import io.seak.avro.Order;
+import io.micronaut.configuration.kafka.seek.KafkaSeeker;
+import io.micronaut.context.annotation.Property;
 import io.seak.avro.OrderBookRequest;
-import io.seak.avro.OrderBookRequestType;
-import io.seak.order_book.MessageProducer;
+import io.seak.order_book.engine.OrderBookEngine;
+import io.seak.order_book.expiry.OrderExpiryWheel;
+import io.seak.order_book.market_data.MarketDepthPublisher;
+import io.seak.order_book.partitioning.OrderBookChangelog;
+import io.seak.order_book.partitioning.RequestOffsets;
+import io.seak.order_book.partitioning.SymbolOwnership;
+import io.seak.order_book.replication.ReplicationService;
+import io.seak.order_book.snapshot.OrderBookSnapshotService;
 import jakarta.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 
 @Singleton
-public class OrderListener {
-
-  private static final org.slf4j.Logger LOG = org.slf4j.LoggerFactory.getLogger(
-    OrderListener.class
-  );
-
-  private final OrderBookCatalog orderBookCatalog;
-  private final IntegrityCheckService integrityCheckService;
-  private final MessageProducer messageProducer;
-  private final MeterRegistry meterRegistry;
+public class OrderListener
+  implements ConsumerSeekAware, ConsumerAware<String, OrderBookRequest> {
+
+  private final OrderBookEngine orderBookEngine;
+  private final OrderBookSnapshotService snapshotService;
+  private final ReplicationService replicationService;
+  private final SymbolOwnership symbolOwnership;
+  private final OrderBookChangelog orderBookChangelog;
+  private final MarketDepthPublisher marketDepthPublisher;
+  private final CancelLane cancelLane;
+  private final RequestOffsets requestOffsets;
+  private final OrderExpiryWheel orderExpiryWheel;
+  private final String cancelTopic;
+
+  private Consumer<String, OrderBookRequest> consumer;
 
   public OrderListener(
-    OrderBookCatalog orderBookCatalog,
-    IntegrityCheckService integrityCheckService,
-    MessageProducer messageProducer,
-    MeterRegistry meterRegistry
+    OrderBookEngine orderBookEngine,
+    OrderBookSnapshotService snapshotService,
+    ReplicationService replicationService,
+    SymbolOwnership symbolOwnership,
+    OrderBookChangelog orderBookChangelog,
+    MarketDepthPublisher marketDepthPublisher,
+    CancelLane cancelLane,
+    RequestOffsets requestOffsets,
+    OrderExpiryWheel orderExpiryWheel,
+    @Property(name = "kafka.topics.order-book-cancel") String cancelTopic
   ) {
-    this.orderBookCatalog = orderBookCatalog;
-    this.integrityCheckService = integrityCheckService;
-    this.messageProducer = messageProducer;
-    this.meterRegistry = meterRegistry;
+    this.orderBookEngine = orderBookEngine;
+    this.snapshotService = snapshotService;
+    this.replicationService = replicationService;
+    this.symbolOwnership = symbolOwnership;
+    this.orderBookChangelog = orderBookChangelog;
+    this.marketDepthPublisher = marketDepthPublisher;
+    this.cancelLane = cancelLane;
+    this.requestOffsets = requestOffsets;
+    this.orderExpiryWheel = orderExpiryWheel;
+    this.cancelTopic = cancelTopic;
   }
 
   @KafkaListener(
-    groupId = "order-book-orders",
+    groupId = "order-book-orders${order-book.replication.group-suffix}",
     batch = true,
     offsetReset = OffsetReset.EARLIEST
   )
-  @Topic(patterns = "${kafka.topics.order-book-request}")
+  // The cancel topic has the same partitions, assigned with the requests of
+  // the same symbols
+  @Topic(
+    patterns = "${kafka.topics.order-book-request}|${kafka.topics.order-book-cancel}"
+  )
   public void receiveOrder(
     List<ConsumerRecord<String, OrderBookRequest>> records
   ) {
-    records.forEach(item -> {
-      Timer orderBookHandleOrderTimer = meterRegistry.timer(
-        "order_book_handle_order",
-        "symbol",
-        item.value().getOrder().getSymbol().toString(),
-        "requestType",
-        item.value().getType().toString()
-      );
-      Timer.Sample sample = Timer.start();
-      handleOrderBookRequest(item.key(), item.value());
-      sample.stop(orderBookHandleOrderTimer);
-    });
-  }
-
-  private void handleOrderBookRequest(
-    String key,
-    OrderBookRequest orderBookRequest
-  ) {
-    Order order = orderBookRequest.getOrder();
-    String symbol = order.getSymbol().toString();
-    LOG.debug(
-      "Received order book request: {} for symbol: {}",
-      orderBookRequest,
-      symbol
-    );
-
-    LimitOrderBook orderBook = orderBookCatalog.getOrderBook(symbol);
-    if (orderBook == null) {
-      orderBookCatalog.addOrderBook(symbol);
-      orderBook = orderBookCatalog.getOrderBook(symbol);
-    }
-
-    if (orderBookRequest.getType() == OrderBookRequestType.NEW) {
-      orderBook.addOrder(key, order);
-      messageProducer.sendOrderBookResponse(key, orderBookRequest);
-      return;
-    }
-
-    Order oldOrder = orderBook.getOrder(key);
-
-    if (oldOrder == null) {
-      LOG.error(
-        "Order could not be replaced/cancelled by {} because it does not exist",
-        order
-      );
-      messageProducer.sendOrderBookRejected(key, orderBookRequest);
-      return;
-    }
-    if (
-      !oldOrder.getClOrderID().equals((orderBookRequest.getOrigClOrderID()))
-    ) {
-      LOG.error("Matching of the clOrderID is wrong");
-      messageProducer.sendOrderBookRejected(key, orderBookRequest);
-      return;
-    }
-
-    if (orderBookRequest.getType() == OrderBookRequestType.CANCEL) {
-      integrityCheckService.cancelOrder(oldOrder);
-
-      LOG.debug("Order {} cancelled by {}", oldOrder, order);
-      orderBook.removeOrder(key);
-      messageProducer.sendOrderBookResponse(key, orderBookRequest);
-      return;
-    }
-
-    if (orderBookRequest.getType() == OrderBookRequestType.REPLACE) {
-      if (oldOrder.getSide() != order.getSide()) {
-        LOG.error("Modifification of the side is not allowed");
-        messageProducer.sendOrderBookRejected(key, orderBookRequest);
-        return;
-      }
-      if (oldOrder.getType() != order.getType()) {
-        LOG.error("Modifification of the type is not allowed");
-        messageProducer.sendOrderBookRejected(key, orderBookRequest);
-        return;
+    snapshotService.process(
+      records,
+      batch -> {
+        Set<String> symbols = new HashSet<>();
+        List<ConsumerRecord<String, OrderBookRequest>> cancels =
+          new ArrayList<>();
+        RequestChains requestChains = new RequestChains();
+        batch.forEach(item -> {
+          symbols.add(item.value().getOrder().getSymbol().toString());
+          orderExpiryWheel.stampDeadline(
+            item.value().getOrder(),
+            item.timestamp()
+          );
+          // A follower waits for the verdict of the leader
+          if (replicationService.trackRequest(item.key(), item.value())) {
+            return;
+          }
+          if (item.topic().equals(cancelTopic)) {
+            cancels.add(item);
+            return;
+          }
+          requestChains.add(item.key(), item.value());
+        });
+        // The cancels are applied before the other requests of the batch
+        cancels.forEach(item ->
+          orderBookEngine.submitCancelRequest(
+            item.key(),
+            item.value(),
+            item.timestamp()
+          )
+        );
+        requestChains
+          .getChains()
+          .forEach(chain -> {
+            if (chain.orderBookRequests().size() == 1) {
+              orderBookEngine.submitOrderBookRequest(
+                chain.key(),
+                chain.orderBookRequests().get(0)
+              );
+            } else {
+              orderBookEngine.submitOrderBookRequests(
+                chain.key(),
+                chain.orderBookRequests()
+              );
+            }
+          });
+        marketDepthPublisher.publishChanges(symbols);
+        orderBookEngine.awaitProcessed();
+        orderBookChangelog.flush();
+        // The parked cancels are rejected once the requests written before
+        // them are applied
+        batch.forEach(item -> {
+          if (!item.topic().equals(cancelTopic)) {
+            requestOffsets.recordApplied(item);
+          }
+        });
       }
+    );
+  }
 
-      boolean integrityCheck = integrityCheckService.replaceOrder(
-        oldOrder,
-        order
-      );
+  @Override
+  public void setKafkaConsumer(Consumer<String, OrderBookRequest> consumer) {
+    this.consumer = consumer;
+  }
 
-      if (!integrityCheck) {
-        LOG.error("Order {} could not be replaced by {}", oldOrder, order);
-        messageProducer.sendOrderBookRejected(key, orderBookRequest);
-        return;
-      }
+  @Override
+  public void onPartitionsAssigned(
+    Collection<TopicPartition> partitions,
+    KafkaSeeker seeker
+  ) {
+    cancelLane.checkAssignment(partitions);
+    symbolOwnership.onPartitionsAssigned(partitions);
+    snapshotService.seekToSnapshot(partitions, seeker, consumer::committed);
+  }
 
-      LOG.debug("Order {} replaced by {}", oldOrder, order);
-      orderBook.replaceOrder(key, order);
-      messageProducer.sendOrderBookResponse(key, orderBookRequest);
-    }
+  @Override
+  public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+    symbolOwnership.onPartitionsRevoked(partitions);
   }
 }
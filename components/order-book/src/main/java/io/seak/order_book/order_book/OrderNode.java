@@ -0,0 +1,56 @@
+package io.seak.order_book.order_book;
+
+import io.seak.avro.Order;
+
+/**
+ * Node of the FIFO queue of an {@link OrderList}.
+ *
+ * The order trees keep the node of each order in their id index, so that an
+ * order can be removed or replaced without looking it up in its level.
+ */
+public final class OrderNode {
+
+  private final String id;
+  private Order order;
+  private OrderList orderList;
+  OrderNode prev;
+  OrderNode next;
+
+  OrderNode(String id, Order order, OrderList orderList) {
+    this.id = id;
+    this.order = order;
+    this.orderList = orderList;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public Order getOrder() {
+    return order;
+  }
+
+  void setOrder(Order order) {
+    this.order = order;
+  }
+
+  /**
+   * @return the level holding the node, null once it has been removed
+   */
+  public OrderList getOrderList() {
+    return orderList;
+  }
+
+  void unlink() {
+    this.orderList = null;
+    this.prev = null;
+    this.next = null;
+  }
+
+  /**
+   * @return the next order of the level by arrival time
+   */
+  public OrderNode getNext() {
+    return next;
+  }
+}
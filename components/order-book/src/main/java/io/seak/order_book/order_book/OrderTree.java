@@ -1,163 +1,88 @@
 package io.seak.order_book.order_book;
 
 import io.seak.avro.Order;
-import io.seak.avro.Side;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.SortedMap;
-import java.util.TreeMap;
-import java.util.stream.Collectors;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.function.BiConsumer;
 
-public class OrderTree {
+/**
+ * One side (BUY or SELL) of a {@link LimitOrderBook}.
+ *
+ * The implementation used is selected with the
+ * {@code order-book.order-tree.type} property, see {@link OrderTreeFactory}.
+ */
+public interface OrderTree {
+  Order addOrder(String id, Order order);
 
-  private static final Logger LOG = LoggerFactory.getLogger(OrderTree.class);
+  Order removeOrder(String id);
 
-  // All order of the side, map (id, price)
-  private final Map<String, Double> orders;
+  Order replaceOrder(String id, Order order);
 
-  // Map of price and orderList
-  private final SortedMap<Double, OrderList> priceMap;
-
-  // Side of the tree
-  private final Side side;
-
-  public OrderTree(final Side side) {
-    this.orders = Collections.synchronizedMap(new HashMap<>());
-    this.priceMap = Collections.synchronizedSortedMap(new TreeMap<>());
-    this.side = side;
-  }
-
-  public Order addOrder(String id, Order order) {
-    LOG.trace("Add order [{}]{} to order tree {}", id, order, this.side);
-    Double price = order.getPrice();
-    OrderList orderList = priceMap.computeIfAbsent(price, OrderList::new);
-    orderList.addOrder(id, order);
-    orders.put(id, price);
-    return order;
-  }
-
-  public Order removeOrder(String id) {
-    LOG.trace("Remove order [{}] from order tree {}", id, this.side);
-    Double price = orders.get(id);
-    if (price == null) {
-      return null;
-    }
-    OrderList orderList = priceMap.get(price);
-    Order order = orderList.removeOrder(id);
-    if (orderList.getVolume() <= 0) {
-      priceMap.remove(price);
-    }
-    orders.remove(id);
-    return order;
-  }
-
-  public Order replaceOrder(String id, Order order) {
-    LOG.trace("Replace order [{}]{} in order tree {}", id, order, this.side);
-    Double oldPrice = orders.get(id);
-    if (oldPrice == null) {
-      return null;
-    }
-
-    Double newPrice = order.getPrice();
-
-    if (oldPrice.equals(newPrice)) {
-      OrderList orderList = priceMap.get(oldPrice);
-      orderList.replaceOrder(id, order);
-    } else {
-      OrderList oldOrderList = priceMap.get(oldPrice);
-      OrderList newOrderList = priceMap.computeIfAbsent(
-        newPrice,
-        OrderList::new
-      );
-
-      oldOrderList.removeOrder(id);
-      newOrderList.addOrder(id, order);
-
-      if (oldOrderList.getVolume() <= 0) {
-        priceMap.remove(oldPrice);
-      }
-    }
-    orders.put(id, newPrice);
-    return order;
-  }
+  /**
+   * Remove the orders crossing the market data price, starting from the best
+   * level, and hand them to the consumer as they are removed
+   * @param price
+   * @param consumer receives the id and the order of each matched order
+   * @return the number of matched orders
+   */
+  int sweepOrders(Double price, BiConsumer<String, Order> consumer);
 
   /**
    * Match orders with market data price
    * @param price
-   * @return Map of order id and order
+   * @return Map of order id and order, by price then arrival time
    */
-  public Map<String, Order> matchOrders(Double price) {
-    LOG.trace("Match orders in order tree {} with price {}", this.side, price);
-    Map<String, Order> matchedOrders = null;
-    if (side == Side.BUY) {
-      matchedOrders = matchBuyOrders(price);
-    } else {
-      matchedOrders = matchSellOrders(price);
-    }
-    matchedOrders.forEach((id, order) -> removeOrder(id));
+  default Map<String, Order> matchOrders(Double price) {
+    Map<String, Order> matchedOrders = new LinkedHashMap<>();
+    sweepOrders(price, matchedOrders::put);
     return matchedOrders;
   }
 
+  Map<String, Order> getOrders();
+
   /**
-   * Match all order which are above a certain price
-   * @param price
-   * @return
+   * Visit every order of the tree, by ascending price then arrival time
+   * @param consumer
    */
-  private Map<String, Order> matchBuyOrders(Double price) {
-    return priceMap
-      .tailMap(price)
-      .values()
-      .stream()
-      .map(OrderList::getOrders)
-      .flatMap(map -> map.entrySet().stream())
-      .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-  }
+  void forEachOrder(BiConsumer<String, Order> consumer);
 
   /**
-   * Match all order which are bellow a certain price
-   * @param price
-   * @return
+   * Visit the best levels of the tree, from the best price
+   * @param depth maximum number of levels visited
+   * @param consumer receives the price and the volume of each level
    */
-  private Map<String, Order> matchSellOrders(Double price) {
-    return priceMap
-      .headMap(price)
-      .values()
-      .stream()
-      .map(OrderList::getOrders)
-      .flatMap(map -> map.entrySet().stream())
-      .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-  }
+  void forEachBestLevel(int depth, BiConsumer<Double, Double> consumer);
 
-  public Map<String, Order> getOrders() {
-    Map<String, Order> ordersMap = new HashMap<>();
-    priceMap.forEach((price, orderList) -> {
-      Map<String, Order> orderMap = orderList.getOrders();
-      ordersMap.putAll(orderMap);
-    });
-    return ordersMap;
-  }
+  Order getOrder(String id);
 
-  public Order getOrder(String id) {
-    Double price = orders.get(id);
-    if (price == null) {
-      return null;
-    }
-    OrderList orderList = priceMap.get(price);
-    return orderList.getOrder(id);
-  }
+  boolean contains(String id);
 
-  public boolean contains(String id) {
-    return orders.containsKey(id);
-  }
+  Double getTotalVolume();
 
-  public Double getTotalVolume() {
-    return priceMap.values().stream().mapToDouble(OrderList::getVolume).sum();
-  }
+  int getOrderCount();
 
-  public String toString() {
-    return priceMap.toString();
-  }
+  int getLevelCount();
+
+  /**
+   * @return the price of the best level, null if the tree is empty
+   */
+  Double getBestPrice();
+
+  /**
+   * @return the volume of the best level, 0 if the tree is empty
+   */
+  Double getBestLevelVolume();
+
+  /**
+   * @return the oldest order of the best level, null if the tree is empty
+   */
+  OrderNode getBestOrder();
+
+  /**
+   * Check against the best level whether some orders may cross the market
+   * data price, without walking the tree
+   * @param price
+   * @return false when {@link #sweepOrders} would not match any order
+   */
+  boolean canMatch(Double price);
 }
@@ -0,0 +1,43 @@
+package io.seak.order_book.order_book;
+
+import io.micronaut.context.annotation.Property;
+import io.seak.avro.Side;
+import jakarta.inject.Singleton;
+
+@Singleton
+public class OrderTreeFactory {
+
+  private final OrderTreeType type;
+  private final double tickSize;
+  private final int ladderSize;
+
+  // Usernames and symbols of the COMPACT trees of every book
+  private final StringPool stringPool;
+
+  public OrderTreeFactory(
+    @Property(name = "order-book.order-tree.type") OrderTreeType type,
+    @Property(name = "order-book.order-tree.tick-size") double tickSize,
+    @Property(name = "order-book.order-tree.ladder-size") int ladderSize
+  ) {
+    this.type = type;
+    this.tickSize = tickSize;
+    this.ladderSize = ladderSize;
+    this.stringPool = new StringPool();
+  }
+
+  public OrderTree create(Side side) {
+    switch (type) {
+      case PRICE_LADDER:
+        return new PriceLadderOrderTree(side, tickSize, ladderSize);
+      case COMPACT:
+        return new CompactOrderTree(side, stringPool);
+      case TREE_MAP:
+      default:
+        return new TreeMapOrderTree(side);
+    }
+  }
+
+  public OrderTreeType getType() {
+    return type;
+  }
+}
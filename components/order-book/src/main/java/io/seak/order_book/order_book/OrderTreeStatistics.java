@@ -0,0 +1,36 @@
+package io.seak.order_book.order_book;
+
+import io.seak.avro.Side;
+
+/**
+ * Aggregates of one side of a {@link LimitOrderBook}, maintained by the
+ * {@link OrderTree} on every mutation.
+ *
+ * @param bestPrice price of the best level, null if the side is empty
+ */
+public record OrderTreeStatistics(
+  Side side,
+  double totalVolume,
+  int orderCount,
+  int levelCount,
+  Double bestPrice,
+  double bestLevelVolume
+) {
+  static OrderTreeStatistics of(Side side, OrderTree orderTree) {
+    return new OrderTreeStatistics(
+      side,
+      orderTree.getTotalVolume(),
+      orderTree.getOrderCount(),
+      orderTree.getLevelCount(),
+      orderTree.getBestPrice(),
+      orderTree.getBestLevelVolume()
+    );
+  }
+
+  /**
+   * @return the best price, NaN if the side is empty
+   */
+  public double bestPriceOrNaN() {
+    return bestPrice == null ? Double.NaN : bestPrice;
+  }
+}
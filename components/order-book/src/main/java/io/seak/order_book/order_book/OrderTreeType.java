@@ -0,0 +1,17 @@
+package io.seak.order_book.order_book;
+
+public enum OrderTreeType {
+  /**
+   * {@link TreeMapOrderTree}: price levels in a sorted map
+   */
+  TREE_MAP,
+  /**
+   * {@link PriceLadderOrderTree}: price levels in an array indexed by tick
+   */
+  PRICE_LADDER,
+  /**
+   * {@link CompactOrderTree}: orders stored as columns, price levels in a
+   * sorted map
+   */
+  COMPACT,
+}
@@ -0,0 +1,495 @@
+package io.seak.order_book.order_book;
+
+import io.seak.avro.Order;
+import io.seak.avro.Side;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Order tree storing the price levels in a ladder indexed by tick.
+ *
+ * Prices are normalized to integer ticks ({@code round(price / tickSize)}).
+ * Ticks inside a window of {@code ladderSize} ticks are stored in an array,
+ * with a bitmap of the occupied levels so that the best level is found without
+ * walking a tree. The window is centered on the first price seen while the
+ * ladder is empty, prices outside of it fall back to a sparse sorted map.
+ *
+ * Orders keep their own price: several prices rounding to the same tick share
+ * a level, and only the level of the matching price is checked order by order.
+ *
+ * This class is not thread-safe, it is only accessed through its
+ * {@link LimitOrderBook}, with the exclusive access to the book.
+ */
+public class PriceLadderOrderTree implements OrderTree {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    PriceLadderOrderTree.class
+  );
+
+  // All order of the side, map (id, node)
+  private final Map<String, OrderNode> orders;
+
+  // Dense window of price levels, index = tick - baseTick
+  private final OrderList[] ladder;
+
+  // Bitmap of the non empty levels of the ladder
+  private final long[] occupied;
+
+  // Tick of the first level of the ladder
+  private long baseTick;
+
+  // Number of non empty levels in the ladder
+  private int ladderLevels;
+
+  // Index of the best level in the ladder, -1 if the ladder is empty
+  private int bestIndex;
+
+  // Best level of the side, either in the ladder or in the sparse levels
+  private OrderList bestLevel;
+
+  // Price levels outside of the ladder window, map (tick, orderList)
+  private final NavigableMap<Long, OrderList> sparseLevels;
+
+  // Side of the tree
+  private final Side side;
+
+  private final double tickSize;
+
+  private double totalVolume;
+
+  public PriceLadderOrderTree(
+    final Side side,
+    final double tickSize,
+    final int ladderSize
+  ) {
+    if (tickSize <= 0) {
+      throw new IllegalArgumentException("Tick size must be positive");
+    }
+    if (ladderSize <= 0) {
+      throw new IllegalArgumentException("Ladder size must be positive");
+    }
+    this.orders = new HashMap<>();
+    this.ladder = new OrderList[ladderSize];
+    this.occupied = new long[(ladderSize + 63) >>> 6];
+    this.bestIndex = -1;
+    this.sparseLevels = new TreeMap<>();
+    this.side = side;
+    this.tickSize = tickSize;
+    this.totalVolume = 0.0;
+  }
+
+  @Override
+  public Order addOrder(String id, Order order) {
+    LOG.trace("Add order [{}]{} to order tree {}", id, order, this.side);
+    OrderList orderList = getOrCreateLevel(toTick(order.getPrice()));
+    orders.put(id, orderList.addOrder(id, order));
+    totalVolume += order.getQuantity();
+    return order;
+  }
+
+  @Override
+  public Order removeOrder(String id) {
+    LOG.trace("Remove order [{}] from order tree {}", id, this.side);
+    OrderNode node = orders.remove(id);
+    if (node == null) {
+      return null;
+    }
+    OrderList orderList = node.getOrderList();
+    Order order = orderList.removeOrder(node);
+    totalVolume -= order.getQuantity();
+    releaseLevelIfEmpty(orderList);
+    return order;
+  }
+
+  @Override
+  public Order replaceOrder(String id, Order order) {
+    LOG.trace("Replace order [{}]{} in order tree {}", id, order, this.side);
+    OrderNode node = orders.get(id);
+    if (node == null) {
+      return null;
+    }
+    OrderList oldOrderList = node.getOrderList();
+    Order oldOrder = node.getOrder();
+    long newTick = toTick(order.getPrice());
+
+    if (toTick(oldOrderList.getPrice()) == newTick) {
+      oldOrderList.replaceOrder(node, order);
+    } else {
+      oldOrderList.removeOrder(node);
+      releaseLevelIfEmpty(oldOrderList);
+      OrderList newOrderList = getOrCreateLevel(newTick);
+      orders.put(id, newOrderList.addOrder(id, order));
+    }
+    totalVolume += order.getQuantity() - oldOrder.getQuantity();
+    return order;
+  }
+
+  /**
+   * Levels are popped from the best end of the side while they cross the
+   * market data price. The level of the market data tick may hold prices on
+   * both sides of it, so its orders are checked one by one and the sweep stops
+   * there.
+   */
+  @Override
+  public int sweepOrders(Double price, BiConsumer<String, Order> consumer) {
+    LOG.trace("Match orders in order tree {} with price {}", this.side, price);
+    long boundaryTick = toTick(price);
+    int matched = 0;
+
+    while (canMatch(boundaryTick)) {
+      OrderList orderList = bestLevel;
+      long tick = toTick(orderList.getPrice());
+      boolean boundary = tick == boundaryTick;
+      OrderNode node = orderList.getHead();
+      while (node != null) {
+        OrderNode next = node.getNext();
+        Order order = node.getOrder();
+        if (!boundary || crosses(order.getPrice(), price)) {
+          orders.remove(node.getId());
+          orderList.removeOrder(node);
+          totalVolume -= order.getQuantity();
+          consumer.accept(node.getId(), order);
+          matched++;
+        }
+        node = next;
+      }
+      releaseLevelIfEmpty(orderList);
+      if (boundary) {
+        break;
+      }
+    }
+    return matched;
+  }
+
+  /**
+   * Compare ticks only: the best level may hold orders on both sides of the
+   * market data price when it is on its tick.
+   */
+  @Override
+  public boolean canMatch(Double price) {
+    return canMatch(toTick(price));
+  }
+
+  private boolean canMatch(long boundaryTick) {
+    OrderList orderList = bestLevel;
+    if (orderList == null) {
+      return false;
+    }
+    long tick = toTick(orderList.getPrice());
+    return side == Side.BUY ? tick >= boundaryTick : tick <= boundaryTick;
+  }
+
+  @Override
+  public Map<String, Order> getOrders() {
+    Map<String, Order> ordersMap = new HashMap<>();
+    forEachOrder(ordersMap::put);
+    return ordersMap;
+  }
+
+  @Override
+  public void forEachOrder(BiConsumer<String, Order> consumer) {
+    for (OrderList orderList : levels()) {
+      for (
+        OrderNode node = orderList.getHead();
+        node != null;
+        node = node.getNext()
+      ) {
+        consumer.accept(node.getId(), node.getOrder());
+      }
+    }
+  }
+
+  /**
+   * Walk the sparse levels beyond the window, then the bitmap of the ladder,
+   * then the sparse levels on the other side of the window.
+   */
+  @Override
+  public void forEachBestLevel(
+    int depth,
+    BiConsumer<Double, Double> consumer
+  ) {
+    NavigableMap<Long, OrderList> above = sparseLevels.tailMap(baseTick, true);
+    NavigableMap<Long, OrderList> below = sparseLevels.headMap(baseTick, false);
+    int remaining = depth;
+    if (side == Side.BUY) {
+      remaining = visitLevels(above.descendingMap(), remaining, consumer);
+      for (
+        int index = occupiedAtOrBelow(ladder.length - 1);
+        index >= 0 && remaining > 0;
+        index = occupiedAtOrBelow(index - 1)
+      ) {
+        consumer.accept(ladder[index].getPrice(), ladder[index].getVolume());
+        remaining--;
+      }
+      visitLevels(below.descendingMap(), remaining, consumer);
+    } else {
+      remaining = visitLevels(below, remaining, consumer);
+      for (
+        int index = occupiedAtOrAbove(0);
+        index >= 0 && remaining > 0;
+        index = occupiedAtOrAbove(index + 1)
+      ) {
+        consumer.accept(ladder[index].getPrice(), ladder[index].getVolume());
+        remaining--;
+      }
+      visitLevels(above, remaining, consumer);
+    }
+  }
+
+  private static int visitLevels(
+    Map<Long, OrderList> levels,
+    int remaining,
+    BiConsumer<Double, Double> consumer
+  ) {
+    for (OrderList orderList : levels.values()) {
+      if (remaining <= 0) {
+        break;
+      }
+      consumer.accept(orderList.getPrice(), orderList.getVolume());
+      remaining--;
+    }
+    return remaining;
+  }
+
+  @Override
+  public Order getOrder(String id) {
+    OrderNode node = orders.get(id);
+    if (node == null) {
+      return null;
+    }
+    return node.getOrder();
+  }
+
+  @Override
+  public boolean contains(String id) {
+    return orders.containsKey(id);
+  }
+
+  @Override
+  public Double getTotalVolume() {
+    return totalVolume;
+  }
+
+  @Override
+  public int getOrderCount() {
+    return orders.size();
+  }
+
+  @Override
+  public int getLevelCount() {
+    return ladderLevels + sparseLevels.size();
+  }
+
+  @Override
+  public Double getBestPrice() {
+    OrderList orderList = bestLevel;
+    return orderList == null ? null : orderList.getPrice();
+  }
+
+  @Override
+  public Double getBestLevelVolume() {
+    OrderList orderList = bestLevel;
+    return orderList == null ? 0.0 : orderList.getVolume();
+  }
+
+  @Override
+  public OrderNode getBestOrder() {
+    OrderList orderList = bestLevel;
+    return orderList == null ? null : orderList.getHead();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    List<OrderList> levels = levels();
+    for (int i = 0; i < levels.size(); i++) {
+      OrderList orderList = levels.get(i);
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(orderList.getPrice()).append('=').append(orderList);
+    }
+    return sb.append('}').toString();
+  }
+
+  private long toTick(double price) {
+    return Math.round(price / tickSize);
+  }
+
+  private double toPrice(long tick) {
+    return tick * tickSize;
+  }
+
+  private boolean crosses(double orderPrice, double marketPrice) {
+    if (side == Side.BUY) {
+      return orderPrice >= marketPrice;
+    }
+    return orderPrice < marketPrice;
+  }
+
+  /**
+   * Index of the tick inside the ladder
+   * @param tick
+   * @return the index, -1 if the tick is outside of the window
+   */
+  private int indexOf(long tick) {
+    long offset = tick - baseTick;
+    if (offset < 0 || offset >= ladder.length) {
+      return -1;
+    }
+    return (int) offset;
+  }
+
+  private OrderList getOrCreateLevel(long tick) {
+    if (ladderLevels == 0) {
+      recenter(tick);
+    }
+    int index = indexOf(tick);
+    OrderList orderList = index < 0 ? sparseLevels.get(tick) : ladder[index];
+    if (orderList == null) {
+      orderList = new OrderList(toPrice(tick));
+      if (index < 0) {
+        sparseLevels.put(tick, orderList);
+      } else {
+        placeLevel(index, orderList);
+      }
+      bestLevel = findBestLevel();
+    }
+    return orderList;
+  }
+
+  private void placeLevel(int index, OrderList orderList) {
+    ladder[index] = orderList;
+    occupied[index >>> 6] |= 1L << (index & 63);
+    ladderLevels++;
+    if (bestIndex < 0 || isBetter(index, bestIndex)) {
+      bestIndex = index;
+    }
+  }
+
+  private void releaseLevelIfEmpty(OrderList orderList) {
+    if (!orderList.isEmpty()) {
+      return;
+    }
+    long tick = toTick(orderList.getPrice());
+    int index = indexOf(tick);
+    if (index < 0 || ladder[index] != orderList) {
+      sparseLevels.remove(tick);
+    } else {
+      ladder[index] = null;
+      occupied[index >>> 6] &= ~(1L << (index & 63));
+      ladderLevels--;
+      if (index == bestIndex) {
+        bestIndex =
+          side == Side.BUY
+            ? occupiedAtOrBelow(index)
+            : occupiedAtOrAbove(index);
+      }
+    }
+    if (orderList == bestLevel) {
+      bestLevel = findBestLevel();
+    }
+  }
+
+  /**
+   * Move the window of the empty ladder around the tick, pulling in the sparse
+   * levels which now fall inside of it.
+   */
+  private void recenter(long tick) {
+    baseTick = tick - ladder.length / 2;
+    bestIndex = -1;
+    if (sparseLevels.isEmpty()) {
+      return;
+    }
+    Iterator<Map.Entry<Long, OrderList>> iterator = sparseLevels
+      .subMap(baseTick, true, baseTick + ladder.length - 1, true)
+      .entrySet()
+      .iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<Long, OrderList> entry = iterator.next();
+      placeLevel((int) (entry.getKey() - baseTick), entry.getValue());
+      iterator.remove();
+    }
+  }
+
+  private boolean isBetter(int index, int otherIndex) {
+    return side == Side.BUY ? index > otherIndex : index < otherIndex;
+  }
+
+  private int occupiedAtOrBelow(int index) {
+    if (index < 0) {
+      return -1;
+    }
+    int word = index >>> 6;
+    long bits = occupied[word] & (-1L >>> (63 - (index & 63)));
+    while (bits == 0) {
+      if (--word < 0) {
+        return -1;
+      }
+      bits = occupied[word];
+    }
+    return (word << 6) + 63 - Long.numberOfLeadingZeros(bits);
+  }
+
+  private int occupiedAtOrAbove(int index) {
+    if (index >= ladder.length) {
+      return -1;
+    }
+    int word = index >>> 6;
+    long bits = occupied[word] & (-1L << (index & 63));
+    while (bits == 0) {
+      if (++word >= occupied.length) {
+        return -1;
+      }
+      bits = occupied[word];
+    }
+    return (word << 6) + Long.numberOfTrailingZeros(bits);
+  }
+
+  /**
+   * Best level of the side, either in the ladder or in the sparse levels
+   * @return the level, null if the tree is empty
+   */
+  private OrderList findBestLevel() {
+    Map.Entry<Long, OrderList> sparseEntry;
+    boolean sparseIsBetter;
+    if (side == Side.BUY) {
+      sparseEntry = sparseLevels.lastEntry();
+      sparseIsBetter =
+        sparseEntry != null && sparseEntry.getKey() >= baseTick + ladder.length;
+    } else {
+      sparseEntry = sparseLevels.firstEntry();
+      sparseIsBetter = sparseEntry != null && sparseEntry.getKey() < baseTick;
+    }
+    if (sparseIsBetter || (bestIndex < 0 && sparseEntry != null)) {
+      return sparseEntry.getValue();
+    }
+    return bestIndex < 0 ? null : ladder[bestIndex];
+  }
+
+  /**
+   * All the levels of the tree by ascending price
+   */
+  private List<OrderList> levels() {
+    List<OrderList> levels = new ArrayList<>(
+      sparseLevels.headMap(baseTick, false).values()
+    );
+    for (
+      int index = occupiedAtOrAbove(0);
+      index >= 0;
+      index = occupiedAtOrAbove(index + 1)
+    ) {
+      levels.add(ladder[index]);
+    }
+    levels.addAll(sparseLevels.tailMap(baseTick, true).values());
+    return levels;
+  }
+}
@@ -0,0 +1,50 @@
+package io.seak.order_book.order_book;
+
+import io.seak.avro.OrderBookRequest;
+import io.seak.avro.OrderBookRequestType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chains of the consecutive REPLACE and CANCEL requests of an order, applied
+ * together. A chain is cut by any other request of its symbol, so the
+ * requests of a symbol keep their arrival order and their time priority.
+ */
+class RequestChains {
+
+  private final List<RequestChain> chains = new ArrayList<>();
+  // Last chain of each symbol, while it can be extended
+  private final Map<String, RequestChain> openChains = new HashMap<>();
+
+  void add(String key, OrderBookRequest orderBookRequest) {
+    String symbol = orderBookRequest.getOrder().getSymbol().toString();
+    if (orderBookRequest.getType() == OrderBookRequestType.NEW) {
+      openChains.remove(symbol);
+      chains.add(new RequestChain(key, List.of(orderBookRequest)));
+      return;
+    }
+    RequestChain chain = openChains.get(symbol);
+    if (chain == null || !chain.key().equals(key)) {
+      chain = new RequestChain(key, new ArrayList<>());
+      chains.add(chain);
+      openChains.put(symbol, chain);
+    }
+    chain.orderBookRequests().add(orderBookRequest);
+  }
+
+  /**
+   * @return the chains, in the arrival order of their first request
+   */
+  List<RequestChain> getChains() {
+    return chains;
+  }
+
+  /**
+   * Requests of one order applied together, in arrival order
+   * @param key
+   * @param orderBookRequests
+   */
+  record RequestChain(String key, List<OrderBookRequest> orderBookRequests) {}
+}
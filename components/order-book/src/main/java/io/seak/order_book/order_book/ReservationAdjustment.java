@@ -0,0 +1,67 @@
+package io.seak.order_book.order_book;
+
+import io.seak.avro.Order;
+
+/**
+ * Net modification of the reservation of one order by a chain of REPLACE and
+ * CANCEL requests, checked against the amount available when the chain
+ * started, see {@link IntegrityCheckService#readReservation(Order)}.
+ *
+ * This class is not thread-safe.
+ */
+class ReservationAdjustment {
+
+  private final Order order;
+  private final double available;
+  private double modification;
+
+  ReservationAdjustment(Order order, double available) {
+    this.order = order;
+    this.available = available;
+    this.modification = 0.0;
+  }
+
+  /**
+   * Replace an order, with the same checks as
+   * {@link IntegrityCheckService#replaceOrder(Order, Order)}
+   * @param oldOrder
+   * @param newOrder
+   * @return false if the replacement is refused, the modification is unchanged
+   */
+  boolean replace(Order oldOrder, Order newOrder) {
+    if (newOrder.getPrice() < 0 || newOrder.getQuantity() < 0) {
+      return false;
+    }
+    double replacement = reservationOf(oldOrder) - reservationOf(newOrder);
+    if (available + modification + replacement < 0) {
+      return false;
+    }
+    modification += replacement;
+    return true;
+  }
+
+  /**
+   * Cancel an order, releasing its reservation
+   * @param order
+   */
+  void cancel(Order order) {
+    if (IntegrityCheckService.hasReservation(order)) {
+      modification += reservationOf(order);
+    }
+  }
+
+  /**
+   * @return the order whose reservation is adjusted, as the chain started
+   */
+  Order getOrder() {
+    return order;
+  }
+
+  double getModification() {
+    return modification;
+  }
+
+  private double reservationOf(Order order) {
+    return IntegrityCheckService.reservedBy(this.order.getSide(), order);
+  }
+}
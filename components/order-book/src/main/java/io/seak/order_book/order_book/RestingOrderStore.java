@@ -0,0 +1,280 @@
+package io.seak.order_book.order_book;
+
+import io.seak.avro.Order;
+import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
+import io.seak.avro.Type;
+import java.util.Arrays;
+
+/**
+ * Resting orders of one side stored as columns indexed by an int handle,
+ * instead of one Avro {@link Order} with its strings and boxed numbers per
+ * order.
+ *
+ * The username and the symbol are interned in a {@link StringPool}, the
+ * nullable numbers are stored with a sentinel and the orders are indexed by
+ * id in an open addressing table of handles. An {@link Order} is only rebuilt
+ * when it is read, to produce a trade or a report. The handles of the removed
+ * orders are reused.
+ *
+ * Each handle also carries the links of the FIFO queue of its level, managed
+ * by the {@link CompactOrderTree}. This class is not thread-safe.
+ */
+class RestingOrderStore {
+
+  static final int NONE = -1;
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final long NO_EXPIRE_TIME = Long.MIN_VALUE;
+  private static final Type[] TYPES = Type.values();
+  private static final TimeInForce[] TIME_IN_FORCES = TimeInForce.values();
+
+  private final Side side;
+  private final StringPool stringPool;
+
+  // Columns of the orders, by handle
+  private String[] ids;
+  private String[] clOrderIDs;
+  private int[] usernames;
+  private int[] symbols;
+  private double[] prices;
+  // NaN when the order has no stop price
+  private double[] stopPrices;
+  // NO_EXPIRE_TIME when the order has no expire time
+  private long[] expireTimes;
+  private int[] quantities;
+  private byte[] types;
+  private byte[] timeInForces;
+
+  // Links of the queue of the level, the free handles are chained by next
+  private int[] prev;
+  private int[] next;
+
+  // Handles allocated so far, free or not
+  private int allocated;
+
+  // First free handle, NONE if every allocated handle is used
+  private int freeHandle;
+
+  private int size;
+
+  // Open addressing table of handles, by hash of their id
+  private int[] index;
+
+  RestingOrderStore(Side side, StringPool stringPool) {
+    this.side = side;
+    this.stringPool = stringPool;
+    this.ids = new String[INITIAL_CAPACITY];
+    this.clOrderIDs = new String[INITIAL_CAPACITY];
+    this.usernames = new int[INITIAL_CAPACITY];
+    this.symbols = new int[INITIAL_CAPACITY];
+    this.prices = new double[INITIAL_CAPACITY];
+    this.stopPrices = new double[INITIAL_CAPACITY];
+    this.expireTimes = new long[INITIAL_CAPACITY];
+    this.quantities = new int[INITIAL_CAPACITY];
+    this.types = new byte[INITIAL_CAPACITY];
+    this.timeInForces = new byte[INITIAL_CAPACITY];
+    this.prev = new int[INITIAL_CAPACITY];
+    this.next = new int[INITIAL_CAPACITY];
+    this.freeHandle = NONE;
+    this.index = new int[INITIAL_CAPACITY * 2];
+    Arrays.fill(index, NONE);
+  }
+
+  /**
+   * Store an order whose id is not stored yet
+   * @param id
+   * @param order
+   * @return the handle of the order, not linked to any level
+   */
+  int add(String id, Order order) {
+    int handle = allocate();
+    ids[handle] = id;
+    write(handle, order);
+    prev[handle] = NONE;
+    next[handle] = NONE;
+    size++;
+    if (size * 2 > index.length) {
+      resizeIndex(index.length * 2);
+    }
+    index[slotOf(id)] = handle;
+    return handle;
+  }
+
+  /**
+   * Overwrite the fields of an order, keeping its id and its links
+   * @param handle
+   * @param order
+   */
+  void update(int handle, Order order) {
+    write(handle, order);
+  }
+
+  /**
+   * Free the handle of an order, which must be unlinked from its level
+   * @param handle
+   */
+  void remove(int handle) {
+    removeSlot(slotOf(ids[handle]));
+    ids[handle] = null;
+    clOrderIDs[handle] = null;
+    prev[handle] = NONE;
+    next[handle] = freeHandle;
+    freeHandle = handle;
+    size--;
+  }
+
+  /**
+   * @param id
+   * @return the handle of the order, NONE if it is not stored
+   */
+  int find(String id) {
+    return index[slotOf(id)];
+  }
+
+  /**
+   * Rebuild the Avro order of a handle
+   * @param handle
+   * @return a new order, equal to the one stored
+   */
+  Order toOrder(int handle) {
+    double stopPrice = stopPrices[handle];
+    long expireTime = expireTimes[handle];
+    return new Order(
+      stringPool.get(usernames[handle]),
+      stringPool.get(symbols[handle]),
+      quantities[handle],
+      side,
+      TYPES[types[handle]],
+      prices[handle],
+      clOrderIDs[handle],
+      Double.isNaN(stopPrice) ? null : stopPrice,
+      TIME_IN_FORCES[timeInForces[handle]],
+      expireTime == NO_EXPIRE_TIME ? null : expireTime
+    );
+  }
+
+  String id(int handle) {
+    return ids[handle];
+  }
+
+  double price(int handle) {
+    return prices[handle];
+  }
+
+  int quantity(int handle) {
+    return quantities[handle];
+  }
+
+  int prev(int handle) {
+    return prev[handle];
+  }
+
+  int next(int handle) {
+    return next[handle];
+  }
+
+  void setPrev(int handle, int prevHandle) {
+    prev[handle] = prevHandle;
+  }
+
+  void setNext(int handle, int nextHandle) {
+    next[handle] = nextHandle;
+  }
+
+  int size() {
+    return size;
+  }
+
+  private void write(int handle, Order order) {
+    Double stopPrice = order.getStopPrice();
+    Long expireTime = order.getExpireTime();
+    clOrderIDs[handle] = order.getClOrderID().toString();
+    usernames[handle] = stringPool.intern(order.getUsername());
+    symbols[handle] = stringPool.intern(order.getSymbol());
+    prices[handle] = order.getPrice();
+    stopPrices[handle] = stopPrice == null ? Double.NaN : stopPrice;
+    expireTimes[handle] = expireTime == null ? NO_EXPIRE_TIME : expireTime;
+    quantities[handle] = order.getQuantity();
+    types[handle] = (byte) order.getType().ordinal();
+    timeInForces[handle] = (byte) order.getTimeInForce().ordinal();
+  }
+
+  private int allocate() {
+    if (freeHandle != NONE) {
+      int handle = freeHandle;
+      freeHandle = next[handle];
+      return handle;
+    }
+    if (allocated == ids.length) {
+      grow(ids.length * 2);
+    }
+    return allocated++;
+  }
+
+  private void grow(int capacity) {
+    ids = Arrays.copyOf(ids, capacity);
+    clOrderIDs = Arrays.copyOf(clOrderIDs, capacity);
+    usernames = Arrays.copyOf(usernames, capacity);
+    symbols = Arrays.copyOf(symbols, capacity);
+    prices = Arrays.copyOf(prices, capacity);
+    stopPrices = Arrays.copyOf(stopPrices, capacity);
+    expireTimes = Arrays.copyOf(expireTimes, capacity);
+    quantities = Arrays.copyOf(quantities, capacity);
+    types = Arrays.copyOf(types, capacity);
+    timeInForces = Arrays.copyOf(timeInForces, capacity);
+    prev = Arrays.copyOf(prev, capacity);
+    next = Arrays.copyOf(next, capacity);
+  }
+
+  private static int hash(String id) {
+    int hash = id.hashCode();
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Linear probing from the home slot of the id
+   * @return the slot of the id, or the empty slot where it would be added
+   */
+  private int slotOf(String id) {
+    int mask = index.length - 1;
+    int slot = hash(id) & mask;
+    while (index[slot] != NONE && !ids[index[slot]].equals(id)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  /**
+   * Empty a slot, shifting back the following handles of the probe sequence
+   * so that no tombstone is needed
+   */
+  private void removeSlot(int slot) {
+    int mask = index.length - 1;
+    int hole = slot;
+    for (
+      int current = (hole + 1) & mask;
+      index[current] != NONE;
+      current = (current + 1) & mask
+    ) {
+      int home = hash(ids[index[current]]) & mask;
+      // The handle can fill the hole unless its home is between them
+      if (((current - home) & mask) >= ((current - hole) & mask)) {
+        index[hole] = index[current];
+        hole = current;
+      }
+    }
+    index[hole] = NONE;
+  }
+
+  private void resizeIndex(int capacity) {
+    int[] oldIndex = index;
+    index = new int[capacity];
+    Arrays.fill(index, NONE);
+    for (int handle : oldIndex) {
+      if (handle != NONE) {
+        index[slotOf(ids[handle])] = handle;
+      }
+    }
+  }
+}
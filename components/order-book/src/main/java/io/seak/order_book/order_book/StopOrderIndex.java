@@ -0,0 +1,120 @@
+package io.seak.order_book.order_book;
+
+import io.seak.avro.Order;
+import io.seak.avro.Side;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+/**
+ * STOP and STOP_LIMIT orders of one side of a {@link LimitOrderBook} waiting
+ * for their stop price, sorted by stop price then arrival time.
+ *
+ * BUY orders are triggered when the price rises to their stop price, SELL
+ * orders when it falls to it. This class is not thread-safe, it is only
+ * accessed through its {@link LimitOrderBook}, with the exclusive access to
+ * the book.
+ */
+public class StopOrderIndex {
+
+  // Side of the index
+  private final Side side;
+
+  // Map of stop price and orders, by arrival time
+  private final NavigableMap<Double, Map<String, Order>> stopLevels;
+
+  // All orders of the side, map (id, order)
+  private final Map<String, Order> orders;
+
+  public StopOrderIndex(final Side side) {
+    this.side = side;
+    this.stopLevels = new TreeMap<>();
+    this.orders = new HashMap<>();
+  }
+
+  public Order addOrder(String id, Order order) {
+    stopLevels
+      .computeIfAbsent(order.getStopPrice(), key -> new LinkedHashMap<>())
+      .put(id, order);
+    orders.put(id, order);
+    return order;
+  }
+
+  public Order removeOrder(String id) {
+    Order order = orders.remove(id);
+    if (order == null) {
+      return null;
+    }
+    Map<String, Order> level = stopLevels.get(order.getStopPrice());
+    level.remove(id);
+    if (level.isEmpty()) {
+      stopLevels.remove(order.getStopPrice());
+    }
+    return order;
+  }
+
+  public Order replaceOrder(String id, Order order) {
+    Order oldOrder = removeOrder(id);
+    if (oldOrder != null) {
+      addOrder(id, order);
+    }
+    return oldOrder;
+  }
+
+  /**
+   * Remove the orders whose stop price is reached by the price, from the
+   * closest stop price, and hand them to the consumer as they are removed.
+   *
+   * The consumer must not call back into the index.
+   * @param price highest price for BUY orders, lowest price for SELL orders
+   * @param consumer receives the id and the order of each triggered order
+   * @return the number of triggered orders
+   */
+  public int triggerOrders(Double price, BiConsumer<String, Order> consumer) {
+    if (price == null || stopLevels.isEmpty()) {
+      return 0;
+    }
+    NavigableMap<Double, Map<String, Order>> triggered = side == Side.BUY
+      ? stopLevels.headMap(price, true)
+      : stopLevels.tailMap(price, true).descendingMap();
+
+    int count = 0;
+    Iterator<Map<String, Order>> levels = triggered.values().iterator();
+    while (levels.hasNext()) {
+      Map<String, Order> level = levels.next();
+      levels.remove();
+      for (Map.Entry<String, Order> entry : level.entrySet()) {
+        orders.remove(entry.getKey());
+        consumer.accept(entry.getKey(), entry.getValue());
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Visit every order of the index, by ascending stop price then arrival time
+   * @param consumer
+   */
+  public void forEachOrder(BiConsumer<String, Order> consumer) {
+    for (Map<String, Order> level : stopLevels.values()) {
+      level.forEach(consumer);
+    }
+  }
+
+  public Order getOrder(String id) {
+    return orders.get(id);
+  }
+
+  public boolean contains(String id) {
+    return orders.containsKey(id);
+  }
+
+  public int size() {
+    return orders.size();
+  }
+}
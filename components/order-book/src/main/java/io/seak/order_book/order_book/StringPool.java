@@ -0,0 +1,67 @@
+package io.seak.order_book.order_book;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interned strings of the resting orders, such as the usernames and the
+ * symbols, each stored once and referenced by an int id.
+ *
+ * The pool is shared by the books of every engine thread: the ids are read
+ * without locking, a new string is added under the lock of the pool. Strings
+ * are never removed.
+ */
+public class StringPool {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  // Map of string and id
+  private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+  // Strings by id, replaced when it grows
+  private volatile String[] values = new String[INITIAL_CAPACITY];
+
+  private int size;
+
+  /**
+   * @param value
+   * @return the id of the value, added to the pool if needed
+   */
+  public int intern(CharSequence value) {
+    String string = value.toString();
+    Integer id = ids.get(string);
+    if (id != null) {
+      return id;
+    }
+    return add(string);
+  }
+
+  /**
+   * @param id an id returned by {@link #intern}
+   * @return the string of the id
+   */
+  public String get(int id) {
+    return values[id];
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  private synchronized int add(String string) {
+    Integer id = ids.get(string);
+    if (id != null) {
+      return id;
+    }
+    String[] current = values;
+    if (size == current.length) {
+      current = Arrays.copyOf(current, size * 2);
+    }
+    current[size] = string;
+    // Published before the id, so that a reader of the id finds the string
+    values = current;
+    ids.put(string, size);
+    return size++;
+  }
+}
@@ -0,0 +1,15 @@
+package io.seak.order_book.order_book;
+
+import io.seak.avro.Trade;
+
+/**
+ * Receives the trades of a {@link LimitOrderBook} as they are matched.
+ */
+@FunctionalInterface
+public interface TradeSink {
+  /**
+   * @param id id of the filled order
+   * @param trade
+   */
+  void onTrade(String id, Trade trade);
+}
@@ -0,0 +1,253 @@
+package io.seak.order_book.order_book;
+
+import io.seak.avro.Order;
+import io.seak.avro.Side;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Order tree backed by a sorted map of prices to {@link OrderList}.
+ *
+ * This class is not thread-safe, it is only accessed through its
+ * {@link LimitOrderBook}, with the exclusive access to the book.
+ */
+public class TreeMapOrderTree implements OrderTree {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    TreeMapOrderTree.class
+  );
+
+  // All order of the side, map (id, node)
+  private final Map<String, OrderNode> orders;
+
+  // Map of price and orderList
+  private final NavigableMap<Double, OrderList> priceMap;
+
+  // Side of the tree
+  private final Side side;
+
+  // Best level of the side, null if the tree is empty
+  private OrderList bestLevel;
+
+  private double totalVolume;
+
+  public TreeMapOrderTree(final Side side) {
+    this.orders = new HashMap<>();
+    this.priceMap = new TreeMap<>();
+    this.side = side;
+    this.totalVolume = 0.0;
+  }
+
+  @Override
+  public Order addOrder(String id, Order order) {
+    LOG.trace("Add order [{}]{} to order tree {}", id, order, this.side);
+    OrderList orderList = getOrCreateLevel(order.getPrice());
+    orders.put(id, orderList.addOrder(id, order));
+    totalVolume += order.getQuantity();
+    return order;
+  }
+
+  @Override
+  public Order removeOrder(String id) {
+    LOG.trace("Remove order [{}] from order tree {}", id, this.side);
+    OrderNode node = orders.remove(id);
+    if (node == null) {
+      return null;
+    }
+    OrderList orderList = node.getOrderList();
+    Order order = orderList.removeOrder(node);
+    releaseLevelIfEmpty(orderList);
+    totalVolume -= order.getQuantity();
+    return order;
+  }
+
+  @Override
+  public Order replaceOrder(String id, Order order) {
+    LOG.trace("Replace order [{}]{} in order tree {}", id, order, this.side);
+    OrderNode node = orders.get(id);
+    if (node == null) {
+      return null;
+    }
+
+    OrderList oldOrderList = node.getOrderList();
+    Order oldOrder = node.getOrder();
+
+    if (order.getPrice().equals(oldOrderList.getPrice())) {
+      oldOrderList.replaceOrder(node, order);
+    } else {
+      oldOrderList.removeOrder(node);
+      releaseLevelIfEmpty(oldOrderList);
+      OrderList newOrderList = getOrCreateLevel(order.getPrice());
+      orders.put(id, newOrderList.addOrder(id, order));
+    }
+    totalVolume += order.getQuantity() - oldOrder.getQuantity();
+    return order;
+  }
+
+  @Override
+  public int sweepOrders(Double price, BiConsumer<String, Order> consumer) {
+    LOG.trace("Match orders in order tree {} with price {}", this.side, price);
+    int matched = 0;
+    while (canMatch(price)) {
+      OrderList orderList = bestLevel;
+      for (
+        OrderNode node = orderList.getHead();
+        node != null;
+        node = node.getNext()
+      ) {
+        orders.remove(node.getId());
+        consumer.accept(node.getId(), node.getOrder());
+        matched++;
+      }
+      totalVolume -= orderList.getVolume();
+      priceMap.remove(orderList.getPrice());
+      bestLevel = findBestLevel();
+    }
+    return matched;
+  }
+
+  @Override
+  public boolean canMatch(Double price) {
+    return bestLevel != null && crosses(bestLevel.getPrice(), price);
+  }
+
+  /**
+   * BUY orders match when their price is above or equal to the market price,
+   * SELL orders when their price is strictly bellow it.
+   */
+  private boolean crosses(Double orderPrice, Double marketPrice) {
+    if (side == Side.BUY) {
+      return orderPrice >= marketPrice;
+    }
+    return orderPrice < marketPrice;
+  }
+
+  private boolean isBetter(double price, double otherPrice) {
+    return side == Side.BUY ? price > otherPrice : price < otherPrice;
+  }
+
+  private OrderList getOrCreateLevel(Double price) {
+    OrderList orderList = priceMap.get(price);
+    if (orderList == null) {
+      orderList = new OrderList(price);
+      priceMap.put(price, orderList);
+      if (bestLevel == null || isBetter(price, bestLevel.getPrice())) {
+        bestLevel = orderList;
+      }
+    }
+    return orderList;
+  }
+
+  private void releaseLevelIfEmpty(OrderList orderList) {
+    if (!orderList.isEmpty()) {
+      return;
+    }
+    priceMap.remove(orderList.getPrice());
+    if (orderList == bestLevel) {
+      bestLevel = findBestLevel();
+    }
+  }
+
+  private OrderList findBestLevel() {
+    Map.Entry<Double, OrderList> entry = side == Side.BUY
+      ? priceMap.lastEntry()
+      : priceMap.firstEntry();
+    return entry == null ? null : entry.getValue();
+  }
+
+  @Override
+  public Map<String, Order> getOrders() {
+    Map<String, Order> ordersMap = new HashMap<>();
+    forEachOrder(ordersMap::put);
+    return ordersMap;
+  }
+
+  @Override
+  public void forEachOrder(BiConsumer<String, Order> consumer) {
+    for (OrderList orderList : priceMap.values()) {
+      for (
+        OrderNode node = orderList.getHead();
+        node != null;
+        node = node.getNext()
+      ) {
+        consumer.accept(node.getId(), node.getOrder());
+      }
+    }
+  }
+
+  @Override
+  public void forEachBestLevel(
+    int depth,
+    BiConsumer<Double, Double> consumer
+  ) {
+    Collection<OrderList> levels = side == Side.BUY
+      ? priceMap.descendingMap().values()
+      : priceMap.values();
+    int visited = 0;
+    for (OrderList orderList : levels) {
+      if (visited == depth) {
+        break;
+      }
+      consumer.accept(orderList.getPrice(), orderList.getVolume());
+      visited++;
+    }
+  }
+
+  @Override
+  public Order getOrder(String id) {
+    OrderNode node = orders.get(id);
+    if (node == null) {
+      return null;
+    }
+    return node.getOrder();
+  }
+
+  @Override
+  public boolean contains(String id) {
+    return orders.containsKey(id);
+  }
+
+  @Override
+  public Double getTotalVolume() {
+    return totalVolume;
+  }
+
+  @Override
+  public int getOrderCount() {
+    return orders.size();
+  }
+
+  @Override
+  public int getLevelCount() {
+    return priceMap.size();
+  }
+
+  @Override
+  public Double getBestPrice() {
+    OrderList orderList = bestLevel;
+    return orderList == null ? null : orderList.getPrice();
+  }
+
+  @Override
+  public Double getBestLevelVolume() {
+    OrderList orderList = bestLevel;
+    return orderList == null ? 0.0 : orderList.getVolume();
+  }
+
+  @Override
+  public OrderNode getBestOrder() {
+    OrderList orderList = bestLevel;
+    return orderList == null ? null : orderList.getHead();
+  }
+
+  @Override
+  public String toString() {
+    return priceMap.toString();
+  }
+}
@@ -0,0 +1,181 @@
+package io.seak.order_book.partitioning;
+
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.serializers.KafkaAvroDeserializer;
+import io.confluent.kafka.serializers.KafkaAvroDeserializerConfig;
+import io.micronaut.configuration.kafka.annotation.KafkaClient;
+import io.micronaut.context.annotation.Property;
+import io.seak.avro.Order;
+import io.seak.common.SymbolPartitioner;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compacted topic holding the resting orders, keyed by order id, with a
+ * tombstone once an order leaves the book.
+ *
+ * The orders of a symbol are written to the partition of the symbol in the
+ * {@code order-book-request} topic, so the instance assigned a request
+ * partition rebuilds its books from the same changelog partition.
+ */
+@Singleton
+public class OrderBookChangelog {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    OrderBookChangelog.class
+  );
+
+  private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+
+  private final Producer<String, SpecificRecord> genericProducer;
+  private final boolean enabled;
+
+  @Property(name = "kafka.topics.order-book-changelog")
+  private String changelogTopic;
+
+  @Property(name = "kafka.topics.order-book-request")
+  private String orderBookRequestTopic;
+
+  @Property(name = "kafka.bootstrap.servers")
+  private String bootstrapServers;
+
+  @Property(name = "kafka.schema.registry.url")
+  private String schemaRegistryUrl;
+
+  private volatile int partitionCount;
+
+  public OrderBookChangelog(
+    @KafkaClient Producer<String, SpecificRecord> genericProducer,
+    @Property(name = "order-book.partitioning.enabled") boolean enabled
+  ) {
+    this.genericProducer = genericProducer;
+    this.enabled = enabled;
+  }
+
+  public void recordOrder(String symbol, String id, Order order) {
+    send(symbol, id, order);
+  }
+
+  public void recordRemoval(String symbol, String id) {
+    send(symbol, id, null);
+  }
+
+  /**
+   * Wait for the changelog records sent so far, before the offsets of the
+   * requests they come from are committed
+   */
+  public void flush() {
+    if (enabled) {
+      genericProducer.flush();
+    }
+  }
+
+  /**
+   * Read the resting orders of some partitions up to the end of the changelog
+   * @param partitions partitions of the {@code order-book-request} topic
+   * @return the orders by id, in the order they were last written
+   */
+  public Map<String, Order> restore(Collection<Integer> partitions) {
+    Map<String, Order> orders = new LinkedHashMap<>();
+    if (partitions.isEmpty()) {
+      return orders;
+    }
+    Collection<TopicPartition> topicPartitions = partitions
+      .stream()
+      .map(partition -> new TopicPartition(changelogTopic, partition))
+      .toList();
+
+    try (
+      KafkaConsumer<String, Order> consumer = new KafkaConsumer<>(
+        buildProperties()
+      )
+    ) {
+      consumer.assign(topicPartitions);
+      consumer.seekToBeginning(topicPartitions);
+      Map<TopicPartition, Long> endOffsets = consumer.endOffsets(
+        topicPartitions
+      );
+      while (!reachedEnd(consumer, endOffsets)) {
+        ConsumerRecords<String, Order> records = consumer.poll(POLL_TIMEOUT);
+        for (ConsumerRecord<String, Order> item : records) {
+          orders.remove(item.key());
+          if (item.value() != null) {
+            orders.put(item.key(), item.value());
+          }
+        }
+      }
+    }
+    LOG.info(
+      "Restored {} orders of partitions {} from the changelog",
+      orders.size(),
+      partitions
+    );
+    return orders;
+  }
+
+  private void send(String symbol, String id, Order order) {
+    if (!enabled) {
+      return;
+    }
+    int partition = SymbolPartitioner.partition(symbol, getPartitionCount());
+    genericProducer.send(
+      new ProducerRecord<>(changelogTopic, partition, id, order)
+    );
+  }
+
+  /**
+   * @return the number of partitions of the {@code order-book-request} topic
+   */
+  public int getPartitionCount() {
+    if (partitionCount == 0) {
+      partitionCount =
+        genericProducer.partitionsFor(orderBookRequestTopic).size();
+    }
+    return partitionCount;
+  }
+
+  private static boolean reachedEnd(
+    KafkaConsumer<String, Order> consumer,
+    Map<TopicPartition, Long> endOffsets
+  ) {
+    return endOffsets
+      .entrySet()
+      .stream()
+      .allMatch(entry -> consumer.position(entry.getKey()) >= entry.getValue());
+  }
+
+  private Properties buildProperties() {
+    Properties props = new Properties();
+    props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+    props.put(
+      AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG,
+      schemaRegistryUrl
+    );
+    props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    props.put(
+      ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,
+      StringDeserializer.class
+    );
+    props.put(
+      ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
+      KafkaAvroDeserializer.class
+    );
+    props.put(KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, true);
+    return props;
+  }
+}
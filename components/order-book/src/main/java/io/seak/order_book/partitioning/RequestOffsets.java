@@ -0,0 +1,99 @@
+package io.seak.order_book.partitioning;
+
+import io.micronaut.context.annotation.Property;
+import io.seak.common.SymbolPartitioner;
+import jakarta.inject.Singleton;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Offsets of the {@code order-book-request} partitions: the ones applied by
+ * this instance and the end ones, read from the brokers. A request written
+ * before an end offset was read is applied once the applied offset of its
+ * partition reaches it.
+ */
+@Singleton
+public class RequestOffsets {
+
+  private static final long ADMIN_TIMEOUT_MS = 1000;
+
+  private final AdminClient adminClient;
+  private final OrderBookChangelog orderBookChangelog;
+  private final String orderBookRequestTopic;
+
+  // Offset following the last applied request, by partition
+  private final Map<Integer, Long> appliedOffsets = new ConcurrentHashMap<>();
+
+  public RequestOffsets(
+    AdminClient adminClient,
+    OrderBookChangelog orderBookChangelog,
+    @Property(
+      name = "kafka.topics.order-book-request"
+    ) String orderBookRequestTopic
+  ) {
+    this.adminClient = adminClient;
+    this.orderBookChangelog = orderBookChangelog;
+    this.orderBookRequestTopic = orderBookRequestTopic;
+  }
+
+  /**
+   * Record a request once its commands are processed by the engine
+   * @param record
+   */
+  public void recordApplied(ConsumerRecord<?, ?> record) {
+    appliedOffsets.merge(record.partition(), record.offset() + 1, Math::max);
+  }
+
+  /**
+   * @param partition
+   * @return the offset following the last applied request of the partition
+   */
+  public long getAppliedOffset(int partition) {
+    return appliedOffsets.getOrDefault(partition, 0L);
+  }
+
+  /**
+   * @param symbol
+   * @return the partition of the requests of the symbol
+   */
+  public int partitionOf(String symbol) {
+    return SymbolPartitioner.partition(
+      symbol,
+      orderBookChangelog.getPartitionCount()
+    );
+  }
+
+  /**
+   * @param partitions
+   * @return the end offsets of the partitions
+   */
+  public Map<Integer, Long> fetchEndOffsets(Collection<Integer> partitions)
+    throws ExecutionException, InterruptedException, TimeoutException {
+    Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+    partitions.forEach(partition ->
+      latest.put(
+        new TopicPartition(orderBookRequestTopic, partition),
+        OffsetSpec.latest()
+      )
+    );
+    Map<TopicPartition, ListOffsetsResultInfo> endOffsets = adminClient
+      .listOffsets(latest)
+      .all()
+      .get(ADMIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    Map<Integer, Long> offsets = new HashMap<>();
+    endOffsets.forEach((topicPartition, info) ->
+      offsets.put(topicPartition.partition(), info.offset())
+    );
+    return offsets;
+  }
+}
@@ -0,0 +1,135 @@
+package io.seak.order_book.partitioning;
+
+import io.micronaut.context.annotation.Property;
+import io.seak.avro.Order;
+import io.seak.common.SymbolPartitioner;
+import io.seak.order_book.engine.OrderBookEngine;
+import io.seak.order_book.expiry.OrderExpiryWheel;
+import io.seak.order_book.order_book.OrderBookCatalog;
+import jakarta.inject.Singleton;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Symbols owned by this instance, the ones of the {@code order-book-request}
+ * partitions assigned to it.
+ *
+ * When the partitions move, the books of the lost partitions are dropped and
+ * the books of the new ones are rebuilt from the {@link OrderBookChangelog}.
+ * Without partitioning, every symbol is owned.
+ */
+@Singleton
+public class SymbolOwnership {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    SymbolOwnership.class
+  );
+
+  private final OrderBookCatalog orderBookCatalog;
+  private final OrderBookEngine orderBookEngine;
+  private final OrderBookChangelog orderBookChangelog;
+  private final OrderExpiryWheel orderExpiryWheel;
+  private final boolean enabled;
+
+  private volatile Set<Integer> ownedPartitions = Set.of();
+  private volatile int partitionCount;
+
+  // Partitions revoked and not assigned back yet
+  private final Set<Integer> revokedPartitions = new HashSet<>();
+
+  public SymbolOwnership(
+    OrderBookCatalog orderBookCatalog,
+    OrderBookEngine orderBookEngine,
+    OrderBookChangelog orderBookChangelog,
+    OrderExpiryWheel orderExpiryWheel,
+    @Property(name = "order-book.partitioning.enabled") boolean enabled
+  ) {
+    this.orderBookCatalog = orderBookCatalog;
+    this.orderBookEngine = orderBookEngine;
+    this.orderBookChangelog = orderBookChangelog;
+    this.orderExpiryWheel = orderExpiryWheel;
+    this.enabled = enabled;
+  }
+
+  public boolean owns(String symbol) {
+    if (!enabled) {
+      return true;
+    }
+    int count = partitionCount;
+    return (
+      count > 0 &&
+      ownedPartitions.contains(SymbolPartitioner.partition(symbol, count))
+    );
+  }
+
+  /**
+   * The books are kept until the next assignment, as a rebalance revokes
+   * every partition before assigning most of them back
+   * @param partitions
+   */
+  public synchronized void onPartitionsRevoked(
+    Collection<TopicPartition> partitions
+  ) {
+    if (enabled) {
+      partitions.forEach(partition ->
+        revokedPartitions.add(partition.partition())
+      );
+    }
+  }
+
+  /**
+   * Drop the books of the partitions not owned anymore and rebuild the books
+   * of the new ones, before their requests are consumed
+   * @param partitions
+   */
+  public synchronized void onPartitionsAssigned(
+    Collection<TopicPartition> partitions
+  ) {
+    if (!enabled) {
+      return;
+    }
+    int partitionCount = orderBookChangelog.getPartitionCount();
+    Set<Integer> previous = ownedPartitions;
+    Set<Integer> owned = new HashSet<>(previous);
+    owned.removeAll(revokedPartitions);
+    partitions.forEach(partition -> owned.add(partition.partition()));
+    revokedPartitions.clear();
+
+    Set<Integer> added = new HashSet<>(owned);
+    added.removeAll(previous);
+    Set<Integer> dropped = new HashSet<>(previous);
+    dropped.removeAll(owned);
+
+    this.partitionCount = partitionCount;
+    this.ownedPartitions = Set.copyOf(owned);
+    LOG.info(
+      "Owning partitions {}, dropped {}, added {}",
+      owned,
+      dropped,
+      added
+    );
+
+    // Books restored from a snapshot or left by a previous assignment
+    for (String symbol : orderBookCatalog.getSymbols()) {
+      int partition = SymbolPartitioner.partition(symbol, partitionCount);
+      if (!owned.contains(partition) || added.contains(partition)) {
+        orderBookCatalog.removeOrderBook(symbol);
+      }
+    }
+
+    Map<String, Order> orders = orderBookChangelog.restore(added);
+    orders.forEach((id, order) -> {
+      orderBookEngine.submitCommand(
+        order.getSymbol().toString(),
+        orderBook -> orderBook.addOrder(id, order)
+      );
+      orderExpiryWheel.arm(id, order);
+    });
+    orderBookEngine.awaitProcessed();
+  }
+}
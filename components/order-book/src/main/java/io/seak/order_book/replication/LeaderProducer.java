@@ -0,0 +1,134 @@
+package io.seak.order_book.replication;
+
+import io.micronaut.configuration.kafka.ProducerRegistry;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.type.Argument;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Send the outputs of the leader in Kafka transactions, fenced by epoch.
+ *
+ * Every instance shares the same transactional id: the producer opened on
+ * promotion aborts the open transaction of the previous leader, and any later
+ * send or commit of the previous leader fails. The sends of the engine threads
+ * join the current transaction, committed every {@code commit-interval}; the
+ * consumers of the outputs only read the committed records. A failed send or
+ * commit deposes this instance, as its books and the ledger are then ahead of
+ * the committed outputs.
+ */
+@Singleton
+@Requires(property = "order-book.replication.enabled", value = "true")
+public class LeaderProducer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    LeaderProducer.class
+  );
+
+  private static final String CLIENT_ID = "order-book-leader";
+
+  private final ProducerRegistry producerRegistry;
+  private final ReplicationState replicationState;
+  private final String transactionalId;
+
+  // The sends share the read lock, the commit takes the write lock
+  private final ReadWriteLock transactionLock = new ReentrantReadWriteLock();
+
+  private volatile Producer<String, SpecificRecord> producer;
+  private volatile boolean inTransaction;
+  private volatile int epoch;
+
+  public LeaderProducer(
+    ProducerRegistry producerRegistry,
+    ReplicationState replicationState,
+    @Property(
+      name = "order-book.replication.transactional-id"
+    ) String transactionalId
+  ) {
+    this.producerRegistry = producerRegistry;
+    this.replicationState = replicationState;
+    this.transactionalId = transactionalId;
+  }
+
+  /**
+   * Open the transactional producer before leading an epoch, which fences the
+   * producer of the previous leader
+   * @param epoch
+   */
+  synchronized void open(int epoch) {
+    if (producer == null) {
+      producer =
+        producerRegistry.getTransactionalProducer(
+          CLIENT_ID,
+          transactionalId,
+          Argument.STRING,
+          Argument.of(SpecificRecord.class)
+        );
+      LOG.info("Fenced the outputs of the previous leaders");
+    }
+    this.epoch = epoch;
+  }
+
+  /**
+   * Send a record in the current transaction, opened if needed
+   * @param record
+   */
+  public void send(ProducerRecord<String, SpecificRecord> record) {
+    transactionLock.readLock().lock();
+    try {
+      beginTransaction();
+      producer.send(record);
+    } catch (KafkaException e) {
+      fail(e);
+    } finally {
+      transactionLock.readLock().unlock();
+    }
+  }
+
+  @PreDestroy
+  void close() {
+    commit();
+  }
+
+  @Scheduled(fixedDelay = "${order-book.replication.commit-interval}")
+  void commit() {
+    transactionLock.writeLock().lock();
+    try {
+      if (inTransaction) {
+        inTransaction = false;
+        producer.commitTransaction();
+      }
+    } catch (KafkaException e) {
+      fail(e);
+    } finally {
+      transactionLock.writeLock().unlock();
+    }
+  }
+
+  private void beginTransaction() {
+    if (inTransaction) {
+      return;
+    }
+    synchronized (this) {
+      if (!inTransaction) {
+        producer.beginTransaction();
+        inTransaction = true;
+      }
+    }
+  }
+
+  private void fail(KafkaException e) {
+    LOG.error("Outputs of epoch {} not committed: {}", epoch, e.getMessage());
+    replicationState.depose(epoch);
+  }
+}
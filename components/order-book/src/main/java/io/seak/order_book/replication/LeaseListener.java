@@ -0,0 +1,158 @@
+package io.seak.order_book.replication;
+
+import io.micronaut.configuration.kafka.ConsumerAware;
+import io.micronaut.configuration.kafka.annotation.KafkaListener;
+import io.micronaut.configuration.kafka.annotation.Topic;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Requires;
+import io.seak.ledger.AccountLedger;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Leader election through the consumer group of the lease topic.
+ *
+ * The lease topic has a single partition and no record: the instance the
+ * partition is assigned to is the leader, and the generation of the group is
+ * its epoch. When the leader leaves the group or stops heartbeating for
+ * {@code session.timeout.ms}, the partition is assigned to a follower which
+ * applies the outputs of the previous leader before taking over.
+ *
+ * The promotion runs on its own thread, out of the rebalance callback: the
+ * writes of the previous leader are fenced first, in the ledger and with the
+ * transactional producer, then its committed outputs are applied and the lease
+ * is taken over if it is still held with the same epoch.
+ */
+@Singleton
+@Requires(property = "order-book.replication.enabled", value = "true")
+public class LeaseListener
+  implements
+    ConsumerAware<String, SpecificRecord>, ConsumerRebalanceListener {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    LeaseListener.class
+  );
+
+  // Fence of the ledger writes, raised to the epoch of each new leader
+  private static final String LEDGER_FENCE = "order-book";
+
+  private final ReplicationState replicationState;
+  private final ReplicationService replicationService;
+  private final ReplicaLagMonitor replicaLagMonitor;
+  private final LeaderProducer leaderProducer;
+  private final AccountLedger accountLedger;
+  private final Duration promotionTimeout;
+  private final ExecutorService promotionExecutor =
+    Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "order-book-promotion");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+  private Consumer<String, SpecificRecord> consumer;
+
+  // Epoch of the lease held by this instance, -1 if none
+  private volatile int leaseEpoch = -1;
+
+  public LeaseListener(
+    ReplicationState replicationState,
+    ReplicationService replicationService,
+    ReplicaLagMonitor replicaLagMonitor,
+    LeaderProducer leaderProducer,
+    AccountLedger accountLedger,
+    @Property(
+      name = "order-book.replication.promotion-timeout"
+    ) Duration promotionTimeout
+  ) {
+    this.replicationState = replicationState;
+    this.replicationService = replicationService;
+    this.replicaLagMonitor = replicaLagMonitor;
+    this.leaderProducer = leaderProducer;
+    this.accountLedger = accountLedger;
+    this.promotionTimeout = promotionTimeout;
+  }
+
+  @PreDestroy
+  void close() {
+    promotionExecutor.shutdownNow();
+  }
+
+  @KafkaListener(groupId = "order-book-leader")
+  @Topic("${kafka.topics.order-book-lease}")
+  public void receiveLease(ConsumerRecord<String, SpecificRecord> record) {
+    LOG.trace("Ignoring record {} of the lease topic", record);
+  }
+
+  @Override
+  public void setKafkaConsumer(Consumer<String, SpecificRecord> consumer) {
+    this.consumer = consumer;
+  }
+
+  @Override
+  public void onPartitionsAssigned(Collection<TopicPartition> partitions) {
+    if (partitions.isEmpty()) {
+      // Another instance holds the lease after the rebalance
+      leaseEpoch = -1;
+      replicationService.demote();
+      return;
+    }
+    if (replicationState.isLeader()) {
+      // The lease is kept, with the epoch the writes are fenced with
+      return;
+    }
+    int epoch = consumer.groupMetadata().generationId();
+    leaseEpoch = epoch;
+    promotionExecutor.execute(() -> {
+      try {
+        promote(epoch);
+      } catch (RuntimeException e) {
+        LOG.error("Failed to take over with epoch {}", epoch, e);
+      }
+    });
+  }
+
+  private void promote(int epoch) {
+    if (leaseEpoch != epoch) {
+      return;
+    }
+    if (!accountLedger.fence(LEDGER_FENCE, epoch)) {
+      LOG.error("The ledger is fenced by a newer epoch than {}", epoch);
+      return;
+    }
+    leaderProducer.open(epoch);
+    if (!replicaLagMonitor.awaitCaughtUp(promotionTimeout)) {
+      LOG.warn(
+        "Outputs of the previous leader not applied after {}, taking over",
+        promotionTimeout
+      );
+    }
+    if (leaseEpoch != epoch) {
+      LOG.warn("Lease of epoch {} lost before taking over", epoch);
+      return;
+    }
+    replicationService.promote(epoch);
+  }
+
+  @Override
+  public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+    // Every partition is revoked before a rebalance, the lease is only lost if
+    // it is not assigned back
+  }
+
+  @Override
+  public void onPartitionsLost(Collection<TopicPartition> partitions) {
+    leaseEpoch = -1;
+    replicationService.demote();
+  }
+}
@@ -0,0 +1,167 @@
+package io.seak.order_book.replication;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsOptions;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.IsolationLevel;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measure how many records of the leader outputs a follower has not applied
+ * yet, by comparing the positions applied by the {@link ReplicaListener} with
+ * the last stable offsets of the topics: the records of the transactions not
+ * committed yet are not counted.
+ */
+@Singleton
+@Requires(property = "order-book.replication.enabled", value = "true")
+public class ReplicaLagMonitor {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    ReplicaLagMonitor.class
+  );
+
+  private static final long ADMIN_TIMEOUT_MS = 1000;
+  private static final long CATCH_UP_POLL_MS = 20;
+
+  private final AdminClient adminClient;
+  private final ReplicationState replicationState;
+  private final List<String> topics;
+  private final Map<TopicPartition, Long> appliedOffsets =
+    new ConcurrentHashMap<>();
+  private final AtomicLong lag = new AtomicLong();
+
+  public ReplicaLagMonitor(
+    AdminClient adminClient,
+    ReplicationState replicationState,
+    MeterRegistry meterRegistry,
+    @Property(name = "kafka.topics.order-book-response") String responseTopic,
+    @Property(name = "kafka.topics.order-book-rejected") String rejectedTopic,
+    @Property(name = "kafka.topics.trades") String tradesTopic,
+    @Property(
+      name = "kafka.topics.order-book-activation"
+    ) String activationTopic
+  ) {
+    this.adminClient = adminClient;
+    this.replicationState = replicationState;
+    this.topics =
+      List.of(responseTopic, rejectedTopic, tradesTopic, activationTopic);
+    meterRegistry.gauge("order_book_replication_lag", lag);
+  }
+
+  /**
+   * Record the positions of the consumer of the leader outputs, once the
+   * records it returned are applied. Unlike the offsets of the records, the
+   * positions skip the markers of the transactions
+   * @param consumer
+   */
+  public void recordPositions(Consumer<?, ?> consumer) {
+    for (TopicPartition partition : consumer.assignment()) {
+      appliedOffsets.merge(partition, consumer.position(partition), Math::max);
+    }
+  }
+
+  @Scheduled(
+    fixedDelay = "${order-book.replication.lag-interval}",
+    initialDelay = "${order-book.replication.lag-interval}"
+  )
+  void refreshLag() {
+    if (replicationState.isLeader()) {
+      lag.set(0);
+      return;
+    }
+    try {
+      lag.set(computeLag());
+    } catch (ExecutionException | TimeoutException e) {
+      LOG.warn("Could not compute the replica lag: {}", e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Wait until the outputs of the previous leader are applied, before taking
+   * the lease
+   * @param timeout
+   * @return false if the replica did not catch up in time
+   */
+  public boolean awaitCaughtUp(Duration timeout) {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    try {
+      while (System.nanoTime() < deadline) {
+        long remaining = computeLag();
+        lag.set(remaining);
+        if (remaining == 0) {
+          return true;
+        }
+        Thread.sleep(CATCH_UP_POLL_MS);
+      }
+    } catch (ExecutionException | TimeoutException e) {
+      LOG.warn("Could not compute the replica lag: {}", e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  private long computeLag()
+    throws ExecutionException, InterruptedException, TimeoutException {
+    Map<TopicPartition, OffsetSpec> earliest = new HashMap<>();
+    Map<TopicPartition, OffsetSpec> latest = new HashMap<>();
+    adminClient
+      .describeTopics(topics)
+      .allTopicNames()
+      .get(ADMIN_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+      .forEach((topic, description) ->
+        description
+          .partitions()
+          .forEach(partition -> {
+            TopicPartition topicPartition = new TopicPartition(
+              topic,
+              partition.partition()
+            );
+            earliest.put(topicPartition, OffsetSpec.earliest());
+            latest.put(topicPartition, OffsetSpec.latest());
+          })
+      );
+
+    Map<TopicPartition, ListOffsetsResultInfo> startOffsets = adminClient
+      .listOffsets(earliest)
+      .all()
+      .get(ADMIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    Map<TopicPartition, ListOffsetsResultInfo> endOffsets = adminClient
+      .listOffsets(
+        latest,
+        new ListOffsetsOptions(IsolationLevel.READ_COMMITTED)
+      )
+      .all()
+      .get(ADMIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+    long total = 0;
+    for (TopicPartition topicPartition : endOffsets.keySet()) {
+      long applied = Math.max(
+        appliedOffsets.getOrDefault(topicPartition, 0L),
+        startOffsets.get(topicPartition).offset()
+      );
+      total += Math.max(0, endOffsets.get(topicPartition).offset() - applied);
+    }
+    return total;
+  }
+}
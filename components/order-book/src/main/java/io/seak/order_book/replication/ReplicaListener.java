@@ -0,0 +1,119 @@
+package io.seak.order_book.replication;
+
+import io.micronaut.configuration.kafka.ConsumerAware;
+import io.micronaut.configuration.kafka.ConsumerSeekAware;
+import io.micronaut.configuration.kafka.annotation.KafkaListener;
+import io.micronaut.configuration.kafka.annotation.OffsetReset;
+import io.micronaut.configuration.kafka.annotation.Topic;
+import io.micronaut.configuration.kafka.seek.KafkaSeeker;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Requires;
+import io.seak.avro.Order;
+import io.seak.avro.OrderBookRequest;
+import io.seak.avro.Trade;
+import io.seak.order_book.engine.OrderBookEngine;
+import io.seak.order_book.snapshot.OrderBookSnapshotService;
+import jakarta.inject.Singleton;
+import java.util.Collection;
+import java.util.List;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Consume the responses, rejections, trades and stop activations of the
+ * leader. They are only applied while this instance is a follower, the
+ * positions are always recorded to measure the replica lag. Only the committed
+ * outputs are consumed, see {@link LeaderProducer}.
+ */
+@Singleton
+@Requires(property = "order-book.replication.enabled", value = "true")
+public class ReplicaListener
+  implements ConsumerSeekAware, ConsumerAware<String, SpecificRecord> {
+
+  @Property(name = "kafka.topics.order-book-response")
+  private String orderBookResponseTopic;
+
+  private final ReplicationState replicationState;
+  private final ReplicationService replicationService;
+  private final ReplicaLagMonitor replicaLagMonitor;
+  private final OrderBookEngine orderBookEngine;
+  private final OrderBookSnapshotService snapshotService;
+
+  private Consumer<String, SpecificRecord> consumer;
+
+  public ReplicaListener(
+    ReplicationState replicationState,
+    ReplicationService replicationService,
+    ReplicaLagMonitor replicaLagMonitor,
+    OrderBookEngine orderBookEngine,
+    OrderBookSnapshotService snapshotService
+  ) {
+    this.replicationState = replicationState;
+    this.replicationService = replicationService;
+    this.replicaLagMonitor = replicaLagMonitor;
+    this.orderBookEngine = orderBookEngine;
+    this.snapshotService = snapshotService;
+  }
+
+  @KafkaListener(
+    groupId = "order-book-replica${order-book.replication.group-suffix}",
+    batch = true,
+    offsetReset = OffsetReset.EARLIEST
+  )
+  @Topic(
+    {
+      "${kafka.topics.order-book-response}",
+      "${kafka.topics.order-book-rejected}",
+      "${kafka.topics.trades}",
+      "${kafka.topics.order-book-activation}",
+    }
+  )
+  public void receiveLeaderOutputs(
+    List<ConsumerRecord<String, SpecificRecord>> records
+  ) {
+    snapshotService.process(
+      records,
+      batch -> {
+        if (!replicationState.isLeader()) {
+          batch.forEach(this::applyLeaderOutput);
+        }
+        orderBookEngine.awaitProcessed();
+        replicaLagMonitor.recordPositions(consumer);
+      }
+    );
+  }
+
+  private void applyLeaderOutput(ConsumerRecord<String, SpecificRecord> item) {
+    if (item.value() instanceof Trade trade) {
+      replicationService.applyTrade(item.key(), trade);
+    } else if (item.value() instanceof OrderBookRequest orderBookRequest) {
+      replicationService.applyVerdict(
+        item.key(),
+        orderBookRequest,
+        item.topic().equals(orderBookResponseTopic)
+      );
+    } else if (item.value() instanceof Order order) {
+      replicationService.applyActivation(item.key(), order);
+    }
+  }
+
+  @Override
+  public void setKafkaConsumer(Consumer<String, SpecificRecord> consumer) {
+    this.consumer = consumer;
+  }
+
+  @Override
+  public void onPartitionsAssigned(
+    Collection<TopicPartition> partitions,
+    KafkaSeeker seeker
+  ) {
+    snapshotService.seekToSnapshot(partitions, seeker, consumer::committed);
+  }
+
+  @Override
+  public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+    // Nothing to do, the books are kept
+  }
+}
@@ -0,0 +1,14 @@
+package io.seak.order_book.replication;
+
+public enum ReplicationRole {
+  /**
+   * Applies the requests and the market data and sends their responses and
+   * trades
+   */
+  LEADER,
+  /**
+   * Mirrors the books of the leader from its responses and trades, without any
+   * side effect
+   */
+  FOLLOWER,
+}
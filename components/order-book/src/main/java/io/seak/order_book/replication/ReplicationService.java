@@ -0,0 +1,313 @@
+package io.seak.order_book.replication;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.seak.avro.Order;
+import io.seak.avro.OrderBookRequest;
+import io.seak.avro.OrderBookRequestType;
+import io.seak.avro.Trade;
+import io.seak.avro.Type;
+import io.seak.order_book.engine.OrderBookEngine;
+import io.seak.order_book.expiry.OrderExpiryWheel;
+import jakarta.inject.Singleton;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keep the books of a follower in sync with the leader.
+ *
+ * A follower does not decide the order book requests itself, as their outcome
+ * depends on Redis: it keeps them pending and applies the verdicts of the
+ * leader read from its response, rejected and trades topics. The STOP_LIMIT
+ * orders triggered by the leader are moved to the limit orders from its
+ * activation topic, a follower never triggers them itself. When promoted, the
+ * requests the previous leader did not decide are applied as a leader, in
+ * their arrival order.
+ *
+ * The outputs of the leader are read from several topics, a trade or an
+ * activation may be read before the response to the NEW request of its order.
+ * It is then kept until that response, and only while the request is pending:
+ * once the order left the book, the late outputs of the leader are dropped.
+ */
+@Singleton
+public class ReplicationService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    ReplicationService.class
+  );
+
+  private final ReplicationState replicationState;
+  private final OrderBookEngine orderBookEngine;
+  private final OrderExpiryWheel orderExpiryWheel;
+
+  // Requests waiting for the verdict of the leader, by arrival order
+  private final Map<String, PendingRequest> pendingRequests =
+    new LinkedHashMap<>();
+
+  // Verdicts received before their request
+  private final Set<String> decidedRequests = new HashSet<>();
+
+  // Quantity of the limit orders filled before the response to their NEW
+  // request was received
+  private final Map<String, Integer> filledQuantities =
+    new ConcurrentHashMap<>();
+
+  // STOP_LIMIT orders triggered before the response to their NEW request was
+  // received
+  private final Set<String> activatedOrders = ConcurrentHashMap.newKeySet();
+
+  public ReplicationService(
+    ReplicationState replicationState,
+    OrderBookEngine orderBookEngine,
+    OrderExpiryWheel orderExpiryWheel,
+    MeterRegistry meterRegistry
+  ) {
+    this.replicationState = replicationState;
+    this.orderBookEngine = orderBookEngine;
+    this.orderExpiryWheel = orderExpiryWheel;
+    meterRegistry.gauge(
+      "order_book_replication_pending_requests",
+      this,
+      ReplicationService::getPendingCount
+    );
+  }
+
+  /**
+   * Keep a request consumed by a follower until the leader decides it
+   * @param key
+   * @param orderBookRequest
+   * @return false when this instance is the leader and must apply the request
+   */
+  public synchronized boolean trackRequest(
+    String key,
+    OrderBookRequest orderBookRequest
+  ) {
+    if (replicationState.isLeader()) {
+      return false;
+    }
+    String requestId = requestId(key, orderBookRequest);
+    if (!decidedRequests.remove(requestId)) {
+      pendingRequests.put(
+        requestId,
+        new PendingRequest(key, orderBookRequest)
+      );
+    }
+    return true;
+  }
+
+  /**
+   * Apply the verdict of the leader on a request, without any side effect
+   * @param key
+   * @param orderBookRequest
+   * @param accepted true for a response, false for a rejection
+   */
+  public void applyVerdict(
+    String key,
+    OrderBookRequest orderBookRequest,
+    boolean accepted
+  ) {
+    synchronized (this) {
+      String requestId = requestId(key, orderBookRequest);
+      if (pendingRequests.remove(requestId) == null) {
+        decidedRequests.add(requestId);
+      }
+    }
+    if (!accepted) {
+      filledQuantities.remove(key);
+      activatedOrders.remove(key);
+      return;
+    }
+
+    Order order = orderBookRequest.getOrder();
+    String symbol = order.getSymbol().toString();
+    switch (orderBookRequest.getType()) {
+      case NEW:
+        orderBookEngine.submitCommand(
+          symbol,
+          orderBook -> {
+            Integer filled = filledQuantities.remove(key);
+            Order added = activatedOrders.remove(key)
+              ? Order.newBuilder(order).setType(Type.LIMIT).build()
+              : order;
+            if (filled == null) {
+              orderBook.addOrder(key, added);
+            } else if (filled < order.getQuantity()) {
+              orderBook.addOrder(key, reduce(added, filled));
+            }
+          }
+        );
+        orderExpiryWheel.arm(key, order);
+        break;
+      case CANCEL:
+        orderBookEngine.submitCommand(
+          symbol,
+          orderBook -> {
+            orderBook.removeOrder(key);
+            filledQuantities.remove(key);
+            activatedOrders.remove(key);
+          }
+        );
+        orderExpiryWheel.disarm(key);
+        break;
+      case REPLACE:
+        orderBookEngine.submitCommand(
+          symbol,
+          orderBook -> orderBook.replaceOrder(key, order)
+        );
+        orderExpiryWheel.arm(key, order);
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Remove or reduce the order filled by a trade of the leader
+   * @param key
+   * @param trade
+   */
+  public void applyTrade(String key, Trade trade) {
+    // Market orders never rest in the books
+    if (trade.getOrder().getType() == Type.MARKET) {
+      return;
+    }
+    int quantity = trade.getQuantity();
+    boolean awaited = isAwaited(key, trade.getOrder());
+    orderBookEngine.submitCommand(
+      trade.getSymbol().toString(),
+      orderBook -> {
+        Order order = orderBook.getOrder(key);
+        if (order == null) {
+          if (awaited) {
+            filledQuantities.merge(key, quantity, Integer::sum);
+          }
+        } else if (quantity < order.getQuantity()) {
+          orderBook.replaceOrder(key, reduce(order, quantity));
+        } else {
+          orderBook.removeOrder(key);
+        }
+      }
+    );
+  }
+
+  /**
+   * Move a STOP_LIMIT order triggered by the leader to the limit orders
+   * @param key
+   * @param order the LIMIT order sent by the leader
+   */
+  public void applyActivation(String key, Order order) {
+    boolean awaited = isAwaited(key, order);
+    orderBookEngine.submitCommand(
+      order.getSymbol().toString(),
+      orderBook -> {
+        if (orderBook.activateStopOrder(key) == null && awaited) {
+          activatedOrders.add(key);
+        }
+      }
+    );
+  }
+
+  /**
+   * Checked when the output is read rather than when it is applied: the
+   * response to the NEW request read next is only applied after it
+   * @return true when the order is not in the book yet
+   */
+  private synchronized boolean isAwaited(String key, Order order) {
+    return pendingRequests.containsKey(
+      requestId(key, OrderBookRequestType.NEW, order.getClOrderID())
+    );
+  }
+
+  private static Order reduce(Order order, int filledQuantity) {
+    return Order
+      .newBuilder(order)
+      .setQuantity(order.getQuantity() - filledQuantity)
+      .build();
+  }
+
+  /**
+   * Take the lease: the requests not decided by the previous leader are
+   * applied before any new request. A leader keeping the lease keeps its
+   * epoch, the writes fenced with it stay valid
+   * @param epoch
+   */
+  public synchronized void promote(int epoch) {
+    if (replicationState.isLeader()) {
+      return;
+    }
+    List<PendingRequest> requests = new ArrayList<>(pendingRequests.values());
+    pendingRequests.clear();
+    decidedRequests.clear();
+    filledQuantities.clear();
+    activatedOrders.clear();
+
+    replicationState.becomeLeader(epoch);
+    LOG.info(
+      "Applying {} requests not decided by the previous leader",
+      requests.size()
+    );
+    for (PendingRequest request : requests) {
+      orderBookEngine.submitOrderBookRequest(
+        request.key(),
+        request.orderBookRequest()
+      );
+    }
+    orderBookEngine.awaitProcessed();
+  }
+
+  /**
+   * Lose the lease. The books of this instance were not rebuilt from the
+   * verdicts of the new leader, it must be restarted to follow it again
+   */
+  public synchronized void demote() {
+    if (!replicationState.isLeader()) {
+      return;
+    }
+    replicationState.becomeFollower();
+    LOG.error(
+      "Lease lost, the order books may diverge from the leader until restart"
+    );
+  }
+
+  public synchronized int getPendingCount() {
+    return pendingRequests.size();
+  }
+
+  /**
+   * @return the number of trades and activations kept until the response to
+   * the NEW request of their order
+   */
+  int getAwaitedOutputCount() {
+    return filledQuantities.size() + activatedOrders.size();
+  }
+
+  private static String requestId(
+    String key,
+    OrderBookRequest orderBookRequest
+  ) {
+    return requestId(
+      key,
+      orderBookRequest.getType(),
+      orderBookRequest.getOrder().getClOrderID()
+    );
+  }
+
+  private static String requestId(
+    String key,
+    OrderBookRequestType type,
+    CharSequence clOrderID
+  ) {
+    return String.format("%s:%s:%s", key, type, clOrderID);
+  }
+
+  private record PendingRequest(
+    String key,
+    OrderBookRequest orderBookRequest
+  ) {}
+}
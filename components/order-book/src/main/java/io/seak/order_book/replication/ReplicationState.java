@@ -0,0 +1,78 @@
+package io.seak.order_book.replication;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.annotation.Property;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Role of this instance. Without replication the instance is always the
+ * leader, otherwise it starts as a follower until it holds the lease, see
+ * {@link LeaseListener}.
+ */
+@Singleton
+public class ReplicationState {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    ReplicationState.class
+  );
+
+  private volatile ReplicationRole role;
+
+  // Generation of the lease consumer group when the lease was acquired
+  private volatile int epoch = -1;
+
+  public ReplicationState(
+    MeterRegistry meterRegistry,
+    @Property(name = "order-book.replication.enabled") boolean enabled
+  ) {
+    this.role = enabled ? ReplicationRole.FOLLOWER : ReplicationRole.LEADER;
+    meterRegistry.gauge(
+      "order_book_replication_leader",
+      this,
+      state -> state.isLeader() ? 1 : 0
+    );
+  }
+
+  public boolean isLeader() {
+    return role == ReplicationRole.LEADER;
+  }
+
+  public ReplicationRole getRole() {
+    return role;
+  }
+
+  public int getEpoch() {
+    return epoch;
+  }
+
+  synchronized void becomeLeader(int epoch) {
+    LOG.info("Leading the order books with epoch {}", epoch);
+    this.epoch = epoch;
+    this.role = ReplicationRole.LEADER;
+  }
+
+  synchronized void becomeFollower() {
+    LOG.info("Following the order books, epoch {} is over", epoch);
+    this.role = ReplicationRole.FOLLOWER;
+  }
+
+  /**
+   * A write of an epoch was fenced by a newer leader: stop leading, unless
+   * this instance leads another epoch since. Like a lost lease, the instance
+   * must be restarted to follow the new leader
+   * @param epoch epoch of the fenced write
+   */
+  public synchronized void depose(int epoch) {
+    if (!isLeader() || this.epoch != epoch) {
+      return;
+    }
+    this.role = ReplicationRole.FOLLOWER;
+    LOG.error(
+      "Epoch {} fenced, the order books may diverge from the new leader " +
+      "until restart",
+      epoch
+    );
+  }
+}
@@ -0,0 +1,33 @@
+package io.seak.order_book.snapshot;
+
+import io.seak.avro.MarketDataRequest;
+import io.seak.avro.Order;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * State of the order book component at a batch boundary of all its
+ * listeners.
+ *
+ * @param timestamp creation time in milliseconds
+ * @param offsets next offset to consume for each partition
+ * @param orderBooks orders of each symbol, in the order they must be added
+ * back to the book
+ * @param subscriptions market data subscriptions by symbol
+ */
+public record OrderBookSnapshot(
+  long timestamp,
+  Map<TopicPartition, Long> offsets,
+  Map<String, List<Entry<Order>>> orderBooks,
+  List<Entry<MarketDataRequest>> subscriptions
+) {
+  /**
+   * @param key order id for an order, symbol for a subscription
+   */
+  public record Entry<T>(String key, T value) {}
+
+  public int orderCount() {
+    return orderBooks.values().stream().mapToInt(List::size).sum();
+  }
+}
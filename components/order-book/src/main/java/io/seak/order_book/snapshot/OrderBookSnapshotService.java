@@ -0,0 +1,382 @@
+package io.seak.order_book.snapshot;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.configuration.kafka.seek.KafkaSeekOperation;
+import io.micronaut.configuration.kafka.seek.KafkaSeeker;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.seak.avro.MarketDataRequest;
+import io.seak.avro.Order;
+import io.seak.order_book.expiry.OrderExpiryWheel;
+import io.seak.order_book.market_data.MarketDataSubscriptionCatalog;
+import io.seak.order_book.order_book.CompactedOrderBook;
+import io.seak.order_book.order_book.LimitOrderBook;
+import io.seak.order_book.order_book.OrderBookCatalog;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically snapshot the order books and the market data subscriptions to
+ * disk, and restore the latest snapshot on startup.
+ *
+ * The listeners process their batches through {@link #process}, a snapshot is
+ * captured between two batches by marking the books, their orders are copied
+ * and written outside of the barrier, see
+ * {@link LimitOrderBook#captureOrders}. On restore, the listeners seek their
+ * partitions to the offsets recorded in the snapshot the first time they are
+ * assigned, and the records processed before the restart are replayed
+ * without sending anything, see {@link SnapshotReplay}.
+ */
+@Singleton
+public class OrderBookSnapshotService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    OrderBookSnapshotService.class
+  );
+
+  private static final String FILE_PREFIX = "order-book-";
+  private static final String FILE_SUFFIX = ".snapshot";
+
+  private final OrderBookCatalog orderBookCatalog;
+  private final MarketDataSubscriptionCatalog marketDataSubscriptionCatalog;
+  private final OrderExpiryWheel orderExpiryWheel;
+  private final SnapshotReplay replay;
+  private final SnapshotBarrier barrier;
+  private final boolean enabled;
+  private final Path directory;
+  private final int retained;
+  private final Timer captureTimer;
+  private final Timer writeTimer;
+
+  // Offsets of the restored snapshot not yet used to seek a partition
+  private final Map<TopicPartition, Long> restoredOffsets;
+
+  public OrderBookSnapshotService(
+    OrderBookCatalog orderBookCatalog,
+    MarketDataSubscriptionCatalog marketDataSubscriptionCatalog,
+    OrderExpiryWheel orderExpiryWheel,
+    SnapshotReplay replay,
+    MeterRegistry meterRegistry,
+    @Property(name = "order-book.snapshot.enabled") boolean enabled,
+    @Property(name = "order-book.snapshot.directory") String directory,
+    @Property(name = "order-book.snapshot.retained") int retained
+  ) {
+    this.orderBookCatalog = orderBookCatalog;
+    this.marketDataSubscriptionCatalog = marketDataSubscriptionCatalog;
+    this.orderExpiryWheel = orderExpiryWheel;
+    this.replay = replay;
+    this.barrier = new SnapshotBarrier(replay);
+    this.enabled = enabled;
+    this.directory = Path.of(directory);
+    this.retained = Math.max(1, retained);
+    this.captureTimer =
+      meterRegistry.timer("order_book_snapshot", "phase", "capture");
+    this.writeTimer =
+      meterRegistry.timer("order_book_snapshot", "phase", "write");
+    this.restoredOffsets = new ConcurrentHashMap<>();
+
+    if (enabled) {
+      restoreLatest();
+    }
+  }
+
+  /**
+   * Process a batch of records, the snapshots are only captured between
+   * batches. The records processed before a restart are given to the batch
+   * apart, nothing is sent while it processes them
+   * @param records
+   * @param batch
+   */
+  public <R extends ConsumerRecord<?, ?>> void process(
+    List<R> records,
+    Consumer<List<R>> batch
+  ) {
+    barrier.process(records, batch);
+  }
+
+  /**
+   * Run a task touching the books, not part of a batch of records
+   * @param task
+   */
+  public void run(Runnable task) {
+    barrier.run(task);
+  }
+
+  /**
+   * Seek the newly assigned partitions to the offsets of the restored
+   * snapshot, only once per partition. The records up to the committed offset
+   * of a partition are then replayed
+   * @param partitions
+   * @param seeker
+   * @param committedOffsets reads the committed offsets of partitions, e.g.
+   * {@code Consumer::committed}
+   */
+  public void seekToSnapshot(
+    Collection<TopicPartition> partitions,
+    KafkaSeeker seeker,
+    Function<
+      Set<TopicPartition>,
+      Map<TopicPartition, OffsetAndMetadata>
+    > committedOffsets
+  ) {
+    Set<TopicPartition> restored = new HashSet<>(partitions);
+    restored.retainAll(restoredOffsets.keySet());
+    if (restored.isEmpty()) {
+      return;
+    }
+    Map<TopicPartition, OffsetAndMetadata> committed = committedOffsets.apply(
+      restored
+    );
+    for (TopicPartition partition : restored) {
+      Long offset = restoredOffsets.remove(partition);
+      if (offset != null) {
+        OffsetAndMetadata committedOffset = committed.get(partition);
+        replay.start(
+          partition,
+          offset,
+          committedOffset == null ? null : committedOffset.offset()
+        );
+        LOG.info(
+          "Seek {} to snapshot offset {}, replay until {}",
+          partition,
+          offset,
+          committedOffset
+        );
+        seeker.perform(KafkaSeekOperation.seek(partition, offset));
+      }
+    }
+  }
+
+  @Scheduled(
+    fixedDelay = "${order-book.snapshot.interval}",
+    initialDelay = "${order-book.snapshot.interval}"
+  )
+  void scheduledSnapshot() {
+    if (enabled) {
+      snapshot();
+    }
+  }
+
+  @PreDestroy
+  void close() {
+    if (enabled) {
+      snapshot();
+    }
+  }
+
+  /**
+   * Capture and write a snapshot
+   * @return the path of the snapshot, null if it could not be written
+   */
+  public synchronized Path snapshot() {
+    Timer.Sample captureSample = Timer.start();
+    Capture capture = barrier.capture(this::capture);
+    captureSample.stop(captureTimer);
+
+    Timer.Sample writeSample = Timer.start();
+    OrderBookSnapshot snapshot = capture.complete();
+    Path path = directory.resolve(
+      FILE_PREFIX + snapshot.timestamp() + FILE_SUFFIX
+    );
+    Path tmpPath = directory.resolve(path.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(directory);
+      SnapshotCodec.write(snapshot, tmpPath);
+      Files.move(
+        tmpPath,
+        path,
+        StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING
+      );
+      deleteOldSnapshots();
+    } catch (IOException e) {
+      LOG.error("Could not write snapshot {}", path, e);
+      return null;
+    } finally {
+      writeSample.stop(writeTimer);
+    }
+    LOG.info(
+      "Snapshot {} written with {} books and {} orders",
+      path,
+      snapshot.orderBooks().size(),
+      snapshot.orderCount()
+    );
+    return path;
+  }
+
+  /**
+   * Mark the live books and keep the compacted ones, which do not change, no
+   * order is copied while the listeners are paused
+   */
+  private Capture capture(Map<TopicPartition, Long> offsets) {
+    Map<String, List<OrderBookSnapshot.Entry<Order>>> orderBooks =
+      new LinkedHashMap<>();
+    List<LimitOrderBook> capturedOrderBooks = new ArrayList<>();
+    for (LimitOrderBook orderBook : orderBookCatalog
+      .getOrderBooks()
+      .values()) {
+      List<OrderBookSnapshot.Entry<Order>> orders = new ArrayList<>();
+      orderBook.captureOrders((id, order) ->
+        orders.add(new OrderBookSnapshot.Entry<>(id, order))
+      );
+      orderBooks.put(orderBook.getSymbol(), orders);
+      capturedOrderBooks.add(orderBook);
+    }
+    Map<String, CompactedOrderBook> compactedOrderBooks =
+      orderBookCatalog.getCompactedOrderBooks();
+    compactedOrderBooks
+      .keySet()
+      .forEach(symbol -> orderBooks.put(symbol, new ArrayList<>()));
+
+    List<OrderBookSnapshot.Entry<MarketDataRequest>> subscriptions =
+      new ArrayList<>();
+    marketDataSubscriptionCatalog.forEachSubscription((symbol, request) ->
+      subscriptions.add(new OrderBookSnapshot.Entry<>(symbol, request))
+    );
+
+    return new Capture(
+      new OrderBookSnapshot(
+        System.currentTimeMillis(),
+        offsets,
+        orderBooks,
+        subscriptions
+      ),
+      capturedOrderBooks,
+      compactedOrderBooks
+    );
+  }
+
+  /**
+   * Snapshot whose orders are copied once the listeners are resumed
+   * @param snapshot
+   * @param orderBooks live books whose orders are captured
+   * @param compactedOrderBooks compacted books, decoded into the snapshot
+   */
+  private record Capture(
+    OrderBookSnapshot snapshot,
+    List<LimitOrderBook> orderBooks,
+    Map<String, CompactedOrderBook> compactedOrderBooks
+  ) {
+    OrderBookSnapshot complete() {
+      orderBooks.forEach(LimitOrderBook::completeCapture);
+      compactedOrderBooks.forEach((symbol, compactedOrderBook) -> {
+        List<OrderBookSnapshot.Entry<Order>> orders = snapshot
+          .orderBooks()
+          .get(symbol);
+        compactedOrderBook.forEachOrder((id, order) ->
+          orders.add(new OrderBookSnapshot.Entry<>(id, order))
+        );
+      });
+      return snapshot;
+    }
+  }
+
+  private void restoreLatest() {
+    for (Path path : listSnapshots()) {
+      try {
+        OrderBookSnapshot snapshot = SnapshotCodec.read(path);
+        restore(snapshot);
+        LOG.info(
+          "Restored snapshot {} with {} books and {} orders",
+          path,
+          snapshot.orderBooks().size(),
+          snapshot.orderCount()
+        );
+        return;
+      } catch (IOException e) {
+        LOG.warn("Skipping unreadable snapshot {}", path, e);
+      }
+    }
+    LOG.info("No snapshot to restore in {}", directory);
+  }
+
+  private void restore(OrderBookSnapshot snapshot) {
+    snapshot
+      .orderBooks()
+      .forEach((symbol, orders) -> {
+        LimitOrderBook orderBook = orderBookCatalog.getOrCreateOrderBook(
+          symbol
+        );
+        orders.forEach(order -> {
+          orderBook.addOrder(order.key(), order.value());
+          orderExpiryWheel.arm(order.key(), order.value());
+        });
+      });
+    snapshot
+      .subscriptions()
+      .forEach(subscription ->
+        marketDataSubscriptionCatalog.restoreSubscription(
+          subscription.key(),
+          subscription.value()
+        )
+      );
+    restoredOffsets.putAll(snapshot.offsets());
+  }
+
+  /**
+   * @return the snapshots of the directory, latest first
+   */
+  private List<Path> listSnapshots() {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+        .filter(path -> {
+          String name = path.getFileName().toString();
+          return name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX);
+        })
+        .sorted(Comparator.comparing(this::timestampOf).reversed())
+        .toList();
+    } catch (IOException e) {
+      LOG.error("Could not list snapshots in {}", directory, e);
+      return List.of();
+    }
+  }
+
+  private long timestampOf(Path path) {
+    String name = path.getFileName().toString();
+    try {
+      return Long.parseLong(
+        name.substring(
+          FILE_PREFIX.length(),
+          name.length() - FILE_SUFFIX.length()
+        )
+      );
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private void deleteOldSnapshots() throws IOException {
+    List<Path> snapshots = listSnapshots();
+    for (Path path : snapshots.subList(
+      Math.min(retained, snapshots.size()),
+      snapshots.size()
+    )) {
+      Files.deleteIfExists(path);
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package io.seak.order_book.snapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Let the listeners process their batches concurrently while a snapshot can
+ * only be captured between batches, when the state matches the consumed
+ * offsets.
+ *
+ * The records replayed after a restore are processed alone, with nothing
+ * sent, see {@link SnapshotReplay}.
+ */
+class SnapshotBarrier {
+
+  // Fair, so that a pending capture is not starved by the listeners
+  private final ReadWriteLock lock = new ReentrantReadWriteLock(true);
+
+  // Next offset to consume for each partition
+  private final Map<TopicPartition, Long> offsets = new ConcurrentHashMap<>();
+
+  private final SnapshotReplay replay;
+
+  SnapshotBarrier(SnapshotReplay replay) {
+    this.replay = replay;
+  }
+
+  /**
+   * Process a batch of records, the records replayed after a restore first,
+   * in a batch of their own
+   * @param records
+   * @param batch
+   */
+  <R extends ConsumerRecord<?, ?>> void process(
+    List<R> records,
+    Consumer<List<R>> batch
+  ) {
+    if (replay.isPending()) {
+      List<R> replayed = new ArrayList<>();
+      List<R> live = new ArrayList<>();
+      records.forEach(item ->
+        (replay.isReplayed(item) ? replayed : live).add(item)
+      );
+      if (!replayed.isEmpty()) {
+        replay(replayed, batch);
+      }
+      records = live;
+      if (records.isEmpty()) {
+        return;
+      }
+    }
+    lock.readLock().lock();
+    try {
+      apply(records, batch);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Run a task touching the books between two captures
+   * @param task
+   */
+  void run(Runnable task) {
+    lock.readLock().lock();
+    try {
+      task.run();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * The replayed records are processed with the exclusive lock, so that no
+   * other batch or task runs while nothing is sent
+   */
+  private <R extends ConsumerRecord<?, ?>> void replay(
+    List<R> records,
+    Consumer<List<R>> batch
+  ) {
+    lock.writeLock().lock();
+    try {
+      replay.setReplaying(true);
+      apply(records, batch);
+    } finally {
+      replay.setReplaying(false);
+      lock.writeLock().unlock();
+    }
+  }
+
+  private <R extends ConsumerRecord<?, ?>> void apply(
+    List<R> records,
+    Consumer<List<R>> batch
+  ) {
+    batch.accept(records);
+    for (ConsumerRecord<?, ?> item : records) {
+      offsets.merge(
+        new TopicPartition(item.topic(), item.partition()),
+        item.offset() + 1,
+        Math::max
+      );
+    }
+  }
+
+  /**
+   * Run the capture while no batch is being processed
+   * @param capture receives the consumed offsets
+   */
+  <T> T capture(Function<Map<TopicPartition, Long>, T> capture) {
+    lock.writeLock().lock();
+    try {
+      return capture.apply(new HashMap<>(offsets));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+}
@@ -0,0 +1,210 @@
+package io.seak.order_book.snapshot;
+
+import io.seak.avro.MarketDataRequest;
+import io.seak.avro.Order;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Binary layout of a snapshot file, all integers are big endian:
+ *
+ * <pre>
+ * int magic, int version, long timestamp
+ * int count, (string topic, int partition, long offset) * count
+ * int count, (string symbol, int n, (string id, bytes order) * n) * count
+ * int count, (string symbol, bytes request) * count
+ * long crc32 of all the previous bytes
+ * </pre>
+ *
+ * Strings are UTF-8 and bytes are Avro single object encoded, both prefixed by
+ * their length.
+ *
+ * A snapshot is written as a stream through a small buffer, its size is not
+ * known before it is encoded, and read through a memory-mapped buffer.
+ */
+final class SnapshotCodec {
+
+  private static final int MAGIC = 0x5345414B; // SEAK
+  private static final int VERSION = 1;
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private SnapshotCodec() {}
+
+  static void write(OrderBookSnapshot snapshot, Path path) throws IOException {
+    try (
+      FileChannel channel = FileChannel.open(
+        path,
+        StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.WRITE
+      )
+    ) {
+      CRC32 crc = new CRC32();
+      DataOutputStream out = new DataOutputStream(
+        new CheckedOutputStream(
+          new BufferedOutputStream(
+            Channels.newOutputStream(channel),
+            BUFFER_SIZE
+          ),
+          crc
+        )
+      );
+      write(snapshot, out);
+      out.writeLong(crc.getValue());
+      out.flush();
+      channel.force(true);
+    }
+  }
+
+  private static void write(OrderBookSnapshot snapshot, DataOutputStream out)
+    throws IOException {
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeLong(snapshot.timestamp());
+
+    out.writeInt(snapshot.offsets().size());
+    for (Map.Entry<TopicPartition, Long> entry : snapshot
+      .offsets()
+      .entrySet()) {
+      writeString(out, entry.getKey().topic());
+      out.writeInt(entry.getKey().partition());
+      out.writeLong(entry.getValue());
+    }
+
+    out.writeInt(snapshot.orderBooks().size());
+    for (Map.Entry<
+      String,
+      List<OrderBookSnapshot.Entry<Order>>
+    > book : snapshot.orderBooks().entrySet()) {
+      writeString(out, book.getKey());
+      out.writeInt(book.getValue().size());
+      for (OrderBookSnapshot.Entry<Order> order : book.getValue()) {
+        writeString(out, order.key());
+        writeBytes(out, order.value().toByteBuffer());
+      }
+    }
+
+    out.writeInt(snapshot.subscriptions().size());
+    for (OrderBookSnapshot.Entry<
+      MarketDataRequest
+    > subscription : snapshot.subscriptions()) {
+      writeString(out, subscription.key());
+      writeBytes(out, subscription.value().toByteBuffer());
+    }
+  }
+
+  static OrderBookSnapshot read(Path path) throws IOException {
+    try (
+      FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)
+    ) {
+      MappedByteBuffer buffer = channel.map(
+        FileChannel.MapMode.READ_ONLY,
+        0,
+        channel.size()
+      );
+      return read(buffer);
+    } catch (BufferUnderflowException | IllegalArgumentException e) {
+      throw new IOException("Truncated snapshot " + path, e);
+    }
+  }
+
+  private static OrderBookSnapshot read(ByteBuffer buffer) throws IOException {
+    int length = buffer.remaining() - Long.BYTES;
+    CRC32 crc = new CRC32();
+    crc.update(buffer.duplicate().limit(length));
+    if (crc.getValue() != buffer.getLong(length)) {
+      throw new IOException("Corrupted snapshot, checksum mismatch");
+    }
+    if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+      throw new IOException("Unknown snapshot format");
+    }
+    long timestamp = buffer.getLong();
+
+    int offsetCount = buffer.getInt();
+    Map<TopicPartition, Long> offsets = new HashMap<>(offsetCount * 2);
+    for (int i = 0; i < offsetCount; i++) {
+      String topic = readString(buffer);
+      int partition = buffer.getInt();
+      offsets.put(new TopicPartition(topic, partition), buffer.getLong());
+    }
+
+    int bookCount = buffer.getInt();
+    Map<String, List<OrderBookSnapshot.Entry<Order>>> orderBooks =
+      new LinkedHashMap<>(bookCount * 2);
+    for (int i = 0; i < bookCount; i++) {
+      String symbol = readString(buffer);
+      int orderCount = buffer.getInt();
+      List<OrderBookSnapshot.Entry<Order>> orders = new ArrayList<>(
+        orderCount
+      );
+      for (int j = 0; j < orderCount; j++) {
+        String id = readString(buffer);
+        Order order = Order.fromByteBuffer(readBytes(buffer));
+        orders.add(new OrderBookSnapshot.Entry<>(id, order));
+      }
+      orderBooks.put(symbol, orders);
+    }
+
+    int subscriptionCount = buffer.getInt();
+    List<OrderBookSnapshot.Entry<MarketDataRequest>> subscriptions =
+      new ArrayList<>(subscriptionCount);
+    for (int i = 0; i < subscriptionCount; i++) {
+      String symbol = readString(buffer);
+      subscriptions.add(
+        new OrderBookSnapshot.Entry<>(
+          symbol,
+          MarketDataRequest.fromByteBuffer(readBytes(buffer))
+        )
+      );
+    }
+
+    return new OrderBookSnapshot(timestamp, offsets, orderBooks, subscriptions);
+  }
+
+  private static void writeString(DataOutputStream out, String value)
+    throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static void writeBytes(DataOutputStream out, ByteBuffer value)
+    throws IOException {
+    out.writeInt(value.remaining());
+    out.write(
+      value.array(),
+      value.arrayOffset() + value.position(),
+      value.remaining()
+    );
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static ByteBuffer readBytes(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return ByteBuffer.wrap(bytes);
+  }
+}
@@ -0,0 +1,77 @@
+package io.seak.order_book.snapshot;
+
+import jakarta.inject.Singleton;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * Records consumed again after a restore, from the offsets of the snapshot to
+ * the offsets committed before the restart. Their requests were answered and
+ * their trades sent before the restart, so they only rebuild the books:
+ * nothing is sent while they are replayed.
+ */
+@Singleton
+public class SnapshotReplay {
+
+  // Committed offset of each partition sought back to the snapshot
+  private final Map<TopicPartition, Long> replayEnds =
+    new ConcurrentHashMap<>();
+
+  private volatile boolean replaying;
+
+  /**
+   * @param partition
+   * @param snapshotOffset offset the partition is sought to
+   * @param committedOffset offset committed before the restart, null if none
+   */
+  void start(
+    TopicPartition partition,
+    long snapshotOffset,
+    Long committedOffset
+  ) {
+    if (committedOffset != null && committedOffset > snapshotOffset) {
+      replayEnds.put(partition, committedOffset);
+    }
+  }
+
+  /**
+   * @return true while some partition has records to replay
+   */
+  boolean isPending() {
+    return !replayEnds.isEmpty();
+  }
+
+  /**
+   * Records must be checked in the order they are consumed, a partition stops
+   * replaying with its first record at or past the committed offset
+   * @param item
+   * @return true if the record was processed before the restart
+   */
+  boolean isReplayed(ConsumerRecord<?, ?> item) {
+    TopicPartition partition = new TopicPartition(
+      item.topic(),
+      item.partition()
+    );
+    Long end = replayEnds.get(partition);
+    if (end == null) {
+      return false;
+    }
+    if (item.offset() + 1 >= end) {
+      replayEnds.remove(partition, end);
+    }
+    return item.offset() < end;
+  }
+
+  void setReplaying(boolean replaying) {
+    this.replaying = replaying;
+  }
+
+  /**
+   * @return true while replayed records are processed, nothing must be sent
+   */
+  public boolean isReplaying() {
+    return replaying;
+  }
+}
@@ -0,0 +1,96 @@
+package io.seak.order_book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.seak.avro.MarketData;
+import io.seak.avro.Order;
+import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
+import io.seak.avro.Trade;
+import io.seak.avro.Type;
+import io.seak.order_book.order_book.LimitOrderBook;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+class MarketDataListenerTest {
+
+  @Test
+  void testCollapseIntoRangeOfBoth() {
+    // Given
+    MarketData previous = new MarketData(100.0, 102.0, 98.0, 101.0, 10);
+    MarketData next = new MarketData(101.0, 104.0, 99.0, 103.0, 5);
+
+    // When
+    MarketData collapsed = MarketDataListener.collapse(previous, next);
+
+    // Then
+    assertThat(collapsed)
+      .isEqualTo(new MarketData(100.0, 104.0, 98.0, 103.0, 15));
+  }
+
+  @Test
+  void testCollapsedMarketDataFillsTheSameLimitOrders() {
+    // Given
+    MarketData first = new MarketData(100.0, 102.0, 98.0, 100.0, 10);
+    MarketData second = new MarketData(100.0, 104.0, 96.0, 100.0, 10);
+    LimitOrderBook oneByOne = orderBook();
+    LimitOrderBook collapsed = orderBook();
+    Map<String, Double> oneByOneFills = new TreeMap<>();
+    Map<String, Double> collapsedFills = new TreeMap<>();
+
+    // When
+    oneByOne.matchOrders(
+      first,
+      (id, trade) -> record(oneByOneFills, id, trade)
+    );
+    oneByOne.matchOrders(
+      second,
+      (id, trade) -> record(oneByOneFills, id, trade)
+    );
+    collapsed.matchOrders(
+      MarketDataListener.collapse(first, second),
+      (id, trade) -> record(collapsedFills, id, trade)
+    );
+
+    // Then, the same orders filled at the same prices
+    assertThat(collapsedFills)
+      .isEqualTo(oneByOneFills)
+      .containsOnlyKeys("1", "2", "4", "5");
+    assertThat(collapsed.getOrderCount()).isEqualTo(oneByOne.getOrderCount());
+  }
+
+  private static void record(Map<String, Double> fills, String id, Trade t) {
+    fills.put(id, t.getPrice());
+  }
+
+  private static LimitOrderBook orderBook() {
+    LimitOrderBook orderBook = new LimitOrderBook(
+      "AAPL",
+      new SimpleMeterRegistry()
+    );
+    orderBook.addOrder("1", order(Side.BUY, 99.0));
+    orderBook.addOrder("2", order(Side.BUY, 97.0));
+    orderBook.addOrder("3", order(Side.BUY, 95.0));
+    orderBook.addOrder("4", order(Side.SELL, 101.0));
+    orderBook.addOrder("5", order(Side.SELL, 103.0));
+    orderBook.addOrder("6", order(Side.SELL, 105.0));
+    return orderBook;
+  }
+
+  private static Order order(Side side, double price) {
+    return new Order(
+      "user",
+      "AAPL",
+      10,
+      side,
+      Type.LIMIT,
+      price,
+      "clOrderID",
+      null,
+      TimeInForce.GTC,
+      null
+    );
+  }
+}
@@ -0,0 +1,111 @@
+package io.seak.order_book.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+
+class MpscRingBufferTest {
+
+  @Test
+  void testRoundCapacityToPowerOfTwo() {
+    // When
+    MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(10);
+
+    // Then
+    assertThat(buffer.capacity()).isEqualTo(16);
+    assertThat(new MpscRingBuffer<Integer>(16).capacity()).isEqualTo(16);
+    assertThatThrownBy(() -> new MpscRingBuffer<Integer>(0))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void testRejectOfferWhenFull() {
+    // Given
+    MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+    for (int i = 0; i < 4; i++) {
+      assertThat(buffer.offer(i)).isTrue();
+    }
+
+    // When
+    boolean offered = buffer.offer(4);
+
+    // Then
+    assertThat(offered).isFalse();
+    assertThat(buffer.size()).isEqualTo(4);
+    assertThat(buffer.producerPosition()).isEqualTo(4);
+  }
+
+  @Test
+  void testPollInOrderAcrossWrapAround() {
+    // Given
+    MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+    List<Integer> polled = new ArrayList<>();
+
+    // When, each slot is reused several times
+    for (int i = 0; i < 10; i++) {
+      buffer.offer(i);
+      buffer.offer(100 + i);
+      polled.add(buffer.poll());
+      polled.add(buffer.poll());
+    }
+
+    // Then
+    assertThat(polled).hasSize(20);
+    for (int i = 0; i < 10; i++) {
+      assertThat(polled.get(2 * i)).isEqualTo(i);
+      assertThat(polled.get(2 * i + 1)).isEqualTo(100 + i);
+    }
+    assertThat(buffer.poll()).isNull();
+    assertThat(buffer.isEmpty()).isTrue();
+  }
+
+  @Test
+  void testKeepOrderOfEachProducer() throws InterruptedException {
+    // Given
+    int producers = 4;
+    int perProducer = 10_000;
+    MpscRingBuffer<int[]> buffer = new MpscRingBuffer<>(64);
+    ExecutorService executor = Executors.newFixedThreadPool(producers);
+    CountDownLatch start = new CountDownLatch(1);
+
+    // When
+    for (int p = 0; p < producers; p++) {
+      int producer = p;
+      executor.submit(() -> {
+        start.await();
+        for (int i = 0; i < perProducer; i++) {
+          while (!buffer.offer(new int[] { producer, i })) {
+            Thread.onSpinWait();
+          }
+        }
+        return null;
+      });
+    }
+    start.countDown();
+    int[] next = new int[producers];
+    int received = 0;
+    boolean ordered = true;
+    while (received < producers * perProducer) {
+      int[] element = buffer.poll();
+      if (element == null) {
+        Thread.onSpinWait();
+        continue;
+      }
+      ordered &= element[1] == next[element[0]];
+      next[element[0]] = element[1] + 1;
+      received++;
+    }
+    executor.shutdown();
+
+    // Then, every element once, in the order of its producer
+    assertThat(ordered).isTrue();
+    assertThat(next).containsOnly(perProducer);
+    assertThat(buffer.isEmpty()).isTrue();
+  }
+}
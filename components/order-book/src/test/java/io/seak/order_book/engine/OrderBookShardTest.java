@@ -0,0 +1,101 @@
+package io.seak.order_book.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OrderBookShardTest {
+
+  private OrderBookShard shard;
+
+  @BeforeEach
+  void setup() {
+    shard = new OrderBookShard(0, 16, WaitStrategy.BLOCKING);
+    shard.start();
+  }
+
+  @AfterEach
+  void teardown() {
+    shard.stop();
+  }
+
+  @Test
+  void testApplyInSubmissionOrder() {
+    // Given
+    List<Integer> applied = new CopyOnWriteArrayList<>();
+
+    // When, more commands than slots in the ring buffer
+    for (int i = 0; i < 100; i++) {
+      int command = i;
+      shard.submit(() -> applied.add(command));
+    }
+    shard.awaitProcessed();
+
+    // Then
+    assertThat(applied).hasSize(100);
+    for (int i = 0; i < 100; i++) {
+      assertThat(applied.get(i)).isEqualTo(i);
+    }
+  }
+
+  @Test
+  void testApplyPriorityCommandsFirst() throws InterruptedException {
+    // Given, the shard is busy with a first command
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<String> applied = new CopyOnWriteArrayList<>();
+    shard.submit(() -> {
+      started.countDown();
+      awaitQuietly(release);
+    });
+    started.await();
+
+    // When
+    shard.submit(() -> applied.add("new"));
+    shard.submitPriority(() -> applied.add("cancel"));
+    release.countDown();
+    shard.awaitProcessed();
+
+    // Then
+    assertThat(applied).containsExactly("cancel", "new");
+  }
+
+  @Test
+  void testThrowFailureToSubmitter() throws Exception {
+    // Given
+    RuntimeException failure = new IllegalArgumentException("Broken command");
+    shard.submit(() -> {
+      throw failure;
+    });
+    List<String> applied = new CopyOnWriteArrayList<>();
+    shard.submit(() -> applied.add("next"));
+
+    // When, another thread awaits the shard
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    executor.submit(shard::awaitProcessed).get();
+    executor.shutdown();
+
+    // Then, only the submitter gets the failure, once
+    assertThatThrownBy(shard::awaitProcessed)
+      .isInstanceOf(IllegalStateException.class)
+      .hasCause(failure);
+    shard.awaitProcessed();
+    assertThat(applied).containsExactly("next");
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
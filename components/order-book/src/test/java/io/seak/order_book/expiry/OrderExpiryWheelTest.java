@@ -0,0 +1,103 @@
+package io.seak.order_book.expiry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.seak.avro.Order;
+import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
+import io.seak.avro.Type;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OrderExpiryWheelTest {
+
+  private OrderExpiryWheel orderExpiryWheel;
+
+  @BeforeEach
+  void setup() {
+    orderExpiryWheel =
+      new OrderExpiryWheel(
+        new SimpleMeterRegistry(),
+        Duration.ofMillis(100),
+        "22:00"
+      );
+  }
+
+  @Test
+  void testStampDayOrderFromEntryTime() {
+    // Given
+    Order beforeClose = order(TimeInForce.DAY, null);
+    Order afterClose = order(TimeInForce.DAY, null);
+
+    // When
+    orderExpiryWheel.stampDeadline(
+      beforeClose,
+      millis("2024-03-04T21:59:59Z")
+    );
+    orderExpiryWheel.stampDeadline(afterClose, millis("2024-03-04T22:00:00Z"));
+
+    // Then
+    assertThat(beforeClose.getExpireTime())
+      .isEqualTo(millis("2024-03-04T22:00:00Z"));
+    assertThat(afterClose.getExpireTime())
+      .isEqualTo(millis("2024-03-05T22:00:00Z"));
+  }
+
+  @Test
+  void testKeepStampedDeadline() {
+    // Given, an order restored after its session
+    long deadline = millis("2024-03-04T22:00:00Z");
+    Order order = order(TimeInForce.DAY, deadline);
+
+    // When
+    orderExpiryWheel.stampDeadline(order, millis("2024-03-06T10:00:00Z"));
+    orderExpiryWheel.arm("1", order);
+    List<String> expired = new ArrayList<>();
+    orderExpiryWheel.advance(
+      System.currentTimeMillis() + 1000,
+      (key, entry) -> expired.add(key)
+    );
+
+    // Then, it expires at once
+    assertThat(order.getExpireTime()).isEqualTo(deadline);
+    assertThat(expired).containsExactly("1");
+  }
+
+  @Test
+  void testIgnoreOtherOrders() {
+    // Given
+    Order order = order(TimeInForce.GTC, null);
+
+    // When
+    orderExpiryWheel.stampDeadline(order, millis("2024-03-04T10:00:00Z"));
+    orderExpiryWheel.arm("1", order);
+
+    // Then
+    assertThat(order.getExpireTime()).isNull();
+    assertThat(orderExpiryWheel.getPendingCount()).isZero();
+  }
+
+  private static long millis(String instant) {
+    return Instant.parse(instant).toEpochMilli();
+  }
+
+  private static Order order(TimeInForce timeInForce, Long expireTime) {
+    return new Order(
+      "user",
+      "AAPL",
+      10,
+      Side.BUY,
+      Type.LIMIT,
+      100.0,
+      "clOrderID",
+      null,
+      timeInForce,
+      expireTime
+    );
+  }
+}
@@ -0,0 +1,133 @@
+package io.seak.order_book.expiry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+  private static final long TICK_MS = 10;
+
+  private TimingWheel<String, Long> timingWheel;
+  private final Map<String, Long> fired = new LinkedHashMap<>();
+
+  @BeforeEach
+  void setup() {
+    timingWheel = new TimingWheel<>(TICK_MS, 0);
+  }
+
+  @Test
+  void testFireAtDeadline() {
+    // Given
+    timingWheel.schedule("1", 25, 25L);
+
+    // When
+    int early = timingWheel.advance(29, fired::put);
+    int due = timingWheel.advance(30, fired::put);
+
+    // Then, never before the deadline, rounded up to the tick
+    assertThat(early).isZero();
+    assertThat(due).isEqualTo(1);
+    assertThat(fired).containsOnlyKeys("1");
+    assertThat(timingWheel.size()).isZero();
+  }
+
+  @Test
+  void testFirePastDeadlineOnNextTick() {
+    // Given
+    timingWheel.advance(100, fired::put);
+
+    // When
+    timingWheel.schedule("1", 50, 50L);
+
+    // Then
+    assertThat(timingWheel.advance(100, fired::put)).isZero();
+    assertThat(timingWheel.advance(110, fired::put)).isEqualTo(1);
+  }
+
+  @Test
+  void testCancelAndReplace() {
+    // Given
+    timingWheel.schedule("1", 100, 100L);
+    timingWheel.schedule("2", 100, 100L);
+    timingWheel.schedule("2", 200, 200L);
+
+    // When
+    Long cancelled = timingWheel.cancel("1");
+
+    // Then, the replaced entry only fires at its new deadline
+    assertThat(cancelled).isEqualTo(100L);
+    assertThat(timingWheel.cancel("1")).isNull();
+    assertThat(timingWheel.advance(190, fired::put)).isZero();
+    assertThat(timingWheel.advance(200, fired::put)).isEqualTo(1);
+    assertThat(fired).containsEntry("2", 200L);
+  }
+
+  @Test
+  void testCascadeUpperLevels() {
+    // Given, one deadline per level and one beyond the wheel
+    long[] deadlines = {
+      30 * TICK_MS,
+      (TimingWheel.SLOTS * 3 + 5) * TICK_MS,
+      (TimingWheel.SLOTS * TimingWheel.SLOTS * 2 + 7) * TICK_MS,
+      (1L << 26) * TICK_MS,
+    };
+    for (int i = 0; i < deadlines.length; i++) {
+      timingWheel.schedule(String.valueOf(i), deadlines[i], deadlines[i]);
+    }
+    List<Long> firedAt = new ArrayList<>();
+
+    // When, advancing one tick at a time around each deadline
+    for (long deadline : deadlines) {
+      timingWheel.advance(deadline - TICK_MS, (key, value) -> firedAt.add(-1L));
+      timingWheel.advance(deadline, (key, value) -> firedAt.add(value));
+    }
+
+    // Then
+    assertThat(firedAt)
+      .containsExactly(deadlines[0], deadlines[1], deadlines[2], deadlines[3]);
+  }
+
+  @Test
+  void testFireInDeadlineOrder() {
+    // Given, random deadlines over the levels
+    Random random = new Random(42);
+    Map<String, Long> deadlines = new LinkedHashMap<>();
+    for (int i = 0; i < 1000; i++) {
+      long deadline = 1 + random.nextInt(100_000_000);
+      deadlines.put(String.valueOf(i), deadline);
+      timingWheel.schedule(String.valueOf(i), deadline, deadline);
+    }
+    List<long[]> firings = new ArrayList<>();
+
+    // When, advancing by uneven steps
+    long now = 0;
+    while (timingWheel.size() > 0) {
+      now += 1 + random.nextInt(500_000);
+      long at = now;
+      timingWheel.advance(
+        now,
+        (key, value) -> firings.add(new long[] { value, at })
+      );
+    }
+
+    // Then, each entry fires on the first advance past its deadline
+    assertThat(firings).hasSize(deadlines.size());
+    assertThat(firings)
+      .allMatch(firing -> firing[0] <= firing[1])
+      .allMatch(firing -> firing[1] - firing[0] < 500_000 + TICK_MS);
+  }
+
+  @Test
+  void testRejectInvalidTick() {
+    assertThatThrownBy(() -> new TimingWheel<>(0, 0))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,106 @@
+package io.seak.order_book.inspection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.seak.avro.Order;
+import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
+import io.seak.avro.Type;
+import io.seak.order_book.order_book.LimitOrderBook;
+import io.seak.order_book.order_book.OrderTreeFactory;
+import io.seak.order_book.order_book.OrderTreeType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class BookViewTest {
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testCaptureFromBestPrice(OrderTreeType type) {
+    // Given
+    OrderTreeFactory factory = new OrderTreeFactory(type, 0.01, 4096);
+    LimitOrderBook orderBook = new LimitOrderBook(
+      "AAPL",
+      factory.create(Side.BUY),
+      factory.create(Side.SELL),
+      new SimpleMeterRegistry()
+    );
+    orderBook.addOrder("1", order(Side.BUY, 100.0, 10));
+    orderBook.addOrder("2", order(Side.BUY, 101.0, 5));
+    orderBook.addOrder("3", order(Side.BUY, 100.0, 7));
+    orderBook.addOrder("4", order(Side.SELL, 103.0, 2));
+    orderBook.addOrder("5", order(Side.SELL, 102.0, 3));
+    orderBook.addOrder("6", order(Side.SELL, 102.0, 4));
+
+    // When
+    BookView bookView = BookView.capture(orderBook);
+
+    // Then, each side from the best price then by arrival time
+    assertThat(bookView.version()).isEqualTo(orderBook.getVersion());
+    assertThat(bookView.bidOrders())
+      .extracting(BookView.RestingOrder::id)
+      .containsExactly("2", "1", "3");
+    assertThat(bookView.askOrders())
+      .extracting(BookView.RestingOrder::id)
+      .containsExactly("5", "6", "4");
+    assertThat(bookView.bids())
+      .containsExactly(
+        new BookView.Level(101.0, 5, 1),
+        new BookView.Level(100.0, 17, 2)
+      );
+    assertThat(bookView.asks())
+      .containsExactly(
+        new BookView.Level(102.0, 7, 2),
+        new BookView.Level(103.0, 2, 1)
+      );
+  }
+
+  @Test
+  void testPageBothSidesFromBestPrice() {
+    // Given
+    LimitOrderBook orderBook = new LimitOrderBook(
+      "AAPL",
+      new SimpleMeterRegistry()
+    );
+    orderBook.addOrder("1", order(Side.BUY, 100.0, 10));
+    orderBook.addOrder("2", order(Side.BUY, 99.0, 10));
+    orderBook.addOrder("3", order(Side.BUY, 98.0, 10));
+    orderBook.addOrder("4", order(Side.SELL, 101.0, 10));
+    BookView bookView = BookView.capture(orderBook);
+
+    // When
+    BookPage<BookView.Level> page = BookPage.of(
+      bookView,
+      "L2",
+      1,
+      5,
+      bookView.bids(),
+      bookView.asks()
+    );
+
+    // Then, the same range of each side
+    assertThat(page.bidCount()).isEqualTo(3);
+    assertThat(page.askCount()).isEqualTo(1);
+    assertThat(page.bids())
+      .extracting(BookView.Level::price)
+      .containsExactly(99.0, 98.0);
+    assertThat(page.asks()).isEmpty();
+  }
+
+  private static Order order(Side side, double price, int quantity) {
+    return new Order(
+      "user",
+      "AAPL",
+      quantity,
+      side,
+      Type.LIMIT,
+      price,
+      "clOrderID",
+      null,
+      TimeInForce.GTC,
+      null
+    );
+  }
+}
@@ -0,0 +1,170 @@
+package io.seak.order_book.market_data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.seak.avro.MarketData;
+import io.seak.avro.MarketDataBroadcast;
+import io.seak.avro.MarketDataEntry;
+import io.seak.avro.MarketDataRequest;
+import io.seak.avro.MarketDataSubscriber;
+import io.seak.avro.MarketDataSubscriptionRequest;
+import io.seak.order_book.MessageProducer;
+import io.seak.order_book.snapshot.SnapshotReplay;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MarketDataBroadcasterTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final MarketDataSubscriptionCatalog catalog =
+    new MarketDataSubscriptionCatalog(meterRegistry);
+  private final RecordingProducer messageProducer = new RecordingProducer();
+  private final ToggledReplay snapshotReplay = new ToggledReplay();
+
+  @BeforeEach
+  void setup() throws Exception {
+    catalog.subscribe(
+      request("alice", "1", List.of(MarketDataEntry.CLOSE), "AAPL", "MSFT")
+    );
+    catalog.subscribe(
+      request("bob", "2", List.of(MarketDataEntry.BID), "AAPL")
+    );
+  }
+
+  @Test
+  void testSendLatestMarketDataOfEachSymbol() {
+    // Given
+    MarketDataBroadcaster broadcaster = broadcaster(MarketDataFanOut.CONFLATED);
+    broadcaster.offer("AAPL", marketData(100.0));
+    broadcaster.offer("AAPL", marketData(101.0));
+    broadcaster.offer("AAPL", marketData(102.0));
+
+    // When
+    broadcaster.flush();
+
+    // Then, once with the subscribers of candles
+    assertThat(messageProducer.broadcasts).hasSize(1);
+    MarketDataBroadcast broadcast = messageProducer.broadcasts.get(0);
+    assertThat(broadcast.getSymbol()).isEqualTo("AAPL");
+    assertThat(broadcast.getData().getClose()).isEqualTo(102.0);
+    assertThat(broadcast.getSubscribers())
+      .extracting(MarketDataSubscriber::getUsername)
+      .containsExactly("alice");
+    assertThat(
+      meterRegistry.get("order_book_market_data_conflated").counter().count()
+    )
+      .isEqualTo(3.0);
+  }
+
+  @Test
+  void testSkipSymbolsWithoutSubscribers() {
+    // Given
+    MarketDataBroadcaster broadcaster = broadcaster(MarketDataFanOut.CONFLATED);
+    broadcaster.offer("GOOG", marketData(100.0));
+    broadcaster.offer("MSFT", marketData(200.0));
+
+    // When
+    broadcaster.flush();
+
+    // Then
+    assertThat(messageProducer.broadcasts)
+      .extracting(MarketDataBroadcast::getSymbol)
+      .containsExactly("MSFT");
+  }
+
+  @Test
+  void testKeepMarketDataDuringReplay() {
+    // Given
+    MarketDataBroadcaster broadcaster = broadcaster(MarketDataFanOut.CONFLATED);
+    snapshotReplay.replaying = true;
+    broadcaster.offer("AAPL", marketData(100.0));
+    broadcaster.flush();
+
+    // When, the replay is over
+    snapshotReplay.replaying = false;
+    broadcaster.offer("AAPL", marketData(101.0));
+    broadcaster.flush();
+
+    // Then, the latest one is sent once
+    assertThat(messageProducer.broadcasts).hasSize(1);
+    assertThat(messageProducer.broadcasts.get(0).getData().getClose())
+      .isEqualTo(101.0);
+  }
+
+  @Test
+  void testSendNothingPerSubscriber() {
+    // Given
+    MarketDataBroadcaster broadcaster = broadcaster(
+      MarketDataFanOut.PER_SUBSCRIBER
+    );
+    broadcaster.offer("AAPL", marketData(100.0));
+
+    // When
+    broadcaster.flush();
+
+    // Then
+    assertThat(broadcaster.isConflated()).isFalse();
+    assertThat(messageProducer.broadcasts).isEmpty();
+  }
+
+  private MarketDataBroadcaster broadcaster(MarketDataFanOut fanOut) {
+    return new MarketDataBroadcaster(
+      fanOut,
+      catalog,
+      messageProducer,
+      snapshotReplay,
+      meterRegistry
+    );
+  }
+
+  private static MarketData marketData(double close) {
+    return new MarketData(close, close, close, close, 100);
+  }
+
+  private static MarketDataRequest request(
+    String username,
+    String requestId,
+    List<MarketDataEntry> marketDataEntries,
+    CharSequence... symbols
+  ) {
+    return new MarketDataRequest(
+      username,
+      List.of(symbols),
+      0,
+      marketDataEntries,
+      MarketDataSubscriptionRequest.SUBSCRIBE,
+      requestId
+    );
+  }
+
+  private static class RecordingProducer extends MessageProducer {
+
+    private final List<MarketDataBroadcast> broadcasts = new ArrayList<>();
+
+    RecordingProducer() {
+      super(null, null, null, null, Optional.empty());
+    }
+
+    @Override
+    public void sendMarketDataBroadcast(
+      String key,
+      MarketDataBroadcast marketDataBroadcast
+    ) {
+      broadcasts.add(marketDataBroadcast);
+    }
+  }
+
+  private static class ToggledReplay extends SnapshotReplay {
+
+    private volatile boolean replaying;
+
+    @Override
+    public boolean isReplaying() {
+      return replaying;
+    }
+  }
+}
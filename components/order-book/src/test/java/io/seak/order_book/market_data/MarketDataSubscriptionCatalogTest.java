@@ -0,0 +1,83 @@
+package io.seak.order_book.market_data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.seak.avro.MarketDataEntry;
+import io.seak.avro.MarketDataRequest;
+import io.seak.avro.MarketDataSubscriptionRequest;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MarketDataSubscriptionCatalogTest {
+
+  private static final String GAUGE =
+    "order_book_market_data_symbol_subscriptions";
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final MarketDataSubscriptionCatalog catalog =
+    new MarketDataSubscriptionCatalog(meterRegistry);
+
+  @Test
+  void testGaugeRemovedWithTheLastSubscription() throws Exception {
+    // Given
+    catalog.subscribe(request("alice", "1", "AAPL", "MSFT"));
+    catalog.subscribe(request("bob", "2", "AAPL"));
+
+    // When
+    catalog.unsubscribe(request("alice", "1", "AAPL", "MSFT"));
+
+    // Then, the gauge of AAPL stays for bob
+    assertThat(catalog.getMarketDataRequests("MSFT")).isEmpty();
+    assertThat(meterRegistry.find(GAUGE).tag("symbol", "MSFT").gauge())
+      .isNull();
+    assertThat(
+      meterRegistry.find(GAUGE).tag("symbol", "AAPL").gauge().value()
+    )
+      .isEqualTo(1.0);
+  }
+
+  @Test
+  void testGaugeRegisteredAgainOnResubscription() throws Exception {
+    // Given
+    catalog.subscribe(request("alice", "1", "AAPL"));
+    catalog.unsubscribeAll(request("alice", "1"));
+
+    // When
+    catalog.subscribe(request("alice", "2", "AAPL"));
+
+    // Then
+    assertThat(
+      meterRegistry.find(GAUGE).tag("symbol", "AAPL").gauge().value()
+    )
+      .isEqualTo(1.0);
+  }
+
+  @Test
+  void testClearRemovesTheGauges() throws Exception {
+    // Given
+    catalog.subscribe(request("alice", "1", "AAPL", "MSFT"));
+
+    // When
+    catalog.clear();
+
+    // Then
+    assertThat(meterRegistry.find(GAUGE).meters()).isEmpty();
+    assertThat(catalog.getMarketDataRequests("AAPL")).isEmpty();
+  }
+
+  private static MarketDataRequest request(
+    String username,
+    String requestId,
+    CharSequence... symbols
+  ) {
+    return new MarketDataRequest(
+      username,
+      List.of(symbols),
+      0,
+      List.of(MarketDataEntry.BID),
+      MarketDataSubscriptionRequest.SUBSCRIBE,
+      requestId
+    );
+  }
+}
@@ -0,0 +1,162 @@
+package io.seak.order_book.market_data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.seak.avro.MarketData;
+import io.seak.avro.MarketDataEntry;
+import io.seak.avro.MarketDataRequest;
+import io.seak.avro.MarketDataSubscriptionRequest;
+import io.seak.avro.MarketDepthLevel;
+import io.seak.avro.Order;
+import io.seak.avro.OrderBookRequest;
+import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
+import io.seak.avro.Type;
+import io.seak.order_book.engine.OrderBookEngine;
+import io.seak.order_book.order_book.LimitOrderBook;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MarketDepthPublisherTest {
+
+  private final LimitOrderBook orderBook = new LimitOrderBook(
+    "AAPL",
+    new SimpleMeterRegistry()
+  );
+  private final SingleBookEngine orderBookEngine = new SingleBookEngine();
+  private MarketDepthPublisher marketDepthPublisher;
+
+  @BeforeEach
+  void setup() {
+    marketDepthPublisher =
+      new MarketDepthPublisher(
+        orderBookEngine,
+        new MarketDataSubscriptionCatalog(new SimpleMeterRegistry()),
+        null
+      );
+    orderBook.addOrder("1", order(Side.BUY, 100.0, Integer.MAX_VALUE));
+    orderBook.addOrder("2", order(Side.BUY, 100.0, Integer.MAX_VALUE));
+    orderBook.addOrder("3", order(Side.BUY, 99.0, 10));
+    orderBook.addOrder("4", order(Side.SELL, 101.0, 5));
+  }
+
+  @Test
+  void testReadDepthOfRequest() {
+    // When
+    List<MarketDepthLevel> depth = marketDepthPublisher.readDepth(
+      "AAPL",
+      request(1, List.of(MarketDataEntry.BID))
+    );
+
+    // Then, the volume of the level is not truncated
+    assertThat(depth)
+      .containsExactly(
+        new MarketDepthLevel(Side.BUY, 100.0, 2L * Integer.MAX_VALUE)
+      );
+  }
+
+  @Test
+  void testReadDepthAwaitsTheSymbolOnly() {
+    // When
+    List<MarketDepthLevel> depth = marketDepthPublisher.readDepth(
+      "AAPL",
+      request(0, List.of(MarketDataEntry.BID, MarketDataEntry.OFFER))
+    );
+
+    // Then
+    assertThat(depth)
+      .extracting(MarketDepthLevel::getPrice)
+      .containsExactly(100.0, 99.0, 101.0);
+    assertThat(orderBookEngine.awaitedSymbols).containsExactly("AAPL");
+  }
+
+  private static MarketDataRequest request(
+    int depth,
+    List<MarketDataEntry> marketDataEntries
+  ) {
+    return new MarketDataRequest(
+      "user",
+      List.of("AAPL"),
+      depth,
+      marketDataEntries,
+      MarketDataSubscriptionRequest.SNAPSHOT,
+      "1"
+    );
+  }
+
+  private static Order order(Side side, double price, int quantity) {
+    return new Order(
+      "user",
+      "AAPL",
+      quantity,
+      side,
+      Type.LIMIT,
+      price,
+      "clOrderID",
+      null,
+      TimeInForce.GTC,
+      null
+    );
+  }
+
+  /**
+   * Applies the commands at once to a single book, only the symbol awaits are
+   * allowed
+   */
+  private class SingleBookEngine implements OrderBookEngine {
+
+    private final List<String> awaitedSymbols = new ArrayList<>();
+
+    @Override
+    public void submitOrderBookRequest(
+      String key,
+      OrderBookRequest orderBookRequest
+    ) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void submitOrderBookRequests(
+      String key,
+      List<OrderBookRequest> orderBookRequests
+    ) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void submitCancelRequest(
+      String key,
+      OrderBookRequest orderBookRequest,
+      long timestamp
+    ) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void submitMarketData(String symbol, MarketData marketData) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void submitCommand(
+      String symbol,
+      Consumer<LimitOrderBook> command
+    ) {
+      command.accept(orderBook);
+    }
+
+    @Override
+    public void awaitProcessed() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void awaitProcessed(String symbol) {
+      awaitedSymbols.add(symbol);
+    }
+  }
+}
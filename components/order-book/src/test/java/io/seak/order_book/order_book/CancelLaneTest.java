@@ -0,0 +1,196 @@
+package io.seak.order_book.order_book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.seak.avro.Order;
+import io.seak.avro.OrderBookRequest;
+import io.seak.avro.OrderBookRequestType;
+import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
+import io.seak.avro.Type;
+import io.seak.order_book.MessageProducer;
+import io.seak.order_book.partitioning.RequestOffsets;
+import io.seak.order_book.snapshot.SnapshotReplay;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CancelLaneTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final FixedRequestOffsets requestOffsets = new FixedRequestOffsets();
+  private final RecordingProducer messageProducer = new RecordingProducer();
+  private CancelLane cancelLane;
+
+  @BeforeEach
+  void setup() {
+    cancelLane =
+      new CancelLane(
+        messageProducer,
+        meterRegistry,
+        requestOffsets,
+        new SnapshotReplay(),
+        "order-book-request",
+        "order-book-cancel",
+        Duration.ZERO
+      );
+  }
+
+  @Test
+  void testKeepCancelUntilRequestsAreApplied() {
+    // Given, 5 requests written to the partition before the cancel
+    requestOffsets.endOffsets.put(0, 5L);
+    cancelLane.park("1", cancel("clOrderID"), 0);
+
+    // When, the requests up to offset 3 are applied
+    requestOffsets.recordApplied(
+      new ConsumerRecord<>("order-book-request", 0, 3, "1", null)
+    );
+    cancelLane.rejectExpiredCancels();
+
+    // Then
+    assertThat(messageProducer.rejected).isEmpty();
+    assertThat(cancelLane.hasParked("1")).isTrue();
+  }
+
+  @Test
+  void testRejectCancelOnceRequestsAreApplied() {
+    // Given
+    requestOffsets.endOffsets.put(0, 5L);
+    cancelLane.park("1", cancel("clOrderID"), 0);
+    cancelLane.rejectExpiredCancels();
+
+    // When, the last request is applied, after more were written
+    requestOffsets.endOffsets.put(0, 10L);
+    requestOffsets.recordApplied(
+      new ConsumerRecord<>("order-book-request", 0, 4, "1", null)
+    );
+    cancelLane.rejectExpiredCancels();
+
+    // Then
+    assertThat(messageProducer.rejected).containsExactly("1");
+    assertThat(cancelLane.hasParked("1")).isFalse();
+  }
+
+  @Test
+  void testKeepCancelWithoutEndOffset() {
+    // Given, the end offsets can not be read
+    requestOffsets.recordApplied(
+      new ConsumerRecord<>("order-book-request", 0, 100, "1", null)
+    );
+    cancelLane.park("1", cancel("clOrderID"), 0);
+
+    // When
+    cancelLane.rejectExpiredCancels();
+
+    // Then
+    assertThat(messageProducer.rejected).isEmpty();
+  }
+
+  @Test
+  void testUnparkCancelOfCurrentVersion() {
+    // Given
+    cancelLane.park("1", cancel("old"), 0);
+    cancelLane.park("1", cancel("new"), 0);
+
+    // When
+    List<CancelLane.ParkedCancel> unparked = cancelLane.unpark("1", "new");
+
+    // Then
+    assertThat(unparked).hasSize(1);
+    assertThat(cancelLane.hasParked("1")).isTrue();
+  }
+
+  @Test
+  void testCheckAssignment() {
+    // When
+    cancelLane.checkAssignment(
+      List.of(
+        new TopicPartition("order-book-request", 0),
+        new TopicPartition("order-book-cancel", 0)
+      )
+    );
+
+    // Then
+    assertThatThrownBy(() ->
+        cancelLane.checkAssignment(
+          List.of(
+            new TopicPartition("order-book-request", 0),
+            new TopicPartition("order-book-request", 1),
+            new TopicPartition("order-book-cancel", 0)
+          )
+        )
+      )
+      .isInstanceOf(IllegalStateException.class);
+  }
+
+  private static OrderBookRequest cancel(String origClOrderID) {
+    return new OrderBookRequest(
+      OrderBookRequestType.CANCEL,
+      new Order(
+        "user",
+        "AAPL",
+        10,
+        Side.BUY,
+        Type.LIMIT,
+        100.0,
+        "clOrderID",
+        null,
+        TimeInForce.GTC,
+        null
+      ),
+      origClOrderID
+    );
+  }
+
+  /**
+   * Every symbol is in partition 0, the end offsets are set by the tests
+   */
+  private static class FixedRequestOffsets extends RequestOffsets {
+
+    private final Map<Integer, Long> endOffsets = new HashMap<>();
+
+    FixedRequestOffsets() {
+      super(null, null, "order-book-request");
+    }
+
+    @Override
+    public int partitionOf(String symbol) {
+      return 0;
+    }
+
+    @Override
+    public Map<Integer, Long> fetchEndOffsets(Collection<Integer> partitions) {
+      Map<Integer, Long> offsets = new HashMap<>(endOffsets);
+      offsets.keySet().retainAll(partitions);
+      return offsets;
+    }
+  }
+
+  private static class RecordingProducer extends MessageProducer {
+
+    private final List<String> rejected = new ArrayList<>();
+
+    RecordingProducer() {
+      super(null, null, null, null, Optional.empty());
+    }
+
+    @Override
+    public void sendOrderBookRejected(
+      String key,
+      OrderBookRequest orderBookRequest
+    ) {
+      rejected.add(key);
+    }
+  }
+}
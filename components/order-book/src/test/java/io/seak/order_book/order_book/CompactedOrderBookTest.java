@@ -0,0 +1,111 @@
+package io.seak.order_book.order_book;
+
+import static io.seak.order_book.order_book.LimitOrderBookTest.order;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.seak.avro.MarketData;
+import io.seak.avro.Side;
+import io.seak.avro.Type;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CompactedOrderBookTest {
+
+  private LimitOrderBook orderBook;
+
+  @BeforeEach
+  void setup() {
+    orderBook = new LimitOrderBook("AAPL", new SimpleMeterRegistry());
+  }
+
+  @Test
+  void testRoundTripKeepsTimePriority() {
+    // Given
+    orderBook.addOrder("1", order(Side.BUY, Type.LIMIT, 100.0, 10));
+    orderBook.addOrder("2", order(Side.BUY, Type.LIMIT, 101.0, 5));
+    orderBook.addOrder("3", order(Side.BUY, Type.LIMIT, 100.0, 7));
+    orderBook.addOrder("4", order(Side.SELL, Type.LIMIT, 102.0, 3));
+    orderBook.addOrder("5", order(Side.SELL, Type.LIMIT, 102.0, 4));
+
+    // When
+    CompactedOrderBook compactedOrderBook = CompactedOrderBook.of(orderBook);
+    LimitOrderBook rehydrated = new LimitOrderBook(
+      "AAPL",
+      new SimpleMeterRegistry()
+    );
+    compactedOrderBook.forEachOrder(rehydrated::addOrder);
+
+    // Then, each level keeps the arrival order of its orders
+    assertThat(compactedOrderBook.getOrderCount()).isEqualTo(5);
+    assertThat(idsOf(rehydrated)).isEqualTo(idsOf(orderBook));
+    assertThat(rehydrated.getOrder("5").getQuantity()).isEqualTo(4);
+  }
+
+  @Test
+  void testCanMatchAtBestPrices() {
+    // Given, a bid at 100 and an ask at 101
+    orderBook.addOrder("1", order(Side.BUY, Type.LIMIT, 100.0, 10));
+    orderBook.addOrder("2", order(Side.SELL, Type.LIMIT, 101.0, 10));
+    CompactedOrderBook compactedOrderBook = CompactedOrderBook.of(orderBook);
+
+    // Then, the bid is filled down to its price, the ask strictly above it
+    assertThat(compactedOrderBook.canMatch(marketData(101.0, 100.0)))
+      .isTrue();
+    assertThat(compactedOrderBook.canMatch(marketData(101.0, 100.01)))
+      .isFalse();
+    assertThat(compactedOrderBook.canMatch(marketData(101.01, 100.5)))
+      .isTrue();
+  }
+
+  @Test
+  void testCannotMatchEmptySides() {
+    // Given, the missing sides and stops are NaN
+    orderBook.addOrder("1", order(Side.SELL, Type.LIMIT, 101.0, 10));
+    CompactedOrderBook compactedOrderBook = CompactedOrderBook.of(orderBook);
+
+    // Then
+    assertThat(compactedOrderBook.hasStopOrders()).isFalse();
+    assertThat(compactedOrderBook.canMatch(marketData(101.0, 0.0))).isFalse();
+    assertThat(compactedOrderBook.canMatch(marketData(1000.0, 101.5)))
+      .isTrue();
+  }
+
+  @Test
+  void testCanTriggerBuyStop() {
+    // Given, a BUY stop at 100
+    orderBook.addOrder("1", order(Side.BUY, Type.STOP, null, 5));
+    CompactedOrderBook compactedOrderBook = CompactedOrderBook.of(orderBook);
+
+    // Then, triggered by a high at its stop price
+    assertThat(compactedOrderBook.hasStopOrders()).isTrue();
+    assertThat(compactedOrderBook.canMatch(marketData(100.0, 99.0))).isTrue();
+    assertThat(compactedOrderBook.canMatch(marketData(99.99, 99.0)))
+      .isFalse();
+  }
+
+  @Test
+  void testCanTriggerSellStop() {
+    // Given, a SELL stop at 100
+    orderBook.addOrder("1", order(Side.SELL, Type.STOP, null, 5));
+    CompactedOrderBook compactedOrderBook = CompactedOrderBook.of(orderBook);
+
+    // Then, triggered by a low at its stop price
+    assertThat(compactedOrderBook.canMatch(marketData(101.0, 100.0)))
+      .isTrue();
+    assertThat(compactedOrderBook.canMatch(marketData(101.0, 100.01)))
+      .isFalse();
+  }
+
+  private static List<String> idsOf(LimitOrderBook orderBook) {
+    List<String> ids = new ArrayList<>();
+    orderBook.forEachOrder((id, order) -> ids.add(id));
+    return ids;
+  }
+
+  private static MarketData marketData(double high, double low) {
+    return new MarketData(low, high, low, high, 100);
+  }
+}
@@ -11,6 +11,7 @@ import io.seak.avro.Order;
 import io.seak.avro.OrderBookRequest;
 import io.seak.avro.OrderBookRequestType;
 import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
 import io.seak.avro.Type;
 import io.seak.common.utils.KafkaTestContainer;
 import io.seak.common.utils.mocks.MockMarketDataProducer;
@@ -80,7 +81,10 @@ class LimitOrderBookMatchingTest implements TestPropertyProvider {
       Side.BUY,
       Type.LIMIT,
       limitPrice,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     OrderBookRequest orderBookRequest = new OrderBookRequest(
@@ -132,7 +136,10 @@ class LimitOrderBookMatchingTest implements TestPropertyProvider {
       Side.BUY,
       Type.LIMIT,
       limitPrice,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     OrderBookRequest orderBookRequest = new OrderBookRequest(
@@ -188,7 +195,10 @@ class LimitOrderBookMatchingTest implements TestPropertyProvider {
       Side.SELL,
       Type.LIMIT,
       limitPrice,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     OrderBookRequest orderBookRequest = new OrderBookRequest(
@@ -240,7 +250,10 @@ class LimitOrderBookMatchingTest implements TestPropertyProvider {
       Side.SELL,
       Type.LIMIT,
       limitPrice,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     OrderBookRequest orderBookRequest = new OrderBookRequest(
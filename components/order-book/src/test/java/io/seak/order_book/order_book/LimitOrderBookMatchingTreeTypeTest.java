@@ -0,0 +1,48 @@
+package io.seak.order_book.order_book;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.TestInstance;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * {@link LimitOrderBookMatchingTest} run over the other order tree types
+ */
+class LimitOrderBookMatchingTreeTypeTest {
+
+  private static Map<String, String> withOrderTreeType(
+    Map<String, String> properties,
+    OrderTreeType orderTreeType
+  ) {
+    Map<String, String> typed = new HashMap<>(properties);
+    typed.put("order-book.order-tree.type", orderTreeType.toString());
+    return typed;
+  }
+
+  @MicronautTest(transactional = false)
+  @Testcontainers(disabledWithoutDocker = true)
+  @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+  static class PriceLadderTest extends LimitOrderBookMatchingTest {
+
+    @Override
+    public @NonNull Map<String, String> getProperties() {
+      return withOrderTreeType(
+        super.getProperties(),
+        OrderTreeType.PRICE_LADDER
+      );
+    }
+  }
+
+  @MicronautTest(transactional = false)
+  @Testcontainers(disabledWithoutDocker = true)
+  @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+  static class CompactTest extends LimitOrderBookMatchingTest {
+
+    @Override
+    public @NonNull Map<String, String> getProperties() {
+      return withOrderTreeType(super.getProperties(), OrderTreeType.COMPACT);
+    }
+  }
+}
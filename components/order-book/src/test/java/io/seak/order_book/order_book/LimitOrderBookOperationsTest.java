@@ -11,6 +11,7 @@ import io.seak.avro.Order;
 import io.seak.avro.OrderBookRequest;
 import io.seak.avro.OrderBookRequestType;
 import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
 import io.seak.avro.Type;
 import io.seak.common.utils.KafkaTestContainer;
 import io.seak.common.utils.RedisTestContainer;
@@ -88,7 +89,10 @@ class LimitOrderBookOperationsTest implements TestPropertyProvider {
       Side.BUY,
       Type.LIMIT,
       80.0,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     OrderBookRequest orderBookRequest = new OrderBookRequest(
@@ -125,7 +129,10 @@ class LimitOrderBookOperationsTest implements TestPropertyProvider {
       Side.BUY,
       Type.LIMIT,
       80.0,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     OrderBookRequest orderBookRequest = new OrderBookRequest(
@@ -153,7 +160,10 @@ class LimitOrderBookOperationsTest implements TestPropertyProvider {
       Side.BUY,
       Type.LIMIT,
       80.0,
-      "2"
+      "2",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     OrderBookRequest newOrderBookRequest = new OrderBookRequest(
@@ -191,7 +201,10 @@ class LimitOrderBookOperationsTest implements TestPropertyProvider {
       Side.BUY,
       Type.LIMIT,
       80.0,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     OrderBookRequest orderBookRequest = new OrderBookRequest(
@@ -219,7 +232,10 @@ class LimitOrderBookOperationsTest implements TestPropertyProvider {
       Side.BUY,
       Type.LIMIT,
       0.0,
-      "2"
+      "2",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     OrderBookRequest cancelOrderBookRequest = new OrderBookRequest(
@@ -254,7 +270,10 @@ class LimitOrderBookOperationsTest implements TestPropertyProvider {
       Side.SELL,
       Type.LIMIT,
       80.0,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     OrderBookRequest orderBookRequest = new OrderBookRequest(
@@ -291,7 +310,10 @@ class LimitOrderBookOperationsTest implements TestPropertyProvider {
       Side.SELL,
       Type.LIMIT,
       80.0,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     OrderBookRequest orderBookRequest = new OrderBookRequest(
@@ -319,7 +341,10 @@ class LimitOrderBookOperationsTest implements TestPropertyProvider {
       Side.SELL,
       Type.LIMIT,
       80.0,
-      "2"
+      "2",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     OrderBookRequest newOrderBookRequest = new OrderBookRequest(
@@ -357,7 +382,10 @@ class LimitOrderBookOperationsTest implements TestPropertyProvider {
       Side.SELL,
       Type.LIMIT,
       80.0,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     OrderBookRequest orderBookRequest = new OrderBookRequest(
@@ -385,7 +413,10 @@ class LimitOrderBookOperationsTest implements TestPropertyProvider {
       Side.SELL,
       Type.LIMIT,
       0.0,
-      "2"
+      "2",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     OrderBookRequest cancelOrderBookRequest = new OrderBookRequest(
@@ -423,7 +454,10 @@ class LimitOrderBookOperationsTest implements TestPropertyProvider {
       Side.SELL,
       Type.LIMIT,
       80.0,
-      "2"
+      "2",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     OrderBookRequest orderBookRequest = new OrderBookRequest(
@@ -0,0 +1,306 @@
+package io.seak.order_book.order_book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.seak.avro.MarketData;
+import io.seak.avro.Order;
+import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
+import io.seak.avro.Trade;
+import io.seak.avro.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class LimitOrderBookTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private LimitOrderBook orderBook(OrderTreeType type) {
+    OrderTreeFactory factory = new OrderTreeFactory(type, 0.01, 4096);
+    return new LimitOrderBook(
+      "AAPL",
+      factory.create(Side.BUY),
+      factory.create(Side.SELL),
+      meterRegistry
+    );
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testPublishStatisticsAfterMutation(OrderTreeType type) {
+    // Given
+    LimitOrderBook orderBook = orderBook(type);
+    orderBook.addOrder("1", order(Side.BUY, Type.LIMIT, 100.0, 10));
+    orderBook.addOrder("2", order(Side.BUY, Type.LIMIT, 101.0, 5));
+    orderBook.addOrder("3", order(Side.SELL, Type.STOP, null, 5));
+
+    // When, the statistics are read by another thread
+    OrderTreeStatistics statistics = CompletableFuture
+      .supplyAsync(() -> orderBook.getStatistics(Side.BUY))
+      .join();
+
+    // Then
+    assertThat(statistics.orderCount()).isEqualTo(2);
+    assertThat(statistics.totalVolume()).isEqualTo(15.0);
+    assertThat(statistics.bestPrice()).isEqualTo(101.0);
+    assertThat(orderBook.getStopOrderCount(Side.SELL)).isEqualTo(1);
+    assertThat(
+      meterRegistry
+        .get("order_book_orders")
+        .tag("side", Side.BUY.toString())
+        .gauge()
+        .value()
+    )
+      .isEqualTo(2.0);
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testPublishStatisticsAfterRemoval(OrderTreeType type) {
+    // Given
+    LimitOrderBook orderBook = orderBook(type);
+    orderBook.addOrder("1", order(Side.SELL, Type.LIMIT, 100.0, 10));
+
+    // When
+    orderBook.removeOrder("1");
+
+    // Then
+    assertThat(orderBook.getStatistics(Side.SELL).orderCount()).isZero();
+    assertThat(orderBook.getStatistics(Side.SELL).bestPrice()).isNull();
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testCrossAtRestingPrice(OrderTreeType type) {
+    // Given
+    LimitOrderBook orderBook = orderBook(type);
+    orderBook.addOrder("1", order("seller", Side.SELL, 100.0, 10));
+    orderBook.addOrder("2", order("seller", Side.SELL, 101.0, 10));
+    orderBook.addOrder("3", order("buyer", Side.BUY, 105.0, 14));
+    List<Trade> trades = new ArrayList<>();
+
+    // When
+    int crossed = orderBook.crossOrders(
+      "3",
+      (id, trade) -> trades.add(trade),
+      (id, order) -> {}
+    );
+
+    // Then, the resting orders keep their price
+    assertThat(crossed).isEqualTo(4);
+    assertThat(trades)
+      .extracting(Trade::getPrice)
+      .containsExactly(100.0, 100.0, 101.0, 101.0);
+    assertThat(trades)
+      .extracting(Trade::getQuantity)
+      .containsExactly(10, 10, 4, 4);
+    assertThat(orderBook.getOrder("3")).isNull();
+    assertThat(orderBook.getOrder("2").getQuantity()).isEqualTo(6);
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testCrossSellAtRestingPrice(OrderTreeType type) {
+    // Given
+    LimitOrderBook orderBook = orderBook(type);
+    orderBook.addOrder("1", order("buyer", Side.BUY, 105.0, 10));
+    orderBook.addOrder("2", order("seller", Side.SELL, 100.0, 4));
+    Map<String, Trade> trades = new LinkedHashMap<>();
+
+    // When
+    orderBook.crossOrders("2", trades::put, (id, order) -> {});
+
+    // Then
+    assertThat(trades.get("1").getPrice()).isEqualTo(105.0);
+    assertThat(trades.get("2").getPrice()).isEqualTo(105.0);
+    assertThat(orderBook.getOrder("1").getQuantity()).isEqualTo(6);
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testPreventSelfTrade(OrderTreeType type) {
+    // Given
+    LimitOrderBook orderBook = orderBook(type);
+    orderBook.addOrder("1", order("seller", Side.SELL, 100.0, 5));
+    orderBook.addOrder("2", order("buyer", Side.SELL, 101.0, 5));
+    orderBook.addOrder("3", order("buyer", Side.BUY, 105.0, 8));
+    List<Trade> trades = new ArrayList<>();
+    Map<String, Order> cancelled = new LinkedHashMap<>();
+
+    // When
+    int crossed = orderBook.crossOrders(
+      "3",
+      (id, trade) -> trades.add(trade),
+      cancelled::put
+    );
+
+    // Then, the remainder is cancelled before it reaches its own order
+    assertThat(crossed).isEqualTo(2);
+    assertThat(cancelled).containsOnlyKeys("3");
+    assertThat(cancelled.get("3").getQuantity()).isEqualTo(3);
+    assertThat(orderBook.getOrder("3")).isNull();
+    assertThat(orderBook.getOrder("2").getQuantity()).isEqualTo(5);
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testCrossOnlyTheGivenOrder(OrderTreeType type) {
+    // Given, a book left crossed by other means
+    LimitOrderBook orderBook = orderBook(type);
+    orderBook.addOrder("1", order("seller", Side.SELL, 100.0, 5));
+    orderBook.addOrder("2", order("buyer", Side.BUY, 105.0, 5));
+    orderBook.addOrder("3", order("buyer", Side.BUY, 90.0, 5));
+    long version = orderBook.getVersion();
+
+    // When
+    int crossed = orderBook.crossOrders(
+      "3",
+      (id, trade) -> {},
+      (id, order) -> {}
+    );
+
+    // Then, nothing changes
+    assertThat(crossed).isZero();
+    assertThat(orderBook.getVersion()).isEqualTo(version);
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testCaptureOrdersBeforeMutation(OrderTreeType type) {
+    // Given
+    LimitOrderBook orderBook = orderBook(type);
+    orderBook.addOrder("1", order(Side.BUY, Type.LIMIT, 100.0, 10));
+    orderBook.addOrder("2", order(Side.SELL, Type.LIMIT, 101.0, 5));
+    List<String> captured = new ArrayList<>();
+    orderBook.captureOrders((id, order) -> captured.add(id));
+
+    // When, the book changes before the capture is completed
+    orderBook.removeOrder("1");
+    orderBook.addOrder("3", order(Side.BUY, Type.LIMIT, 99.0, 5));
+    orderBook.completeCapture();
+
+    // Then, the orders as of the capture, once
+    assertThat(captured).containsExactly("1", "2");
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testCompleteCaptureFromAnotherThread(OrderTreeType type) {
+    // Given
+    LimitOrderBook orderBook = orderBook(type);
+    orderBook.addOrder("1", order(Side.BUY, Type.LIMIT, 100.0, 10));
+    orderBook.addOrder("2", order(Side.BUY, Type.LIMIT, 101.0, 5));
+    List<String> captured = new ArrayList<>();
+    orderBook.captureOrders((id, order) -> captured.add(id));
+
+    // When
+    CompletableFuture.runAsync(orderBook::completeCapture).join();
+    orderBook.removeOrder("2");
+
+    // Then, BUY orders by ascending price
+    assertThat(captured).containsExactly("1", "2");
+    assertThat(orderBook.getOrderCount()).isEqualTo(1);
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testFillTriggeredStopOrderAtClose(OrderTreeType type) {
+    // Given
+    LimitOrderBook orderBook = orderBook(type);
+    orderBook.addOrder("1", order(Side.BUY, Type.STOP, null, 5));
+    Map<String, Trade> trades = new LinkedHashMap<>();
+    Map<String, Order> activated = new LinkedHashMap<>();
+
+    // When, the high reaches the stop price
+    int triggered = orderBook.triggerStopOrders(
+      new MarketData(98.0, 100.0, 97.0, 99.0, 1000),
+      trades::put,
+      activated::put
+    );
+
+    // Then
+    assertThat(triggered).isEqualTo(1);
+    assertThat(trades.get("1").getPrice()).isEqualTo(99.0);
+    assertThat(trades.get("1").getQuantity()).isEqualTo(5);
+    assertThat(activated).isEmpty();
+    assertThat(orderBook.getOrder("1")).isNull();
+    assertThat(orderBook.getStopOrderCount(Side.BUY)).isZero();
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testActivateTriggeredStopLimitOrder(OrderTreeType type) {
+    // Given
+    LimitOrderBook orderBook = orderBook(type);
+    orderBook.addOrder("1", stopLimitOrder(Side.SELL, 95.0, 94.0));
+    orderBook.addOrder("2", stopLimitOrder(Side.SELL, 90.0, 89.0));
+    Map<String, Order> activated = new LinkedHashMap<>();
+    MarketData marketData = new MarketData(96.0, 96.0, 95.0, 95.5, 1000);
+
+    // When, the low reaches the stop price of the first order only
+    int triggered = orderBook.triggerStopOrders(
+      marketData,
+      (id, trade) -> {},
+      activated::put
+    );
+    Map<String, Trade> trades = new LinkedHashMap<>();
+    orderBook.matchOrders(marketData, trades::put);
+
+    // Then, a LIMIT order matched by the same market data
+    assertThat(triggered).isEqualTo(1);
+    assertThat(activated.get("1").getType()).isEqualTo(Type.LIMIT);
+    assertThat(trades).containsOnlyKeys("1");
+    assertThat(trades.get("1").getPrice()).isEqualTo(94.0);
+    assertThat(orderBook.getStopOrderCount(Side.SELL)).isEqualTo(1);
+  }
+
+  static Order stopLimitOrder(Side side, double stopPrice, double price) {
+    return new Order(
+      "user",
+      "AAPL",
+      10,
+      side,
+      Type.STOP_LIMIT,
+      price,
+      "clOrderID",
+      stopPrice,
+      TimeInForce.GTC,
+      null
+    );
+  }
+
+  static Order order(String username, Side side, double price, int quantity) {
+    return new Order(
+      username,
+      "AAPL",
+      quantity,
+      side,
+      Type.LIMIT,
+      price,
+      "clOrderID",
+      null,
+      TimeInForce.GTC,
+      null
+    );
+  }
+
+  static Order order(Side side, Type type, Double price, int quantity) {
+    return new Order(
+      "user",
+      "AAPL",
+      quantity,
+      side,
+      type,
+      price,
+      "clOrderID",
+      type == Type.STOP ? 100.0 : null,
+      TimeInForce.GTC,
+      null
+    );
+  }
+}
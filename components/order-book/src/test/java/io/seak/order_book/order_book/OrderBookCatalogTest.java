@@ -0,0 +1,209 @@
+package io.seak.order_book.order_book;
+
+import static io.seak.order_book.order_book.LimitOrderBookTest.order;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.seak.avro.Side;
+import io.seak.avro.Type;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OrderBookCatalogTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private OrderBookCatalog orderBookCatalog;
+
+  @BeforeEach
+  void setup() {
+    orderBookCatalog =
+      new OrderBookCatalog(
+        meterRegistry,
+        new OrderTreeFactory(OrderTreeType.TREE_MAP, 0.01, 1024)
+      );
+  }
+
+  @Test
+  void testHasStopOrders() {
+    // Given
+    LimitOrderBook orderBook = orderBookCatalog.getOrCreateOrderBook("AAPL");
+    orderBook.addOrder("1", order(Side.BUY, Type.LIMIT, 100.0, 10));
+
+    // Then
+    assertThat(orderBookCatalog.hasStopOrders("AAPL")).isFalse();
+    assertThat(orderBookCatalog.hasStopOrders("MSFT")).isFalse();
+
+    // When
+    orderBook.addOrder("2", order(Side.SELL, Type.STOP, null, 5));
+
+    // Then
+    assertThat(orderBookCatalog.hasStopOrders("AAPL")).isTrue();
+  }
+
+  @Test
+  void testHasStopOrdersOfCompactedBook() {
+    // Given
+    LimitOrderBook orderBook = orderBookCatalog.getOrCreateOrderBook("AAPL");
+    orderBook.addOrder("1", order(Side.BUY, Type.STOP, null, 5));
+
+    // When
+    orderBookCatalog.evictOrderBook(orderBook);
+
+    // Then, the book stays compacted
+    assertThat(orderBookCatalog.hasStopOrders("AAPL")).isTrue();
+    assertThat(orderBookCatalog.getCompactedCount()).isEqualTo(1);
+  }
+
+  @Test
+  void testRehydrateOnceUnderRace() throws Exception {
+    // Given, a compacted book
+    LimitOrderBook evicted = bookOf(100);
+    orderBookCatalog.evictOrderBook(evicted);
+    CountDownLatch start = new CountDownLatch(1);
+
+    // When, rehydrated by 8 threads at once
+    List<CompletableFuture<LimitOrderBook>> futures = IntStream
+      .range(0, 8)
+      .mapToObj(i ->
+        CompletableFuture.supplyAsync(() -> {
+          await(start);
+          return orderBookCatalog.getOrCreateOrderBook("AAPL");
+        })
+      )
+      .toList();
+    start.countDown();
+    LimitOrderBook orderBook = futures.get(0).get();
+
+    // Then, a single book is installed, its gauges bound to it
+    for (CompletableFuture<LimitOrderBook> future : futures) {
+      assertThat(future.get()).isSameAs(orderBook);
+    }
+    assertThat(orderBook.getOrderCount()).isEqualTo(100);
+    assertThat(orderBookCatalog.getCompactedCount()).isZero();
+    assertThat(
+      meterRegistry.get("order_book_books_rehydrated").counter().count()
+    )
+      .isEqualTo(1.0);
+    assertThat(
+      meterRegistry
+        .get("order_book_orders")
+        .tag("symbol", "AAPL")
+        .tag("side", Side.BUY.toString())
+        .gauge()
+        .value()
+    )
+      .isEqualTo(100.0);
+  }
+
+  @Test
+  void testKeepOrdersWhenEvictionRacesRehydration() throws Exception {
+    for (int i = 0; i < 200; i++) {
+      // Given
+      orderBookCatalog.clear();
+      LimitOrderBook orderBook = bookOf(10);
+      CountDownLatch start = new CountDownLatch(1);
+
+      // When
+      CompletableFuture<Boolean> eviction = CompletableFuture.supplyAsync(
+        () -> {
+          await(start);
+          return orderBookCatalog.evictOrderBook(orderBook);
+        }
+      );
+      CompletableFuture<LimitOrderBook> access = CompletableFuture.supplyAsync(
+        () -> {
+          await(start);
+          return orderBookCatalog.getOrCreateOrderBook("AAPL");
+        }
+      );
+      start.countDown();
+      eviction.get();
+
+      // Then, the book is either still live or rehydrated with its orders
+      assertThat(access.get().getOrderCount()).isEqualTo(10);
+      assertThat(orderBookCatalog.getOrCreateOrderBook("AAPL").getOrderCount())
+        .isEqualTo(10);
+      assertThat(orderBookCatalog.getLiveCount()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  void testIgnoreEvictionOfStaleBook() {
+    // Given, a book evicted then rehydrated
+    LimitOrderBook evicted = bookOf(1);
+    orderBookCatalog.evictOrderBook(evicted);
+    LimitOrderBook rehydrated = orderBookCatalog.getOrCreateOrderBook("AAPL");
+
+    // When
+    boolean evictedAgain = orderBookCatalog.evictOrderBook(evicted);
+
+    // Then
+    assertThat(evictedAgain).isFalse();
+    assertThat(evicted.isEvicted()).isTrue();
+    assertThat(orderBookCatalog.getOrderBook("AAPL")).isSameAs(rehydrated);
+  }
+
+  @Test
+  void testDropEmptyBook() {
+    // Given
+    LimitOrderBook orderBook = orderBookCatalog.getOrCreateOrderBook("AAPL");
+
+    // When
+    orderBookCatalog.evictOrderBook(orderBook);
+
+    // Then
+    assertThat(orderBookCatalog.getSymbols()).isEmpty();
+    assertThat(orderBookCatalog.getOrderBook("AAPL")).isNull();
+  }
+
+  @Test
+  void testCountLiveAndCompactedBooks() {
+    // Given
+    LimitOrderBook orderBook = bookOf(1);
+    LimitOrderBook emptyBook = orderBookCatalog.getOrCreateOrderBook("MSFT");
+    orderBookCatalog.getOrCreateOrderBook("GOOG");
+
+    // When
+    orderBookCatalog.evictOrderBook(orderBook);
+    orderBookCatalog.evictOrderBook(emptyBook);
+    orderBookCatalog.removeOrderBook("GOOG");
+
+    // Then, the gauges follow the entries
+    assertThat(gauge("order_book_books_live")).isZero();
+    assertThat(gauge("order_book_books_compacted")).isEqualTo(1.0);
+
+    // When
+    orderBookCatalog.getOrderBook("AAPL");
+
+    // Then
+    assertThat(gauge("order_book_books_live")).isEqualTo(1.0);
+    assertThat(gauge("order_book_books_compacted")).isZero();
+  }
+
+  private double gauge(String name) {
+    return meterRegistry.get(name).gauge().value();
+  }
+
+  private LimitOrderBook bookOf(int orderCount) {
+    LimitOrderBook orderBook = orderBookCatalog.getOrCreateOrderBook("AAPL");
+    for (int i = 0; i < orderCount; i++) {
+      orderBook.addOrder(
+        String.valueOf(i),
+        order(Side.BUY, Type.LIMIT, 100.0 - i % 5, 10)
+      );
+    }
+    return orderBook;
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
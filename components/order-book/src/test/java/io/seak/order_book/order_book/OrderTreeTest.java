@@ -0,0 +1,226 @@
+package io.seak.order_book.order_book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.seak.avro.Order;
+import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
+import io.seak.avro.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class OrderTreeTest {
+
+  // A small ladder, so that distant prices fall outside of its window
+  private static final int LADDER_SIZE = 8;
+
+  private static OrderTree orderTree(OrderTreeType type, Side side) {
+    return new OrderTreeFactory(type, 0.01, LADDER_SIZE).create(side);
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testSweepBuyOrdersByPriceThenArrival(OrderTreeType type) {
+    // Given
+    OrderTree orderTree = orderTree(type, Side.BUY);
+    orderTree.addOrder("1", order(Side.BUY, 100.0, 10));
+    orderTree.addOrder("2", order(Side.BUY, 101.0, 5));
+    orderTree.addOrder("3", order(Side.BUY, 101.0, 7));
+    orderTree.addOrder("4", order(Side.BUY, 102.0, 1));
+    List<String> matched = new ArrayList<>();
+
+    // When
+    int count = orderTree.sweepOrders(101.0, (id, order) -> matched.add(id));
+
+    // Then, the orders at or above the market price
+    assertThat(count).isEqualTo(3);
+    assertThat(matched).containsExactly("4", "2", "3");
+    assertThat(orderTree.getOrderCount()).isEqualTo(1);
+    assertThat(orderTree.getLevelCount()).isEqualTo(1);
+    assertThat(orderTree.getTotalVolume()).isEqualTo(10.0);
+    assertThat(orderTree.getBestPrice()).isEqualTo(100.0);
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testSweepSellOrdersStrictlyBelowPrice(OrderTreeType type) {
+    // Given
+    OrderTree orderTree = orderTree(type, Side.SELL);
+    orderTree.addOrder("1", order(Side.SELL, 100.0, 10));
+    orderTree.addOrder("2", order(Side.SELL, 99.0, 5));
+
+    // When
+    boolean atPrice = orderTree.canMatch(100.0);
+    Map<String, Order> matched = orderTree.matchOrders(100.0);
+
+    // Then
+    assertThat(atPrice).isTrue();
+    assertThat(matched).containsOnlyKeys("2");
+    assertThat(orderTree.matchOrders(100.0)).isEmpty();
+    assertThat(orderTree.canMatch(100.01)).isTrue();
+    assertThat(orderTree.getBestPrice()).isEqualTo(100.0);
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testNothingToMatchWhenEmpty(OrderTreeType type) {
+    // Given
+    OrderTree orderTree = orderTree(type, Side.BUY);
+
+    // When
+    int count = orderTree.sweepOrders(100.0, (id, order) -> {});
+
+    // Then
+    assertThat(count).isZero();
+    assertThat(orderTree.canMatch(100.0)).isFalse();
+    assertThat(orderTree.getBestPrice()).isNull();
+    assertThat(orderTree.getBestLevelVolume()).isZero();
+    assertThat(orderTree.getBestOrder()).isNull();
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testReplaceQuantityKeepsPriority(OrderTreeType type) {
+    // Given
+    OrderTree orderTree = orderTree(type, Side.BUY);
+    orderTree.addOrder("1", order(Side.BUY, 100.0, 10));
+    orderTree.addOrder("2", order(Side.BUY, 100.0, 5));
+
+    // When
+    orderTree.replaceOrder("1", order(Side.BUY, 100.0, 4));
+
+    // Then
+    assertThat(orderTree.getBestOrder().getId()).isEqualTo("1");
+    assertThat(orderTree.getBestLevelVolume()).isEqualTo(9.0);
+    assertThat(orderTree.getTotalVolume()).isEqualTo(9.0);
+    assertThat(orderTree.getOrder("1").getQuantity()).isEqualTo(4);
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testReplacePriceMovesToBackOfLevel(OrderTreeType type) {
+    // Given
+    OrderTree orderTree = orderTree(type, Side.SELL);
+    orderTree.addOrder("1", order(Side.SELL, 100.0, 10));
+    orderTree.addOrder("2", order(Side.SELL, 101.0, 5));
+
+    // When
+    orderTree.replaceOrder("1", order(Side.SELL, 101.0, 10));
+    orderTree.replaceOrder("2", order(Side.SELL, 101.0, 6));
+
+    // Then
+    List<String> matched = new ArrayList<>();
+    orderTree.sweepOrders(102.0, (id, order) -> matched.add(id));
+    assertThat(matched).containsExactly("2", "1");
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testRemoveOrder(OrderTreeType type) {
+    // Given
+    OrderTree orderTree = orderTree(type, Side.SELL);
+    orderTree.addOrder("1", order(Side.SELL, 100.0, 10));
+    orderTree.addOrder("2", order(Side.SELL, 101.0, 5));
+
+    // When
+    Order removed = orderTree.removeOrder("1");
+
+    // Then
+    assertThat(removed.getQuantity()).isEqualTo(10);
+    assertThat(orderTree.removeOrder("1")).isNull();
+    assertThat(orderTree.contains("1")).isFalse();
+    assertThat(orderTree.getOrder("1")).isNull();
+    assertThat(orderTree.getBestPrice()).isEqualTo(101.0);
+    assertThat(orderTree.getLevelCount()).isEqualTo(1);
+    assertThat(orderTree.getTotalVolume()).isEqualTo(5.0);
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testVisitBestLevelsAcrossDistantPrices(OrderTreeType type) {
+    // Given, prices far apart from each other
+    OrderTree orderTree = orderTree(type, Side.BUY);
+    orderTree.addOrder("1", order(Side.BUY, 100.0, 10));
+    orderTree.addOrder("2", order(Side.BUY, 1000.0, 5));
+    orderTree.addOrder("3", order(Side.BUY, 10.0, 2));
+    orderTree.addOrder("4", order(Side.BUY, 100.0, 3));
+    List<Double> prices = new ArrayList<>();
+    List<Double> volumes = new ArrayList<>();
+
+    // When
+    orderTree.forEachBestLevel(
+      2,
+      (price, volume) -> {
+        prices.add(price);
+        volumes.add(volume);
+      }
+    );
+
+    // Then
+    assertThat(prices).containsExactly(1000.0, 100.0);
+    assertThat(volumes).containsExactly(5.0, 13.0);
+    assertThat(orderTree.getBestOrder().getId()).isEqualTo("2");
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testVisitOrdersByAscendingPrice(OrderTreeType type) {
+    // Given
+    OrderTree orderTree = orderTree(type, Side.SELL);
+    orderTree.addOrder("1", order(Side.SELL, 101.0, 10));
+    orderTree.addOrder("2", order(Side.SELL, 1000.0, 5));
+    orderTree.addOrder("3", order(Side.SELL, 100.0, 2));
+    orderTree.addOrder("4", order(Side.SELL, 101.0, 3));
+    List<String> visited = new ArrayList<>();
+
+    // When
+    orderTree.forEachOrder((id, order) -> visited.add(id));
+
+    // Then
+    assertThat(visited).containsExactly("3", "1", "4", "2");
+    assertThat(orderTree.getOrders()).containsOnlyKeys("1", "2", "3", "4");
+  }
+
+  @ParameterizedTest
+  @EnumSource(OrderTreeType.class)
+  void testReadBackStoredOrder(OrderTreeType type) {
+    // Given
+    OrderTree orderTree = orderTree(type, Side.BUY);
+    Order order = new Order(
+      "user",
+      "AAPL",
+      10,
+      Side.BUY,
+      Type.STOP_LIMIT,
+      100.0,
+      "clOrderID",
+      99.5,
+      TimeInForce.GTD,
+      1_700_000_000_000L
+    );
+
+    // When
+    orderTree.addOrder("1", order);
+
+    // Then
+    assertThat(orderTree.getOrder("1")).isEqualTo(order);
+  }
+
+  static Order order(Side side, double price, int quantity) {
+    return new Order(
+      "user",
+      "AAPL",
+      quantity,
+      side,
+      Type.LIMIT,
+      price,
+      "clOrderID",
+      null,
+      TimeInForce.GTC,
+      null
+    );
+  }
+}
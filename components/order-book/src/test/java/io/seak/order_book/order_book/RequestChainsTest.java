@@ -0,0 +1,99 @@
+package io.seak.order_book.order_book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.seak.avro.Order;
+import io.seak.avro.OrderBookRequest;
+import io.seak.avro.OrderBookRequestType;
+import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
+import io.seak.avro.Type;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RequestChainsTest {
+
+  private RequestChains requestChains;
+
+  @BeforeEach
+  void setup() {
+    requestChains = new RequestChains();
+  }
+
+  @Test
+  void testChainConsecutiveRequests() {
+    // When
+    requestChains.add("a", request(OrderBookRequestType.REPLACE, "AAPL"));
+    requestChains.add("a", request(OrderBookRequestType.REPLACE, "AAPL"));
+    requestChains.add("a", request(OrderBookRequestType.CANCEL, "AAPL"));
+
+    // Then
+    assertThat(requestChains.getChains())
+      .extracting(chain -> chain.orderBookRequests().size())
+      .containsExactly(3);
+  }
+
+  @Test
+  void testCutChainAtRequestOfAnotherOrder() {
+    // When, the replacements of "a" around a replacement of "b"
+    requestChains.add("a", request(OrderBookRequestType.REPLACE, "AAPL"));
+    requestChains.add("b", request(OrderBookRequestType.REPLACE, "AAPL"));
+    requestChains.add("a", request(OrderBookRequestType.REPLACE, "AAPL"));
+
+    // Then, applied in arrival order
+    assertThat(requestChains.getChains())
+      .extracting(RequestChains.RequestChain::key)
+      .containsExactly("a", "b", "a");
+  }
+
+  @Test
+  void testCutChainAtNewRequest() {
+    // When
+    requestChains.add("a", request(OrderBookRequestType.REPLACE, "AAPL"));
+    requestChains.add("b", request(OrderBookRequestType.NEW, "AAPL"));
+    requestChains.add("a", request(OrderBookRequestType.CANCEL, "AAPL"));
+
+    // Then
+    assertThat(requestChains.getChains())
+      .extracting(RequestChains.RequestChain::key)
+      .containsExactly("a", "b", "a");
+  }
+
+  @Test
+  void testKeepChainAcrossOtherSymbols() {
+    // When
+    requestChains.add("a", request(OrderBookRequestType.REPLACE, "AAPL"));
+    requestChains.add("b", request(OrderBookRequestType.NEW, "MSFT"));
+    requestChains.add("a", request(OrderBookRequestType.CANCEL, "AAPL"));
+
+    // Then
+    List<RequestChains.RequestChain> chains = requestChains.getChains();
+    assertThat(chains)
+      .extracting(RequestChains.RequestChain::key)
+      .containsExactly("a", "b");
+    assertThat(chains.get(0).orderBookRequests()).hasSize(2);
+  }
+
+  private static OrderBookRequest request(
+    OrderBookRequestType type,
+    String symbol
+  ) {
+    return new OrderBookRequest(
+      type,
+      new Order(
+        "user",
+        symbol,
+        10,
+        Side.BUY,
+        Type.LIMIT,
+        100.0,
+        "clOrderID",
+        null,
+        TimeInForce.GTC,
+        null
+      ),
+      type == OrderBookRequestType.NEW ? null : "origClOrderID"
+    );
+  }
+}
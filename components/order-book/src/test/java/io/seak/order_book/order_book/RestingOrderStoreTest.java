@@ -0,0 +1,135 @@
+package io.seak.order_book.order_book;
+
+import static io.seak.order_book.order_book.RestingOrderStore.NONE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.seak.avro.Order;
+import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
+import io.seak.avro.Type;
+import org.apache.avro.util.Utf8;
+import org.junit.jupiter.api.Test;
+
+class RestingOrderStoreTest {
+
+  private final StringPool stringPool = new StringPool();
+  private final RestingOrderStore store = new RestingOrderStore(
+    Side.SELL,
+    stringPool
+  );
+
+  @Test
+  void testRebuildDecodedOrderWithStringClOrderID() {
+    // Given, an order decoded from Kafka
+    Order order = new Order(
+      new Utf8("user"),
+      new Utf8("AAPL"),
+      10,
+      Side.SELL,
+      Type.LIMIT,
+      100.0,
+      new Utf8("clOrderID"),
+      null,
+      TimeInForce.GTC,
+      null
+    );
+
+    // When
+    int handle = store.add("1", order);
+
+    // Then, the clOrderID of a request still matches it
+    Order stored = store.toOrder(handle);
+    assertThat(stored.getClOrderID()).isEqualTo("clOrderID");
+    assertThat(stored.getUsername()).isEqualTo("user");
+    assertThat(stored.getStopPrice()).isNull();
+    assertThat(stored.getExpireTime()).isNull();
+  }
+
+  @Test
+  void testFindOrdersAcrossGrowth() {
+    // Given, more orders than the initial capacity
+    for (int i = 0; i < 100; i++) {
+      store.add(Integer.toString(i), order(100.0 + i, i + 1));
+    }
+
+    // When, every other order is removed
+    for (int i = 0; i < 100; i += 2) {
+      store.remove(store.find(Integer.toString(i)));
+    }
+
+    // Then, the remaining orders are still found by id
+    assertThat(store.size()).isEqualTo(50);
+    for (int i = 0; i < 100; i++) {
+      int handle = store.find(Integer.toString(i));
+      if (i % 2 == 0) {
+        assertThat(handle).isEqualTo(NONE);
+      } else {
+        assertThat(store.id(handle)).isEqualTo(Integer.toString(i));
+        assertThat(store.quantity(handle)).isEqualTo(i + 1);
+        assertThat(store.price(handle)).isEqualTo(100.0 + i);
+      }
+    }
+  }
+
+  @Test
+  void testReuseRemovedHandle() {
+    // Given
+    int first = store.add("1", order(100.0, 10));
+    store.add("2", order(101.0, 10));
+    store.remove(first);
+
+    // When
+    int handle = store.add("3", order(102.0, 5));
+
+    // Then
+    assertThat(handle).isEqualTo(first);
+    assertThat(store.find("1")).isEqualTo(NONE);
+    assertThat(store.find("3")).isEqualTo(handle);
+    assertThat(store.toOrder(handle).getPrice()).isEqualTo(102.0);
+  }
+
+  @Test
+  void testUpdateKeepsIdAndLinks() {
+    // Given
+    int first = store.add("1", order(100.0, 10));
+    int second = store.add("2", order(100.0, 10));
+    store.setNext(first, second);
+    store.setPrev(second, first);
+
+    // When
+    store.update(first, order(100.0, 4));
+
+    // Then
+    assertThat(store.find("1")).isEqualTo(first);
+    assertThat(store.quantity(first)).isEqualTo(4);
+    assertThat(store.next(first)).isEqualTo(second);
+    assertThat(store.prev(second)).isEqualTo(first);
+  }
+
+  @Test
+  void testInternStringsOnce() {
+    // Given
+    store.add("1", order(100.0, 10));
+
+    // When
+    store.add("2", order(101.0, 10));
+
+    // Then, one username and one symbol
+    assertThat(stringPool.size()).isEqualTo(2);
+  }
+
+  private static Order order(double price, int quantity) {
+    return new Order(
+      "user",
+      "AAPL",
+      quantity,
+      Side.SELL,
+      Type.LIMIT,
+      price,
+      "clOrderID",
+      null,
+      TimeInForce.GTC,
+      null
+    );
+  }
+}
@@ -0,0 +1,117 @@
+package io.seak.order_book.order_book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.seak.avro.Order;
+import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
+import io.seak.avro.Type;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StopOrderIndexTest {
+
+  @Test
+  void testTriggerBuyOrdersUpToHigh() {
+    // Given
+    StopOrderIndex index = new StopOrderIndex(Side.BUY);
+    index.addOrder("1", order(Side.BUY, 105.0));
+    index.addOrder("2", order(Side.BUY, 102.0));
+    index.addOrder("3", order(Side.BUY, 110.0));
+    index.addOrder("4", order(Side.BUY, 102.0));
+    List<String> triggered = new ArrayList<>();
+
+    // When
+    int count = index.triggerOrders(105.0, (id, order) -> triggered.add(id));
+
+    // Then, from the closest stop price then by arrival time
+    assertThat(count).isEqualTo(3);
+    assertThat(triggered).containsExactly("2", "4", "1");
+    assertThat(index.size()).isEqualTo(1);
+    assertThat(index.contains("3")).isTrue();
+  }
+
+  @Test
+  void testTriggerSellOrdersDownToLow() {
+    // Given
+    StopOrderIndex index = new StopOrderIndex(Side.SELL);
+    index.addOrder("1", order(Side.SELL, 95.0));
+    index.addOrder("2", order(Side.SELL, 98.0));
+    index.addOrder("3", order(Side.SELL, 90.0));
+    List<String> triggered = new ArrayList<>();
+
+    // When
+    int count = index.triggerOrders(95.0, (id, order) -> triggered.add(id));
+
+    // Then, the highest stop price first
+    assertThat(count).isEqualTo(2);
+    assertThat(triggered).containsExactly("2", "1");
+    assertThat(index.getOrder("3")).isNotNull();
+  }
+
+  @Test
+  void testNothingTriggeredWithoutPrice() {
+    // Given
+    StopOrderIndex index = new StopOrderIndex(Side.BUY);
+    index.addOrder("1", order(Side.BUY, 105.0));
+
+    // When
+    int count = index.triggerOrders(null, (id, order) -> {});
+
+    // Then
+    assertThat(count).isZero();
+    assertThat(index.triggerOrders(104.99, (id, order) -> {})).isZero();
+    assertThat(index.size()).isEqualTo(1);
+  }
+
+  @Test
+  void testReplaceMovesToNewStopPrice() {
+    // Given
+    StopOrderIndex index = new StopOrderIndex(Side.BUY);
+    index.addOrder("1", order(Side.BUY, 105.0));
+    index.addOrder("2", order(Side.BUY, 110.0));
+
+    // When
+    Order oldOrder = index.replaceOrder("1", order(Side.BUY, 110.0));
+
+    // Then, behind the orders of its new stop price
+    assertThat(oldOrder.getStopPrice()).isEqualTo(105.0);
+    assertThat(index.replaceOrder("3", order(Side.BUY, 100.0))).isNull();
+    assertThat(index.contains("3")).isFalse();
+    List<String> visited = new ArrayList<>();
+    index.forEachOrder((id, order) -> visited.add(id));
+    assertThat(visited).containsExactly("2", "1");
+  }
+
+  @Test
+  void testRemoveOrder() {
+    // Given
+    StopOrderIndex index = new StopOrderIndex(Side.SELL);
+    index.addOrder("1", order(Side.SELL, 95.0));
+
+    // When
+    Order removed = index.removeOrder("1");
+
+    // Then
+    assertThat(removed).isNotNull();
+    assertThat(index.removeOrder("1")).isNull();
+    assertThat(index.size()).isZero();
+    assertThat(index.triggerOrders(200.0, (id, order) -> {})).isZero();
+  }
+
+  private static Order order(Side side, double stopPrice) {
+    return new Order(
+      "user",
+      "AAPL",
+      10,
+      side,
+      Type.STOP,
+      null,
+      "clOrderID",
+      stopPrice,
+      TimeInForce.GTC,
+      null
+    );
+  }
+}
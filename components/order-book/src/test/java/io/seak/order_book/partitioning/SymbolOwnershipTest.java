@@ -0,0 +1,207 @@
+package io.seak.order_book.partitioning;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.seak.avro.Order;
+import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
+import io.seak.avro.Type;
+import io.seak.common.SymbolPartitioner;
+import io.seak.order_book.engine.DirectOrderBookEngine;
+import io.seak.order_book.expiry.OrderExpiryWheel;
+import io.seak.order_book.order_book.OrderBookCatalog;
+import io.seak.order_book.order_book.OrderTreeFactory;
+import io.seak.order_book.order_book.OrderTreeType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SymbolOwnershipTest {
+
+  private static final int PARTITION_COUNT = 4;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private OrderBookCatalog orderBookCatalog;
+  private FakeChangelog orderBookChangelog;
+
+  @BeforeEach
+  void setup() {
+    orderBookCatalog =
+      new OrderBookCatalog(
+        meterRegistry,
+        new OrderTreeFactory(OrderTreeType.TREE_MAP, 0.01, 1024)
+      );
+    orderBookChangelog = new FakeChangelog();
+  }
+
+  @Test
+  void testOwnEverySymbolWithoutPartitioning() {
+    // Given
+    SymbolOwnership symbolOwnership = symbolOwnership(false);
+
+    // When
+    symbolOwnership.onPartitionsAssigned(List.of(partition(0)));
+
+    // Then
+    assertThat(symbolOwnership.owns(symbolOf(0))).isTrue();
+    assertThat(symbolOwnership.owns(symbolOf(1))).isTrue();
+    assertThat(orderBookChangelog.restored).isEmpty();
+  }
+
+  @Test
+  void testOwnNothingBeforeAssignment() {
+    // When
+    SymbolOwnership symbolOwnership = symbolOwnership(true);
+
+    // Then
+    assertThat(symbolOwnership.owns(symbolOf(0))).isFalse();
+  }
+
+  @Test
+  void testRestoreBooksOfAssignedPartitions() {
+    // Given
+    SymbolOwnership symbolOwnership = symbolOwnership(true);
+    orderBookChangelog.orders.put("1", order(symbolOf(0)));
+    orderBookChangelog.orders.put("2", order(symbolOf(1)));
+
+    // When
+    symbolOwnership.onPartitionsAssigned(List.of(partition(0)));
+
+    // Then
+    assertThat(symbolOwnership.owns(symbolOf(0))).isTrue();
+    assertThat(symbolOwnership.owns(symbolOf(1))).isFalse();
+    assertThat(orderBookChangelog.restored).containsExactly(List.of(0));
+    assertThat(orderBookCatalog.getOrderBook(symbolOf(0)).getOrder("1"))
+      .isNotNull();
+    assertThat(orderBookCatalog.getOrderBook(symbolOf(1))).isNull();
+  }
+
+  @Test
+  void testKeepBooksAssignedBackAfterRebalance() {
+    // Given
+    SymbolOwnership symbolOwnership = symbolOwnership(true);
+    orderBookChangelog.orders.put("1", order(symbolOf(0)));
+    symbolOwnership.onPartitionsAssigned(List.of(partition(0)));
+    orderBookCatalog
+      .getOrderBook(symbolOf(0))
+      .addOrder("2", order(symbolOf(0)));
+
+    // When, every partition is revoked then assigned back
+    symbolOwnership.onPartitionsRevoked(List.of(partition(0)));
+    symbolOwnership.onPartitionsAssigned(List.of(partition(0)));
+
+    // Then, the live book is kept and nothing is restored again
+    assertThat(orderBookCatalog.getOrderBook(symbolOf(0)).getOrderCount())
+      .isEqualTo(2);
+    assertThat(orderBookChangelog.restored).hasSize(1);
+  }
+
+  @Test
+  void testDropBooksOfRevokedPartitions() {
+    // Given
+    SymbolOwnership symbolOwnership = symbolOwnership(true);
+    orderBookChangelog.orders.put("1", order(symbolOf(0)));
+    orderBookChangelog.orders.put("2", order(symbolOf(1)));
+    symbolOwnership.onPartitionsAssigned(List.of(partition(0)));
+
+    // When, the partition moves to another instance
+    symbolOwnership.onPartitionsRevoked(List.of(partition(0)));
+    symbolOwnership.onPartitionsAssigned(List.of(partition(1)));
+
+    // Then
+    assertThat(symbolOwnership.owns(symbolOf(0))).isFalse();
+    assertThat(symbolOwnership.owns(symbolOf(1))).isTrue();
+    assertThat(orderBookCatalog.getOrderBook(symbolOf(0))).isNull();
+    assertThat(orderBookCatalog.getOrderBook(symbolOf(1)).getOrder("2"))
+      .isNotNull();
+  }
+
+  private SymbolOwnership symbolOwnership(boolean enabled) {
+    return new SymbolOwnership(
+      orderBookCatalog,
+      new DirectOrderBookEngine(orderBookCatalog, null),
+      orderBookChangelog,
+      new OrderExpiryWheel(meterRegistry, Duration.ofMillis(100), "22:00"),
+      enabled
+    );
+  }
+
+  private static TopicPartition partition(int partition) {
+    return new TopicPartition("order-book-request", partition);
+  }
+
+  /**
+   * @return the first symbol of the partition among S0, S1...
+   */
+  private static String symbolOf(int partition) {
+    return IntStream
+      .range(0, 1000)
+      .mapToObj(i -> "S" + i)
+      .filter(symbol ->
+        SymbolPartitioner.partition(symbol, PARTITION_COUNT) == partition
+      )
+      .findFirst()
+      .orElseThrow();
+  }
+
+  private static Order order(String symbol) {
+    return new Order(
+      "user",
+      symbol,
+      10,
+      Side.BUY,
+      Type.LIMIT,
+      100.0,
+      "clOrderID",
+      null,
+      TimeInForce.GTC,
+      null
+    );
+  }
+
+  /**
+   * Changelog of the orders put in the test, restored by partition
+   */
+  private static class FakeChangelog extends OrderBookChangelog {
+
+    private final Map<String, Order> orders = new LinkedHashMap<>();
+    private final List<List<Integer>> restored = new ArrayList<>();
+
+    private FakeChangelog() {
+      super(null, true);
+    }
+
+    @Override
+    public Map<String, Order> restore(Collection<Integer> partitions) {
+      Map<String, Order> partitionOrders = new LinkedHashMap<>();
+      if (partitions.isEmpty()) {
+        return partitionOrders;
+      }
+      restored.add(List.copyOf(partitions));
+      orders.forEach((id, order) -> {
+        String symbol = order.getSymbol().toString();
+        if (
+          partitions.contains(
+            SymbolPartitioner.partition(symbol, PARTITION_COUNT)
+          )
+        ) {
+          partitionOrders.put(id, order);
+        }
+      });
+      return partitionOrders;
+    }
+
+    @Override
+    public int getPartitionCount() {
+      return PARTITION_COUNT;
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package io.seak.order_book.replication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.configuration.kafka.ProducerRegistry;
+import io.micronaut.core.type.Argument;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LeaderProducerTest {
+
+  private final MockProducer<String, SpecificRecord> producer =
+    new MockProducer<>(true, new StringSerializer(), (topic, record) -> null);
+  private final ReplicationState replicationState = new ReplicationState(
+    new SimpleMeterRegistry(),
+    true
+  );
+  private LeaderProducer leaderProducer;
+
+  @BeforeEach
+  void setup() {
+    leaderProducer =
+      new LeaderProducer(
+        new TransactionalRegistry(),
+        replicationState,
+        "order-book-leader"
+      );
+    leaderProducer.open(1);
+    replicationState.becomeLeader(1);
+  }
+
+  @Test
+  void testSendsCommittedTogether() {
+    // Given
+    leaderProducer.send(new ProducerRecord<>("trades", "1", null));
+    leaderProducer.send(new ProducerRecord<>("trades", "2", null));
+    assertThat(producer.history()).isEmpty();
+
+    // When
+    leaderProducer.commit();
+
+    // Then
+    assertThat(producer.history())
+      .extracting(ProducerRecord::key)
+      .containsExactly("1", "2");
+    assertThat(producer.transactionInFlight()).isFalse();
+  }
+
+  @Test
+  void testFencedCommitDeposesTheLeader() {
+    // Given, a newer leader opened its producer
+    leaderProducer.send(new ProducerRecord<>("trades", "1", null));
+    producer.fenceProducer();
+
+    // When
+    leaderProducer.commit();
+
+    // Then
+    assertThat(producer.history()).isEmpty();
+    assertThat(replicationState.isLeader()).isFalse();
+  }
+
+  @Test
+  void testFencedSendDeposesTheLeader() {
+    // Given
+    producer.fenceProducer();
+
+    // When
+    leaderProducer.send(new ProducerRecord<>("trades", "1", null));
+
+    // Then
+    assertThat(replicationState.isLeader()).isFalse();
+  }
+
+  /**
+   * Opens the transactions of the mock producer, like the Micronaut registry
+   */
+  private class TransactionalRegistry implements ProducerRegistry {
+
+    @Override
+    public <K, V> Producer<K, V> getProducer(
+      String id,
+      Argument<K> keyType,
+      Argument<V> valueType
+    ) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <K, V> Producer<K, V> getTransactionalProducer(
+      String clientId,
+      String transactionalId,
+      Argument<K> keyType,
+      Argument<V> valueType
+    ) {
+      producer.initTransactions();
+      return (Producer<K, V>) producer;
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package io.seak.order_book.replication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.seak.avro.MarketData;
+import io.seak.avro.Order;
+import io.seak.avro.OrderBookRequest;
+import io.seak.avro.OrderBookRequestType;
+import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
+import io.seak.avro.Trade;
+import io.seak.avro.Type;
+import io.seak.order_book.engine.DirectOrderBookEngine;
+import io.seak.order_book.expiry.OrderExpiryWheel;
+import io.seak.order_book.order_book.LimitOrderBook;
+import io.seak.order_book.order_book.OrderBookCatalog;
+import io.seak.order_book.order_book.OrderTreeFactory;
+import io.seak.order_book.order_book.OrderTreeType;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ReplicationServiceTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ReplicationState replicationState = new ReplicationState(
+    meterRegistry,
+    true
+  );
+  private final OrderBookCatalog orderBookCatalog = new OrderBookCatalog(
+    meterRegistry,
+    new OrderTreeFactory(OrderTreeType.TREE_MAP, 0.01, 1024)
+  );
+  private final ReplicationService replicationService = new ReplicationService(
+    replicationState,
+    new DirectOrderBookEngine(orderBookCatalog, null),
+    new OrderExpiryWheel(meterRegistry, Duration.ofMillis(100), "22:00"),
+    meterRegistry
+  );
+
+  @Test
+  void testKeepActivatedStopLimitOrderAfterFailover() {
+    // Given, a STOP_LIMIT order triggered then partially filled by the leader
+    OrderBookRequest request = newRequest(stopLimitOrder());
+    replicationService.trackRequest("alice:1", request);
+    replicationService.applyVerdict("alice:1", request, true);
+    replicationService.applyActivation("alice:1", limitOrder());
+    replicationService.applyTrade("alice:1", trade(4));
+
+    // When
+    replicationService.promote(2);
+
+    // Then, it rests as a LIMIT order and is matched by the new leader
+    LimitOrderBook orderBook = orderBookCatalog.getOrderBook("AAPL");
+    assertThat(orderBook.getStopOrderCount(Side.BUY)).isZero();
+    assertThat(orderBook.getBuyOrders()).containsOnlyKeys("alice:1");
+    assertThat(orderBook.getOrder("alice:1").getType()).isEqualTo(Type.LIMIT);
+    assertThat(orderBook.getOrder("alice:1").getQuantity()).isEqualTo(6);
+    Map<String, Trade> trades = new LinkedHashMap<>();
+    orderBook.matchOrders(
+      new MarketData(104.0, 104.0, 104.0, 104.0, 10),
+      trades::put
+    );
+    assertThat(trades).containsOnlyKeys("alice:1");
+    assertThat(trades.get("alice:1").getPrice()).isEqualTo(106.0);
+  }
+
+  @Test
+  void testApplyActivationReadBeforeResponse() {
+    // Given
+    OrderBookRequest request = newRequest(stopLimitOrder());
+    replicationService.trackRequest("alice:1", request);
+    replicationService.applyActivation("alice:1", limitOrder());
+    replicationService.applyTrade("alice:1", trade(3));
+
+    // When
+    replicationService.applyVerdict("alice:1", request, true);
+
+    // Then
+    LimitOrderBook orderBook = orderBookCatalog.getOrderBook("AAPL");
+    assertThat(orderBook.getStopOrderCount(Side.BUY)).isZero();
+    assertThat(orderBook.getOrder("alice:1").getType()).isEqualTo(Type.LIMIT);
+    assertThat(orderBook.getOrder("alice:1").getQuantity()).isEqualTo(7);
+  }
+
+  @Test
+  void testDropOutputsOfRemovedOrder() {
+    // Given, the order was cancelled before its last trade is read
+    OrderBookRequest request = newRequest(limitOrder());
+    OrderBookRequest cancel = new OrderBookRequest(
+      OrderBookRequestType.CANCEL,
+      limitOrder(),
+      "1"
+    );
+    replicationService.trackRequest("alice:1", request);
+    replicationService.applyVerdict("alice:1", request, true);
+    replicationService.trackRequest("alice:1", cancel);
+    replicationService.applyVerdict("alice:1", cancel, true);
+
+    // When
+    replicationService.applyTrade("alice:1", trade(4));
+    replicationService.applyActivation("alice:1", limitOrder());
+
+    // Then, nothing is kept for the order
+    assertThat(orderBookCatalog.getOrderBook("AAPL").getOrderCount()).isZero();
+    assertThat(replicationService.getAwaitedOutputCount()).isZero();
+  }
+
+  private static OrderBookRequest newRequest(Order order) {
+    return new OrderBookRequest(OrderBookRequestType.NEW, order, null);
+  }
+
+  private static Trade trade(int quantity) {
+    return new Trade(limitOrder(), "AAPL", 106.0, quantity);
+  }
+
+  private static Order stopLimitOrder() {
+    return Order.newBuilder(limitOrder()).setType(Type.STOP_LIMIT).build();
+  }
+
+  private static Order limitOrder() {
+    return new Order(
+      "alice",
+      "AAPL",
+      10,
+      Side.BUY,
+      Type.LIMIT,
+      106.0,
+      "1",
+      105.0,
+      TimeInForce.GTC,
+      null
+    );
+  }
+}
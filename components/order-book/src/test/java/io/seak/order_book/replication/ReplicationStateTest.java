@@ -0,0 +1,40 @@
+package io.seak.order_book.replication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+class ReplicationStateTest {
+
+  private final ReplicationState replicationState = new ReplicationState(
+    new SimpleMeterRegistry(),
+    true
+  );
+
+  @Test
+  void testDeposeTheFencedEpoch() {
+    // Given
+    replicationState.becomeLeader(3);
+
+    // When
+    replicationState.depose(3);
+
+    // Then
+    assertThat(replicationState.isLeader()).isFalse();
+    assertThat(replicationState.getRole()).isEqualTo(ReplicationRole.FOLLOWER);
+  }
+
+  @Test
+  void testDeposeAnotherEpochIsIgnored() {
+    // Given, the write of epoch 2 was fenced after a promotion to epoch 3
+    replicationState.becomeLeader(3);
+
+    // When
+    replicationState.depose(2);
+
+    // Then
+    assertThat(replicationState.isLeader()).isTrue();
+    assertThat(replicationState.getEpoch()).isEqualTo(3);
+  }
+}
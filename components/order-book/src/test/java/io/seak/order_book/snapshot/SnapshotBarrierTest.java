@@ -0,0 +1,106 @@
+package io.seak.order_book.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SnapshotBarrierTest {
+
+  private static final TopicPartition PARTITION = new TopicPartition(
+    "order-book-request",
+    0
+  );
+
+  private final SnapshotReplay replay = new SnapshotReplay();
+  private final SnapshotBarrier barrier = new SnapshotBarrier(replay);
+
+  // Offsets of each batch, and whether it was processed as a replay
+  private final List<List<Long>> batches = new ArrayList<>();
+  private final List<Boolean> replaying = new ArrayList<>();
+
+  @BeforeEach
+  void setup() {
+    // Sought to the snapshot offset 10, 13 was committed before the restart
+    replay.start(PARTITION, 10, 13L);
+  }
+
+  @Test
+  void testReplayRecordsProcessedBeforeRestart() {
+    // When
+    barrier.process(records(0, 10, 16), this::record);
+    Map<TopicPartition, Long> offsets = barrier.capture(consumed -> consumed);
+
+    // Then, the replayed records first, alone and with nothing sent
+    assertThat(batches)
+      .containsExactly(List.of(10L, 11L, 12L), List.of(13L, 14L, 15L));
+    assertThat(replaying).containsExactly(true, false);
+    assertThat(replay.isReplaying()).isFalse();
+    assertThat(replay.isPending()).isFalse();
+    assertThat(offsets).isEqualTo(Map.of(PARTITION, 16L));
+  }
+
+  @Test
+  void testReplayAcrossBatches() {
+    // When
+    barrier.process(records(0, 10, 12), this::record);
+    barrier.process(records(0, 12, 14), this::record);
+    barrier.process(records(0, 14, 15), this::record);
+
+    // Then
+    assertThat(batches)
+      .containsExactly(
+        List.of(10L, 11L),
+        List.of(12L),
+        List.of(13L),
+        List.of(14L)
+      );
+    assertThat(replaying).containsExactly(true, true, false, false);
+  }
+
+  @Test
+  void testOtherPartitionsAreNotReplayed() {
+    // When
+    barrier.process(records(1, 10, 12), this::record);
+
+    // Then
+    assertThat(batches).containsExactly(List.of(10L, 11L));
+    assertThat(replaying).containsExactly(false);
+    assertThat(replay.isPending()).isTrue();
+  }
+
+  @Test
+  void testNothingToReplayWithoutCommittedOffset() {
+    // Given
+    SnapshotReplay replay = new SnapshotReplay();
+    replay.start(PARTITION, 10, null);
+    replay.start(new TopicPartition("order-book-request", 1), 10, 10L);
+
+    // Then
+    assertThat(replay.isPending()).isFalse();
+  }
+
+  private void record(List<ConsumerRecord<String, String>> records) {
+    batches.add(records.stream().map(ConsumerRecord::offset).toList());
+    replaying.add(replay.isReplaying());
+  }
+
+  private static List<ConsumerRecord<String, String>> records(
+    int partition,
+    long from,
+    long to
+  ) {
+    List<ConsumerRecord<String, String>> records = new ArrayList<>();
+    for (long offset = from; offset < to; offset++) {
+      records.add(
+        new ConsumerRecord<>("order-book-request", partition, offset, "", "")
+      );
+    }
+    return records;
+  }
+}
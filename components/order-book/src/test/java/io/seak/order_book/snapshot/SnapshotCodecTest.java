@@ -0,0 +1,142 @@
+package io.seak.order_book.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.seak.avro.MarketDataEntry;
+import io.seak.avro.MarketDataRequest;
+import io.seak.avro.MarketDataSubscriptionRequest;
+import io.seak.avro.Order;
+import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
+import io.seak.avro.Type;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SnapshotCodecTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void testWriteAndRead() throws IOException {
+    // Given
+    Map<String, List<OrderBookSnapshot.Entry<Order>>> orderBooks =
+      new LinkedHashMap<>();
+    orderBooks.put(
+      "MSFT",
+      List.of(
+        new OrderBookSnapshot.Entry<>("1", order("MSFT", Side.BUY, 99.0)),
+        new OrderBookSnapshot.Entry<>("2", order("MSFT", Side.SELL, 101.0))
+      )
+    );
+    orderBooks.put("AAPL", List.of());
+    orderBooks.put(
+      "IBM",
+      List.of(new OrderBookSnapshot.Entry<>("3", order("IBM", Side.BUY, 50.0)))
+    );
+    OrderBookSnapshot snapshot = new OrderBookSnapshot(
+      1000,
+      Map.of(
+        new TopicPartition("order-book-request", 0),
+        12L,
+        new TopicPartition("order-book-request", 1),
+        7L
+      ),
+      orderBooks,
+      List.of(new OrderBookSnapshot.Entry<>("IBM", request()))
+    );
+    Path path = directory.resolve("order-book-1000.snapshot");
+
+    // When
+    SnapshotCodec.write(snapshot, path);
+    OrderBookSnapshot read = SnapshotCodec.read(path);
+
+    // Then, the books and their orders keep their order
+    assertThat(read.timestamp()).isEqualTo(1000L);
+    assertThat(read.offsets()).isEqualTo(snapshot.offsets());
+    assertThat(read.orderBooks().keySet())
+      .containsExactly("MSFT", "AAPL", "IBM");
+    assertThat(read.orderBooks()).isEqualTo(orderBooks);
+    assertThat(read.subscriptions()).hasSize(1);
+    assertThat(read.subscriptions().get(0).key()).isEqualTo("IBM");
+    assertThat(read.subscriptions().get(0).value().getUsername().toString())
+      .isEqualTo("user");
+  }
+
+  @Test
+  void testRejectCorruptedSnapshot() throws IOException {
+    // Given
+    Path path = directory.resolve("order-book-1000.snapshot");
+    SnapshotCodec.write(snapshot(), path);
+    byte[] bytes = Files.readAllBytes(path);
+    bytes[20] ^= 1;
+    Files.write(path, bytes);
+
+    // When, then
+    assertThatThrownBy(() -> SnapshotCodec.read(path))
+      .isInstanceOf(IOException.class)
+      .hasMessageContaining("checksum");
+  }
+
+  @Test
+  void testRejectTruncatedSnapshot() throws IOException {
+    // Given
+    Path path = directory.resolve("order-book-1000.snapshot");
+    SnapshotCodec.write(snapshot(), path);
+    byte[] bytes = Files.readAllBytes(path);
+    Files.write(path, Arrays.copyOf(bytes, 4));
+
+    // When, then
+    assertThatThrownBy(() -> SnapshotCodec.read(path))
+      .isInstanceOf(IOException.class);
+  }
+
+  private static OrderBookSnapshot snapshot() {
+    return new OrderBookSnapshot(
+      1000,
+      Map.of(new TopicPartition("order-book-request", 0), 12L),
+      Map.of(
+        "IBM",
+        List.of(
+          new OrderBookSnapshot.Entry<>("1", order("IBM", Side.BUY, 50.0))
+        )
+      ),
+      List.of()
+    );
+  }
+
+  private static Order order(String symbol, Side side, double price) {
+    return new Order(
+      "user",
+      symbol,
+      10,
+      side,
+      Type.LIMIT,
+      price,
+      "clOrderID",
+      null,
+      TimeInForce.GTC,
+      null
+    );
+  }
+
+  private static MarketDataRequest request() {
+    return new MarketDataRequest(
+      "user",
+      List.of("IBM"),
+      0,
+      List.of(MarketDataEntry.BID),
+      MarketDataSubscriptionRequest.SUBSCRIBE,
+      "1"
+    );
+  }
+}
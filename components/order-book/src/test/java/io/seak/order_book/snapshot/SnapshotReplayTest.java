@@ -0,0 +1,268 @@
+package io.seak.order_book.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.seak.avro.Order;
+import io.seak.avro.OrderBookRequest;
+import io.seak.avro.OrderBookRequestType;
+import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
+import io.seak.avro.Trade;
+import io.seak.avro.Type;
+import io.seak.ledger.InMemoryAccountLedger;
+import io.seak.order_book.MessageProducer;
+import io.seak.order_book.expiry.OrderExpiryWheel;
+import io.seak.order_book.market_data.MarketDataSubscriptionCatalog;
+import io.seak.order_book.order_book.CancelLane;
+import io.seak.order_book.order_book.IntegrityCheckService;
+import io.seak.order_book.order_book.LimitOrderBook;
+import io.seak.order_book.order_book.OrderBookCatalog;
+import io.seak.order_book.order_book.OrderBookCommandHandler;
+import io.seak.order_book.order_book.OrderTreeFactory;
+import io.seak.order_book.order_book.OrderTreeType;
+import io.seak.order_book.partitioning.OrderBookChangelog;
+import io.seak.order_book.partitioning.RequestOffsets;
+import io.seak.order_book.replication.ReplicationState;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SnapshotReplayTest {
+
+  private static final TopicPartition PARTITION = new TopicPartition(
+    "order-book-request",
+    0
+  );
+
+  @TempDir
+  Path directory;
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final InMemoryAccountLedger accountLedger =
+    new InMemoryAccountLedger();
+  private final SnapshotReplay snapshotReplay = new SnapshotReplay();
+  private final OrderBookCatalog orderBookCatalog = new OrderBookCatalog(
+    meterRegistry,
+    new OrderTreeFactory(OrderTreeType.TREE_MAP, 0.01, 1024)
+  );
+  private final OrderExpiryWheel orderExpiryWheel = new OrderExpiryWheel(
+    meterRegistry,
+    Duration.ofMillis(100),
+    "22:00"
+  );
+  private OrderBookCommandHandler commandHandler;
+
+  @BeforeEach
+  void setup() {
+    // Left by the requests applied before the restart
+    accountLedger.setBalance("alice", 500.0);
+    accountLedger.setStock("alice", "AAPL", 20);
+
+    OrderBookChangelog orderBookChangelog = new OrderBookChangelog(
+      null,
+      false
+    );
+    SilentProducer messageProducer = new SilentProducer();
+    commandHandler =
+      new OrderBookCommandHandler(
+        new IntegrityCheckService(
+          accountLedger,
+          new ReplicationState(meterRegistry, false),
+          snapshotReplay
+        ),
+        messageProducer,
+        meterRegistry,
+        orderBookChangelog,
+        orderExpiryWheel,
+        new CancelLane(
+          messageProducer,
+          meterRegistry,
+          new RequestOffsets(null, orderBookChangelog, PARTITION.topic()),
+          snapshotReplay,
+          PARTITION.topic(),
+          "order-book-cancel",
+          Duration.ofSeconds(1)
+        ),
+        false
+      );
+  }
+
+  @Test
+  void testReplayLeavesLedgerUntouched() throws IOException {
+    // Given, a snapshot at offset 10 while 12 was committed
+    OrderBookSnapshotService snapshotService = restore(10L);
+    snapshotService.seekToSnapshot(
+      List.of(PARTITION),
+      operation -> true,
+      partitions -> Map.of(PARTITION, new OffsetAndMetadata(12L))
+    );
+
+    // When, the cancel and the replacement are replayed
+    snapshotService.process(
+      List.of(
+        record(10, "alice:1", cancel(order(Side.BUY, 100.0, 10), "1")),
+        record(11, "alice:2", replace(order(Side.SELL, 110.0, 8), "2"))
+      ),
+      this::apply
+    );
+
+    // Then, only the book is rebuilt
+    LimitOrderBook orderBook = orderBookCatalog.getOrderBook("AAPL");
+    assertThat(orderBook.getOrder("alice:1")).isNull();
+    assertThat(orderBook.getOrder("alice:2").getQuantity()).isEqualTo(8);
+    assertThat(accountLedger.getBalance("alice")).isEqualTo(500.0);
+    assertThat(accountLedger.getStock("alice", "AAPL")).isEqualTo(20L);
+  }
+
+  @Test
+  void testLedgerAdjustedAfterReplay() throws IOException {
+    // Given
+    OrderBookSnapshotService snapshotService = restore(10L);
+    snapshotService.seekToSnapshot(
+      List.of(PARTITION),
+      operation -> true,
+      partitions -> Map.of(PARTITION, new OffsetAndMetadata(11L))
+    );
+
+    // When, the replacement follows the replayed cancel
+    snapshotService.process(
+      List.of(
+        record(10, "alice:1", cancel(order(Side.BUY, 100.0, 10), "1")),
+        record(11, "alice:2", replace(order(Side.SELL, 110.0, 8), "2"))
+      ),
+      this::apply
+    );
+
+    // Then, the replacement reserves 3 more of the stock
+    assertThat(accountLedger.getBalance("alice")).isEqualTo(500.0);
+    assertThat(accountLedger.getStock("alice", "AAPL")).isEqualTo(17L);
+  }
+
+  /**
+   * Restore a snapshot of a BUY and a SELL order of alice
+   * @param offset offset of the partition in the snapshot
+   */
+  private OrderBookSnapshotService restore(long offset) throws IOException {
+    SnapshotCodec.write(
+      new OrderBookSnapshot(
+        1000,
+        Map.of(PARTITION, offset),
+        Map.of(
+          "AAPL",
+          List.of(
+            new OrderBookSnapshot.Entry<>(
+              "alice:1",
+              order(Side.BUY, 100.0, 10)
+            ),
+            new OrderBookSnapshot.Entry<>(
+              "alice:2",
+              order(Side.SELL, 110.0, 5)
+            )
+          )
+        ),
+        List.of()
+      ),
+      directory.resolve("order-book-1000.snapshot")
+    );
+    return new OrderBookSnapshotService(
+      orderBookCatalog,
+      new MarketDataSubscriptionCatalog(meterRegistry),
+      orderExpiryWheel,
+      snapshotReplay,
+      meterRegistry,
+      true,
+      directory.toString(),
+      1
+    );
+  }
+
+  private void apply(List<ConsumerRecord<String, OrderBookRequest>> records) {
+    for (ConsumerRecord<String, OrderBookRequest> item : records) {
+      commandHandler.handleOrderBookRequest(
+        orderBookCatalog.getOrCreateOrderBook("AAPL"),
+        item.key(),
+        item.value()
+      );
+    }
+  }
+
+  private static ConsumerRecord<String, OrderBookRequest> record(
+    long offset,
+    String key,
+    OrderBookRequest orderBookRequest
+  ) {
+    return new ConsumerRecord<>(
+      PARTITION.topic(),
+      PARTITION.partition(),
+      offset,
+      key,
+      orderBookRequest
+    );
+  }
+
+  private static OrderBookRequest cancel(Order order, String origClOrderID) {
+    return new OrderBookRequest(
+      OrderBookRequestType.CANCEL,
+      order,
+      origClOrderID
+    );
+  }
+
+  private static OrderBookRequest replace(Order order, String origClOrderID) {
+    return new OrderBookRequest(
+      OrderBookRequestType.REPLACE,
+      order,
+      origClOrderID
+    );
+  }
+
+  private static Order order(Side side, double price, int quantity) {
+    return new Order(
+      "alice",
+      "AAPL",
+      quantity,
+      side,
+      Type.LIMIT,
+      price,
+      side == Side.BUY ? "1" : "2",
+      null,
+      TimeInForce.GTC,
+      null
+    );
+  }
+
+  /**
+   * Nothing is sent by the tests
+   */
+  private static class SilentProducer extends MessageProducer {
+
+    private SilentProducer() {
+      super(null, null, null, null, Optional.empty());
+    }
+
+    @Override
+    public void sendTrade(String key, Trade trade) {}
+
+    @Override
+    public void sendOrderBookResponse(
+      String key,
+      OrderBookRequest orderBookRequest
+    ) {}
+
+    @Override
+    public void sendOrderBookRejected(
+      String key,
+      OrderBookRequest orderBookRequest
+    ) {}
+  }
+}
@@ -1,21 +1,19 @@
 package io.seak.order_stream;
 
-import io.lettuce.core.RedisClient;
-import io.lettuce.core.api.StatefulRedisConnection;
-import io.lettuce.core.api.sync.RedisCommands;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
-import io.micronaut.context.annotation.Property;
 import io.seak.avro.Order;
 import io.seak.avro.OrderRejectReason;
 import io.seak.avro.Side;
 import io.seak.avro.Type;
 import io.seak.common.SymbolReader;
-import io.seak.common.UtilsRunning;
-import jakarta.annotation.PreDestroy;
+import io.seak.ledger.AccountLedger;
+import io.seak.ledger.LedgerPipeline;
 import jakarta.inject.Singleton;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,180 +24,129 @@ public class OrderIntegrityCheckService {
     OrderIntegrityCheckService.class
   );
 
-  private static final String BALANCE_KEY_PATTERN = "%s:balance";
-  private static final String STOCK_KEY_PATTERN = "%s:%s";
-
   private final SymbolReader symbolReader;
 
-  private final StatefulRedisConnection<String, String> redisConnection;
+  private final AccountLedger accountLedger;
 
   private final MeterRegistry meterRegistry;
 
   public OrderIntegrityCheckService(
-    @Property(name = "redis.uri") String redisUri,
     SymbolReader symbolReader,
-    RedisClient redisClient,
+    AccountLedger accountLedger,
     MeterRegistry meterRegistry
   ) {
     this.symbolReader = symbolReader;
+    this.accountLedger = accountLedger;
     this.meterRegistry = meterRegistry;
-
-    if (UtilsRunning.isRedisRunning(redisUri)) {
-      this.redisConnection = redisClient.connect();
-    } else {
-      this.redisConnection = null;
-      LOG.error("Redis is not running");
-    }
   }
 
-  @PreDestroy
-  void close() {
-    if (redisConnection != null) {
-      redisConnection.close();
-    }
-  }
-
-  private String buildBalanceKey(String username) {
-    return String.format(BALANCE_KEY_PATTERN, username);
-  }
-
-  private String buildStockKey(String username, String symbol) {
-    return String.format(STOCK_KEY_PATTERN, username, symbol);
-  }
-
-  private boolean verifyUserExistInRedis(String username) {
-    return redisConnection.sync().exists(buildBalanceKey(username)) == 1;
+  /**
+   * Open a pipeline of the ledger, for
+   * {@link #checkIntegrity(Order, LedgerPipeline)}
+   */
+  public LedgerPipeline openPipeline() {
+    return accountLedger.pipeline();
   }
 
   /**
-   * Check the integrity of a sell order (market or limit):
-   * @param order the order to check
+   * Map the result of a reservation
+   * @param order the order checked
+   * @param result the result of its reservation
    * @return null if the order is valid, the reason why it is not valid otherwise
    */
-  private OrderRejectReason sellVerification(
+  private OrderRejectReason verification(
     Order order,
-    RedisCommands<String, String> syncCommands
+    AccountLedger.Result result
   ) {
-    String stockKey = buildStockKey(
-      order.getUsername().toString(),
-      order.getSymbol().toString()
-    );
-    Integer quantity = order.getQuantity();
-
-    int countdown = 10;
-    while (countdown-- > 0) {
-      syncCommands.watch(stockKey);
-      String stockQuantityString = syncCommands.get(stockKey);
-      if (stockQuantityString == null || stockQuantityString.isEmpty()) {
+    switch (result) {
+      case APPLIED:
+        LOG.debug("Order {} accepted", order);
+        return null;
+      case UNKNOWN_ACCOUNT:
+        LOG.debug("Order {} rejected because of unknown user", order);
+        return OrderRejectReason.UNKNOWN_ACCOUNT;
+      case MISSING_ENTRY:
         LOG.debug(
           "Order {} rejected because of insufficient stocks (entry does not exist)",
           order
         );
         return OrderRejectReason.INCORRECT_QUANTITY;
-      }
-      Integer stockQuantity = Integer.parseInt(stockQuantityString);
-      if (stockQuantity < quantity) {
-        LOG.debug("Order {} rejected because of insufficient stocks", order);
+      default:
+        LOG.debug(
+          "Order {} rejected because of insufficient balance or stocks",
+          order
+        );
         return OrderRejectReason.INCORRECT_QUANTITY;
-      }
-      syncCommands.multi();
-      syncCommands.decrby(stockKey, quantity);
-      if (syncCommands.exec().size() == 1) {
-        return null;
-      }
-      LOG.debug("Retrying order {}", order);
     }
-    LOG.debug("Order {} rejected because of insufficient stocks", order);
-    return OrderRejectReason.INCORRECT_QUANTITY;
   }
 
   /**
-   * Check the integrity of a buy limit order:
+   * Reserve the stock of a SELL order (market or limit), the balance of a BUY
+   * limit order
    * @param order the order to check
-   * @return null if the order is valid, the reason why it is not valid otherwise
+   * @return the result of the reservation
    */
-  private OrderRejectReason buyLimitVerification(
-    Order order,
-    RedisCommands<String, String> syncCommands
-  ) {
-    String balanceKey = buildBalanceKey(order.getUsername().toString());
-    Double orderTotalPrice = order.getQuantity() * order.getPrice();
-
-    int countdown = 10;
-    while (countdown-- > 0) {
-      syncCommands.watch(balanceKey);
-      Double balance = Double.parseDouble(syncCommands.get(balanceKey));
-      if (balance < orderTotalPrice) {
-        LOG.debug("Order {} rejected because of insufficient balance", order);
-        return OrderRejectReason.INCORRECT_QUANTITY;
-      }
-      syncCommands.multi();
-      syncCommands.incrbyfloat(balanceKey, -orderTotalPrice);
-      if (syncCommands.exec().size() == 1) {
-        return null;
-      }
-      LOG.debug("Retrying order {}", order);
+  private AccountLedger.Result reserve(Order order) {
+    String username = order.getUsername().toString();
+    if (order.getSide() == Side.BUY) {
+      return accountLedger.reserveBalance(
+        username,
+        order.getQuantity() * order.getPrice()
+      );
     }
-    LOG.debug("Order {} rejected because of insufficient balance", order);
-    return OrderRejectReason.INCORRECT_QUANTITY;
+    return accountLedger.reserveStock(
+      username,
+      order.getSymbol().toString(),
+      order.getQuantity()
+    );
   }
 
   /**
-   * Check the integrity of a market order:
-   * @param order the order to check
-   * @return null if the order is valid, the reason why it is not valid otherwise
+   * Queue the reservation of an order on a pipeline, see
+   * {@link #reserve(Order)}
    */
-  private OrderRejectReason marketOrderCheckIntegrity(Order order) {
-    RedisCommands<String, String> syncCommands = redisConnection.sync();
-
-    Side side = order.getSide();
-
-    // No need to check for BUY market orders
-    if (side == Side.BUY) {
-      return null;
+  private CompletionStage<AccountLedger.Result> reserve(
+    Order order,
+    LedgerPipeline pipeline
+  ) {
+    String username = order.getUsername().toString();
+    if (order.getSide() == Side.BUY) {
+      return pipeline.reserveBalance(
+        username,
+        order.getQuantity() * order.getPrice()
+      );
     }
-
-    return sellVerification(order, syncCommands);
+    return pipeline.reserveStock(
+      username,
+      order.getSymbol().toString(),
+      order.getQuantity()
+    );
   }
 
   /**
-   * Check the integrity of a limit order:
-   * @param order the order to check
-   * @return null if the order is valid, the reason why it is not valid otherwise
+   * Nothing is reserved for BUY market orders, stop orders are checked as
+   * market orders and stop limit orders as limit orders
    */
-  private OrderRejectReason limitOrderCheckIntegrity(Order order) {
-    RedisCommands<String, String> syncCommands = redisConnection.sync();
-
-    Side side = order.getSide();
-
-    if (side == Side.BUY) {
-      return buyLimitVerification(order, syncCommands);
-    }
-
-    return sellVerification(order, syncCommands);
+  private static boolean isReserved(Order order) {
+    Type type = order.getType();
+    return (
+      order.getSide() == Side.SELL ||
+      type == Type.LIMIT ||
+      type == Type.STOP_LIMIT
+    );
   }
 
   /**
-   * Check the integrity of an order:
-   *
-   * What needs to be done with redis:
-   *
-   * Market order:
-   * - BUY: nothing
-   * - SELL: check if the user has enough stocks / decrement the stock
-   *
-   * Limit order:
-   * - BUY: check if the user has enough balance / decrement the balance
-   * - SELL: check if the user has enough stocks / decrement the stock
-   *
+   * Check the fields of an order, before its account
+   * @param order the order to check
+   * @return null if the order is valid, the reason why it is not valid otherwise
    */
-  private OrderRejectReason checkIntegrityWrapped(Order order) {
+  private OrderRejectReason checkFields(Order order) {
     LOG.debug("Checking integrity of order {}", order);
 
     String username = order.getUsername().toString();
     String symbol = order.getSymbol().toString();
     Integer quantity = order.getQuantity();
-    Type type = order.getType();
 
     if (username == null || username.isEmpty()) {
       LOG.debug("Order {} rejected because of empty username", order);
@@ -218,37 +165,116 @@ public class OrderIntegrityCheckService {
       LOG.debug("Order {} rejected because of invalid quantity", order);
       return OrderRejectReason.INCORRECT_QUANTITY;
     }
+    return null;
+  }
 
-    if (!verifyUserExistInRedis(username)) {
+  /**
+   * Map the existence of the account of an order which reserves nothing
+   * @return null if the order is valid, the reason why it is not valid otherwise
+   */
+  private OrderRejectReason existence(Order order, boolean exists) {
+    if (!exists) {
       LOG.debug("Order {} rejected because of unknown user", order);
       return OrderRejectReason.UNKNOWN_ACCOUNT;
     }
+    LOG.debug("Order {} accepted", order);
+    return null;
+  }
 
-    OrderRejectReason orderCheckIntegrityResult = OrderRejectReason.OTHER;
-    if (type == Type.MARKET) {
-      orderCheckIntegrityResult = marketOrderCheckIntegrity(order);
-    } else if (type == Type.LIMIT) {
-      orderCheckIntegrityResult = limitOrderCheckIntegrity(order);
+  /**
+   * Check the integrity of an order:
+   *
+   * What needs to be done with redis:
+   *
+   * Market order:
+   * - BUY: check if the user exists
+   * - SELL: check if the user has enough stocks / decrement the stock
+   *
+   * Limit order:
+   * - BUY: check if the user has enough balance / decrement the balance
+   * - SELL: check if the user has enough stocks / decrement the stock
+   *
+   * Stop orders are checked as market orders, stop limit orders as limit
+   * orders.
+   *
+   * The user is checked along with the reservation, see
+   * {@link AccountLedger#reserveStock(String, String, long)}.
+   *
+   */
+  private OrderRejectReason checkIntegrityWrapped(Order order) {
+    OrderRejectReason orderCheckIntegrityResult = checkFields(order);
+    if (orderCheckIntegrityResult != null) {
+      return orderCheckIntegrityResult;
     }
 
-    if (orderCheckIntegrityResult == null) {
-      LOG.debug("Order {} accepted", order);
+    if (isReserved(order)) {
+      return verification(order, reserve(order));
     }
+    return existence(
+      order,
+      accountLedger.exists(order.getUsername().toString())
+    );
+  }
+
+  public OrderRejectReason checkIntegrity(Order order) {
+    Tags tags = tagsOf(order);
+    Timer.Sample sample = Timer.start();
 
+    OrderRejectReason orderCheckIntegrityResult = checkIntegrityWrapped(order);
+
+    record(tags, sample, orderCheckIntegrityResult);
     return orderCheckIntegrityResult;
   }
 
-  public OrderRejectReason checkIntegrity(Order order) {
-    Tags tags = Tags.of(
+  /**
+   * Check the integrity of an order as {@link #checkIntegrity(Order)}, with
+   * the commands of a pipeline: the result completes once the pipeline is
+   * flushed and the reply arrives
+   * @param order the order to check
+   * @param pipeline the pipeline of the calling thread
+   * @return null if the order is valid, the reason why it is not valid otherwise
+   */
+  public CompletionStage<OrderRejectReason> checkIntegrity(
+    Order order,
+    LedgerPipeline pipeline
+  ) {
+    Tags tags = tagsOf(order);
+    Timer.Sample sample = Timer.start();
+
+    OrderRejectReason orderCheckIntegrityResult = checkFields(order);
+    CompletionStage<OrderRejectReason> result;
+    if (orderCheckIntegrityResult != null) {
+      result = CompletableFuture.completedFuture(orderCheckIntegrityResult);
+    } else if (isReserved(order)) {
+      result =
+        reserve(order, pipeline)
+          .thenApply(reservation -> verification(order, reservation));
+    } else {
+      result =
+        pipeline
+          .exists(order.getUsername().toString())
+          .thenApply(exists -> existence(order, exists));
+    }
+
+    return result.thenApply(reason -> {
+      record(tags, sample, reason);
+      return reason;
+    });
+  }
+
+  private static Tags tagsOf(Order order) {
+    return Tags.of(
       Tag.of("type", order.getType().toString()),
       Tag.of("side", order.getSide().toString()),
       Tag.of("symbol", order.getSymbol().toString())
     );
-    Timer timer = meterRegistry.timer("order_stream_check_integrity", tags);
-    Timer.Sample sample = Timer.start();
-
-    OrderRejectReason orderCheckIntegrityResult = checkIntegrityWrapped(order);
+  }
 
+  private void record(
+    Tags tags,
+    Timer.Sample sample,
+    OrderRejectReason orderCheckIntegrityResult
+  ) {
     if (orderCheckIntegrityResult != null) {
       Tags tagsWithReason = Tags
         .of(tags)
@@ -259,8 +285,6 @@ public class OrderIntegrityCheckService {
     } else {
       meterRegistry.counter("order_stream_accepted_order", tags).increment();
     }
-    sample.stop(timer);
-
-    return orderCheckIntegrityResult;
+    sample.stop(meterRegistry.timer("order_stream_check_integrity", tags));
   }
 }
@@ -0,0 +1,197 @@
+package io.seak.order_stream;
+
+import io.seak.avro.Order;
+import io.seak.avro.OrderRejectReason;
+import io.seak.ledger.LedgerPipeline;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Check the integrity of the orders of a task with a pipeline of the ledger,
+ * when {@code order-stream.integrity.mode} is PIPELINED.
+ *
+ * The commands of the orders processed between two punctuations are flushed
+ * together, the punctuation then waits for all their results. The results
+ * complete in any order, those of a key are forwarded in the order of its
+ * records. At most {@code window} orders are in flight: beyond, the pipeline
+ * is flushed and the oldest order is awaited before the next one is checked.
+ *
+ * The task commits only on request, see {@link OrderStream}: the punctuation
+ * requests a commit once every order in flight is forwarded, so that no
+ * offset of an order in flight is committed. On a rebalance or a shutdown,
+ * the processor is closed before the offsets are committed and forwards the
+ * orders in flight first.
+ */
+class OrderIntegrityProcessor
+  implements Processor<String, Order, String, OrderIntegrityCheckRecord> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    OrderIntegrityProcessor.class
+  );
+
+  private final OrderIntegrityCheckService integrityCheckService;
+  private final int window;
+  private final Duration flushInterval;
+  // Opens the pipeline of the task
+  private final Supplier<LedgerPipeline> pipelines;
+
+  // Orders in flight by key, in the order of their records
+  private final Map<String, Deque<InFlightOrder>> inFlightOrders =
+    new HashMap<>();
+  // Orders in flight, oldest first, the forwarded ones are pruned lazily
+  private final Deque<InFlightOrder> arrivals = new ArrayDeque<>();
+  // Orders completed, added by the threads completing their results
+  private final Queue<InFlightOrder> completedOrders =
+    new ConcurrentLinkedQueue<>();
+  private int inFlight;
+
+  private ProcessorContext<String, OrderIntegrityCheckRecord> context;
+  private LedgerPipeline pipeline;
+
+  OrderIntegrityProcessor(
+    OrderIntegrityCheckService integrityCheckService,
+    int window,
+    Duration flushInterval,
+    Supplier<LedgerPipeline> pipelines
+  ) {
+    this.integrityCheckService = integrityCheckService;
+    this.window = window;
+    this.flushInterval = flushInterval;
+    this.pipelines = pipelines;
+  }
+
+  @Override
+  public void init(
+    ProcessorContext<String, OrderIntegrityCheckRecord> context
+  ) {
+    this.context = context;
+    this.pipeline = pipelines.get();
+    context.schedule(
+      flushInterval,
+      PunctuationType.WALL_CLOCK_TIME,
+      timestamp -> {
+        drain(0);
+        context.commit();
+      }
+    );
+  }
+
+  @Override
+  public void process(Record<String, Order> record) {
+    if (inFlight >= window) {
+      drain(window - 1);
+    }
+
+    InFlightOrder order = new InFlightOrder(
+      record,
+      integrityCheckService
+        .checkIntegrity(record.value(), pipeline)
+        .toCompletableFuture()
+    );
+    arrivals.add(order);
+    inFlightOrders
+      .computeIfAbsent(record.key(), key -> new ArrayDeque<>())
+      .add(order);
+    inFlight++;
+    order.result.whenComplete((reason, exception) ->
+      completedOrders.add(order)
+    );
+
+    forwardCompleted();
+  }
+
+  @Override
+  public void close() {
+    try {
+      if (inFlight > 0) {
+        LOG.debug("Forwarding {} orders in flight before closing", inFlight);
+        drain(0);
+      }
+    } finally {
+      pipeline.close();
+    }
+  }
+
+  /**
+   * Flush the pipeline and forward the results until at most
+   * {@code remaining} orders are in flight, waiting for the oldest ones
+   */
+  private void drain(int remaining) {
+    pipeline.flush();
+    forwardCompleted();
+    while (inFlight > remaining) {
+      InFlightOrder oldest = arrivals.peek();
+      oldest.result.join();
+      // The oldest order is the first of its key
+      forward(oldest.record.key());
+      pruneArrivals();
+    }
+  }
+
+  private void forwardCompleted() {
+    InFlightOrder order;
+    while ((order = completedOrders.poll()) != null) {
+      forward(order.record.key());
+    }
+    pruneArrivals();
+  }
+
+  /**
+   * Forward the completed results of a key, up to its first order in flight
+   */
+  private void forward(String key) {
+    Deque<InFlightOrder> orders = inFlightOrders.get(key);
+    if (orders == null) {
+      return;
+    }
+    while (!orders.isEmpty() && orders.peek().result.isDone()) {
+      InFlightOrder order = orders.poll();
+      // A failed check fails the stream thread, as with the synchronous mode
+      OrderRejectReason orderRejectReason = order.result.join();
+      context.forward(
+        order.record.withValue(
+          new OrderIntegrityCheckRecord(order.record.value(), orderRejectReason)
+        )
+      );
+      order.forwarded = true;
+      inFlight--;
+    }
+    if (orders.isEmpty()) {
+      inFlightOrders.remove(key);
+    }
+  }
+
+  private void pruneArrivals() {
+    while (!arrivals.isEmpty() && arrivals.peek().forwarded) {
+      arrivals.poll();
+    }
+  }
+
+  private static class InFlightOrder {
+
+    private final Record<String, Order> record;
+    private final CompletableFuture<OrderRejectReason> result;
+    private boolean forwarded;
+
+    private InFlightOrder(
+      Record<String, Order> record,
+      CompletableFuture<OrderRejectReason> result
+    ) {
+      this.record = record;
+      this.result = result;
+    }
+  }
+}
@@ -10,8 +10,10 @@ import io.seak.avro.OrderBookRequest;
 import io.seak.avro.OrderBookRequestType;
 import io.seak.avro.RejectedOrder;
 import io.seak.avro.Type;
+import io.seak.common.SymbolPartitioner;
 import jakarta.inject.Named;
 import jakarta.inject.Singleton;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
@@ -24,6 +26,11 @@ import org.apache.kafka.streams.kstream.Produced;
 @Factory
 public class OrderStream {
 
+  enum IntegrityMode {
+    SYNC,
+    PIPELINED,
+  }
+
   private final OrderIntegrityCheckService integrityCheckService;
 
   @Property(name = "kafka.schema.registry.url")
@@ -41,6 +48,15 @@ public class OrderStream {
   @Property(name = "kafka.topics.order-book-request")
   private String orderBookRequestTopic;
 
+  @Property(name = "order-stream.integrity.mode")
+  private IntegrityMode integrityMode;
+
+  @Property(name = "order-stream.integrity.window")
+  private int integrityWindow;
+
+  @Property(name = "order-stream.integrity.flush-interval")
+  private Duration integrityFlushInterval;
+
   private final Serdes.StringSerde keySerde = new Serdes.StringSerde();
 
   public OrderStream(OrderIntegrityCheckService integrityCheckService) {
@@ -59,6 +75,10 @@ public class OrderStream {
       StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG,
       Serdes.String().getClass().getName()
     );
+    // The processors request the commits once their orders are forwarded
+    if (integrityMode != IntegrityMode.SYNC) {
+      props.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, Long.MAX_VALUE);
+    }
 
     KStream<String, Order> orderStream = builder.stream(
       ordersTopic,
@@ -66,12 +86,21 @@ public class OrderStream {
     );
 
     KStream<String, OrderIntegrityCheckRecord> integrityCheckedOrderStream =
-      orderStream.mapValues(order ->
-        new OrderIntegrityCheckRecord(
-          order,
-          integrityCheckService.checkIntegrity(order)
+      integrityMode == IntegrityMode.PIPELINED
+        ? orderStream.process(() ->
+          new OrderIntegrityProcessor(
+            integrityCheckService,
+            integrityWindow,
+            integrityFlushInterval,
+            integrityCheckService::openPipeline
+          )
         )
-      );
+        : orderStream.mapValues(order ->
+          new OrderIntegrityCheckRecord(
+            order,
+            integrityCheckService.checkIntegrity(order)
+          )
+        );
 
     processAcceptedAndRejectedOrders(integrityCheckedOrderStream);
 
@@ -88,11 +117,12 @@ public class OrderStream {
       )
       .mapValues(OrderIntegrityCheckRecord::order);
 
+    // The stop orders rest in the order book until their stop price is reached
     KStream<String, OrderBookRequest> acceptedOrdersLimit =
       integrityCheckedOrdersStream
         .filter((key, value) ->
           value.orderRejectReason() == null &&
-          value.order().getType() == Type.LIMIT
+          value.order().getType() != Type.MARKET
         )
         .mapValues(value ->
           new OrderBookRequest(OrderBookRequestType.NEW, value.order(), null)
@@ -108,9 +138,17 @@ public class OrderStream {
       acceptedOrdersTopic,
       Produced.with(keySerde, this.orderAvroSerde())
     );
+    // The order book consumes the requests of a symbol from one partition
     acceptedOrdersLimit.to(
       orderBookRequestTopic,
-      Produced.with(keySerde, this.orderBookRequestAvroSerde())
+      Produced
+        .with(keySerde, this.orderBookRequestAvroSerde())
+        .withStreamPartitioner((topic, key, value, numPartitions) ->
+          SymbolPartitioner.partition(
+            value.getOrder().getSymbol().toString(),
+            numPartitions
+          )
+        )
     );
     rejectedOrders.to(
       rejectedOrdersTopic,
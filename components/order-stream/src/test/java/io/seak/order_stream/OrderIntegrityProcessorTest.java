@@ -0,0 +1,217 @@
+package io.seak.order_stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.seak.avro.Order;
+import io.seak.avro.OrderRejectReason;
+import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
+import io.seak.avro.Type;
+import io.seak.common.SymbolReader;
+import io.seak.ledger.AccountLedger;
+import io.seak.ledger.InMemoryAccountLedger;
+import io.seak.ledger.LedgerPipeline;
+import io.seak.order_stream.mocks.MockProcessorContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import org.apache.kafka.streams.processor.api.Record;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OrderIntegrityProcessorTest {
+
+  private final InMemoryAccountLedger accountLedger =
+    new InMemoryAccountLedger();
+  private OrderIntegrityCheckService integrityCheckService;
+  private MockProcessorContext<String, OrderIntegrityCheckRecord> context;
+  private DeferredPipeline pipeline;
+
+  @BeforeEach
+  void setup() throws InterruptedException {
+    SymbolReader symbolReader = new SymbolReader() {
+      @Override
+      public List<String> getSymbolsCached() {
+        return List.of("AAPL");
+      }
+    };
+    integrityCheckService =
+      new OrderIntegrityCheckService(
+        symbolReader,
+        accountLedger,
+        new SimpleMeterRegistry()
+      );
+    accountLedger.clear();
+    accountLedger.setBalance("user", 1000);
+    context = new MockProcessorContext<>();
+    pipeline = new DeferredPipeline(accountLedger);
+  }
+
+  @Test
+  void testForwardOnPunctuation() {
+    // Given
+    OrderIntegrityProcessor processor = open(10);
+
+    // When
+    processor.process(record("user:1", order("1", 60)));
+    processor.process(record("user:2", order("2", 60)));
+
+    // Then, nothing is forwarded or committed before the flush
+    assertThat(context.forwarded).isEmpty();
+    context.punctuate();
+    assertThat(context.forwarded)
+      .extracting(record -> record.value().orderRejectReason())
+      .containsExactly(null, OrderRejectReason.INCORRECT_QUANTITY);
+    assertThat(context.commits).isEqualTo(1);
+    assertThat(accountLedger.getBalance("user")).isEqualTo(400.0);
+  }
+
+  @Test
+  void testForwardInRecordOrderPerKey() {
+    // Given
+    OrderIntegrityProcessor processor = open(10);
+    processor.process(record("user:1", order("1", 10)));
+    processor.process(record("user:2", order("2", 10)));
+    processor.process(record("user:1", order("3", 10)));
+
+    // When, the results of the first key complete last
+    pipeline.complete(2);
+    pipeline.complete(1);
+    processor.process(record("user:4", order("4", 10)));
+
+    // Then
+    assertThat(context.forwarded)
+      .extracting(record -> record.value().order().getClOrderID().toString())
+      .containsExactly("2");
+    context.punctuate();
+    assertThat(context.forwarded)
+      .extracting(record -> record.value().order().getClOrderID().toString())
+      .containsExactly("2", "1", "3", "4");
+  }
+
+  @Test
+  void testDrainBeyondWindow() {
+    // Given
+    OrderIntegrityProcessor processor = open(2);
+    processor.process(record("user:1", order("1", 10)));
+    processor.process(record("user:2", order("2", 10)));
+
+    // When
+    processor.process(record("user:3", order("3", 10)));
+
+    // Then, the oldest orders are awaited before the third one is checked
+    assertThat(context.forwarded).hasSize(2);
+    assertThat(context.commits).isZero();
+  }
+
+  @Test
+  void testCloseForwardsOrdersInFlight() {
+    // Given
+    OrderIntegrityProcessor processor = open(10);
+    processor.process(record("user:1", order("1", 10)));
+    processor.process(record("user:2", order("2", 10)));
+
+    // When
+    processor.close();
+
+    // Then, the offsets committed after the close cover forwarded orders only
+    assertThat(context.forwarded).hasSize(2);
+    assertThat(pipeline.closed).isTrue();
+  }
+
+  private OrderIntegrityProcessor open(int window) {
+    OrderIntegrityProcessor processor = new OrderIntegrityProcessor(
+      integrityCheckService,
+      window,
+      Duration.ofMillis(1),
+      () -> pipeline
+    );
+    processor.init(context);
+    return processor;
+  }
+
+  private static Record<String, Order> record(String key, Order order) {
+    return new Record<>(key, order, 0);
+  }
+
+  /**
+   * BUY limit order of 10 shares of AAPL
+   */
+  private static Order order(String clOrdID, double price) {
+    return new Order(
+      "user",
+      "AAPL",
+      10,
+      Side.BUY,
+      Type.LIMIT,
+      price,
+      clOrdID,
+      null,
+      TimeInForce.GTC,
+      null
+    );
+  }
+
+  /**
+   * Applies each operation at once, the results complete on flush or on
+   * demand, in any order
+   */
+  private static class DeferredPipeline implements LedgerPipeline {
+
+    private final AccountLedger accountLedger;
+    private final List<Runnable> completions = new ArrayList<>();
+    private boolean closed;
+
+    private DeferredPipeline(AccountLedger accountLedger) {
+      this.accountLedger = accountLedger;
+    }
+
+    private <T> CompletionStage<T> defer(T value) {
+      CompletableFuture<T> result = new CompletableFuture<>();
+      completions.add(() -> result.complete(value));
+      return result;
+    }
+
+    /**
+     * Complete the result of the operation at an index, 0 for the first
+     */
+    private void complete(int index) {
+      completions.get(index).run();
+    }
+
+    @Override
+    public CompletionStage<Boolean> exists(String username) {
+      return defer(accountLedger.exists(username));
+    }
+
+    @Override
+    public CompletionStage<AccountLedger.Result> reserveBalance(
+      String username,
+      double amount
+    ) {
+      return defer(accountLedger.reserveBalance(username, amount));
+    }
+
+    @Override
+    public CompletionStage<AccountLedger.Result> reserveStock(
+      String username,
+      String symbol,
+      long quantity
+    ) {
+      return defer(accountLedger.reserveStock(username, symbol, quantity));
+    }
+
+    @Override
+    public void flush() {
+      completions.forEach(Runnable::run);
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+  }
+}
@@ -9,6 +9,7 @@ import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
 import io.micronaut.test.support.TestPropertyProvider;
 import io.seak.avro.Order;
 import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
 import io.seak.avro.Type;
 import io.seak.common.SymbolReader;
 import io.seak.common.utils.KafkaTestContainer;
@@ -84,7 +85,10 @@ class OrderStreamTest implements TestPropertyProvider {
       Side.BUY,
       Type.MARKET,
       null,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     // When
@@ -114,7 +118,10 @@ class OrderStreamTest implements TestPropertyProvider {
       Side.SELL,
       Type.MARKET,
       null,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     // When
@@ -145,7 +152,10 @@ class OrderStreamTest implements TestPropertyProvider {
       Side.SELL,
       Type.MARKET,
       null,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     // When
@@ -176,7 +186,10 @@ class OrderStreamTest implements TestPropertyProvider {
       Side.BUY,
       Type.LIMIT,
       100.0,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     // When
@@ -210,7 +223,10 @@ class OrderStreamTest implements TestPropertyProvider {
       Side.SELL,
       Type.LIMIT,
       100.0,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
 
     // When
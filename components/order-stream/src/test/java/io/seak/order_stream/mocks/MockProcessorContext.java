@@ -0,0 +1,126 @@
+package io.seak.order_stream.mocks;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.streams.StreamsMetrics;
+import org.apache.kafka.streams.processor.Cancellable;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.Punctuator;
+import org.apache.kafka.streams.processor.StateStore;
+import org.apache.kafka.streams.processor.TaskId;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.processor.api.RecordMetadata;
+
+/**
+ * Context of a processor run by hand: the forwarded records are collected,
+ * the punctuations run with {@link #punctuate()} and the commit requests are
+ * counted.
+ */
+public class MockProcessorContext<K, V> implements ProcessorContext<K, V> {
+
+  public final List<Record<K, V>> forwarded = new ArrayList<>();
+  public final List<Punctuator> punctuators = new ArrayList<>();
+  public int commits;
+
+  public void punctuate() {
+    punctuators.forEach(punctuator ->
+      punctuator.punctuate(System.currentTimeMillis())
+    );
+  }
+
+  @Override
+  public <KK extends K, VV extends V> void forward(Record<KK, VV> record) {
+    forwarded.add(
+      new Record<>(record.key(), record.value(), record.timestamp())
+    );
+  }
+
+  @Override
+  public <KK extends K, VV extends V> void forward(
+    Record<KK, VV> record,
+    String childName
+  ) {
+    forward(record);
+  }
+
+  @Override
+  public String applicationId() {
+    return "test";
+  }
+
+  @Override
+  public TaskId taskId() {
+    return new TaskId(0, 0);
+  }
+
+  @Override
+  public Optional<RecordMetadata> recordMetadata() {
+    return Optional.empty();
+  }
+
+  @Override
+  public Serde<?> keySerde() {
+    return null;
+  }
+
+  @Override
+  public Serde<?> valueSerde() {
+    return null;
+  }
+
+  @Override
+  public File stateDir() {
+    return null;
+  }
+
+  @Override
+  public StreamsMetrics metrics() {
+    return null;
+  }
+
+  @Override
+  public <S extends StateStore> S getStateStore(String name) {
+    return null;
+  }
+
+  @Override
+  public Cancellable schedule(
+    Duration interval,
+    PunctuationType type,
+    Punctuator callback
+  ) {
+    punctuators.add(callback);
+    return () -> punctuators.remove(callback);
+  }
+
+  @Override
+  public void commit() {
+    commits++;
+  }
+
+  @Override
+  public Map<String, Object> appConfigs() {
+    return Map.of();
+  }
+
+  @Override
+  public Map<String, Object> appConfigsWithPrefix(String prefix) {
+    return Map.of();
+  }
+
+  @Override
+  public long currentSystemTimeMs() {
+    return System.currentTimeMillis();
+  }
+
+  @Override
+  public long currentStreamTimeMs() {
+    return 0;
+  }
+}
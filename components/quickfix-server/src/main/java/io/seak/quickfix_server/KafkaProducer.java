@@ -15,6 +15,13 @@ public interface KafkaProducer {
   @Topic("${kafka.topics.order-book-request}")
   void sendOrderBookRequest(@KafkaKey String key, OrderBookRequest order);
 
+  /**
+   * CANCEL requests have their own topic, drained by the order book before
+   * the NEW and REPLACE requests
+   */
+  @Topic("${kafka.topics.order-book-cancel}")
+  void sendCancelRequest(@KafkaKey String key, OrderBookRequest order);
+
   @Topic("${kafka.topics.market-data-request}")
   void sendMarketDataRequest(
     @KafkaKey String key,
@@ -3,6 +3,7 @@ package io.seak.quickfix_server;
 import io.micronaut.configuration.kafka.annotation.KafkaKey;
 import io.micronaut.configuration.kafka.annotation.KafkaListener;
 import io.micronaut.configuration.kafka.annotation.Topic;
+import io.seak.avro.MarketDataBroadcast;
 import io.seak.avro.MarketDataRejected;
 import io.seak.avro.MarketDataResponse;
 import io.seak.avro.OrderBookRequest;
@@ -63,6 +64,14 @@ public class ReportListener {
     marketDataResponses.forEach(serverApplication::sendMarketDataSnapshot);
   }
 
+  @KafkaListener(groupId = "quickfix-market-data-broadcast", batch = true)
+  @Topic("${kafka.topics.market-data-broadcast}")
+  void receiveMarketDataBroadcast(
+    List<MarketDataBroadcast> marketDataBroadcasts
+  ) {
+    marketDataBroadcasts.forEach(serverApplication::sendMarketDataBroadcast);
+  }
+
   @KafkaListener("quickfix-market-data-rejected")
   @Topic("${kafka.topics.market-data-rejected}")
   void receiveMarketDataRejected(
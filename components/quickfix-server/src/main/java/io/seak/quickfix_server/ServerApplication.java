@@ -2,10 +2,13 @@ package io.seak.quickfix_server;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.seak.avro.MarketData;
+import io.seak.avro.MarketDataBroadcast;
 import io.seak.avro.MarketDataEntry;
 import io.seak.avro.MarketDataRejected;
 import io.seak.avro.MarketDataRejectedReason;
 import io.seak.avro.MarketDataResponse;
+import io.seak.avro.MarketDepthLevel;
+import io.seak.avro.MarketDataSubscriber;
 import io.seak.avro.MarketDataSubscriptionRequest;
 import io.seak.avro.Order;
 import io.seak.avro.OrderBookRequest;
@@ -17,8 +20,14 @@ import io.seak.avro.utils.Converters;
 import io.seak.models.services.UserAuthenticationService;
 import io.seak.quickfix_server.interfaces.IMessageSender;
 import jakarta.inject.Singleton;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import quickfix.Application;
@@ -38,7 +47,11 @@ import quickfix.field.CumQty;
 import quickfix.field.CxlRejResponseTo;
 import quickfix.field.ExecID;
 import quickfix.field.ExecType;
+import quickfix.field.ExpireTime;
 import quickfix.field.LeavesQty;
+import quickfix.field.MDEntryPositionNo;
+import quickfix.field.MDEntryPx;
+import quickfix.field.MDEntrySize;
 import quickfix.field.MDEntryType;
 import quickfix.field.MDReqID;
 import quickfix.field.OrdRejReason;
@@ -50,7 +63,9 @@ import quickfix.field.OrigClOrdID;
 import quickfix.field.Password;
 import quickfix.field.SenderCompID;
 import quickfix.field.Side;
+import quickfix.field.StopPx;
 import quickfix.field.Symbol;
+import quickfix.field.TimeInForce;
 import quickfix.field.Username;
 import quickfix.fix44.ExecutionReport;
 import quickfix.fix44.Logon;
@@ -79,6 +94,10 @@ public class ServerApplication extends MessageCracker implements Application {
   private Integer executionKey;
   private Integer marketDataRequestKey;
 
+  // Quantity filled by the trades of the partially filled orders, by key. The
+  // order of a trade only holds the quantity left before it
+  private final Map<String, Integer> cumQuantities = new ConcurrentHashMap<>();
+
   public ServerApplication(
     QuickFixLogger quickFixLogger,
     IMessageSender messageSender,
@@ -248,20 +267,38 @@ public class ServerApplication extends MessageCracker implements Application {
     io.seak.avro.Type type = Converters.Type.toAvro(message.getOrdType());
     String clOrdID = message.getString(ClOrdID.FIELD);
 
-    Order order;
+    Double price = null;
+    Double stopPrice = null;
     switch (type) {
       case MARKET:
-        order =
-          new Order(username, symbol, quantity, side, type, null, clOrdID);
         break;
       case LIMIT:
-        double price = message.getDouble(quickfix.field.Price.FIELD);
-        order =
-          new Order(username, symbol, quantity, side, type, price, clOrdID);
+        price = message.getDouble(quickfix.field.Price.FIELD);
+        break;
+      case STOP:
+        stopPrice = message.getDouble(StopPx.FIELD);
+        break;
+      case STOP_LIMIT:
+        price = message.getDouble(quickfix.field.Price.FIELD);
+        stopPrice = message.getDouble(StopPx.FIELD);
         break;
       default:
         throw new IncorrectTagValue(quickfix.field.OrdType.FIELD);
     }
+    io.seak.avro.TimeInForce timeInForce = getTimeInForce(message);
+
+    Order order = new Order(
+      username,
+      symbol,
+      quantity,
+      side,
+      type,
+      price,
+      clOrdID,
+      stopPrice,
+      timeInForce,
+      getExpireTime(message, timeInForce)
+    );
 
     String key = username + ":" + orderKey.toString();
 
@@ -294,6 +331,7 @@ public class ServerApplication extends MessageCracker implements Application {
     }
 
     double price = message.getDouble(quickfix.field.Price.FIELD);
+    io.seak.avro.TimeInForce timeInForce = getTimeInForce(message);
     Order order = new Order(
       username,
       symbol,
@@ -301,7 +339,10 @@ public class ServerApplication extends MessageCracker implements Application {
       side,
       type,
       price,
-      clOrdID
+      clOrdID,
+      null,
+      timeInForce,
+      getExpireTime(message, timeInForce)
     );
 
     String key = username + ":" + orderId;
@@ -337,7 +378,10 @@ public class ServerApplication extends MessageCracker implements Application {
       side,
       Type.LIMIT,
       0.0,
-      clOrdID
+      clOrdID,
+      null,
+      io.seak.avro.TimeInForce.GTC,
+      null
     );
 
     String key = username + ":" + orderId;
@@ -347,7 +391,7 @@ public class ServerApplication extends MessageCracker implements Application {
       origClOrdID
     );
 
-    orderProducer.sendOrderBookRequest(key, orderBookRequest);
+    orderProducer.sendCancelRequest(key, orderBookRequest);
   }
 
   /**
@@ -418,17 +462,28 @@ public class ServerApplication extends MessageCracker implements Application {
   public void sendTradeReport(String key, Trade trade) {
     Order order = trade.getOrder();
     int tradeQuantity = trade.getQuantity();
-    int baseQuantity = order.getQuantity();
+    int leavesQuantity = order.getQuantity() - tradeQuantity;
+    char ordStatus;
+    int cumQuantity;
+    if (leavesQuantity > 0) {
+      ordStatus = OrdStatus.PARTIALLY_FILLED;
+      cumQuantity = cumQuantities.merge(key, tradeQuantity, Integer::sum);
+    } else {
+      ordStatus = OrdStatus.FILLED;
+      Integer filled = cumQuantities.remove(key);
+      cumQuantity = filled == null ? tradeQuantity : filled + tradeQuantity;
+    }
 
     ExecutionReport executionReport = buildExecutionReport(
       key,
       order,
-      OrdStatus.FILLED,
+      ordStatus,
       ExecType.TRADE,
-      baseQuantity - tradeQuantity,
-      tradeQuantity,
+      leavesQuantity,
+      cumQuantity,
       trade.getPrice()
     );
+    executionReport.set(new OrderQty(cumQuantity + leavesQuantity));
 
     messageSender.sendMessage(executionReport, order.getUsername().toString());
   }
@@ -479,6 +534,7 @@ public class ServerApplication extends MessageCracker implements Application {
       case CANCEL:
         execType = ExecType.CANCELED;
         ordStatus = OrdStatus.CANCELED;
+        cumQuantities.remove(key);
         break;
       case REPLACE:
         execType = ExecType.REPLACED;
@@ -490,6 +546,8 @@ public class ServerApplication extends MessageCracker implements Application {
         );
     }
 
+    // STOP orders have no limit price
+    Double price = order.getPrice() == null ? 0.0 : order.getPrice();
     ExecutionReport executionReport = buildExecutionReport(
       key,
       order,
@@ -497,7 +555,7 @@ public class ServerApplication extends MessageCracker implements Application {
       execType,
       order.getQuantity(),
       0,
-      order.getPrice()
+      price
     );
 
     if (
@@ -570,11 +628,18 @@ public class ServerApplication extends MessageCracker implements Application {
     Integer marketDepth = marketDataList.size();
     for (MarketData marketData : marketDataList) {
       for (MarketDataEntry mdEntryType : mdEntryTypes) {
+        // The BID and OFFER entries are sent from the depth
+        if (
+          mdEntryType == MarketDataEntry.BID ||
+          mdEntryType == MarketDataEntry.OFFER
+        ) {
+          continue;
+        }
         MarketDataSnapshotFullRefresh.NoMDEntries noMDEntries =
           new MarketDataSnapshotFullRefresh.NoMDEntries();
 
         noMDEntries.set(Converters.MarketDataEntry.fromAvro(mdEntryType));
-        noMDEntries.set(new quickfix.field.MDEntryPositionNo(marketDepth));
+        noMDEntries.set(new MDEntryPositionNo(marketDepth));
         noMDEntries.set(
           new quickfix.field.OpenCloseSettlFlag(
             String.valueOf(
@@ -585,18 +650,16 @@ public class ServerApplication extends MessageCracker implements Application {
 
         switch (mdEntryType) {
           case CLOSE:
-            noMDEntries.set(
-              new quickfix.field.MDEntryPx(marketData.getClose())
-            );
+            noMDEntries.set(new MDEntryPx(marketData.getClose()));
             break;
           case HIGH:
-            noMDEntries.set(new quickfix.field.MDEntryPx(marketData.getHigh()));
+            noMDEntries.set(new MDEntryPx(marketData.getHigh()));
             break;
           case LOW:
-            noMDEntries.set(new quickfix.field.MDEntryPx(marketData.getLow()));
+            noMDEntries.set(new MDEntryPx(marketData.getLow()));
             break;
           case OPEN:
-            noMDEntries.set(new quickfix.field.MDEntryPx(marketData.getOpen()));
+            noMDEntries.set(new MDEntryPx(marketData.getOpen()));
             break;
           default:
             break;
@@ -607,9 +670,56 @@ public class ServerApplication extends MessageCracker implements Application {
 
       marketDepth--;
     }
+
+    int bidPosition = 1;
+    int offerPosition = 1;
+    for (MarketDepthLevel level : marketDataResponse.getDepth()) {
+      MarketDataSnapshotFullRefresh.NoMDEntries noMDEntries =
+        new MarketDataSnapshotFullRefresh.NoMDEntries();
+
+      if (Converters.Side.charFromAvro(level.getSide()) == Side.BUY) {
+        noMDEntries.set(new MDEntryType(MDEntryType.BID));
+        noMDEntries.set(new MDEntryPositionNo(bidPosition++));
+      } else {
+        noMDEntries.set(new MDEntryType(MDEntryType.OFFER));
+        noMDEntries.set(new MDEntryPositionNo(offerPosition++));
+      }
+      noMDEntries.set(new MDEntryPx(level.getPrice()));
+      noMDEntries.set(new MDEntrySize(level.getQuantity()));
+
+      marketDataSnapshotFullRefresh.addGroup(noMDEntries);
+    }
     messageSender.sendMessage(marketDataSnapshotFullRefresh, username);
   }
 
+  /**
+   * Send the market data of a conflated broadcast to each of its subscribers
+   * @param marketDataBroadcast
+   */
+  public void sendMarketDataBroadcast(MarketDataBroadcast marketDataBroadcast) {
+    List<MarketData> data = List.of(marketDataBroadcast.getData());
+    List<MarketDataSubscriber> subscribers =
+      marketDataBroadcast.getSubscribers();
+    for (MarketDataSubscriber subscriber : subscribers) {
+      sendMarketDataSnapshot(
+        new MarketDataResponse(
+          subscriber.getUsername(),
+          marketDataBroadcast.getSymbol(),
+          data,
+          subscriber.getRequestId(),
+          subscriber.getMarketDataEntries(),
+          List.of()
+        )
+      );
+    }
+    meterRegistry
+      .timer("quickfix_server_market_data_fan_out")
+      .record(
+        System.currentTimeMillis() - marketDataBroadcast.getTimestamp(),
+        TimeUnit.MILLISECONDS
+      );
+  }
+
   public void sendMarketDataRequestReject(
     MarketDataRejected marketDataRejected
   ) {
@@ -626,6 +736,41 @@ public class ServerApplication extends MessageCracker implements Application {
     messageSender.sendMessage(marketDataRequestReject, username);
   }
 
+  /**
+   * Read the time in force of an order, GTC when it is not set
+   * @param message
+   * @return
+   * @throws FieldNotFound
+   * @throws IncorrectTagValue
+   */
+  private static io.seak.avro.TimeInForce getTimeInForce(Message message)
+    throws FieldNotFound, IncorrectTagValue {
+    if (!message.isSetField(TimeInForce.FIELD)) {
+      return io.seak.avro.TimeInForce.GTC;
+    }
+    return Converters.TimeInForce.toAvro(message.getChar(TimeInForce.FIELD));
+  }
+
+  /**
+   * Read the expire time of a GTD order, in milliseconds since epoch
+   * @param message
+   * @param timeInForce
+   * @return null for the other orders
+   * @throws FieldNotFound
+   */
+  private static Long getExpireTime(
+    Message message,
+    io.seak.avro.TimeInForce timeInForce
+  ) throws FieldNotFound {
+    if (timeInForce != io.seak.avro.TimeInForce.GTD) {
+      return null;
+    }
+    return message
+      .getUtcTimeStamp(ExpireTime.FIELD)
+      .toInstant(ZoneOffset.UTC)
+      .toEpochMilli();
+  }
+
   /**
    * This method is called to build an execution report
    * @param key the kafka key
@@ -668,6 +813,26 @@ public class ServerApplication extends MessageCracker implements Application {
     executionReport.set(new OrderQty(quantity));
     executionReport.set(new ClOrdID(clOrdID));
     executionReport.set(new OrdType(type));
+    if (order.getStopPrice() != null) {
+      executionReport.set(new StopPx(order.getStopPrice()));
+    }
+    executionReport.set(
+      Converters.TimeInForce.fromAvro(order.getTimeInForce())
+    );
+    // The order book also stores the session close of the DAY orders
+    if (
+      order.getTimeInForce() == io.seak.avro.TimeInForce.GTD &&
+      order.getExpireTime() != null
+    ) {
+      executionReport.set(
+        new ExpireTime(
+          LocalDateTime.ofInstant(
+            Instant.ofEpochMilli(order.getExpireTime()),
+            ZoneOffset.UTC
+          )
+        )
+      );
+    }
 
     executionKey++;
 
@@ -19,6 +19,7 @@ import io.seak.avro.OrderBookRequestType;
 import io.seak.avro.OrderRejectReason;
 import io.seak.avro.RejectedOrder;
 import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
 import io.seak.avro.Trade;
 import io.seak.avro.Type;
 import io.seak.common.utils.KafkaTestContainer;
@@ -35,11 +36,14 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import quickfix.FieldNotFound;
 import quickfix.Group;
 import quickfix.Message;
+import quickfix.field.CumQty;
 import quickfix.field.CxlRejResponseTo;
 import quickfix.field.ExecType;
+import quickfix.field.LeavesQty;
 import quickfix.field.MDReqID;
 import quickfix.field.OrdStatus;
 import quickfix.field.OrderID;
+import quickfix.field.OrderQty;
 
 @MicronautTest(
   rollback = false,
@@ -99,7 +103,10 @@ class ReportListenerTest implements TestPropertyProvider {
       Side.BUY,
       Type.MARKET,
       null,
-      "0"
+      "0",
+      null,
+      TimeInForce.GTC,
+      null
     );
     Trade trade = new Trade(order, "APPL", 100.0, 10);
 
@@ -114,6 +121,55 @@ class ReportListenerTest implements TestPropertyProvider {
     assertEquals('1', message.getChar(OrderID.FIELD));
   }
 
+  @Test
+  void testPartiallyFilledOrder(
+    MockReportProducer mockReportProducer,
+    ServerApplication serverApplication,
+    MockMessageSender mockMessageSender
+  ) throws InterruptedException, FieldNotFound {
+    Order order = new Order(
+      "testuser",
+      "AAPL",
+      10,
+      Side.BUY,
+      Type.LIMIT,
+      100.0,
+      "0",
+      null,
+      TimeInForce.GTC,
+      null
+    );
+    Order remainingOrder = Order.newBuilder(order).setQuantity(6).build();
+
+    mockReportProducer.sendTrade(
+      "testuser:2",
+      new Trade(order, "AAPL", 100.0, 4)
+    );
+    mockReportProducer.sendTrade(
+      "testuser:2",
+      new Trade(remainingOrder, "AAPL", 100.0, 6)
+    );
+
+    await()
+      .atMost(10, TimeUnit.SECONDS)
+      .untilAsserted(() -> {
+        assertEquals(2, mockMessageSender.messages.size());
+      });
+    Message partialFill = mockMessageSender.messages.take();
+    assertEquals(
+      OrdStatus.PARTIALLY_FILLED,
+      partialFill.getChar(OrdStatus.FIELD)
+    );
+    assertEquals(4, partialFill.getInt(CumQty.FIELD));
+    assertEquals(6, partialFill.getInt(LeavesQty.FIELD));
+    assertEquals(10, partialFill.getInt(OrderQty.FIELD));
+    Message fill = mockMessageSender.messages.take();
+    assertEquals(OrdStatus.FILLED, fill.getChar(OrdStatus.FIELD));
+    assertEquals(10, fill.getInt(CumQty.FIELD));
+    assertEquals(0, fill.getInt(LeavesQty.FIELD));
+    assertEquals(10, fill.getInt(OrderQty.FIELD));
+  }
+
   @Test
   void testRejectedOrder(
     MockReportProducer mockReportProducer,
@@ -127,7 +183,10 @@ class ReportListenerTest implements TestPropertyProvider {
       Side.BUY,
       Type.MARKET,
       null,
-      "0"
+      "0",
+      null,
+      TimeInForce.GTC,
+      null
     );
     RejectedOrder rejectedOrder = new RejectedOrder(
       order,
@@ -159,7 +218,10 @@ class ReportListenerTest implements TestPropertyProvider {
       Side.BUY,
       Type.LIMIT,
       100.0,
-      "0"
+      "0",
+      null,
+      TimeInForce.GTC,
+      null
     );
     OrderBookRequest orderBookRequest = new OrderBookRequest(
       OrderBookRequestType.NEW,
@@ -194,7 +256,10 @@ class ReportListenerTest implements TestPropertyProvider {
       Side.BUY,
       Type.LIMIT,
       0.0,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
     OrderBookRequest orderBookRequest = new OrderBookRequest(
       OrderBookRequestType.CANCEL,
@@ -229,7 +294,10 @@ class ReportListenerTest implements TestPropertyProvider {
       Side.BUY,
       Type.LIMIT,
       90.0,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
     OrderBookRequest orderBookRequest = new OrderBookRequest(
       OrderBookRequestType.REPLACE,
@@ -264,7 +332,10 @@ class ReportListenerTest implements TestPropertyProvider {
       Side.BUY,
       Type.LIMIT,
       0.0,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
     OrderBookRequest orderBookRequest = new OrderBookRequest(
       OrderBookRequestType.CANCEL,
@@ -302,7 +373,10 @@ class ReportListenerTest implements TestPropertyProvider {
       Side.BUY,
       Type.LIMIT,
       90.0,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
     OrderBookRequest orderBookRequest = new OrderBookRequest(
       OrderBookRequestType.REPLACE,
@@ -346,7 +420,8 @@ class ReportListenerTest implements TestPropertyProvider {
         MarketDataEntry.HIGH,
         MarketDataEntry.LOW,
         MarketDataEntry.OPEN
-      )
+      ),
+      List.of()
     );
 
     mockReportProducer.sendMarketDataResponse("testuser:1", marketDataResponse);
@@ -63,6 +63,7 @@ class ServerApplicationTest implements TestPropertyProvider {
       "accepted-trades",
       "rejected-orders",
       "order-book-request",
+      "order-book-cancel",
       "market-data-request"
     );
     return Map.of(
@@ -29,6 +29,12 @@ public class MockKafkaListener {
     receivedOrderBookRequests.add(order);
   }
 
+  @KafkaListener("mock-order-book-cancel-consumer")
+  @Topic("${kafka.topics.order-book-cancel}")
+  void receiveCancelRequest(@KafkaKey String key, OrderBookRequest order) {
+    receivedOrderBookRequests.add(order);
+  }
+
   @KafkaListener("mock-market-data-request-consumer")
   @Topic("${kafka.topics.market-data-request}")
   void receiveMarketDataRequest(@KafkaKey String key, MarketDataRequest order) {
@@ -1,21 +1,22 @@
 package io.seak.trade_stream;
 
-import io.lettuce.core.RedisClient;
-import io.lettuce.core.api.StatefulRedisConnection;
-import io.lettuce.core.api.sync.RedisCommands;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
-import io.micronaut.context.annotation.Property;
 import io.seak.avro.Order;
 import io.seak.avro.OrderRejectReason;
 import io.seak.avro.Side;
 import io.seak.avro.Trade;
 import io.seak.avro.Type;
-import io.seak.common.UtilsRunning;
-import jakarta.annotation.PreDestroy;
+import io.seak.ledger.AccountLedger;
+import io.seak.ledger.Settlement;
 import jakarta.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,41 +27,16 @@ public class TradeIntegrityCheckService {
     TradeIntegrityCheckService.class
   );
 
-  private static final String BALANCE_KEY_PATTERN = "%s:balance";
-  private static final String STOCK_KEY_PATTERN = "%s:%s";
-
-  private final StatefulRedisConnection<String, String> redisConnection;
+  private final AccountLedger accountLedger;
 
   private final MeterRegistry meterRegistry;
 
   public TradeIntegrityCheckService(
-    @Property(name = "redis.uri") String redisUri,
-    RedisClient redisClient,
+    AccountLedger accountLedger,
     MeterRegistry meterRegistry
   ) {
+    this.accountLedger = accountLedger;
     this.meterRegistry = meterRegistry;
-
-    if (UtilsRunning.isRedisRunning(redisUri)) {
-      this.redisConnection = redisClient.connect();
-    } else {
-      this.redisConnection = null;
-      LOG.error("Redis is not running");
-    }
-  }
-
-  @PreDestroy
-  void close() {
-    if (redisConnection != null) {
-      redisConnection.close();
-    }
-  }
-
-  private String buildBalanceKey(String username) {
-    return String.format(BALANCE_KEY_PATTERN, username);
-  }
-
-  private String buildStockKey(String username, String symbol) {
-    return String.format(STOCK_KEY_PATTERN, username, symbol);
   }
 
   /**
@@ -68,16 +44,11 @@ public class TradeIntegrityCheckService {
    * @param trade The trade to check
    * @return null if the trade is accepted, the reason of rejection otherwise
    */
-  private OrderRejectReason sellVerification(
-    Trade trade,
-    RedisCommands<String, String> syncCommands
-  ) {
-    String balanceKey = buildBalanceKey(
-      trade.getOrder().getUsername().toString()
+  private OrderRejectReason sellVerification(Trade trade) {
+    accountLedger.releaseBalance(
+      trade.getOrder().getUsername().toString(),
+      trade.getPrice() * trade.getQuantity()
     );
-    Double amount = trade.getPrice() * trade.getQuantity();
-
-    syncCommands.incrbyfloat(balanceKey, amount);
     return null;
   }
 
@@ -86,54 +57,45 @@ public class TradeIntegrityCheckService {
    * @param trade The trade to check
    * @return null if the trade is accepted, the reason of rejection otherwise
    */
-  private OrderRejectReason buyLimitVerification(
-    Trade trade,
-    RedisCommands<String, String> syncCommands
-  ) {
-    Integer quantity = trade.getQuantity();
-
-    String stockKey = buildStockKey(
-      trade.getOrder().getUsername().toString(),
-      trade.getSymbol().toString()
+  private OrderRejectReason buyLimitVerification(Trade trade) {
+    String username = trade.getOrder().getUsername().toString();
+    accountLedger.releaseStock(
+      username,
+      trade.getSymbol().toString(),
+      trade.getQuantity()
     );
-
-    syncCommands.incrby(stockKey, quantity);
+    double refund = refundOf(trade);
+    if (refund > 0) {
+      accountLedger.releaseBalance(username, refund);
+    }
     return null;
   }
 
+  /**
+   * @return the part of the amount reserved for a buy limit trade that is not
+   * spent, when a crossing fills the order below its limit
+   */
+  private static double refundOf(Trade trade) {
+    return (
+      (trade.getOrder().getPrice() - trade.getPrice()) * trade.getQuantity()
+    );
+  }
+
   /**
    * Check the integrity of a buy market trade
    * @param trade The trade to check
    * @return null if the trade is accepted, the reason of rejection otherwise
    */
-  private OrderRejectReason buyMarketVerification(
-    Trade trade,
-    RedisCommands<String, String> syncCommands
-  ) {
+  private OrderRejectReason buyMarketVerification(Trade trade) {
     Order order = trade.getOrder();
-    String stockKey = buildStockKey(
+    AccountLedger.Result result = accountLedger.settle(
       order.getUsername().toString(),
-      trade.getSymbol().toString()
+      trade.getSymbol().toString(),
+      trade.getPrice() * trade.getQuantity(),
+      trade.getQuantity()
     );
-    String balanceKey = buildBalanceKey(order.getUsername().toString());
-    Integer quantity = trade.getQuantity();
-    Double amount = trade.getPrice() * trade.getQuantity();
-
-    int countdown = 10;
-    while (countdown-- > 0) {
-      syncCommands.watch(balanceKey);
-      Double balance = Double.parseDouble(syncCommands.get(balanceKey));
-      if (balance < amount) {
-        LOG.debug("Order {} rejected because of insufficient funds", order);
-        return OrderRejectReason.INCORRECT_QUANTITY;
-      }
-      syncCommands.multi();
-      syncCommands.incrbyfloat(balanceKey, -amount);
-      syncCommands.incrby(stockKey, quantity);
-      if (syncCommands.exec().size() == 2) {
-        return null;
-      }
-      LOG.debug("Retrying trade {}", trade);
+    if (result == AccountLedger.Result.APPLIED) {
+      return null;
     }
     LOG.debug("Order {} rejected because of insufficient funds", order);
     return OrderRejectReason.INCORRECT_QUANTITY;
@@ -145,14 +107,13 @@ public class TradeIntegrityCheckService {
    * @return null if the trade is accepted, the reason of rejection otherwise
    */
   private OrderRejectReason marketOrderCheckIntegrity(Trade trade) {
-    RedisCommands<String, String> syncCommands = redisConnection.sync();
     Side side = trade.getOrder().getSide();
 
     if (side == Side.SELL) {
-      return sellVerification(trade, syncCommands);
+      return sellVerification(trade);
     }
 
-    return buyMarketVerification(trade, syncCommands);
+    return buyMarketVerification(trade);
   }
 
   /**
@@ -161,14 +122,13 @@ public class TradeIntegrityCheckService {
    * @return null if the trade is accepted, the reason of rejection otherwise
    */
   private OrderRejectReason limitOrderCheckIntegrity(Trade trade) {
-    RedisCommands<String, String> syncCommands = redisConnection.sync();
     Side side = trade.getOrder().getSide();
 
     if (side == Side.SELL) {
-      return sellVerification(trade, syncCommands);
+      return sellVerification(trade);
     }
 
-    return buyLimitVerification(trade, syncCommands);
+    return buyLimitVerification(trade);
   }
 
   /**
@@ -181,17 +141,24 @@ public class TradeIntegrityCheckService {
    * - SELL: increment the balance
    *
    * Limit order:
-   * - BUY: increment the stock
+   * - BUY: increment the stock / increment the balance by the amount reserved
+   * above the price of the trade
    * - SELL: increment the balance
+   *
+   * Stop orders are filled as market orders, stop limit orders as limit
+   * orders.
+   *
+   * The funds of a buy market trade are checked and settled at once, see
+   * {@link AccountLedger#settle(String, String, double, long)}.
    */
   private OrderRejectReason checkIntegrityWrapped(Trade trade) {
     LOG.debug("Checking integrity of trade {}", trade);
     Type type = trade.getOrder().getType();
 
     OrderRejectReason tradeCheckIntegrityResult = OrderRejectReason.OTHER;
-    if (type == Type.MARKET) {
+    if (type == Type.MARKET || type == Type.STOP) {
       tradeCheckIntegrityResult = marketOrderCheckIntegrity(trade);
-    } else if (type == Type.LIMIT) {
+    } else if (type == Type.LIMIT || type == Type.STOP_LIMIT) {
       tradeCheckIntegrityResult = limitOrderCheckIntegrity(trade);
     }
 
@@ -203,16 +170,102 @@ public class TradeIntegrityCheckService {
   }
 
   public OrderRejectReason checkIntegrity(Trade trade) {
-    Tags tags = Tags.of(
+    Tags tags = tagsOf(trade);
+    Timer.Sample sample = Timer.start();
+
+    OrderRejectReason orderCheckIntegrityResult = checkIntegrityWrapped(trade);
+
+    record(tags, sample, orderCheckIntegrityResult);
+    return orderCheckIntegrityResult;
+  }
+
+  /**
+   * Check the integrity of a batch of trades: the trades of a user are netted
+   * and settled in one atomic operation, see
+   * {@link AccountLedger#settle(String, List)}. Each buy market
+   * trade is still checked against the balance left by the trades before it.
+   * @param trades The trades to check
+   * @return for each trade, null if it is accepted, the reason of rejection
+   * otherwise
+   */
+  public List<OrderRejectReason> checkIntegrity(List<Trade> trades) {
+    Timer.Sample sample = Timer.start();
+
+    OrderRejectReason[] results = new OrderRejectReason[trades.size()];
+    Map<String, List<Integer>> tradesByUser = new LinkedHashMap<>();
+    for (int i = 0; i < trades.size(); i++) {
+      tradesByUser
+        .computeIfAbsent(
+          trades.get(i).getOrder().getUsername().toString(),
+          username -> new ArrayList<>()
+        )
+        .add(i);
+    }
+
+    tradesByUser.forEach((username, indexes) -> {
+      List<Settlement> settlements = indexes
+        .stream()
+        .map(index -> settlementOf(trades.get(index)))
+        .toList();
+      List<AccountLedger.Result> settled = accountLedger.settle(
+        username,
+        settlements
+      );
+      for (int i = 0; i < indexes.size(); i++) {
+        Trade trade = trades.get(indexes.get(i));
+        if (settled.get(i) == AccountLedger.Result.APPLIED) {
+          LOG.debug("Trade {} accepted", trade);
+        } else {
+          LOG.debug(
+            "Order {} rejected because of insufficient funds",
+            trade.getOrder()
+          );
+          results[indexes.get(i)] = OrderRejectReason.INCORRECT_QUANTITY;
+        }
+      }
+    });
+
+    for (int i = 0; i < trades.size(); i++) {
+      record(tagsOf(trades.get(i)), sample, results[i]);
+    }
+    return Arrays.asList(results);
+  }
+
+  /**
+   * A sell trade credits the balance, a buy limit trade credits the stock and
+   * a buy market trade debits the balance for the stock
+   */
+  private static Settlement settlementOf(Trade trade) {
+    Order order = trade.getOrder();
+    String symbol = trade.getSymbol().toString();
+    double amount = trade.getPrice() * trade.getQuantity();
+    if (order.getSide() == Side.SELL) {
+      return Settlement.ofSale(symbol, amount);
+    }
+    Type type = order.getType();
+    if (type == Type.LIMIT || type == Type.STOP_LIMIT) {
+      return Settlement.ofReservedPurchase(
+        symbol,
+        refundOf(trade),
+        trade.getQuantity()
+      );
+    }
+    return Settlement.ofPurchase(symbol, amount, trade.getQuantity());
+  }
+
+  private static Tags tagsOf(Trade trade) {
+    return Tags.of(
       Tag.of("type", trade.getOrder().getType().toString()),
       Tag.of("side", trade.getOrder().getSide().toString()),
       Tag.of("symbol", trade.getSymbol().toString())
     );
-    Timer timer = meterRegistry.timer("trade_stream_check_integrity", tags);
-    Timer.Sample sample = Timer.start();
-
-    OrderRejectReason orderCheckIntegrityResult = checkIntegrityWrapped(trade);
+  }
 
+  private void record(
+    Tags tags,
+    Timer.Sample sample,
+    OrderRejectReason orderCheckIntegrityResult
+  ) {
     if (orderCheckIntegrityResult != null) {
       Tags tagsWithReason = Tags
         .of(tags)
@@ -223,8 +276,6 @@ public class TradeIntegrityCheckService {
     } else {
       meterRegistry.counter("trade_stream_accepted_trade", tags).increment();
     }
-    sample.stop(timer);
-
-    return orderCheckIntegrityResult;
+    sample.stop(meterRegistry.timer("trade_stream_check_integrity", tags));
   }
 }
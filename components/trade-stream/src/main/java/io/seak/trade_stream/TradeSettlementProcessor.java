@@ -0,0 +1,103 @@
+package io.seak.trade_stream;
+
+import io.seak.avro.OrderRejectReason;
+import io.seak.avro.Trade;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Settle the trades of a task in batches, when
+ * {@code trade-stream.netting.enabled}: the trades are buffered until the
+ * punctuation or until {@code batch-size} trades, then the trades of each user
+ * are netted and settled at once, see
+ * {@link TradeIntegrityCheckService#checkIntegrity(List)}. The results are
+ * forwarded one by one, in the order of the records.
+ *
+ * The task commits only on request, see {@link TradeStream}: the punctuation
+ * requests a commit once the buffered trades are settled, so that no offset
+ * of a buffered trade is committed. On a rebalance or a shutdown, the
+ * processor is closed before the offsets are committed and settles the
+ * buffered trades first.
+ */
+class TradeSettlementProcessor
+  implements Processor<String, Trade, String, TradeIntegrityCheckRecord> {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    TradeSettlementProcessor.class
+  );
+
+  private final TradeIntegrityCheckService integrityCheckService;
+  private final int batchSize;
+  private final Duration interval;
+
+  private final List<Record<String, Trade>> batch = new ArrayList<>();
+
+  private ProcessorContext<String, TradeIntegrityCheckRecord> context;
+
+  TradeSettlementProcessor(
+    TradeIntegrityCheckService integrityCheckService,
+    int batchSize,
+    Duration interval
+  ) {
+    this.integrityCheckService = integrityCheckService;
+    this.batchSize = batchSize;
+    this.interval = interval;
+  }
+
+  @Override
+  public void init(
+    ProcessorContext<String, TradeIntegrityCheckRecord> context
+  ) {
+    this.context = context;
+    context.schedule(
+      interval,
+      PunctuationType.WALL_CLOCK_TIME,
+      timestamp -> {
+        settle();
+        context.commit();
+      }
+    );
+  }
+
+  @Override
+  public void process(Record<String, Trade> record) {
+    batch.add(record);
+    if (batch.size() >= batchSize) {
+      settle();
+    }
+  }
+
+  @Override
+  public void close() {
+    if (!batch.isEmpty()) {
+      LOG.debug("Settling {} trades before closing", batch.size());
+      settle();
+    }
+  }
+
+  private void settle() {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    List<OrderRejectReason> results = integrityCheckService.checkIntegrity(
+      batch.stream().map(Record::value).toList()
+    );
+    for (int i = 0; i < batch.size(); i++) {
+      Record<String, Trade> record = batch.get(i);
+      context.forward(
+        record.withValue(
+          new TradeIntegrityCheckRecord(record.value(), results.get(i))
+        )
+      );
+    }
+    batch.clear();
+  }
+}
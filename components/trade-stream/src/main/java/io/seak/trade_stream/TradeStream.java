@@ -9,6 +9,7 @@ import io.seak.avro.RejectedOrder;
 import io.seak.avro.Trade;
 import jakarta.inject.Named;
 import jakarta.inject.Singleton;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
@@ -35,6 +36,15 @@ public class TradeStream {
   @Property(name = "kafka.topics.rejected-orders")
   private String rejectedOrdersTopic;
 
+  @Property(name = "trade-stream.netting.enabled")
+  private boolean nettingEnabled;
+
+  @Property(name = "trade-stream.netting.batch-size")
+  private int nettingBatchSize;
+
+  @Property(name = "trade-stream.netting.interval")
+  private Duration nettingInterval;
+
   private final Serdes.StringSerde keySerde = new Serdes.StringSerde();
 
   public TradeStream(TradeIntegrityCheckService integrityCheckService) {
@@ -53,6 +63,10 @@ public class TradeStream {
       StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG,
       Serdes.String().getClass().getName()
     );
+    // The processors request the commits once their trades are settled
+    if (nettingEnabled) {
+      props.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, Long.MAX_VALUE);
+    }
 
     KStream<String, Trade> tradeStream = builder.stream(
       tradesTopic,
@@ -60,12 +74,20 @@ public class TradeStream {
     );
 
     KStream<String, TradeIntegrityCheckRecord> integrityCheckedTradeStream =
-      tradeStream.mapValues(trade ->
-        new TradeIntegrityCheckRecord(
-          trade,
-          integrityCheckService.checkIntegrity(trade)
+      nettingEnabled
+        ? tradeStream.process(() ->
+          new TradeSettlementProcessor(
+            integrityCheckService,
+            nettingBatchSize,
+            nettingInterval
+          )
         )
-      );
+        : tradeStream.mapValues(trade ->
+          new TradeIntegrityCheckRecord(
+            trade,
+            integrityCheckService.checkIntegrity(trade)
+          )
+        );
 
     processAcceptedAndRejectedTrades(integrityCheckedTradeStream);
 
@@ -0,0 +1,153 @@
+package io.seak.trade_stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.seak.avro.Order;
+import io.seak.avro.OrderRejectReason;
+import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
+import io.seak.avro.Trade;
+import io.seak.avro.Type;
+import io.seak.ledger.InMemoryAccountLedger;
+import io.seak.trade_stream.mocks.MockProcessorContext;
+import java.time.Duration;
+import org.apache.kafka.streams.processor.api.Record;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TradeSettlementProcessorTest {
+
+  private final InMemoryAccountLedger accountLedger =
+    new InMemoryAccountLedger();
+  private TradeIntegrityCheckService integrityCheckService;
+  private MockProcessorContext<String, TradeIntegrityCheckRecord> context;
+
+  @BeforeEach
+  void setup() {
+    integrityCheckService =
+      new TradeIntegrityCheckService(accountLedger, new SimpleMeterRegistry());
+    accountLedger.clear();
+    accountLedger.setBalance("buyer", 1500);
+    accountLedger.setBalance("seller", 0);
+    context = new MockProcessorContext<>();
+  }
+
+  @Test
+  void testSettleOnPunctuationWithPartialRejection() {
+    // Given
+    TradeSettlementProcessor processor = open(10);
+    processor.process(record(trade("buyer", Side.BUY, "1")));
+    processor.process(record(trade("seller", Side.SELL, "2")));
+    processor.process(record(trade("buyer", Side.BUY, "3")));
+    processor.process(record(trade("seller", Side.SELL, "4")));
+
+    // When
+    assertThat(context.forwarded).isEmpty();
+    context.punctuate();
+
+    // Then, the second purchase exceeds the balance left by the first one
+    assertThat(context.forwarded)
+      .extracting(record -> record.value().orderRejectReason())
+      .containsExactly(null, null, OrderRejectReason.INCORRECT_QUANTITY, null);
+    assertThat(context.forwarded)
+      .extracting(record -> record.value().trade().getOrder().getClOrderID())
+      .extracting(CharSequence::toString)
+      .containsExactly("1", "2", "3", "4");
+    assertThat(context.commits).isEqualTo(1);
+    assertThat(accountLedger.getBalance("buyer")).isEqualTo(500.0);
+    assertThat(accountLedger.getStock("buyer", "AAPL")).isEqualTo(10L);
+    assertThat(accountLedger.getBalance("seller")).isEqualTo(2000.0);
+  }
+
+  @Test
+  void testSettleOnBatchSize() {
+    // Given
+    TradeSettlementProcessor processor = open(2);
+    processor.process(record(trade("seller", Side.SELL, "1")));
+    assertThat(context.forwarded).isEmpty();
+
+    // When
+    processor.process(record(trade("seller", Side.SELL, "2")));
+
+    // Then, the commit waits for the punctuation
+    assertThat(context.forwarded).hasSize(2);
+    assertThat(context.commits).isZero();
+    assertThat(accountLedger.getBalance("seller")).isEqualTo(2000.0);
+  }
+
+  @Test
+  void testCloseSettlesBufferedTrades() {
+    // Given
+    TradeSettlementProcessor processor = open(10);
+    processor.process(record(trade("buyer", Side.BUY, "1")));
+    processor.process(record(trade("seller", Side.SELL, "2")));
+
+    // When, the task is suspended by a rebalance
+    processor.close();
+
+    // Then, the offsets committed after the close cover settled trades only
+    assertThat(context.forwarded).hasSize(2);
+    assertThat(accountLedger.getBalance("buyer")).isEqualTo(500.0);
+    assertThat(accountLedger.getBalance("seller")).isEqualTo(1000.0);
+  }
+
+  @Test
+  void testRefundLimitPurchaseBelowLimit() {
+    // Given, 10 shares bought at 90 by an order reserving 100 per share
+    TradeSettlementProcessor processor = open(10);
+    Order order = new Order(
+      "buyer",
+      "AAPL",
+      10,
+      Side.BUY,
+      Type.LIMIT,
+      100.0,
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
+    );
+
+    // When
+    processor.process(record(new Trade(order, "AAPL", 90.0, 10)));
+    context.punctuate();
+
+    // Then
+    assertThat(accountLedger.getBalance("buyer")).isEqualTo(1600.0);
+    assertThat(accountLedger.getStock("buyer", "AAPL")).isEqualTo(10L);
+  }
+
+  private TradeSettlementProcessor open(int batchSize) {
+    TradeSettlementProcessor processor = new TradeSettlementProcessor(
+      integrityCheckService,
+      batchSize,
+      Duration.ofMillis(1)
+    );
+    processor.init(context);
+    return processor;
+  }
+
+  private static Record<String, Trade> record(Trade trade) {
+    return new Record<>(trade.getOrder().getUsername().toString(), trade, 0);
+  }
+
+  /**
+   * Trade of 10 shares of AAPL at 100 for a market order
+   */
+  private static Trade trade(String username, Side side, String clOrderID) {
+    Order order = new Order(
+      username,
+      "AAPL",
+      10,
+      side,
+      Type.MARKET,
+      null,
+      clOrderID,
+      null,
+      TimeInForce.GTC,
+      null
+    );
+    return new Trade(order, "AAPL", 100.0, 10);
+  }
+}
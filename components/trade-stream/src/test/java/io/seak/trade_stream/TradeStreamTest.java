@@ -9,6 +9,7 @@ import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
 import io.micronaut.test.support.TestPropertyProvider;
 import io.seak.avro.Order;
 import io.seak.avro.Side;
+import io.seak.avro.TimeInForce;
 import io.seak.avro.Trade;
 import io.seak.avro.Type;
 import io.seak.common.utils.KafkaTestContainer;
@@ -76,7 +77,10 @@ class TradeStreamTest implements TestPropertyProvider {
       Side.BUY,
       Type.MARKET,
       null,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
     Trade trade = new Trade(order, "APPL", 100.0, 10);
     redisConnection.sync().set("user:balance", "10000");
@@ -110,7 +114,10 @@ class TradeStreamTest implements TestPropertyProvider {
       Side.SELL,
       Type.MARKET,
       null,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
     Trade trade = new Trade(order, "APPL", 100.0, 10);
     redisConnection.sync().set("user:balance", "10000");
@@ -143,7 +150,10 @@ class TradeStreamTest implements TestPropertyProvider {
       Side.BUY,
       Type.MARKET,
       null,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
     Trade trade = new Trade(order, "APPL", 100.0, 10);
     redisConnection.sync().set("user:balance", "100");
@@ -176,7 +186,10 @@ class TradeStreamTest implements TestPropertyProvider {
       Side.BUY,
       Type.LIMIT,
       100.0,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
     Trade trade = new Trade(order, "APPL", 100.0, 10);
     redisConnection.sync().set("user:balance", "10000");
@@ -210,7 +223,10 @@ class TradeStreamTest implements TestPropertyProvider {
       Side.SELL,
       Type.LIMIT,
       100.0,
-      "1"
+      "1",
+      null,
+      TimeInForce.GTC,
+      null
     );
     Trade trade = new Trade(order, "APPL", 100.0, 10);
     redisConnection.sync().set("user:balance", "10000");
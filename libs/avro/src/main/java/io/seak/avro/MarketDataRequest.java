@@ -14,10 +14,10 @@ import org.apache.avro.message.SchemaStore;
 
 @org.apache.avro.specific.AvroGenerated
 public class MarketDataRequest extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
-  private static final long serialVersionUID = 1498473199675866482L;
+  private static final long serialVersionUID = 5917749674078356362L;
 
 
-  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"MarketDataRequest\",\"namespace\":\"io.seak.avro\",\"fields\":[{\"name\":\"username\",\"type\":\"string\"},{\"name\":\"symbols\",\"type\":{\"type\":\"array\",\"items\":\"string\"}},{\"name\":\"depth\",\"type\":\"int\"},{\"name\":\"marketDataEntries\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"enum\",\"name\":\"MarketDataEntry\",\"symbols\":[\"LOW\",\"HIGH\",\"OPEN\",\"CLOSE\"]}}},{\"name\":\"marketDataSubscriptionRequest\",\"type\":{\"type\":\"enum\",\"name\":\"MarketDataSubscriptionRequest\",\"symbols\":[\"SNAPSHOT\",\"SUBSCRIBE\",\"UNSUBSCRIBE\"]}},{\"name\":\"requestId\",\"type\":\"string\"}]}");
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"MarketDataRequest\",\"namespace\":\"io.seak.avro\",\"fields\":[{\"name\":\"username\",\"type\":\"string\"},{\"name\":\"symbols\",\"type\":{\"type\":\"array\",\"items\":\"string\"}},{\"name\":\"depth\",\"type\":\"int\"},{\"name\":\"marketDataEntries\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"enum\",\"name\":\"MarketDataEntry\",\"symbols\":[\"LOW\",\"HIGH\",\"OPEN\",\"CLOSE\",\"BID\",\"OFFER\"]}}},{\"name\":\"marketDataSubscriptionRequest\",\"type\":{\"type\":\"enum\",\"name\":\"MarketDataSubscriptionRequest\",\"symbols\":[\"SNAPSHOT\",\"SUBSCRIBE\",\"UNSUBSCRIBE\"]}},{\"name\":\"requestId\",\"type\":\"string\"}]}");
   public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
 
   private static final SpecificData MODEL$ = new SpecificData();
@@ -14,10 +14,10 @@ import org.apache.avro.message.SchemaStore;
 
 @org.apache.avro.specific.AvroGenerated
 public class MarketDataResponse extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
-  private static final long serialVersionUID = -3117232132659038149L;
+  private static final long serialVersionUID = 4580239535059374118L;
 
 
-  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"MarketDataResponse\",\"namespace\":\"io.seak.avro\",\"fields\":[{\"name\":\"username\",\"type\":\"string\"},{\"name\":\"symbol\",\"type\":\"string\"},{\"name\":\"data\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"MarketData\",\"fields\":[{\"name\":\"open\",\"type\":\"double\"},{\"name\":\"high\",\"type\":\"double\"},{\"name\":\"low\",\"type\":\"double\"},{\"name\":\"close\",\"type\":\"double\"},{\"name\":\"volume\",\"type\":\"int\"}]}}},{\"name\":\"requestId\",\"type\":\"string\"},{\"name\":\"marketDataEntries\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"enum\",\"name\":\"MarketDataEntry\",\"symbols\":[\"LOW\",\"HIGH\",\"OPEN\",\"CLOSE\"]}}}]}");
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"MarketDataResponse\",\"namespace\":\"io.seak.avro\",\"fields\":[{\"name\":\"username\",\"type\":\"string\"},{\"name\":\"symbol\",\"type\":\"string\"},{\"name\":\"data\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"MarketData\",\"fields\":[{\"name\":\"open\",\"type\":\"double\"},{\"name\":\"high\",\"type\":\"double\"},{\"name\":\"low\",\"type\":\"double\"},{\"name\":\"close\",\"type\":\"double\"},{\"name\":\"volume\",\"type\":\"int\"}]}}},{\"name\":\"requestId\",\"type\":\"string\"},{\"name\":\"marketDataEntries\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"enum\",\"name\":\"MarketDataEntry\",\"symbols\":[\"LOW\",\"HIGH\",\"OPEN\",\"CLOSE\",\"BID\",\"OFFER\"]}}},{\"name\":\"depth\",\"type\":{\"type\":\"array\",\"items\":{\"type\":\"record\",\"name\":\"MarketDepthLevel\",\"fields\":[{\"name\":\"side\",\"type\":{\"type\":\"enum\",\"name\":\"Side\",\"symbols\":[\"BUY\",\"SELL\"]}},{\"name\":\"price\",\"type\":\"double\"},{\"name\":\"quantity\",\"type\":\"int\"}]}},\"default\":[]}]}");
   public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
 
   private static final SpecificData MODEL$ = new SpecificData();
@@ -78,6 +78,7 @@ public class MarketDataResponse extends org.apache.avro.specific.SpecificRecordB
   private java.util.List<io.seak.avro.MarketData> data;
   private java.lang.CharSequence requestId;
   private java.util.List<io.seak.avro.MarketDataEntry> marketDataEntries;
+  private java.util.List<io.seak.avro.MarketDepthLevel> depth;
 
   /**
    * Default constructor.  Note that this does not initialize fields
@@ -93,13 +94,15 @@ public class MarketDataResponse extends org.apache.avro.specific.SpecificRecordB
    * @param data The new value for data
    * @param requestId The new value for requestId
    * @param marketDataEntries The new value for marketDataEntries
+   * @param depth The new value for depth
    */
-  public MarketDataResponse(java.lang.CharSequence username, java.lang.CharSequence symbol, java.util.List<io.seak.avro.MarketData> data, java.lang.CharSequence requestId, java.util.List<io.seak.avro.MarketDataEntry> marketDataEntries) {
+  public MarketDataResponse(java.lang.CharSequence username, java.lang.CharSequence symbol, java.util.List<io.seak.avro.MarketData> data, java.lang.CharSequence requestId, java.util.List<io.seak.avro.MarketDataEntry> marketDataEntries, java.util.List<io.seak.avro.MarketDepthLevel> depth) {
     this.username = username;
     this.symbol = symbol;
     this.data = data;
     this.requestId = requestId;
     this.marketDataEntries = marketDataEntries;
+    this.depth = depth;
   }
 
   @Override
@@ -117,6 +120,7 @@ public class MarketDataResponse extends org.apache.avro.specific.SpecificRecordB
     case 2: return data;
     case 3: return requestId;
     case 4: return marketDataEntries;
+    case 5: return depth;
     default: throw new IndexOutOfBoundsException("Invalid index: " + field$);
     }
   }
@@ -131,6 +135,7 @@ public class MarketDataResponse extends org.apache.avro.specific.SpecificRecordB
     case 2: data = (java.util.List<io.seak.avro.MarketData>)value$; break;
     case 3: requestId = (java.lang.CharSequence)value$; break;
     case 4: marketDataEntries = (java.util.List<io.seak.avro.MarketDataEntry>)value$; break;
+    case 5: depth = (java.util.List<io.seak.avro.MarketDepthLevel>)value$; break;
     default: throw new IndexOutOfBoundsException("Invalid index: " + field$);
     }
   }
@@ -220,6 +225,23 @@ public class MarketDataResponse extends org.apache.avro.specific.SpecificRecordB
     this.marketDataEntries = value;
   }
 
+  /**
+   * Gets the value of the 'depth' field.
+   * @return The value of the 'depth' field.
+   */
+  public java.util.List<io.seak.avro.MarketDepthLevel> getDepth() {
+    return depth;
+  }
+
+
+  /**
+   * Sets the value of the 'depth' field.
+   * @param value the value to set.
+   */
+  public void setDepth(java.util.List<io.seak.avro.MarketDepthLevel> value) {
+    this.depth = value;
+  }
+
   /**
    * Creates a new MarketDataResponse RecordBuilder.
    * @return A new MarketDataResponse RecordBuilder
@@ -266,6 +288,7 @@ public class MarketDataResponse extends org.apache.avro.specific.SpecificRecordB
     private java.util.List<io.seak.avro.MarketData> data;
     private java.lang.CharSequence requestId;
     private java.util.List<io.seak.avro.MarketDataEntry> marketDataEntries;
+    private java.util.List<io.seak.avro.MarketDepthLevel> depth;
 
     /** Creates a new Builder */
     private Builder() {
@@ -298,6 +321,10 @@ public class MarketDataResponse extends org.apache.avro.specific.SpecificRecordB
         this.marketDataEntries = data().deepCopy(fields()[4].schema(), other.marketDataEntries);
         fieldSetFlags()[4] = other.fieldSetFlags()[4];
       }
+      if (isValidValue(fields()[5], other.depth)) {
+        this.depth = data().deepCopy(fields()[5].schema(), other.depth);
+        fieldSetFlags()[5] = other.fieldSetFlags()[5];
+      }
     }
 
     /**
@@ -326,6 +353,10 @@ public class MarketDataResponse extends org.apache.avro.specific.SpecificRecordB
         this.marketDataEntries = data().deepCopy(fields()[4].schema(), other.marketDataEntries);
         fieldSetFlags()[4] = true;
       }
+      if (isValidValue(fields()[5], other.depth)) {
+        this.depth = data().deepCopy(fields()[5].schema(), other.depth);
+        fieldSetFlags()[5] = true;
+      }
     }
 
     /**
@@ -528,6 +559,46 @@ public class MarketDataResponse extends org.apache.avro.specific.SpecificRecordB
       return this;
     }
 
+    /**
+      * Gets the value of the 'depth' field.
+      * @return The value.
+      */
+    public java.util.List<io.seak.avro.MarketDepthLevel> getDepth() {
+      return depth;
+    }
+
+
+    /**
+      * Sets the value of the 'depth' field.
+      * @param value The value of 'depth'.
+      * @return This builder.
+      */
+    public io.seak.avro.MarketDataResponse.Builder setDepth(java.util.List<io.seak.avro.MarketDepthLevel> value) {
+      validate(fields()[5], value);
+      this.depth = value;
+      fieldSetFlags()[5] = true;
+      return this;
+    }
+
+    /**
+      * Checks whether the 'depth' field has been set.
+      * @return True if the 'depth' field has been set, false otherwise.
+      */
+    public boolean hasDepth() {
+      return fieldSetFlags()[5];
+    }
+
+
+    /**
+      * Clears the value of the 'depth' field.
+      * @return This builder.
+      */
+    public io.seak.avro.MarketDataResponse.Builder clearDepth() {
+      depth = null;
+      fieldSetFlags()[5] = false;
+      return this;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public MarketDataResponse build() {
@@ -538,6 +609,7 @@ public class MarketDataResponse extends org.apache.avro.specific.SpecificRecordB
         record.data = fieldSetFlags()[2] ? this.data : (java.util.List<io.seak.avro.MarketData>) defaultValue(fields()[2]);
         record.requestId = fieldSetFlags()[3] ? this.requestId : (java.lang.CharSequence) defaultValue(fields()[3]);
         record.marketDataEntries = fieldSetFlags()[4] ? this.marketDataEntries : (java.util.List<io.seak.avro.MarketDataEntry>) defaultValue(fields()[4]);
+        record.depth = fieldSetFlags()[5] ? this.depth : (java.util.List<io.seak.avro.MarketDepthLevel>) defaultValue(fields()[5]);
         return record;
       } catch (org.apache.avro.AvroMissingFieldException e) {
         throw e;
@@ -602,6 +674,19 @@ public class MarketDataResponse extends org.apache.avro.specific.SpecificRecordB
     if (actualSize1 != size1)
       throw new java.util.ConcurrentModificationException("Array-size written was " + size1 + ", but element count was " + actualSize1 + ".");
 
+    long size2 = this.depth.size();
+    out.writeArrayStart();
+    out.setItemCount(size2);
+    long actualSize2 = 0;
+    for (io.seak.avro.MarketDepthLevel e2: this.depth) {
+      actualSize2++;
+      out.startItem();
+      e2.customEncode(out);
+    }
+    out.writeArrayEnd();
+    if (actualSize2 != size2)
+      throw new java.util.ConcurrentModificationException("Array-size written was " + size2 + ", but element count was " + actualSize2 + ".");
+
   }
 
   @Override public void customDecode(org.apache.avro.io.ResolvingDecoder in)
@@ -648,8 +733,26 @@ public class MarketDataResponse extends org.apache.avro.specific.SpecificRecordB
         }
       }
 
+      long size2 = in.readArrayStart();
+      java.util.List<io.seak.avro.MarketDepthLevel> a2 = this.depth;
+      if (a2 == null) {
+        a2 = new SpecificData.Array<io.seak.avro.MarketDepthLevel>((int)size2, SCHEMA$.getField("depth").schema());
+        this.depth = a2;
+      } else a2.clear();
+      SpecificData.Array<io.seak.avro.MarketDepthLevel> ga2 = (a2 instanceof SpecificData.Array ? (SpecificData.Array<io.seak.avro.MarketDepthLevel>)a2 : null);
+      for ( ; 0 < size2; size2 = in.arrayNext()) {
+        for ( ; size2 != 0; size2--) {
+          io.seak.avro.MarketDepthLevel e2 = (ga2 != null ? ga2.peek() : null);
+          if (e2 == null) {
+            e2 = new io.seak.avro.MarketDepthLevel();
+          }
+          e2.customDecode(in);
+          a2.add(e2);
+        }
+      }
+
     } else {
-      for (int i = 0; i < 5; i++) {
+      for (int i = 0; i < 6; i++) {
         switch (fieldOrder[i].pos()) {
         case 0:
           this.username = in.readString(this.username instanceof Utf8 ? (Utf8)this.username : null);
@@ -700,6 +803,26 @@ public class MarketDataResponse extends org.apache.avro.specific.SpecificRecordB
           }
           break;
 
+        case 5:
+          long size2 = in.readArrayStart();
+          java.util.List<io.seak.avro.MarketDepthLevel> a2 = this.depth;
+          if (a2 == null) {
+            a2 = new SpecificData.Array<io.seak.avro.MarketDepthLevel>((int)size2, SCHEMA$.getField("depth").schema());
+            this.depth = a2;
+          } else a2.clear();
+          SpecificData.Array<io.seak.avro.MarketDepthLevel> ga2 = (a2 instanceof SpecificData.Array ? (SpecificData.Array<io.seak.avro.MarketDepthLevel>)a2 : null);
+          for ( ; 0 < size2; size2 = in.arrayNext()) {
+            for ( ; size2 != 0; size2--) {
+              io.seak.avro.MarketDepthLevel e2 = (ga2 != null ? ga2.peek() : null);
+              if (e2 == null) {
+                e2 = new io.seak.avro.MarketDepthLevel();
+              }
+              e2.customDecode(in);
+              a2.add(e2);
+            }
+          }
+          break;
+
         default:
           throw new java.io.IOException("Corrupt ResolvingDecoder.");
         }
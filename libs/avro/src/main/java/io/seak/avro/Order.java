@@ -14,10 +14,10 @@ import org.apache.avro.message.SchemaStore;
 
 @org.apache.avro.specific.AvroGenerated
 public class Order extends org.apache.avro.specific.SpecificRecordBase implements org.apache.avro.specific.SpecificRecord {
-  private static final long serialVersionUID = -157620728841669766L;
+  private static final long serialVersionUID = -7750055349559761233L;
 
 
-  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Order\",\"namespace\":\"io.seak.avro\",\"fields\":[{\"name\":\"username\",\"type\":\"string\"},{\"name\":\"symbol\",\"type\":\"string\"},{\"name\":\"quantity\",\"type\":\"int\"},{\"name\":\"side\",\"type\":{\"type\":\"enum\",\"name\":\"Side\",\"symbols\":[\"BUY\",\"SELL\"]}},{\"name\":\"type\",\"type\":{\"type\":\"enum\",\"name\":\"Type\",\"symbols\":[\"MARKET\",\"LIMIT\"]},\"default\":\"MARKET\"},{\"name\":\"price\",\"type\":[\"null\",\"double\"],\"doc\":\"Only used for LIMIT orders\",\"default\":null},{\"name\":\"clOrderID\",\"type\":\"string\",\"default\":\"\"}]}");
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"record\",\"name\":\"Order\",\"namespace\":\"io.seak.avro\",\"fields\":[{\"name\":\"username\",\"type\":\"string\"},{\"name\":\"symbol\",\"type\":\"string\"},{\"name\":\"quantity\",\"type\":\"int\"},{\"name\":\"side\",\"type\":{\"type\":\"enum\",\"name\":\"Side\",\"symbols\":[\"BUY\",\"SELL\"]}},{\"name\":\"type\",\"type\":{\"type\":\"enum\",\"name\":\"Type\",\"symbols\":[\"MARKET\",\"LIMIT\",\"STOP\",\"STOP_LIMIT\"]},\"default\":\"MARKET\"},{\"name\":\"price\",\"type\":[\"null\",\"double\"],\"doc\":\"Only used for LIMIT orders\",\"default\":null},{\"name\":\"clOrderID\",\"type\":\"string\",\"default\":\"\"},{\"name\":\"stopPrice\",\"type\":[\"null\",\"double\"],\"doc\":\"Only used for STOP and STOP_LIMIT orders\",\"default\":null},{\"name\":\"timeInForce\",\"type\":{\"type\":\"enum\",\"name\":\"TimeInForce\",\"symbols\":[\"GTC\",\"DAY\",\"GTD\",\"IOC\"]},\"default\":\"GTC\"},{\"name\":\"expireTime\",\"type\":[\"null\",\"long\"],\"doc\":\"Only used for GTD orders, and for DAY orders once received by the order book, in milliseconds since epoch\",\"default\":null}]}");
   public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
 
   private static final SpecificData MODEL$ = new SpecificData();
@@ -81,6 +81,11 @@ public class Order extends org.apache.avro.specific.SpecificRecordBase implement
   /** Only used for LIMIT orders */
   private java.lang.Double price;
   private java.lang.CharSequence clOrderID;
+  /** Only used for STOP and STOP_LIMIT orders */
+  private java.lang.Double stopPrice;
+  private io.seak.avro.TimeInForce timeInForce;
+  /** Only used for GTD orders, and for DAY orders once received by the order book, in milliseconds since epoch */
+  private java.lang.Long expireTime;
 
   /**
    * Default constructor.  Note that this does not initialize fields
@@ -98,8 +103,11 @@ public class Order extends org.apache.avro.specific.SpecificRecordBase implement
    * @param type The new value for type
    * @param price Only used for LIMIT orders
    * @param clOrderID The new value for clOrderID
+   * @param stopPrice Only used for STOP and STOP_LIMIT orders
+   * @param timeInForce The new value for timeInForce
+   * @param expireTime Only used for GTD orders, and for DAY orders once received by the order book, in milliseconds since epoch
    */
-  public Order(java.lang.CharSequence username, java.lang.CharSequence symbol, java.lang.Integer quantity, io.seak.avro.Side side, io.seak.avro.Type type, java.lang.Double price, java.lang.CharSequence clOrderID) {
+  public Order(java.lang.CharSequence username, java.lang.CharSequence symbol, java.lang.Integer quantity, io.seak.avro.Side side, io.seak.avro.Type type, java.lang.Double price, java.lang.CharSequence clOrderID, java.lang.Double stopPrice, io.seak.avro.TimeInForce timeInForce, java.lang.Long expireTime) {
     this.username = username;
     this.symbol = symbol;
     this.quantity = quantity;
@@ -107,6 +115,9 @@ public class Order extends org.apache.avro.specific.SpecificRecordBase implement
     this.type = type;
     this.price = price;
     this.clOrderID = clOrderID;
+    this.stopPrice = stopPrice;
+    this.timeInForce = timeInForce;
+    this.expireTime = expireTime;
   }
 
   @Override
@@ -126,6 +137,9 @@ public class Order extends org.apache.avro.specific.SpecificRecordBase implement
     case 4: return type;
     case 5: return price;
     case 6: return clOrderID;
+    case 7: return stopPrice;
+    case 8: return timeInForce;
+    case 9: return expireTime;
     default: throw new IndexOutOfBoundsException("Invalid index: " + field$);
     }
   }
@@ -142,6 +156,9 @@ public class Order extends org.apache.avro.specific.SpecificRecordBase implement
     case 4: type = (io.seak.avro.Type)value$; break;
     case 5: price = (java.lang.Double)value$; break;
     case 6: clOrderID = (java.lang.CharSequence)value$; break;
+    case 7: stopPrice = (java.lang.Double)value$; break;
+    case 8: timeInForce = (io.seak.avro.TimeInForce)value$; break;
+    case 9: expireTime = (java.lang.Long)value$; break;
     default: throw new IndexOutOfBoundsException("Invalid index: " + field$);
     }
   }
@@ -266,6 +283,59 @@ public class Order extends org.apache.avro.specific.SpecificRecordBase implement
     this.clOrderID = value;
   }
 
+  /**
+   * Gets the value of the 'stopPrice' field.
+   * @return Only used for STOP and STOP_LIMIT orders
+   */
+  public java.lang.Double getStopPrice() {
+    return stopPrice;
+  }
+
+
+  /**
+   * Sets the value of the 'stopPrice' field.
+   * Only used for STOP and STOP_LIMIT orders
+   * @param value the value to set.
+   */
+  public void setStopPrice(java.lang.Double value) {
+    this.stopPrice = value;
+  }
+
+  /**
+   * Gets the value of the 'timeInForce' field.
+   * @return The value of the 'timeInForce' field.
+   */
+  public io.seak.avro.TimeInForce getTimeInForce() {
+    return timeInForce;
+  }
+
+
+  /**
+   * Sets the value of the 'timeInForce' field.
+   * @param value the value to set.
+   */
+  public void setTimeInForce(io.seak.avro.TimeInForce value) {
+    this.timeInForce = value;
+  }
+
+  /**
+   * Gets the value of the 'expireTime' field.
+   * @return Only used for GTD orders, and for DAY orders once received by the order book, in milliseconds since epoch
+   */
+  public java.lang.Long getExpireTime() {
+    return expireTime;
+  }
+
+
+  /**
+   * Sets the value of the 'expireTime' field.
+   * Only used for GTD orders, and for DAY orders once received by the order book, in milliseconds since epoch
+   * @param value the value to set.
+   */
+  public void setExpireTime(java.lang.Long value) {
+    this.expireTime = value;
+  }
+
   /**
    * Creates a new Order RecordBuilder.
    * @return A new Order RecordBuilder
@@ -315,6 +385,11 @@ public class Order extends org.apache.avro.specific.SpecificRecordBase implement
     /** Only used for LIMIT orders */
     private java.lang.Double price;
     private java.lang.CharSequence clOrderID;
+    /** Only used for STOP and STOP_LIMIT orders */
+    private java.lang.Double stopPrice;
+    private io.seak.avro.TimeInForce timeInForce;
+    /** Only used for GTD orders, and for DAY orders once received by the order book, in milliseconds since epoch */
+    private java.lang.Long expireTime;
 
     /** Creates a new Builder */
     private Builder() {
@@ -355,6 +430,18 @@ public class Order extends org.apache.avro.specific.SpecificRecordBase implement
         this.clOrderID = data().deepCopy(fields()[6].schema(), other.clOrderID);
         fieldSetFlags()[6] = other.fieldSetFlags()[6];
       }
+      if (isValidValue(fields()[7], other.stopPrice)) {
+        this.stopPrice = data().deepCopy(fields()[7].schema(), other.stopPrice);
+        fieldSetFlags()[7] = other.fieldSetFlags()[7];
+      }
+      if (isValidValue(fields()[8], other.timeInForce)) {
+        this.timeInForce = data().deepCopy(fields()[8].schema(), other.timeInForce);
+        fieldSetFlags()[8] = other.fieldSetFlags()[8];
+      }
+      if (isValidValue(fields()[9], other.expireTime)) {
+        this.expireTime = data().deepCopy(fields()[9].schema(), other.expireTime);
+        fieldSetFlags()[9] = other.fieldSetFlags()[9];
+      }
     }
 
     /**
@@ -391,6 +478,18 @@ public class Order extends org.apache.avro.specific.SpecificRecordBase implement
         this.clOrderID = data().deepCopy(fields()[6].schema(), other.clOrderID);
         fieldSetFlags()[6] = true;
       }
+      if (isValidValue(fields()[7], other.stopPrice)) {
+        this.stopPrice = data().deepCopy(fields()[7].schema(), other.stopPrice);
+        fieldSetFlags()[7] = true;
+      }
+      if (isValidValue(fields()[8], other.timeInForce)) {
+        this.timeInForce = data().deepCopy(fields()[8].schema(), other.timeInForce);
+        fieldSetFlags()[8] = true;
+      }
+      if (isValidValue(fields()[9], other.expireTime)) {
+        this.expireTime = data().deepCopy(fields()[9].schema(), other.expireTime);
+        fieldSetFlags()[9] = true;
+      }
     }
 
     /**
@@ -676,6 +775,134 @@ public class Order extends org.apache.avro.specific.SpecificRecordBase implement
       return this;
     }
 
+    /**
+      * Gets the value of the 'stopPrice' field.
+      * Only used for STOP and STOP_LIMIT orders
+      * @return The value.
+      */
+    public java.lang.Double getStopPrice() {
+      return stopPrice;
+    }
+
+
+    /**
+      * Sets the value of the 'stopPrice' field.
+      * Only used for STOP and STOP_LIMIT orders
+      * @param value The value of 'stopPrice'.
+      * @return This builder.
+      */
+    public io.seak.avro.Order.Builder setStopPrice(java.lang.Double value) {
+      validate(fields()[7], value);
+      this.stopPrice = value;
+      fieldSetFlags()[7] = true;
+      return this;
+    }
+
+    /**
+      * Checks whether the 'stopPrice' field has been set.
+      * Only used for STOP and STOP_LIMIT orders
+      * @return True if the 'stopPrice' field has been set, false otherwise.
+      */
+    public boolean hasStopPrice() {
+      return fieldSetFlags()[7];
+    }
+
+
+    /**
+      * Clears the value of the 'stopPrice' field.
+      * Only used for STOP and STOP_LIMIT orders
+      * @return This builder.
+      */
+    public io.seak.avro.Order.Builder clearStopPrice() {
+      stopPrice = null;
+      fieldSetFlags()[7] = false;
+      return this;
+    }
+
+    /**
+      * Gets the value of the 'timeInForce' field.
+      * @return The value.
+      */
+    public io.seak.avro.TimeInForce getTimeInForce() {
+      return timeInForce;
+    }
+
+
+    /**
+      * Sets the value of the 'timeInForce' field.
+      * @param value The value of 'timeInForce'.
+      * @return This builder.
+      */
+    public io.seak.avro.Order.Builder setTimeInForce(io.seak.avro.TimeInForce value) {
+      validate(fields()[8], value);
+      this.timeInForce = value;
+      fieldSetFlags()[8] = true;
+      return this;
+    }
+
+    /**
+      * Checks whether the 'timeInForce' field has been set.
+      * @return True if the 'timeInForce' field has been set, false otherwise.
+      */
+    public boolean hasTimeInForce() {
+      return fieldSetFlags()[8];
+    }
+
+
+    /**
+      * Clears the value of the 'timeInForce' field.
+      * @return This builder.
+      */
+    public io.seak.avro.Order.Builder clearTimeInForce() {
+      timeInForce = null;
+      fieldSetFlags()[8] = false;
+      return this;
+    }
+
+    /**
+      * Gets the value of the 'expireTime' field.
+      * Only used for GTD orders, and for DAY orders once received by the order book, in milliseconds since epoch
+      * @return The value.
+      */
+    public java.lang.Long getExpireTime() {
+      return expireTime;
+    }
+
+
+    /**
+      * Sets the value of the 'expireTime' field.
+      * Only used for GTD orders, and for DAY orders once received by the order book, in milliseconds since epoch
+      * @param value The value of 'expireTime'.
+      * @return This builder.
+      */
+    public io.seak.avro.Order.Builder setExpireTime(java.lang.Long value) {
+      validate(fields()[9], value);
+      this.expireTime = value;
+      fieldSetFlags()[9] = true;
+      return this;
+    }
+
+    /**
+      * Checks whether the 'expireTime' field has been set.
+      * Only used for GTD orders, and for DAY orders once received by the order book, in milliseconds since epoch
+      * @return True if the 'expireTime' field has been set, false otherwise.
+      */
+    public boolean hasExpireTime() {
+      return fieldSetFlags()[9];
+    }
+
+
+    /**
+      * Clears the value of the 'expireTime' field.
+      * Only used for GTD orders, and for DAY orders once received by the order book, in milliseconds since epoch
+      * @return This builder.
+      */
+    public io.seak.avro.Order.Builder clearExpireTime() {
+      expireTime = null;
+      fieldSetFlags()[9] = false;
+      return this;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public Order build() {
@@ -688,6 +915,9 @@ public class Order extends org.apache.avro.specific.SpecificRecordBase implement
         record.type = fieldSetFlags()[4] ? this.type : (io.seak.avro.Type) defaultValue(fields()[4]);
         record.price = fieldSetFlags()[5] ? this.price : (java.lang.Double) defaultValue(fields()[5]);
         record.clOrderID = fieldSetFlags()[6] ? this.clOrderID : (java.lang.CharSequence) defaultValue(fields()[6]);
+        record.stopPrice = fieldSetFlags()[7] ? this.stopPrice : (java.lang.Double) defaultValue(fields()[7]);
+        record.timeInForce = fieldSetFlags()[8] ? this.timeInForce : (io.seak.avro.TimeInForce) defaultValue(fields()[8]);
+        record.expireTime = fieldSetFlags()[9] ? this.expireTime : (java.lang.Long) defaultValue(fields()[9]);
         return record;
       } catch (org.apache.avro.AvroMissingFieldException e) {
         throw e;
@@ -740,6 +970,24 @@ public class Order extends org.apache.avro.specific.SpecificRecordBase implement
 
     out.writeString(this.clOrderID);
 
+    if (this.stopPrice == null) {
+      out.writeIndex(0);
+      out.writeNull();
+    } else {
+      out.writeIndex(1);
+      out.writeDouble(this.stopPrice);
+    }
+
+    out.writeEnum(this.timeInForce.ordinal());
+
+    if (this.expireTime == null) {
+      out.writeIndex(0);
+      out.writeNull();
+    } else {
+      out.writeIndex(1);
+      out.writeLong(this.expireTime);
+    }
+
   }
 
   @Override public void customDecode(org.apache.avro.io.ResolvingDecoder in)
@@ -766,8 +1014,24 @@ public class Order extends org.apache.avro.specific.SpecificRecordBase implement
 
       this.clOrderID = in.readString(this.clOrderID instanceof Utf8 ? (Utf8)this.clOrderID : null);
 
+      if (in.readIndex() != 1) {
+        in.readNull();
+        this.stopPrice = null;
+      } else {
+        this.stopPrice = in.readDouble();
+      }
+
+      this.timeInForce = io.seak.avro.TimeInForce.values()[in.readEnum()];
+
+      if (in.readIndex() != 1) {
+        in.readNull();
+        this.expireTime = null;
+      } else {
+        this.expireTime = in.readLong();
+      }
+
     } else {
-      for (int i = 0; i < 7; i++) {
+      for (int i = 0; i < 10; i++) {
         switch (fieldOrder[i].pos()) {
         case 0:
           this.username = in.readString(this.username instanceof Utf8 ? (Utf8)this.username : null);
@@ -802,6 +1066,28 @@ public class Order extends org.apache.avro.specific.SpecificRecordBase implement
           this.clOrderID = in.readString(this.clOrderID instanceof Utf8 ? (Utf8)this.clOrderID : null);
           break;
 
+        case 7:
+          if (in.readIndex() != 1) {
+            in.readNull();
+            this.stopPrice = null;
+          } else {
+            this.stopPrice = in.readDouble();
+          }
+          break;
+
+        case 8:
+          this.timeInForce = io.seak.avro.TimeInForce.values()[in.readEnum()];
+          break;
+
+        case 9:
+          if (in.readIndex() != 1) {
+            in.readNull();
+            this.expireTime = null;
+          } else {
+            this.expireTime = in.readLong();
+          }
+          break;
+
         default:
           throw new java.io.IOException("Corrupt ResolvingDecoder.");
         }
@@ -6,8 +6,8 @@
 package io.seak.avro;
 @org.apache.avro.specific.AvroGenerated
 public enum Type implements org.apache.avro.generic.GenericEnumSymbol<Type> {
-  MARKET, LIMIT  ;
-  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"enum\",\"name\":\"Type\",\"namespace\":\"io.seak.avro\",\"symbols\":[\"MARKET\",\"LIMIT\"]}");
+  MARKET, LIMIT, STOP, STOP_LIMIT  ;
+  public static final org.apache.avro.Schema SCHEMA$ = new org.apache.avro.Schema.Parser().parse("{\"type\":\"enum\",\"name\":\"Type\",\"namespace\":\"io.seak.avro\",\"symbols\":[\"MARKET\",\"LIMIT\",\"STOP\",\"STOP_LIMIT\"]}");
   public static org.apache.avro.Schema getClassSchema() { return SCHEMA$; }
 
   @Override
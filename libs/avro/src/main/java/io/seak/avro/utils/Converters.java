@@ -160,6 +160,11 @@ public class Converters {
     static {
       avroTypeMap.put(quickfix.field.OrdType.MARKET, io.seak.avro.Type.MARKET);
       avroTypeMap.put(quickfix.field.OrdType.LIMIT, io.seak.avro.Type.LIMIT);
+      avroTypeMap.put(quickfix.field.OrdType.STOP, io.seak.avro.Type.STOP);
+      avroTypeMap.put(
+        quickfix.field.OrdType.STOP_LIMIT,
+        io.seak.avro.Type.STOP_LIMIT
+      );
 
       avroTypeMap
         .entrySet()
@@ -194,6 +199,75 @@ public class Converters {
     }
   }
 
+  public static class TimeInForce {
+
+    private TimeInForce() {}
+
+    private static final Map<
+      Character,
+      io.seak.avro.TimeInForce
+    > avroTimeInForceMap = new HashMap<>();
+    private static final Map<
+      io.seak.avro.TimeInForce,
+      Character
+    > quickfixTimeInForceMap = new EnumMap<>(io.seak.avro.TimeInForce.class);
+
+    static {
+      avroTimeInForceMap.put(
+        quickfix.field.TimeInForce.DAY,
+        io.seak.avro.TimeInForce.DAY
+      );
+      avroTimeInForceMap.put(
+        quickfix.field.TimeInForce.GOOD_TILL_CANCEL,
+        io.seak.avro.TimeInForce.GTC
+      );
+      avroTimeInForceMap.put(
+        quickfix.field.TimeInForce.IMMEDIATE_OR_CANCEL,
+        io.seak.avro.TimeInForce.IOC
+      );
+      avroTimeInForceMap.put(
+        quickfix.field.TimeInForce.GOOD_TILL_DATE,
+        io.seak.avro.TimeInForce.GTD
+      );
+
+      avroTimeInForceMap
+        .entrySet()
+        .forEach(entry ->
+          quickfixTimeInForceMap.put(entry.getValue(), entry.getKey())
+        );
+    }
+
+    public static char charFromAvro(io.seak.avro.TimeInForce timeInForce) {
+      if (!quickfixTimeInForceMap.containsKey(timeInForce)) {
+        throw new IllegalArgumentException(timeInForce.toString());
+      }
+      return quickfixTimeInForceMap.get(timeInForce);
+    }
+
+    public static quickfix.field.TimeInForce fromAvro(
+      io.seak.avro.TimeInForce timeInForce
+    ) {
+      return new quickfix.field.TimeInForce(charFromAvro(timeInForce));
+    }
+
+    public static io.seak.avro.TimeInForce toAvro(char timeInForce)
+      throws IncorrectTagValue {
+      if (!avroTimeInForceMap.containsKey(timeInForce)) {
+        throw new IncorrectTagValue(
+          quickfix.field.TimeInForce.FIELD,
+          String.valueOf(timeInForce)
+        );
+      }
+      return avroTimeInForceMap.get(timeInForce);
+    }
+
+    public static io.seak.avro.TimeInForce toAvro(
+      quickfix.field.TimeInForce timeInForce
+    ) throws IncorrectTagValue {
+      return toAvro(timeInForce.getValue());
+    }
+  }
+
   public static class MarketDataEntry {
 
     private MarketDataEntry() {}
@@ -226,6 +300,14 @@ public class Converters {
         quickfix.field.MDEntryType.TRADING_SESSION_LOW_PRICE,
         io.seak.avro.MarketDataEntry.LOW
       );
+      avroMarketDataEntryMap.put(
+        quickfix.field.MDEntryType.BID,
+        io.seak.avro.MarketDataEntry.BID
+      );
+      avroMarketDataEntryMap.put(
+        quickfix.field.MDEntryType.OFFER,
+        io.seak.avro.MarketDataEntry.OFFER
+      );
 
       avroMarketDataEntryMap
         .entrySet()
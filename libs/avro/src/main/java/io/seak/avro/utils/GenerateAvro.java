@@ -16,14 +16,18 @@ public class GenerateAvro {
     getFileFromRessource("type.avsc"),
     getFileFromRessource("side.avsc"),
     getFileFromRessource("order-book-request-type.avsc"),
+    getFileFromRessource("time-in-force.avsc"),
     getFileFromRessource("order.avsc"),
     getFileFromRessource("trade.avsc"),
     getFileFromRessource("rejected-order.avsc"),
     getFileFromRessource("market-data.avsc"),
+    getFileFromRessource("market-depth-level.avsc"),
     getFileFromRessource("order-book-request.avsc"),
     getFileFromRessource("market-data-request.avsc"),
     getFileFromRessource("market-data-response.avsc"),
     getFileFromRessource("market-data-rejected.avsc"),
+    getFileFromRessource("market-data-subscriber.avsc"),
+    getFileFromRessource("market-data-broadcast.avsc"),
   };
 
   public static File[] getFiles() {
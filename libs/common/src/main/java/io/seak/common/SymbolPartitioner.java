@@ -0,0 +1,82 @@
+package io.seak.common;
+
+import io.seak.avro.Order;
+import io.seak.avro.OrderBookRequest;
+import io.seak.avro.Trade;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.utils.Utils;
+
+/**
+ * Kafka partitioner sending the records of a symbol to the same partition,
+ * whatever their key, so that a consumer owns every order of the symbols of
+ * its partitions.
+ *
+ * The symbol is read from the {@link Order}, {@link OrderBookRequest} and
+ * {@link Trade} records, the other records are partitioned by key.
+ */
+public class SymbolPartitioner implements Partitioner {
+
+  /**
+   * @param symbol
+   * @param numPartitions
+   * @return the partition of the symbol
+   */
+  public static int partition(String symbol, int numPartitions) {
+    return partition(symbol.getBytes(StandardCharsets.UTF_8), numPartitions);
+  }
+
+  private static int partition(byte[] bytes, int numPartitions) {
+    return Utils.toPositive(Utils.murmur2(bytes)) % numPartitions;
+  }
+
+  /**
+   * @param value
+   * @return the symbol of the record, null if it has none
+   */
+  public static String symbolOf(Object value) {
+    if (value instanceof OrderBookRequest orderBookRequest) {
+      return orderBookRequest.getOrder().getSymbol().toString();
+    }
+    if (value instanceof Order order) {
+      return order.getSymbol().toString();
+    }
+    if (value instanceof Trade trade) {
+      return trade.getSymbol().toString();
+    }
+    return null;
+  }
+
+  @Override
+  public int partition(
+    String topic,
+    Object key,
+    byte[] keyBytes,
+    Object value,
+    byte[] valueBytes,
+    Cluster cluster
+  ) {
+    int numPartitions = cluster.partitionCountForTopic(topic);
+    String symbol = symbolOf(value);
+    if (symbol != null) {
+      return partition(symbol, numPartitions);
+    }
+    if (keyBytes != null) {
+      return partition(keyBytes, numPartitions);
+    }
+    return ThreadLocalRandom.current().nextInt(numPartitions);
+  }
+
+  @Override
+  public void configure(Map<String, ?> configs) {
+    // Nothing to configure
+  }
+
+  @Override
+  public void close() {
+    // Nothing to close
+  }
+}
@@ -0,0 +1,140 @@
+package io.seak.ledger;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.event.command.CommandListener;
+import io.lettuce.core.event.command.CommandStartedEvent;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to reserve then release the balance of an order, with 4 threads on the
+ * same account, for each ledger. Each thread has its own Redis connection, as
+ * each component does, the in-memory ledger is shared.
+ *
+ * The sample time results include the p99, the round trips per order are
+ * printed at the end of each trial. The Redis ledgers require a Redis server,
+ * run with {@code ./gradlew libs:ledger:jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class AccountLedgerBenchmark {
+
+  private static final String USERNAME = "user";
+  private static final double BALANCE = 1_000_000_000;
+  private static final double AMOUNT = 1_000;
+
+  public enum LedgerType {
+    IN_MEMORY,
+    REDIS_TRANSACTION,
+    REDIS_SCRIPTING,
+  }
+
+  @Param({ "redis://localhost:6379" })
+  public String redisUri;
+
+  @Param({ "IN_MEMORY", "REDIS_TRANSACTION", "REDIS_SCRIPTING" })
+  public LedgerType ledgerType;
+
+  private RedisClient redisClient;
+  private InMemoryAccountLedger inMemoryAccountLedger;
+
+  private final LongAdder roundTrips = new LongAdder();
+  private final LongAdder orders = new LongAdder();
+
+  @Setup(Level.Trial)
+  public void setupLedger() {
+    if (ledgerType == LedgerType.IN_MEMORY) {
+      inMemoryAccountLedger = new InMemoryAccountLedger();
+      inMemoryAccountLedger.setBalance(USERNAME, BALANCE);
+      return;
+    }
+    redisClient = RedisClient.create(redisUri);
+    try (
+      StatefulRedisConnection<String, String> connection = redisClient.connect()
+    ) {
+      connection.sync().set(USERNAME + ":balance", Double.toString(BALANCE));
+    }
+    redisClient.addListener(
+      new CommandListener() {
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+          roundTrips.increment();
+        }
+      }
+    );
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDownLedger() {
+    System.out.printf(
+      "%n%.2f round trips per order (%s)%n",
+      (double) roundTrips.sum() / Math.max(1, orders.sum()),
+      ledgerType
+    );
+    if (redisClient != null) {
+      redisClient.shutdown();
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class Client {
+
+    private AccountLedger accountLedger;
+
+    @Setup(Level.Trial)
+    public void setupClient(AccountLedgerBenchmark benchmark) {
+      accountLedger =
+        switch (benchmark.ledgerType) {
+          case IN_MEMORY -> benchmark.inMemoryAccountLedger;
+          case REDIS_TRANSACTION -> new RedisAccountLedger(
+            benchmark.redisClient,
+            false
+          );
+          case REDIS_SCRIPTING -> new RedisAccountLedger(
+            benchmark.redisClient,
+            true
+          );
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownClient() {
+      if (accountLedger instanceof RedisAccountLedger redisAccountLedger) {
+        redisAccountLedger.close();
+      }
+    }
+  }
+
+  @Benchmark
+  public AccountLedger.Result reserveAndRelease(Client client) {
+    orders.increment();
+    AccountLedger.Result result = client.accountLedger.reserveBalance(
+      USERNAME,
+      AMOUNT
+    );
+    if (result == AccountLedger.Result.APPLIED) {
+      client.accountLedger.releaseBalance(USERNAME, AMOUNT);
+    }
+    return result;
+  }
+}
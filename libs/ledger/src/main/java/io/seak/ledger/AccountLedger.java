@@ -0,0 +1,129 @@
+package io.seak.ledger;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Balances and stocks of the accounts, reserved by the orders and settled by
+ * the trades.
+ *
+ * The balance of an account is its cash not reserved by an order, a stock is
+ * its quantity of a symbol not reserved by a SELL order. Each operation is
+ * atomic, the implementation is selected with the {@code ledger.type}
+ * property.
+ */
+public interface AccountLedger {
+  enum Result {
+    APPLIED,
+    INSUFFICIENT,
+    MISSING_ENTRY,
+    UNKNOWN_ACCOUNT,
+  }
+
+  /**
+   * @param username
+   * @return true if the account has a balance
+   */
+  boolean exists(String username);
+
+  /**
+   * @param username
+   * @return the balance of the account, null if it has none
+   */
+  Double getBalance(String username);
+
+  /**
+   * @param username
+   * @param symbol
+   * @return the stock of the account, null if it has none
+   */
+  Long getStock(String username, String symbol);
+
+  /**
+   * Reserve an amount of the balance, unless it is insufficient
+   * @param username
+   * @param amount
+   * @return APPLIED, INSUFFICIENT or UNKNOWN_ACCOUNT if the account has no
+   * balance, nothing is modified unless APPLIED
+   */
+  Result reserveBalance(String username, double amount);
+
+  /**
+   * Reserve a quantity of a stock, unless it is insufficient
+   * @param username
+   * @param symbol
+   * @param quantity
+   * @return APPLIED, INSUFFICIENT, MISSING_ENTRY if the account has no such
+   * stock or UNKNOWN_ACCOUNT if it has no balance either, nothing is modified
+   * unless APPLIED
+   */
+  Result reserveStock(String username, String symbol, long quantity);
+
+  /**
+   * Add an amount to the balance, released by an order or sold by a trade
+   * @param username
+   * @param amount
+   */
+  void releaseBalance(String username, double amount);
+
+  /**
+   * Add a quantity to a stock, released by an order or bought by a trade
+   * @param username
+   * @param symbol
+   * @param quantity
+   */
+  void releaseStock(String username, String symbol, long quantity);
+
+  /**
+   * Release several reservations at once, summed per balance and stock
+   * @param reservations
+   */
+  void release(Collection<Reservation> reservations);
+
+  /**
+   * Settle a BUY trade without reservation: debit the balance and credit the
+   * stock, unless the balance is insufficient
+   * @param username
+   * @param symbol
+   * @param amount amount debited
+   * @param quantity quantity credited
+   * @return APPLIED, INSUFFICIENT or UNKNOWN_ACCOUNT if the account has no
+   * balance, nothing is modified unless APPLIED
+   */
+  Result settle(String username, String symbol, double amount, long quantity);
+
+  /**
+   * Apply several settlements of an account in one atomic operation. They are
+   * checked in order, as if applied one after the other, and the applied ones
+   * are netted into one change of the balance and of each stock
+   * @param username
+   * @param settlements
+   * @return the result of each settlement: a debit is INSUFFICIENT or
+   * UNKNOWN_ACCOUNT as with {@link #settle(String, String, double, long)} and
+   * skipped, the others are APPLIED
+   */
+  List<Result> settle(String username, List<Settlement> settlements);
+
+  /**
+   * Fence the writes of this ledger with an epoch, for a writer elected among
+   * several instances: the fence is raised to the epoch unless it already
+   * holds a greater one. From then on, each reservation and release is only
+   * applied while the fence still holds the epoch, otherwise it throws a
+   * {@link FencedException}. The settlements cannot be fenced, they throw an
+   * {@code IllegalStateException} on a fenced ledger
+   * @param fence name of the fence
+   * @param epoch
+   * @return false if the fence holds a greater epoch, the ledger is then not
+   * fenced
+   */
+  boolean fence(String fence, long epoch);
+
+  /**
+   * Open a pipeline, to queue the reservations of a batch of orders and send
+   * them at once. The pipeline must be used by a single thread and closed
+   * @return by default, a pipeline applying each operation at once
+   */
+  default LedgerPipeline pipeline() {
+    return new DirectLedgerPipeline(this);
+  }
+}
@@ -0,0 +1,53 @@
+package io.seak.ledger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Pipeline applying each operation at once on the ledger, for the ledgers
+ * which cannot defer their operations
+ */
+class DirectLedgerPipeline implements LedgerPipeline {
+
+  private final AccountLedger accountLedger;
+
+  DirectLedgerPipeline(AccountLedger accountLedger) {
+    this.accountLedger = accountLedger;
+  }
+
+  @Override
+  public CompletionStage<Boolean> exists(String username) {
+    return CompletableFuture.completedFuture(accountLedger.exists(username));
+  }
+
+  @Override
+  public CompletionStage<AccountLedger.Result> reserveBalance(
+    String username,
+    double amount
+  ) {
+    return CompletableFuture.completedFuture(
+      accountLedger.reserveBalance(username, amount)
+    );
+  }
+
+  @Override
+  public CompletionStage<AccountLedger.Result> reserveStock(
+    String username,
+    String symbol,
+    long quantity
+  ) {
+    return CompletableFuture.completedFuture(
+      accountLedger.reserveStock(username, symbol, quantity)
+    );
+  }
+
+  @Override
+  public void flush() {
+    // Nothing is deferred
+  }
+
+  @Override
+  public void close() {
+    // Nothing to release
+  }
+}
@@ -0,0 +1,31 @@
+package io.seak.ledger;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fence of the {@link RedisAccountLedger} writes, see
+ * {@link AccountLedger#fence(String, long)}
+ * @param name
+ * @param key key holding the epoch of the fence
+ * @param epoch epoch of the writes
+ */
+record Fence(String name, byte[] key, long epoch) {
+  byte[] epochValue() {
+    return Long.toString(epoch).getBytes(StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * @param value value of the key, null if missing
+   * @return true if the fence holds the epoch
+   */
+  boolean isHeld(byte[] value) {
+    return (
+      value != null &&
+      Long.toString(epoch).equals(new String(value, StandardCharsets.US_ASCII))
+    );
+  }
+
+  FencedException rejected() {
+    return new FencedException(name, epoch);
+  }
+}
@@ -0,0 +1,24 @@
+package io.seak.ledger;
+
+/**
+ * A write of a fenced ledger rejected because the fence holds another epoch,
+ * see {@link AccountLedger#fence(String, long)}. Nothing was modified.
+ */
+public class FencedException extends RuntimeException {
+
+  private final long epoch;
+
+  public FencedException(String fence, long epoch) {
+    super(
+      String.format("Fence %s does not hold epoch %d anymore", fence, epoch)
+    );
+    this.epoch = epoch;
+  }
+
+  /**
+   * @return the epoch of the rejected write
+   */
+  public long getEpoch() {
+    return epoch;
+  }
+}
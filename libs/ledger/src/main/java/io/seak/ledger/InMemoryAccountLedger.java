@@ -0,0 +1,239 @@
+package io.seak.ledger;
+
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Singleton;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ledger held in memory, to drive load tests without Redis.
+ *
+ * The accounts are guarded by a fixed set of locks, striped by username: the
+ * operations on different accounts mostly run in parallel, and a settlement
+ * modifies the balance and the stock of an account under the same lock.
+ *
+ * The fences are held in memory, they only order the epochs raised on this
+ * ledger: no other instance shares its accounts, so no write is ever rejected.
+ */
+@Singleton
+@Requires(property = "ledger.type", value = "IN_MEMORY")
+public class InMemoryAccountLedger implements AccountLedger {
+
+  private static final int STRIPES = 64;
+
+  private final Object[] locks;
+  private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+  private final Map<String, Long> fences = new ConcurrentHashMap<>();
+
+  private volatile boolean fenced;
+
+  public InMemoryAccountLedger() {
+    this.locks = new Object[STRIPES];
+    for (int i = 0; i < STRIPES; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  /**
+   * Set the balance of an account, creating it if needed
+   * @param username
+   * @param balance
+   */
+  public void setBalance(String username, double balance) {
+    synchronized (lock(username)) {
+      account(username).balance = balance;
+    }
+  }
+
+  /**
+   * Set a stock of an account
+   * @param username
+   * @param symbol
+   * @param quantity
+   */
+  public void setStock(String username, String symbol, long quantity) {
+    synchronized (lock(username)) {
+      account(username).stocks.put(symbol, quantity);
+    }
+  }
+
+  public void clear() {
+    accounts.clear();
+  }
+
+  @Override
+  public boolean exists(String username) {
+    return getBalance(username) != null;
+  }
+
+  @Override
+  public Double getBalance(String username) {
+    synchronized (lock(username)) {
+      Account account = accounts.get(username);
+      return account == null ? null : account.balance;
+    }
+  }
+
+  @Override
+  public Long getStock(String username, String symbol) {
+    synchronized (lock(username)) {
+      Account account = accounts.get(username);
+      return account == null ? null : account.stocks.get(symbol);
+    }
+  }
+
+  @Override
+  public Result reserveBalance(String username, double amount) {
+    synchronized (lock(username)) {
+      Account account = accounts.get(username);
+      if (account == null || account.balance == null) {
+        return Result.UNKNOWN_ACCOUNT;
+      }
+      if (account.balance < amount) {
+        return Result.INSUFFICIENT;
+      }
+      account.balance -= amount;
+      return Result.APPLIED;
+    }
+  }
+
+  @Override
+  public Result reserveStock(String username, String symbol, long quantity) {
+    synchronized (lock(username)) {
+      Account account = accounts.get(username);
+      Long stock = account == null ? null : account.stocks.get(symbol);
+      if (stock == null) {
+        return account == null || account.balance == null
+          ? Result.UNKNOWN_ACCOUNT
+          : Result.MISSING_ENTRY;
+      }
+      if (stock < quantity) {
+        return Result.INSUFFICIENT;
+      }
+      account.stocks.put(symbol, stock - quantity);
+      return Result.APPLIED;
+    }
+  }
+
+  @Override
+  public void releaseBalance(String username, double amount) {
+    synchronized (lock(username)) {
+      Account account = account(username);
+      account.balance =
+        account.balance == null ? amount : account.balance + amount;
+    }
+  }
+
+  @Override
+  public void releaseStock(String username, String symbol, long quantity) {
+    synchronized (lock(username)) {
+      account(username).stocks.merge(symbol, quantity, Long::sum);
+    }
+  }
+
+  @Override
+  public void release(Collection<Reservation> reservations) {
+    for (Reservation reservation : reservations) {
+      if (reservation.isBalance()) {
+        releaseBalance(reservation.username(), reservation.amount());
+      } else {
+        releaseStock(
+          reservation.username(),
+          reservation.symbol(),
+          (long) reservation.amount()
+        );
+      }
+    }
+  }
+
+  @Override
+  public Result settle(
+    String username,
+    String symbol,
+    double amount,
+    long quantity
+  ) {
+    requireUnfenced();
+    synchronized (lock(username)) {
+      Account account = accounts.get(username);
+      if (account == null || account.balance == null) {
+        return Result.UNKNOWN_ACCOUNT;
+      }
+      if (account.balance < amount) {
+        return Result.INSUFFICIENT;
+      }
+      account.balance -= amount;
+      account.stocks.merge(symbol, quantity, Long::sum);
+      return Result.APPLIED;
+    }
+  }
+
+  @Override
+  public List<Result> settle(String username, List<Settlement> settlements) {
+    requireUnfenced();
+    synchronized (lock(username)) {
+      Account account = accounts.get(username);
+      NettedSettlements netted = new NettedSettlements(
+        account == null ? null : account.balance,
+        settlements
+      );
+      if (!netted.isBalanceChanged() && netted.getQuantities().isEmpty()) {
+        return netted.getResults();
+      }
+      Account settled = account(username);
+      if (netted.isBalanceChanged()) {
+        settled.balance =
+          settled.balance == null
+            ? netted.getAmount()
+            : settled.balance + netted.getAmount();
+      }
+      netted
+        .getQuantities()
+        .forEach((symbol, quantity) ->
+          settled.stocks.merge(symbol, quantity, Long::sum)
+        );
+      return netted.getResults();
+    }
+  }
+
+  @Override
+  public boolean fence(String fence, long epoch) {
+    long held = fences.merge(fence, epoch, Math::max);
+    if (held != epoch) {
+      return false;
+    }
+    fenced = true;
+    return true;
+  }
+
+  private void requireUnfenced() {
+    if (fenced) {
+      throw new IllegalStateException(
+        "The settlements of a fenced ledger are not fenced"
+      );
+    }
+  }
+
+  private Object lock(String username) {
+    return locks[Math.floorMod(username.hashCode(), STRIPES)];
+  }
+
+  /**
+   * Must be called with the lock of the account
+   */
+  private Account account(String username) {
+    return accounts.computeIfAbsent(username, u -> new Account());
+  }
+
+  /**
+   * Balance and stocks of an account, guarded by the lock of its username
+   */
+  private static class Account {
+
+    private Double balance;
+    private final Map<String, Long> stocks = new HashMap<>();
+  }
+}
@@ -0,0 +1,42 @@
+package io.seak.ledger;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Reservations queued by a single thread and sent together when the pipeline
+ * is flushed, see {@link AccountLedger#pipeline()}.
+ *
+ * The results complete once the replies arrive, possibly on another thread.
+ * The operations of a pipeline are applied in the order they are queued.
+ */
+public interface LedgerPipeline extends AutoCloseable {
+  /**
+   * @see AccountLedger#exists(String)
+   */
+  CompletionStage<Boolean> exists(String username);
+
+  /**
+   * @see AccountLedger#reserveBalance(String, double)
+   */
+  CompletionStage<AccountLedger.Result> reserveBalance(
+    String username,
+    double amount
+  );
+
+  /**
+   * @see AccountLedger#reserveStock(String, String, long)
+   */
+  CompletionStage<AccountLedger.Result> reserveStock(
+    String username,
+    String symbol,
+    long quantity
+  );
+
+  /**
+   * Send the operations queued since the last flush
+   */
+  void flush();
+
+  @Override
+  void close();
+}
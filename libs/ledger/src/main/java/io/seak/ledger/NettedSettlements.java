@@ -0,0 +1,70 @@
+package io.seak.ledger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settlements of an account checked in order against its balance, as if
+ * applied one after the other, and netted into one change of the balance and
+ * of each stock
+ */
+class NettedSettlements {
+
+  private final List<AccountLedger.Result> results;
+  private final Map<String, Long> quantities = new LinkedHashMap<>();
+  private double amount;
+  private boolean balanceChanged;
+
+  /**
+   * @param balance the balance of the account, null if it has none
+   * @param settlements
+   */
+  NettedSettlements(Double balance, List<Settlement> settlements) {
+    this.results = new ArrayList<>(settlements.size());
+    for (Settlement settlement : settlements) {
+      if (settlement.isDebit() && balance == null) {
+        results.add(AccountLedger.Result.UNKNOWN_ACCOUNT);
+        continue;
+      }
+      if (settlement.isDebit() && balance < -settlement.amount()) {
+        results.add(AccountLedger.Result.INSUFFICIENT);
+        continue;
+      }
+      if (settlement.amount() != 0) {
+        balance =
+          balance == null ? settlement.amount() : balance + settlement.amount();
+        amount += settlement.amount();
+        balanceChanged = true;
+      }
+      if (settlement.quantity() != 0) {
+        quantities.merge(settlement.symbol(), settlement.quantity(), Long::sum);
+      }
+      results.add(AccountLedger.Result.APPLIED);
+    }
+  }
+
+  List<AccountLedger.Result> getResults() {
+    return results;
+  }
+
+  /**
+   * @return the net change of the balance, an account without balance gets
+   * one when it changes
+   */
+  double getAmount() {
+    return amount;
+  }
+
+  boolean isBalanceChanged() {
+    return balanceChanged;
+  }
+
+  /**
+   * @return the net change of each stock, by symbol
+   */
+  Map<String, Long> getQuantities() {
+    return quantities;
+  }
+}
@@ -0,0 +1,605 @@
+package io.seak.ledger;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.micronaut.context.annotation.Property;
+import io.micronaut.context.annotation.Requires;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ledger stored in Redis, the balance of an account under
+ * {@code <username>:balance} and its stocks under {@code <username>:<symbol>},
+ * as decimal strings.
+ *
+ * The keys are encoded once per account and sent with the byte array codec.
+ * With {@code redis.scripting.enabled}, each reservation and settlement is a
+ * Lua script invoked with EVALSHA. Otherwise it is a WATCH / MULTI / EXEC
+ * transaction retried up to 10 times, and the commands are serialized so that
+ * no command of another thread lands in a transaction.
+ *
+ * Once fenced, each reservation and release checks the epoch of the fence,
+ * under {@code fence:<name>}, in the same script or transaction.
+ *
+ * The connection is opened on first use: while Redis is down, the operations
+ * fail with a {@code RedisConnectionException}.
+ */
+@Singleton
+@Requires(property = "ledger.type", value = "REDIS", defaultValue = "REDIS")
+public class RedisAccountLedger implements AccountLedger {
+
+  private static final Logger LOG = LoggerFactory.getLogger(
+    RedisAccountLedger.class
+  );
+
+  private static final String BALANCE_KEY_PATTERN = "%s:balance";
+  private static final String STOCK_KEY_PATTERN = "%s:%s";
+  private static final String FENCE_KEY_PATTERN = "fence:%s";
+
+  private static final int MAX_RETRIES = 10;
+  private static final Duration BATCH_TIMEOUT = Duration.ofSeconds(5);
+
+  private final RedisClient redisClient;
+  private final boolean scriptingEnabled;
+
+  // Encoded keys, by username then by symbol
+  private final Map<String, byte[]> balanceKeys = new ConcurrentHashMap<>();
+  private final Map<String, Map<String, byte[]>> stockKeys =
+    new ConcurrentHashMap<>();
+
+  private StatefulRedisConnection<byte[], byte[]> redisConnection;
+  // Null when the scripting is disabled
+  private ReservationScripts reservationScripts;
+  // Null until the ledger is fenced
+  private volatile Fence fence;
+
+  public RedisAccountLedger(
+    RedisClient redisClient,
+    @Property(name = "redis.scripting.enabled") boolean scriptingEnabled
+  ) {
+    this.redisClient = redisClient;
+    this.scriptingEnabled = scriptingEnabled;
+  }
+
+  @PreDestroy
+  synchronized void close() {
+    if (redisConnection != null) {
+      redisConnection.close();
+      redisConnection = null;
+    }
+  }
+
+  private synchronized StatefulRedisConnection<byte[], byte[]> connection() {
+    if (redisConnection == null) {
+      redisConnection = redisClient.connect(ByteArrayCodec.INSTANCE);
+      reservationScripts =
+        scriptingEnabled
+          ? new ReservationScripts(redisConnection.sync())
+          : null;
+      LOG.debug("Connected the ledger, scripting {}", scriptingEnabled);
+    }
+    return redisConnection;
+  }
+
+  private RedisCommands<byte[], byte[]> sync() {
+    return connection().sync();
+  }
+
+  /**
+   * Run commands, serialized with the transactions when the scripting is
+   * disabled
+   */
+  private <T> T call(Function<RedisCommands<byte[], byte[]>, T> commands) {
+    RedisCommands<byte[], byte[]> syncCommands = sync();
+    if (reservationScripts != null) {
+      return commands.apply(syncCommands);
+    }
+    synchronized (this) {
+      return commands.apply(syncCommands);
+    }
+  }
+
+  /**
+   * Without the scripting, the transactions cannot be pipelined, and the
+   * pipelined reservations are not fenced: the operations are then applied at
+   * once
+   */
+  @Override
+  public LedgerPipeline pipeline() {
+    connection();
+    if (reservationScripts == null || fence != null) {
+      return AccountLedger.super.pipeline();
+    }
+    reservationScripts.load();
+    return new RedisLedgerPipeline(
+      this,
+      redisClient.connect(ByteArrayCodec.INSTANCE),
+      reservationScripts
+    );
+  }
+
+  byte[] balanceKey(String username) {
+    return balanceKeys.computeIfAbsent(
+      username,
+      u -> encode(String.format(BALANCE_KEY_PATTERN, u))
+    );
+  }
+
+  byte[] stockKey(String username, String symbol) {
+    return stockKeys
+      .computeIfAbsent(username, u -> new ConcurrentHashMap<>())
+      .computeIfAbsent(
+        symbol,
+        s -> encode(String.format(STOCK_KEY_PATTERN, username, s))
+      );
+  }
+
+  @Override
+  public boolean fence(String name, long epoch) {
+    Fence raised = new Fence(
+      name,
+      encode(String.format(FENCE_KEY_PATTERN, name)),
+      epoch
+    );
+    RedisCommands<byte[], byte[]> syncCommands = sync();
+    boolean applied = reservationScripts != null
+      ? reservationScripts.raiseFence(raised)
+      : raiseFenceInTransaction(syncCommands, raised);
+    if (applied) {
+      fence = raised;
+      LOG.info("Fenced the ledger writes with {} epoch {}", name, epoch);
+    }
+    return applied;
+  }
+
+  @Override
+  public boolean exists(String username) {
+    byte[] balanceKey = balanceKey(username);
+    return call(syncCommands -> syncCommands.exists(balanceKey)) == 1;
+  }
+
+  @Override
+  public Double getBalance(String username) {
+    byte[] balanceKey = balanceKey(username);
+    byte[] value = call(syncCommands -> syncCommands.get(balanceKey));
+    return value == null ? null : Double.parseDouble(decode(value));
+  }
+
+  @Override
+  public Long getStock(String username, String symbol) {
+    byte[] stockKey = stockKey(username, symbol);
+    byte[] value = call(syncCommands -> syncCommands.get(stockKey));
+    return value == null ? null : Long.parseLong(decode(value));
+  }
+
+  @Override
+  public Result reserveBalance(String username, double amount) {
+    byte[] balanceKey = balanceKey(username);
+    RedisCommands<byte[], byte[]> syncCommands = sync();
+    if (reservationScripts != null) {
+      return reservationScripts.reserve(
+        balanceKey,
+        balanceKey,
+        amount,
+        false,
+        fence
+      );
+    }
+    return reserveInTransaction(
+      syncCommands,
+      balanceKey,
+      balanceKey,
+      amount,
+      false,
+      fence
+    );
+  }
+
+  @Override
+  public Result reserveStock(String username, String symbol, long quantity) {
+    byte[] balanceKey = balanceKey(username);
+    byte[] stockKey = stockKey(username, symbol);
+    RedisCommands<byte[], byte[]> syncCommands = sync();
+    if (reservationScripts != null) {
+      return reservationScripts.reserve(
+        balanceKey,
+        stockKey,
+        quantity,
+        true,
+        fence
+      );
+    }
+    return reserveInTransaction(
+      syncCommands,
+      balanceKey,
+      stockKey,
+      quantity,
+      true,
+      fence
+    );
+  }
+
+  @Override
+  public void releaseBalance(String username, double amount) {
+    Fence current = fence;
+    if (current != null) {
+      releaseFenced(
+        current,
+        Map.of(new AccountEntry(username, null), amount),
+        Map.of()
+      );
+      return;
+    }
+    byte[] balanceKey = balanceKey(username);
+    call(syncCommands -> syncCommands.incrbyfloat(balanceKey, amount));
+  }
+
+  @Override
+  public void releaseStock(String username, String symbol, long quantity) {
+    Fence current = fence;
+    if (current != null) {
+      releaseFenced(
+        current,
+        Map.of(),
+        Map.of(new AccountEntry(username, symbol), quantity)
+      );
+      return;
+    }
+    byte[] stockKey = stockKey(username, symbol);
+    call(syncCommands -> syncCommands.incrby(stockKey, quantity));
+  }
+
+  /**
+   * The amounts are summed per key and the commands are pipelined on the
+   * connection, or applied at once when the ledger is fenced
+   */
+  @Override
+  public void release(Collection<Reservation> reservations) {
+    Map<AccountEntry, Double> balances = new HashMap<>();
+    Map<AccountEntry, Long> stocks = new HashMap<>();
+    for (Reservation reservation : reservations) {
+      if (reservation.isBalance()) {
+        balances.merge(
+          AccountEntry.of(reservation),
+          reservation.amount(),
+          Double::sum
+        );
+      } else {
+        stocks.merge(
+          AccountEntry.of(reservation),
+          (long) reservation.amount(),
+          Long::sum
+        );
+      }
+    }
+    if (balances.isEmpty() && stocks.isEmpty()) {
+      return;
+    }
+    Fence current = fence;
+    if (current != null) {
+      releaseFenced(current, balances, stocks);
+      return;
+    }
+
+    StatefulRedisConnection<byte[], byte[]> connection = connection();
+    call(syncCommands -> {
+      pipelineReleases(connection, balances, stocks);
+      return null;
+    });
+  }
+
+  @Override
+  public Result settle(
+    String username,
+    String symbol,
+    double amount,
+    long quantity
+  ) {
+    requireUnfenced();
+    byte[] balanceKey = balanceKey(username);
+    byte[] stockKey = stockKey(username, symbol);
+    RedisCommands<byte[], byte[]> syncCommands = sync();
+    if (reservationScripts != null) {
+      return reservationScripts.settle(balanceKey, stockKey, amount, quantity);
+    }
+
+    synchronized (this) {
+      int countdown = MAX_RETRIES;
+      while (countdown-- > 0) {
+        syncCommands.watch(balanceKey);
+        byte[] balance = syncCommands.get(balanceKey);
+        if (balance == null) {
+          syncCommands.unwatch();
+          return Result.UNKNOWN_ACCOUNT;
+        }
+        if (Double.parseDouble(decode(balance)) < amount) {
+          syncCommands.unwatch();
+          return Result.INSUFFICIENT;
+        }
+        syncCommands.multi();
+        syncCommands.incrbyfloat(balanceKey, -amount);
+        syncCommands.incrby(stockKey, quantity);
+        if (syncCommands.exec().size() == 2) {
+          return Result.APPLIED;
+        }
+        LOG.debug("Retrying the settlement of {}", username);
+      }
+    }
+    LOG.error("Failed to settle the balance of {}", username);
+    return Result.INSUFFICIENT;
+  }
+
+  /**
+   * Without the scripting, the settlements are checked against the watched
+   * balance and netted in a transaction
+   */
+  @Override
+  public List<Result> settle(String username, List<Settlement> settlements) {
+    requireUnfenced();
+    byte[] balanceKey = balanceKey(username);
+    List<byte[]> stockKeys = settlements
+      .stream()
+      .map(settlement -> stockKey(username, settlement.symbol()))
+      .toList();
+    RedisCommands<byte[], byte[]> syncCommands = sync();
+    if (reservationScripts != null) {
+      return reservationScripts.settle(balanceKey, stockKeys, settlements);
+    }
+
+    synchronized (this) {
+      int countdown = MAX_RETRIES;
+      while (countdown-- > 0) {
+        syncCommands.watch(balanceKey);
+        byte[] balance = syncCommands.get(balanceKey);
+        NettedSettlements netted = new NettedSettlements(
+          balance == null ? null : Double.parseDouble(decode(balance)),
+          settlements
+        );
+        int commands = netted.getQuantities().size();
+        if (netted.isBalanceChanged()) {
+          commands++;
+        }
+        if (commands == 0) {
+          syncCommands.unwatch();
+          return netted.getResults();
+        }
+        syncCommands.multi();
+        if (netted.isBalanceChanged()) {
+          syncCommands.incrbyfloat(balanceKey, netted.getAmount());
+        }
+        netted
+          .getQuantities()
+          .forEach((symbol, quantity) ->
+            syncCommands.incrby(stockKey(username, symbol), quantity)
+          );
+        if (syncCommands.exec().size() == commands) {
+          return netted.getResults();
+        }
+        LOG.debug("Retrying the settlements of {}", username);
+      }
+    }
+    LOG.error("Failed to net the settlements of {}", username);
+    return settlements
+      .stream()
+      .map(settlement -> settleOne(username, settlement))
+      .toList();
+  }
+
+  private Result settleOne(String username, Settlement settlement) {
+    if (settlement.isDebit()) {
+      return settle(
+        username,
+        settlement.symbol(),
+        -settlement.amount(),
+        settlement.quantity()
+      );
+    }
+    if (settlement.amount() != 0) {
+      releaseBalance(username, settlement.amount());
+    }
+    if (settlement.quantity() != 0) {
+      releaseStock(username, settlement.symbol(), settlement.quantity());
+    }
+    return Result.APPLIED;
+  }
+
+  /**
+   * The key of a balance or stock
+   */
+  private byte[] keyOf(AccountEntry entry) {
+    return entry.symbol() == null
+      ? balanceKey(entry.username())
+      : stockKey(entry.username(), entry.symbol());
+  }
+
+  private void requireUnfenced() {
+    if (fence != null) {
+      throw new IllegalStateException(
+        "The settlements of a fenced ledger are not fenced"
+      );
+    }
+  }
+
+  /**
+   * The fence is watched with the reserved key, when the ledger is fenced
+   */
+  private synchronized Result reserveInTransaction(
+    RedisCommands<byte[], byte[]> syncCommands,
+    byte[] balanceKey,
+    byte[] key,
+    double amount,
+    boolean integer,
+    Fence fence
+  ) {
+    int countdown = MAX_RETRIES;
+    while (countdown-- > 0) {
+      if (fence == null) {
+        syncCommands.watch(key);
+      } else {
+        syncCommands.watch(key, fence.key());
+        checkFence(syncCommands, fence);
+      }
+      byte[] current = syncCommands.get(key);
+      if (current == null) {
+        syncCommands.unwatch();
+        return syncCommands.exists(balanceKey) == 1
+          ? Result.MISSING_ENTRY
+          : Result.UNKNOWN_ACCOUNT;
+      }
+      if (Double.parseDouble(decode(current)) < amount) {
+        syncCommands.unwatch();
+        return Result.INSUFFICIENT;
+      }
+      syncCommands.multi();
+      if (integer) {
+        syncCommands.decrby(key, (long) amount);
+      } else {
+        syncCommands.incrbyfloat(key, -amount);
+      }
+      if (syncCommands.exec().size() == 1) {
+        return Result.APPLIED;
+      }
+      LOG.debug("Retrying the reservation of {}", decode(key));
+    }
+    LOG.error("Failed to reserve {}", decode(key));
+    return Result.INSUFFICIENT;
+  }
+
+  private synchronized boolean raiseFenceInTransaction(
+    RedisCommands<byte[], byte[]> syncCommands,
+    Fence fence
+  ) {
+    int countdown = MAX_RETRIES;
+    while (countdown-- > 0) {
+      syncCommands.watch(fence.key());
+      byte[] current = syncCommands.get(fence.key());
+      if (current != null && Long.parseLong(decode(current)) > fence.epoch()) {
+        syncCommands.unwatch();
+        return false;
+      }
+      syncCommands.multi();
+      syncCommands.set(fence.key(), fence.epochValue());
+      if (!syncCommands.exec().wasDiscarded()) {
+        return true;
+      }
+      LOG.debug("Retrying to raise the fence {}", fence.name());
+    }
+    LOG.error("Failed to raise the fence {}", fence.name());
+    return false;
+  }
+
+  /**
+   * Release the amounts in one script or transaction, checking the fence
+   */
+  private void releaseFenced(
+    Fence fence,
+    Map<AccountEntry, Double> balances,
+    Map<AccountEntry, Long> stocks
+  ) {
+    List<byte[]> keys = new ArrayList<>(balances.size() + stocks.size());
+    List<String> amounts = new ArrayList<>(keys.size());
+    balances.forEach((entry, amount) -> {
+      keys.add(keyOf(entry));
+      amounts.add(Double.toString(amount));
+    });
+    stocks.forEach((entry, quantity) -> {
+      keys.add(keyOf(entry));
+      amounts.add(Long.toString(quantity));
+    });
+    RedisCommands<byte[], byte[]> syncCommands = sync();
+    if (reservationScripts != null) {
+      reservationScripts.release(fence, keys, amounts);
+      return;
+    }
+
+    synchronized (this) {
+      int countdown = MAX_RETRIES;
+      while (countdown-- > 0) {
+        syncCommands.watch(fence.key());
+        checkFence(syncCommands, fence);
+        syncCommands.multi();
+        balances.forEach((entry, amount) ->
+          syncCommands.incrbyfloat(keyOf(entry), amount)
+        );
+        stocks.forEach((entry, quantity) ->
+          syncCommands.incrby(keyOf(entry), quantity)
+        );
+        if (!syncCommands.exec().wasDiscarded()) {
+          return;
+        }
+        LOG.debug("Retrying the release of {} reservations", keys.size());
+      }
+    }
+    LOG.error("Failed to release {} reservations", keys.size());
+  }
+
+  /**
+   * Check the watched fence before a transaction
+   * @throws FencedException if the fence holds another epoch
+   */
+  private static void checkFence(
+    RedisCommands<byte[], byte[]> syncCommands,
+    Fence fence
+  ) {
+    if (!fence.isHeld(syncCommands.get(fence.key()))) {
+      syncCommands.unwatch();
+      throw fence.rejected();
+    }
+  }
+
+  private void pipelineReleases(
+    StatefulRedisConnection<byte[], byte[]> connection,
+    Map<AccountEntry, Double> balances,
+    Map<AccountEntry, Long> stocks
+  ) {
+    RedisAsyncCommands<byte[], byte[]> asyncCommands = connection.async();
+    List<RedisFuture<?>> futures = new ArrayList<>();
+    balances.forEach((entry, amount) ->
+      futures.add(asyncCommands.incrbyfloat(keyOf(entry), amount))
+    );
+    stocks.forEach((entry, quantity) ->
+      futures.add(asyncCommands.incrby(keyOf(entry), quantity))
+    );
+    if (
+      !LettuceFutures.awaitAll(
+        BATCH_TIMEOUT,
+        futures.toArray(new RedisFuture<?>[0])
+      )
+    ) {
+      LOG.error("Timed out releasing {} reservations", futures.size());
+    }
+  }
+
+  /**
+   * Balance, or stock if the symbol is set, of an account
+   */
+  private record AccountEntry(String username, String symbol) {
+    private static AccountEntry of(Reservation reservation) {
+      return new AccountEntry(reservation.username(), reservation.symbol());
+    }
+  }
+
+  private static byte[] encode(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String decode(byte[] value) {
+    return new String(value, StandardCharsets.UTF_8);
+  }
+}
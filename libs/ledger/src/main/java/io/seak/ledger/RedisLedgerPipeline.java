@@ -0,0 +1,77 @@
+package io.seak.ledger;
+
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Pipeline of the {@link RedisAccountLedger} on a connection of its own, with
+ * the automatic flush disabled: the EVALSHA commands are written to the socket
+ * only by {@link #flush()}, and Redis answers them in order.
+ */
+class RedisLedgerPipeline implements LedgerPipeline {
+
+  private final RedisAccountLedger accountLedger;
+  private final StatefulRedisConnection<byte[], byte[]> connection;
+  private final RedisAsyncCommands<byte[], byte[]> asyncCommands;
+  private final ReservationScripts reservationScripts;
+
+  RedisLedgerPipeline(
+    RedisAccountLedger accountLedger,
+    StatefulRedisConnection<byte[], byte[]> connection,
+    ReservationScripts reservationScripts
+  ) {
+    this.accountLedger = accountLedger;
+    this.connection = connection;
+    this.asyncCommands = connection.async();
+    this.reservationScripts = reservationScripts;
+    connection.setAutoFlushCommands(false);
+  }
+
+  @Override
+  public CompletionStage<Boolean> exists(String username) {
+    return asyncCommands
+      .exists(accountLedger.balanceKey(username))
+      .thenApply(count -> count == 1);
+  }
+
+  @Override
+  public CompletionStage<AccountLedger.Result> reserveBalance(
+    String username,
+    double amount
+  ) {
+    byte[] balanceKey = accountLedger.balanceKey(username);
+    return reservationScripts.reserve(
+      asyncCommands,
+      balanceKey,
+      balanceKey,
+      amount,
+      false
+    );
+  }
+
+  @Override
+  public CompletionStage<AccountLedger.Result> reserveStock(
+    String username,
+    String symbol,
+    long quantity
+  ) {
+    return reservationScripts.reserve(
+      asyncCommands,
+      accountLedger.balanceKey(username),
+      accountLedger.stockKey(username, symbol),
+      quantity,
+      true
+    );
+  }
+
+  @Override
+  public void flush() {
+    connection.flushCommands();
+  }
+
+  @Override
+  public void close() {
+    connection.close();
+  }
+}
@@ -0,0 +1,25 @@
+package io.seak.ledger;
+
+/**
+ * Amount of a balance or quantity of a stock reserved by an order
+ * @param username
+ * @param symbol the symbol of the stock, null for the balance
+ * @param amount
+ */
+public record Reservation(String username, String symbol, double amount) {
+  public static Reservation ofBalance(String username, double amount) {
+    return new Reservation(username, null, amount);
+  }
+
+  public static Reservation ofStock(
+    String username,
+    String symbol,
+    long quantity
+  ) {
+    return new Reservation(username, symbol, quantity);
+  }
+
+  public boolean isBalance() {
+    return symbol == null;
+  }
+}
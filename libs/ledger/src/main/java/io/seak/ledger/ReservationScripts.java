@@ -0,0 +1,356 @@
+package io.seak.ledger;
+
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.api.sync.RedisCommands;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Lua scripts of the {@link RedisAccountLedger}, loaded once and invoked with
+ * EVALSHA: each check and mutation is a single atomic round trip, without the
+ * WATCH / MULTI / EXEC retries.
+ *
+ * A fenced write checks the epoch of its fence first, and returns -3 without
+ * any modification when the fence holds another one.
+ *
+ * The scripts are loaded again when Redis answers NOSCRIPT, after a restart.
+ * An asynchronous reservation answered NOSCRIPT is sent again with EVAL, which
+ * loads the script, and flushed at once: it is then applied after the
+ * reservations queued in the meantime.
+ */
+class ReservationScripts {
+
+  private static final byte[] INTEGER = bytes("integer");
+  private static final byte[] FLOAT = bytes("float");
+  private static final long FENCED = -3;
+
+  /**
+   * KEYS[1]: balance of the account, KEYS[2]: balance or stock reserved,
+   * KEYS[3]: fence if any, ARGV[1]: amount, ARGV[2]: "integer" for a stock,
+   * ARGV[3]: epoch of the fence
+   */
+  private static final String RESERVE_SCRIPT = String.join(
+    "\n",
+    "if KEYS[3] and redis.call('GET', KEYS[3]) ~= ARGV[3] then return -3 end",
+    "local current = tonumber(redis.call('GET', KEYS[2]))",
+    "if current == nil then",
+    "  if redis.call('EXISTS', KEYS[1]) == 0 then return -2 end",
+    "  return -1",
+    "end",
+    "if current < tonumber(ARGV[1]) then return 0 end",
+    "if ARGV[2] == 'integer' then",
+    "  redis.call('DECRBY', KEYS[2], ARGV[1])",
+    "else",
+    "  redis.call('INCRBYFLOAT', KEYS[2], -tonumber(ARGV[1]))",
+    "end",
+    "return 1"
+  );
+
+  /**
+   * KEYS[1]: balance debited, KEYS[2]: stock credited, ARGV[1]: amount,
+   * ARGV[2]: quantity
+   */
+  private static final String SETTLE_SCRIPT = String.join(
+    "\n",
+    "local balance = tonumber(redis.call('GET', KEYS[1]))",
+    "if balance == nil then return -2 end",
+    "if balance < tonumber(ARGV[1]) then return 0 end",
+    "redis.call('INCRBYFLOAT', KEYS[1], -tonumber(ARGV[1]))",
+    "redis.call('INCRBY', KEYS[2], ARGV[2])",
+    "return 1"
+  );
+
+  /**
+   * KEYS[1]: balance of the account, KEYS[i + 1]: stock of the settlement i,
+   * ARGV[2i - 1]: amount of the settlement i, ARGV[2i]: its quantity. The
+   * settlements are checked in order, the applied ones are netted per key
+   */
+  private static final String SETTLE_ALL_SCRIPT = String.join(
+    "\n",
+    "local balance = tonumber(redis.call('GET', KEYS[1]))",
+    "local changed = false",
+    "local amounts = 0",
+    "local quantities = {}",
+    "local results = {}",
+    "for i = 2, #KEYS do",
+    "  local amount = tonumber(ARGV[2 * i - 3])",
+    "  local quantity = tonumber(ARGV[2 * i - 2])",
+    "  if amount < 0 and balance == nil then",
+    "    results[i - 1] = -2",
+    "  elseif amount < 0 and balance < -amount then",
+    "    results[i - 1] = 0",
+    "  else",
+    "    if amount ~= 0 then",
+    "      balance = (balance or 0) + amount",
+    "      amounts = amounts + amount",
+    "      changed = true",
+    "    end",
+    "    if quantity ~= 0 then",
+    "      quantities[KEYS[i]] = (quantities[KEYS[i]] or 0) + quantity",
+    "    end",
+    "    results[i - 1] = 1",
+    "  end",
+    "end",
+    "if changed then",
+    "  redis.call('INCRBYFLOAT', KEYS[1], string.format('%.17g', amounts))",
+    "end",
+    "for key, quantity in pairs(quantities) do",
+    "  redis.call('INCRBY', key, string.format('%d', quantity))",
+    "end",
+    "return results"
+  );
+
+  /**
+   * KEYS[1]: fence, ARGV[1]: its epoch, KEYS[i]: balance or stock released,
+   * ARGV[i]: amount added to it
+   */
+  private static final String RELEASE_SCRIPT = String.join(
+    "\n",
+    "if redis.call('GET', KEYS[1]) ~= ARGV[1] then return -3 end",
+    "for i = 2, #KEYS do",
+    "  redis.call('INCRBYFLOAT', KEYS[i], ARGV[i])",
+    "end",
+    "return 1"
+  );
+
+  /**
+   * KEYS[1]: fence, ARGV[1]: epoch it is raised to, unless it holds a greater
+   * one
+   */
+  private static final String RAISE_FENCE_SCRIPT = String.join(
+    "\n",
+    "local current = tonumber(redis.call('GET', KEYS[1]))",
+    "if current and current > tonumber(ARGV[1]) then return 0 end",
+    "redis.call('SET', KEYS[1], ARGV[1])",
+    "return 1"
+  );
+
+  private final RedisCommands<byte[], byte[]> syncCommands;
+
+  private volatile String reserveSha;
+  private volatile String settleSha;
+  private volatile String settleAllSha;
+  private volatile String releaseSha;
+  private volatile String raiseFenceSha;
+
+  ReservationScripts(RedisCommands<byte[], byte[]> syncCommands) {
+    this.syncCommands = syncCommands;
+    load();
+  }
+
+  void load() {
+    reserveSha = syncCommands.scriptLoad(RESERVE_SCRIPT);
+    settleSha = syncCommands.scriptLoad(SETTLE_SCRIPT);
+    settleAllSha = syncCommands.scriptLoad(SETTLE_ALL_SCRIPT);
+    releaseSha = syncCommands.scriptLoad(RELEASE_SCRIPT);
+    raiseFenceSha = syncCommands.scriptLoad(RAISE_FENCE_SCRIPT);
+  }
+
+  /**
+   * @param balanceKey balance of the account, checked when the entry is
+   * missing
+   * @param key balance or stock reserved, can be the balance key
+   * @param amount
+   * @param integer true for a stock
+   * @param fence null if the ledger is not fenced
+   * @throws FencedException if the fence holds another epoch
+   */
+  AccountLedger.Result reserve(
+    byte[] balanceKey,
+    byte[] key,
+    double amount,
+    boolean integer,
+    Fence fence
+  ) {
+    byte[][] values = reserveValues(amount, integer);
+    if (fence == null) {
+      return evalsha(true, new byte[][] { balanceKey, key }, values);
+    }
+    Long result = evalsha(
+      () -> reserveSha,
+      ScriptOutputType.INTEGER,
+      new byte[][] { balanceKey, key, fence.key() },
+      values[0],
+      values[1],
+      fence.epochValue()
+    );
+    if (result == FENCED) {
+      throw fence.rejected();
+    }
+    return resultOf(result);
+  }
+
+  /**
+   * Queue a reservation on asynchronous commands, see
+   * {@link #reserve(byte[], byte[], double, boolean, Fence)}, never fenced
+   */
+  CompletionStage<AccountLedger.Result> reserve(
+    RedisAsyncCommands<byte[], byte[]> asyncCommands,
+    byte[] balanceKey,
+    byte[] key,
+    double amount,
+    boolean integer
+  ) {
+    byte[][] keys = new byte[][] { balanceKey, key };
+    byte[][] values = reserveValues(amount, integer);
+    return asyncCommands
+      .<Long>evalsha(reserveSha, ScriptOutputType.INTEGER, keys, values)
+      .exceptionallyCompose(exception -> {
+        if (!(unwrap(exception) instanceof RedisNoScriptException)) {
+          return CompletableFuture.failedStage(exception);
+        }
+        CompletionStage<Long> retry = asyncCommands.eval(
+          RESERVE_SCRIPT,
+          ScriptOutputType.INTEGER,
+          keys,
+          values
+        );
+        asyncCommands.flushCommands();
+        return retry;
+      })
+      .thenApply(ReservationScripts::resultOf);
+  }
+
+  AccountLedger.Result settle(
+    byte[] balanceKey,
+    byte[] stockKey,
+    double amount,
+    long quantity
+  ) {
+    return evalsha(
+      false,
+      new byte[][] { balanceKey, stockKey },
+      bytes(Double.toString(amount)),
+      bytes(Long.toString(quantity))
+    );
+  }
+
+  /**
+   * @param balanceKey balance of the account
+   * @param stockKeys stock of each settlement
+   * @param settlements
+   */
+  List<AccountLedger.Result> settle(
+    byte[] balanceKey,
+    List<byte[]> stockKeys,
+    List<Settlement> settlements
+  ) {
+    byte[][] keys = new byte[settlements.size() + 1][];
+    byte[][] values = new byte[2 * settlements.size()][];
+    keys[0] = balanceKey;
+    for (int i = 0; i < settlements.size(); i++) {
+      Settlement settlement = settlements.get(i);
+      keys[i + 1] = stockKeys.get(i);
+      values[2 * i] = bytes(Double.toString(settlement.amount()));
+      values[2 * i + 1] = bytes(Long.toString(settlement.quantity()));
+    }
+    List<Long> results = evalsha(
+      () -> settleAllSha,
+      ScriptOutputType.MULTI,
+      keys,
+      values
+    );
+    return results.stream().map(ReservationScripts::resultOf).toList();
+  }
+
+  /**
+   * @param fence
+   * @param keys balance or stock keys, distinct
+   * @param amounts amount added to each key
+   * @throws FencedException if the fence holds another epoch
+   */
+  void release(Fence fence, List<byte[]> keys, List<String> amounts) {
+    byte[][] scriptKeys = new byte[keys.size() + 1][];
+    byte[][] values = new byte[keys.size() + 1][];
+    scriptKeys[0] = fence.key();
+    values[0] = fence.epochValue();
+    for (int i = 0; i < keys.size(); i++) {
+      scriptKeys[i + 1] = keys.get(i);
+      values[i + 1] = bytes(amounts.get(i));
+    }
+    Long result = evalsha(
+      () -> releaseSha,
+      ScriptOutputType.INTEGER,
+      scriptKeys,
+      values
+    );
+    if (result == FENCED) {
+      throw fence.rejected();
+    }
+  }
+
+  /**
+   * @param fence
+   * @return false if the fence holds a greater epoch
+   */
+  boolean raiseFence(Fence fence) {
+    Long result = evalsha(
+      () -> raiseFenceSha,
+      ScriptOutputType.INTEGER,
+      new byte[][] { fence.key() },
+      fence.epochValue()
+    );
+    return result == 1;
+  }
+
+  private AccountLedger.Result evalsha(
+    boolean reserve,
+    byte[][] keys,
+    byte[]... values
+  ) {
+    Long result = evalsha(
+      () -> reserve ? reserveSha : settleSha,
+      ScriptOutputType.INTEGER,
+      keys,
+      values
+    );
+    return resultOf(result);
+  }
+
+  private <T> T evalsha(
+    Supplier<String> sha,
+    ScriptOutputType type,
+    byte[][] keys,
+    byte[]... values
+  ) {
+    try {
+      return syncCommands.evalsha(sha.get(), type, keys, values);
+    } catch (RedisNoScriptException e) {
+      load();
+      return syncCommands.evalsha(sha.get(), type, keys, values);
+    }
+  }
+
+  private static Throwable unwrap(Throwable exception) {
+    return exception instanceof CompletionException &&
+      exception.getCause() != null
+      ? exception.getCause()
+      : exception;
+  }
+
+  private static byte[][] reserveValues(double amount, boolean integer) {
+    return new byte[][] {
+      bytes(integer ? Long.toString((long) amount) : Double.toString(amount)),
+      integer ? INTEGER : FLOAT,
+    };
+  }
+
+  private static AccountLedger.Result resultOf(Long result) {
+    return switch (result.intValue()) {
+      case 1 -> AccountLedger.Result.APPLIED;
+      case 0 -> AccountLedger.Result.INSUFFICIENT;
+      case -1 -> AccountLedger.Result.MISSING_ENTRY;
+      default -> AccountLedger.Result.UNKNOWN_ACCOUNT;
+    };
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.US_ASCII);
+  }
+}
@@ -0,0 +1,45 @@
+package io.seak.ledger;
+
+/**
+ * Change of the balance and of a stock of an account, settled by a trade
+ * @param symbol the symbol of the stock
+ * @param amount added to the balance, a negative amount is debited only if
+ * the balance covers it
+ * @param quantity added to the stock
+ */
+public record Settlement(String symbol, double amount, long quantity) {
+  /**
+   * The amount of a SELL trade
+   */
+  public static Settlement ofSale(String symbol, double amount) {
+    return new Settlement(symbol, amount, 0);
+  }
+
+  /**
+   * The quantity of a BUY trade, whose amount is reserved
+   * @param refund part of the reserved amount not spent, when the trade is
+   * priced below the limit of the order
+   */
+  public static Settlement ofReservedPurchase(
+    String symbol,
+    double refund,
+    long quantity
+  ) {
+    return new Settlement(symbol, refund, quantity);
+  }
+
+  /**
+   * The amount and quantity of a BUY trade without reservation
+   */
+  public static Settlement ofPurchase(
+    String symbol,
+    double amount,
+    long quantity
+  ) {
+    return new Settlement(symbol, -amount, quantity);
+  }
+
+  public boolean isDebit() {
+    return amount < 0;
+  }
+}
@@ -0,0 +1,44 @@
+package io.seak.ledger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class InMemoryAccountLedgerTest {
+
+  private final InMemoryAccountLedger accountLedger =
+    new InMemoryAccountLedger();
+
+  @Test
+  void testFenceRaisedOnPromotion() {
+    // Given
+    accountLedger.setBalance("user", 1000);
+    assertThat(accountLedger.fence("order-book", 1)).isTrue();
+
+    // When, the same instance is promoted again
+    boolean fenced = accountLedger.fence("order-book", 2);
+
+    // Then, the writes are still applied
+    assertThat(fenced).isTrue();
+    assertThat(accountLedger.reserveBalance("user", 100))
+      .isEqualTo(AccountLedger.Result.APPLIED);
+    accountLedger.releaseBalance("user", 50);
+    assertThat(accountLedger.getBalance("user")).isEqualTo(950.0);
+  }
+
+  @Test
+  void testFenceNotLoweredByOlderEpoch() {
+    // Given
+    accountLedger.setBalance("user", 1000);
+    accountLedger.fence("order-book", 2);
+
+    // When
+    boolean fenced = accountLedger.fence("order-book", 1);
+
+    // Then
+    assertThat(fenced).isFalse();
+    assertThatThrownBy(() -> accountLedger.settle("user", "AAPL", 10, 1))
+      .isInstanceOf(IllegalStateException.class);
+  }
+}
@@ -0,0 +1,76 @@
+package io.seak.ledger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class NettedSettlementsTest {
+
+  @Test
+  void testNetAppliedSettlements() {
+    // When
+    NettedSettlements netted = new NettedSettlements(
+      100.0,
+      List.of(
+        Settlement.ofPurchase("AAPL", 80, 2),
+        Settlement.ofPurchase("AAPL", 30, 1),
+        Settlement.ofSale("MSFT", 50),
+        Settlement.ofPurchase("AAPL", 30, 1),
+        Settlement.ofReservedPurchase("MSFT", 0, 4)
+      )
+    );
+
+    // Then, the second purchase is skipped and the others are netted
+    assertThat(netted.getResults())
+      .containsExactly(
+        AccountLedger.Result.APPLIED,
+        AccountLedger.Result.INSUFFICIENT,
+        AccountLedger.Result.APPLIED,
+        AccountLedger.Result.APPLIED,
+        AccountLedger.Result.APPLIED
+      );
+    assertThat(netted.getAmount()).isEqualTo(-60.0);
+    assertThat(netted.isBalanceChanged()).isTrue();
+    assertThat(netted.getQuantities())
+      .containsEntry("AAPL", 3L)
+      .containsEntry("MSFT", 4L);
+  }
+
+  @Test
+  void testCreditAccountWithoutBalance() {
+    // When
+    NettedSettlements netted = new NettedSettlements(
+      null,
+      List.of(
+        Settlement.ofPurchase("AAPL", 10, 1),
+        Settlement.ofSale("AAPL", 20),
+        Settlement.ofPurchase("AAPL", 10, 1)
+      )
+    );
+
+    // Then, a debit needs the balance created by the sale
+    assertThat(netted.getResults())
+      .containsExactly(
+        AccountLedger.Result.UNKNOWN_ACCOUNT,
+        AccountLedger.Result.APPLIED,
+        AccountLedger.Result.APPLIED
+      );
+    assertThat(netted.getAmount()).isEqualTo(10.0);
+    assertThat(netted.getQuantities()).containsEntry("AAPL", 1L);
+  }
+
+  @Test
+  void testBalanceUnchangedByReservedPurchases() {
+    // When
+    NettedSettlements netted = new NettedSettlements(
+      0.0,
+      List.of(Settlement.ofReservedPurchase("AAPL", 0, 5))
+    );
+
+    // Then
+    assertThat(netted.isBalanceChanged()).isFalse();
+    assertThat(netted.getAmount()).isZero();
+    assertThat(netted.getQuantities()).containsEntry("AAPL", 5L);
+  }
+}
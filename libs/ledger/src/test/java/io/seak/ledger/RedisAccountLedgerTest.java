@@ -0,0 +1,228 @@
+package io.seak.ledger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.seak.common.utils.RedisTestContainer;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@Testcontainers(disabledWithoutDocker = true)
+class RedisAccountLedgerTest {
+
+  @Container
+  static final RedisTestContainer redis = new RedisTestContainer();
+
+  private RedisClient redisClient;
+  private StatefulRedisConnection<String, String> redisConnection;
+  private RedisAccountLedger accountLedger;
+
+  @BeforeEach
+  void setup() {
+    redisClient = RedisClient.create(redis.getRedisUrl());
+    redisConnection = redisClient.connect();
+    redisConnection.sync().flushall();
+    redisConnection.sync().set("user:balance", "1000");
+    redisConnection.sync().set("user:AAPL", "10");
+  }
+
+  @AfterEach
+  void teardown() {
+    accountLedger.close();
+    redisConnection.close();
+    redisClient.shutdown();
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = { true, false })
+  void testReserveBalance(boolean scriptingEnabled) {
+    // Given
+    accountLedger = new RedisAccountLedger(redisClient, scriptingEnabled);
+
+    // When
+    AccountLedger.Result applied = accountLedger.reserveBalance("user", 600);
+    AccountLedger.Result insufficient = accountLedger.reserveBalance(
+      "user",
+      600
+    );
+    AccountLedger.Result unknown = accountLedger.reserveBalance("other", 1);
+
+    // Then, only the applied reservation is debited
+    assertThat(applied).isEqualTo(AccountLedger.Result.APPLIED);
+    assertThat(insufficient).isEqualTo(AccountLedger.Result.INSUFFICIENT);
+    assertThat(unknown).isEqualTo(AccountLedger.Result.UNKNOWN_ACCOUNT);
+    assertThat(accountLedger.getBalance("user")).isEqualTo(400.0);
+    assertThat(accountLedger.exists("other")).isFalse();
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = { true, false })
+  void testReserveStock(boolean scriptingEnabled) {
+    // Given
+    accountLedger = new RedisAccountLedger(redisClient, scriptingEnabled);
+
+    // When
+    AccountLedger.Result applied = accountLedger.reserveStock(
+      "user",
+      "AAPL",
+      10
+    );
+    AccountLedger.Result insufficient = accountLedger.reserveStock(
+      "user",
+      "AAPL",
+      1
+    );
+    AccountLedger.Result missing = accountLedger.reserveStock(
+      "user",
+      "MSFT",
+      1
+    );
+    AccountLedger.Result unknown = accountLedger.reserveStock(
+      "other",
+      "AAPL",
+      1
+    );
+
+    // Then
+    assertThat(applied).isEqualTo(AccountLedger.Result.APPLIED);
+    assertThat(insufficient).isEqualTo(AccountLedger.Result.INSUFFICIENT);
+    assertThat(missing).isEqualTo(AccountLedger.Result.MISSING_ENTRY);
+    assertThat(unknown).isEqualTo(AccountLedger.Result.UNKNOWN_ACCOUNT);
+    assertThat(accountLedger.getStock("user", "AAPL")).isZero();
+    assertThat(accountLedger.getStock("user", "MSFT")).isNull();
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = { true, false })
+  void testSettlePurchase(boolean scriptingEnabled) {
+    // Given
+    accountLedger = new RedisAccountLedger(redisClient, scriptingEnabled);
+
+    // When
+    AccountLedger.Result applied = accountLedger.settle(
+      "user",
+      "MSFT",
+      900,
+      3
+    );
+    AccountLedger.Result insufficient = accountLedger.settle(
+      "user",
+      "MSFT",
+      101,
+      1
+    );
+
+    // Then, the stock is created by the first purchase
+    assertThat(applied).isEqualTo(AccountLedger.Result.APPLIED);
+    assertThat(insufficient).isEqualTo(AccountLedger.Result.INSUFFICIENT);
+    assertThat(accountLedger.getBalance("user")).isEqualTo(100.0);
+    assertThat(accountLedger.getStock("user", "MSFT")).isEqualTo(3L);
+    assertThat(accountLedger.settle("other", "MSFT", 1, 1))
+      .isEqualTo(AccountLedger.Result.UNKNOWN_ACCOUNT);
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = { true, false })
+  void testSettleBatchInOrder(boolean scriptingEnabled) {
+    // Given
+    accountLedger = new RedisAccountLedger(redisClient, scriptingEnabled);
+
+    // When, the sale covers the last purchase but not the second one
+    List<AccountLedger.Result> results = accountLedger.settle(
+      "user",
+      List.of(
+        Settlement.ofPurchase("AAPL", 800, 2),
+        Settlement.ofPurchase("MSFT", 300, 1),
+        Settlement.ofSale("AAPL", 150),
+        Settlement.ofPurchase("MSFT", 300, 1)
+      )
+    );
+
+    // Then
+    assertThat(results)
+      .containsExactly(
+        AccountLedger.Result.APPLIED,
+        AccountLedger.Result.INSUFFICIENT,
+        AccountLedger.Result.APPLIED,
+        AccountLedger.Result.APPLIED
+      );
+    assertThat(accountLedger.getBalance("user")).isEqualTo(50.0);
+    assertThat(accountLedger.getStock("user", "AAPL")).isEqualTo(12L);
+    assertThat(accountLedger.getStock("user", "MSFT")).isEqualTo(1L);
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = { true, false })
+  void testReleaseSumsPerAccount(boolean scriptingEnabled) {
+    // Given
+    accountLedger = new RedisAccountLedger(redisClient, scriptingEnabled);
+
+    // When
+    accountLedger.release(
+      List.of(
+        Reservation.ofBalance("user", 100),
+        Reservation.ofBalance("user", 50),
+        Reservation.ofStock("user", "AAPL", 2),
+        Reservation.ofStock("user", "AAPL", 3)
+      )
+    );
+
+    // Then
+    assertThat(accountLedger.getBalance("user")).isEqualTo(1150.0);
+    assertThat(accountLedger.getStock("user", "AAPL")).isEqualTo(15L);
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = { true, false })
+  void testFencedWritesOfDeposedEpoch(boolean scriptingEnabled) {
+    // Given, a ledger fenced with epoch 1 then another one with epoch 2
+    accountLedger = new RedisAccountLedger(redisClient, scriptingEnabled);
+    assertThat(accountLedger.fence("order-book", 1)).isTrue();
+    assertThat(accountLedger.reserveBalance("user", 100))
+      .isEqualTo(AccountLedger.Result.APPLIED);
+    RedisAccountLedger newLedger = new RedisAccountLedger(
+      redisClient,
+      scriptingEnabled
+    );
+    assertThat(newLedger.fence("order-book", 2)).isTrue();
+
+    // When, then, the writes of epoch 1 are rejected without modification
+    assertThatThrownBy(() -> accountLedger.reserveBalance("user", 100))
+      .isInstanceOf(FencedException.class);
+    assertThatThrownBy(() -> accountLedger.releaseStock("user", "AAPL", 5))
+      .isInstanceOf(FencedException.class);
+    assertThatThrownBy(() ->
+        accountLedger.release(List.of(Reservation.ofBalance("user", 100)))
+      )
+      .isInstanceOf(FencedException.class);
+    newLedger.releaseBalance("user", 50);
+    newLedger.close();
+    assertThat(accountLedger.getBalance("user")).isEqualTo(950.0);
+    assertThat(accountLedger.getStock("user", "AAPL")).isEqualTo(10L);
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = { true, false })
+  void testFenceNotLoweredByOlderEpoch(boolean scriptingEnabled) {
+    // Given
+    accountLedger = new RedisAccountLedger(redisClient, scriptingEnabled);
+    accountLedger.fence("order-book", 2);
+
+    // When
+    boolean fenced = accountLedger.fence("order-book", 1);
+
+    // Then, the writes keep the epoch 2
+    assertThat(fenced).isFalse();
+    accountLedger.releaseStock("user", "AAPL", 5);
+    assertThat(accountLedger.getStock("user", "AAPL")).isEqualTo(15L);
+    assertThatThrownBy(() -> accountLedger.settle("user", "AAPL", 10, 1))
+      .isInstanceOf(IllegalStateException.class);
+  }
+}
@@ -0,0 +1,109 @@
+package io.seak.ledger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.seak.common.utils.RedisTestContainer;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@Testcontainers(disabledWithoutDocker = true)
+class RedisLedgerPipelineTest {
+
+  @Container
+  static final RedisTestContainer redis = new RedisTestContainer();
+
+  private RedisClient redisClient;
+  private StatefulRedisConnection<String, String> redisConnection;
+  private RedisAccountLedger accountLedger;
+
+  @BeforeEach
+  void setup() {
+    redisClient = RedisClient.create(redis.getRedisUrl());
+    redisConnection = redisClient.connect();
+    redisConnection.sync().flushall();
+    redisConnection.sync().set("user:balance", "1000");
+    redisConnection.sync().set("user:AAPL", "10");
+    accountLedger = new RedisAccountLedger(redisClient, true);
+  }
+
+  @AfterEach
+  void teardown() {
+    accountLedger.close();
+    redisConnection.close();
+    redisClient.shutdown();
+  }
+
+  @Test
+  void testPipelinedReservations() throws Exception {
+    // Given
+    CompletionStage<AccountLedger.Result> first;
+    CompletionStage<AccountLedger.Result> second;
+    CompletionStage<AccountLedger.Result> stock;
+    CompletionStage<AccountLedger.Result> unknown;
+
+    // When
+    try (LedgerPipeline pipeline = accountLedger.pipeline()) {
+      first = pipeline.reserveBalance("user", 600);
+      second = pipeline.reserveBalance("user", 600);
+      stock = pipeline.reserveStock("user", "AAPL", 4);
+      unknown = pipeline.reserveBalance("unknown", 1);
+      pipeline.flush();
+
+      // Then
+      assertThat(result(first)).isEqualTo(AccountLedger.Result.APPLIED);
+      assertThat(result(second)).isEqualTo(AccountLedger.Result.INSUFFICIENT);
+      assertThat(result(stock)).isEqualTo(AccountLedger.Result.APPLIED);
+      assertThat(result(unknown))
+        .isEqualTo(AccountLedger.Result.UNKNOWN_ACCOUNT);
+    }
+    assertThat(accountLedger.getBalance("user")).isEqualTo(400.0);
+    assertThat(accountLedger.getStock("user", "AAPL")).isEqualTo(6L);
+  }
+
+  @Test
+  void testPipelinedReservationsAfterScriptFlush() throws Exception {
+    try (LedgerPipeline pipeline = accountLedger.pipeline()) {
+      // Given, the scripts are lost as after a restart of Redis
+      redisConnection.sync().scriptFlush();
+
+      // When
+      CompletionStage<AccountLedger.Result> balance = pipeline.reserveBalance(
+        "user",
+        100
+      );
+      CompletionStage<AccountLedger.Result> stock = pipeline.reserveStock(
+        "user",
+        "AAPL",
+        4
+      );
+      pipeline.flush();
+
+      // Then
+      assertThat(result(balance)).isEqualTo(AccountLedger.Result.APPLIED);
+      assertThat(result(stock)).isEqualTo(AccountLedger.Result.APPLIED);
+
+      // The next reservations find the script again
+      CompletionStage<AccountLedger.Result> next = pipeline.reserveBalance(
+        "user",
+        100
+      );
+      pipeline.flush();
+      assertThat(result(next)).isEqualTo(AccountLedger.Result.APPLIED);
+    }
+    assertThat(accountLedger.getBalance("user")).isEqualTo(800.0);
+    assertThat(accountLedger.getStock("user", "AAPL")).isEqualTo(6L);
+  }
+
+  private static AccountLedger.Result result(
+    CompletionStage<AccountLedger.Result> result
+  ) throws Exception {
+    return result.toCompletableFuture().get(5, TimeUnit.SECONDS);
+  }
+}